@@ -0,0 +1,102 @@
+package com.example.AirbnbDemo.saga;
+
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one saga hop: serialize on the publisher, deserialize on the consumer and
+ * pull the booking fields out in the handler.
+ *
+ * {@code legacyJson} is the previous path — {@code Map<String,Object>} payload through
+ * Jackson, then {@code Long.parseLong}/{@code LocalDate.parse} per field in the handlers.
+ * {@code codec} is {@link SagaEventCodec} with the typed {@link BookingSagaPayload}.
+ * Add {@code -prof gc} to see bytes allocated per operation alongside the timings.
+ *
+ * Run: ./gradlew jmh -Pjmh.includes=SagaEventCodecBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SagaEventCodecBenchmark {
+
+    private ObjectMapper objectMapper;
+    private SagaEventCodec codec;
+    private LegacySagaEvent legacyEvent;
+    private SagaEvent sagaEvent;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = JsonMapper.builder().build();
+        codec = new SagaEventCodec(objectMapper);
+
+        legacyEvent = new LegacySagaEvent();
+        legacyEvent.sagaId = "7d4c1d4e-0c8e-4b8a-9a43-2f1b7f0a9e11";
+        legacyEvent.eventType = "BOOKING_CONFIRM_REQUESTED";
+        legacyEvent.step = "CONFIRM_BOOKING";
+        legacyEvent.status = SagaStatus.PENDING;
+        legacyEvent.timestamp = LocalDateTime.of(2025, 1, 1, 10, 15, 30);
+        legacyEvent.payload = Map.of(
+                "bookingId", "42",
+                "airbnbId", "7",
+                "userId", 3L,
+                "checkInDate", "2025-01-01",
+                "checkOutDate", "2025-01-05");
+
+        sagaEvent = SagaEvent.builder()
+                .sagaId(legacyEvent.sagaId)
+                .eventType(legacyEvent.eventType)
+                .step(legacyEvent.step)
+                .status(SagaStatus.PENDING)
+                .timestamp(System.currentTimeMillis())
+                .payload(BookingSagaPayload.of(42L, 7L, 3L, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 5)))
+                .build();
+    }
+
+    @Benchmark
+    public long legacyJson() {
+        String wire = objectMapper.writeValueAsString(legacyEvent);
+        LegacySagaEvent decoded = objectMapper.readValue(wire, LegacySagaEvent.class);
+        Map<String, Object> payload = decoded.payload;
+        long bookingId = Long.parseLong(payload.get("bookingId").toString());
+        long airbnbId = Long.parseLong(payload.get("airbnbId").toString());
+        long userId = Long.parseLong(payload.get("userId").toString());
+        LocalDate checkInDate = LocalDate.parse(payload.get("checkInDate").toString());
+        LocalDate checkOutDate = LocalDate.parse(payload.get("checkOutDate").toString());
+        return bookingId + airbnbId + userId + checkInDate.toEpochDay() + checkOutDate.minusDays(1).toEpochDay();
+    }
+
+    @Benchmark
+    public long codec() {
+        String wire = codec.encode(sagaEvent);
+        BookingSagaPayload payload = codec.decode(wire).getPayload();
+        return payload.bookingId() + payload.airbnbId() + payload.userId()
+                + payload.checkInDate().toEpochDay() + payload.lastNight().toEpochDay();
+    }
+
+    @Benchmark
+    public int legacyJsonSize() {
+        return objectMapper.writeValueAsString(legacyEvent).length();
+    }
+
+    @Benchmark
+    public int codecSize() {
+        return codec.encode(sagaEvent).length();
+    }
+
+    // Shape of SagaEvent before the typed payload
+    public static class LegacySagaEvent {
+        public String sagaId;
+        public String eventType;
+        public String step;
+        public Map<String, Object> payload;
+        public LocalDateTime timestamp;
+        public SagaStatus status;
+        public int attempt;
+    }
+}
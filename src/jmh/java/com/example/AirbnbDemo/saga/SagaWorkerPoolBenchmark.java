@@ -0,0 +1,62 @@
+package com.example.AirbnbDemo.saga;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Saga throughput as a function of worker count.
+ *
+ * Each event simulates a handler that spends {@code handlerMicros} waiting on the
+ * database, spread over {@code listings} distinct partition keys. With one worker this is
+ * the old single-poller behaviour (minus the 500 ms tick); throughput should grow close
+ * to linearly with workers until the number of hot listings becomes the limit.
+ *
+ * Run: ./gradlew jmh -Pjmh.includes=SagaWorkerPoolBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SagaWorkerPoolBenchmark {
+
+    private static final int EVENTS_PER_INVOCATION = 1_000;
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int workers;
+
+    @Param({"64"})
+    public int listings;
+
+    @Param({"500"})
+    public long handlerMicros;
+
+    private SagaWorkerPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new SagaWorkerPool("bench-worker", workers, EVENTS_PER_INVOCATION);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown(Duration.ofSeconds(5));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_INVOCATION)
+    public void drainBacklog() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(EVENTS_PER_INVOCATION);
+        long handlerNanos = TimeUnit.MICROSECONDS.toNanos(handlerMicros);
+        for (int i = 0; i < EVENTS_PER_INVOCATION; i++) {
+            String airbnbId = Integer.toString(i % listings);
+            pool.submit(airbnbId, () -> {
+                LockSupport.parkNanos(handlerNanos);
+                done.countDown();
+            });
+        }
+        done.await();
+    }
+}
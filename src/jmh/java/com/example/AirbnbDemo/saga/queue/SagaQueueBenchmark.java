@@ -0,0 +1,109 @@
+package com.example.AirbnbDemo.saga.queue;
+
+import com.example.AirbnbDemo.configurations.RedisConfig;
+import com.example.AirbnbDemo.saga.SagaEventPublisher;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publish-and-drain throughput of the saga transports against a real Redis on
+ * localhost:6379 (the keys used are deleted before each trial).
+ *
+ * Every invocation publishes a backlog of events and drains it through poll + ack the
+ * way {@code SagaEventConsumer}'s dispatcher does. Each poll takes one round trip per
+ * lane for up to the lane weights' worth of events (LPOP count, the reliable move script,
+ * or XREADGROUP COUNT); acks cost one round trip per event except in simple mode.
+ *
+ * Run: ./gradlew jmh -Pjmh.includes=SagaQueueBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SagaQueueBenchmark {
+
+    private static final int EVENTS_PER_INVOCATION = 2_000;
+    private static final String EVENT =
+            "S1|bench|BOOKING_CONFIRMED|CONFIRM_BOOKING|PENDING|0|1773273600000|1|1|1|20524|20527";
+
+    @Param({"simple", "reliable", "stream"})
+    public String mode;
+
+    @Param({"50"})
+    public int batchSize;
+
+    private LettuceConnectionFactory connectionFactory;
+    private SagaQueue queue;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        connectionFactory = new LettuceConnectionFactory("localhost", 6379);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        RedisTemplate<String,String> redisTemplate = new RedisConfig().redisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        SagaLanes lanes = new SagaLanes();
+        DirectFieldAccessor laneFields = new DirectFieldAccessor(lanes);
+        laneFields.setPropertyValue("weights", "urgent:" + (batchSize * 4 / 5) + ",default:" + (batchSize / 5));
+        laneFields.setPropertyValue("routes", "");
+        lanes.init();
+        for (SagaLanes.Lane lane : lanes.lanes()) {
+            redisTemplate.delete(List.of(SagaLanes.key(SagaEventPublisher.SAGA_QUEUE, lane.name()),
+                    SagaLanes.key(StreamSagaQueue.SAGA_STREAM, lane.name()),
+                    SagaLanes.key(ReliableSagaQueue.PROCESSING_PREFIX + "bench", lane.name()),
+                    SagaLanes.key(ReliableSagaQueue.PROCESSING_PREFIX + "bench", lane.name()) + ":deadlines"));
+        }
+
+        queue = switch (mode) {
+            case "simple" -> new SimpleSagaQueue(redisTemplate, lanes);
+            case "reliable" -> {
+                ReliableSagaQueue reliable = new ReliableSagaQueue(redisTemplate, lanes);
+                DirectFieldAccessor fields = new DirectFieldAccessor(reliable);
+                fields.setPropertyValue("consumerId", "bench");
+                fields.setPropertyValue("visibilityTimeoutMs", 120_000L);
+                fields.setPropertyValue("heartbeatTtlMs", 30_000L);
+                fields.setPropertyValue("laneBlockMs", 100L);
+                reliable.recoverInFlight();
+                yield reliable;
+            }
+            case "stream" -> {
+                StreamSagaQueue stream = new StreamSagaQueue(redisTemplate, lanes);
+                DirectFieldAccessor fields = new DirectFieldAccessor(stream);
+                fields.setPropertyValue("group", "bench");
+                fields.setPropertyValue("consumerId", "bench");
+                fields.setPropertyValue("batchSize", batchSize);
+                fields.setPropertyValue("visibilityTimeoutMs", 120_000L);
+                fields.setPropertyValue("claimIntervalMs", Long.MAX_VALUE / 2);
+                stream.createGroup();
+                yield stream;
+            }
+            default -> throw new IllegalArgumentException("Unknown mode " + mode);
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_INVOCATION)
+    public int publishAndDrain() {
+        for (int i = 0; i < EVENTS_PER_INVOCATION; i++) {
+            queue.publish(SagaLanes.DEFAULT_LANE, EVENT);
+        }
+        int drained = 0;
+        while (drained < EVENTS_PER_INVOCATION) {
+            for (SagaMessage message : queue.poll(Duration.ofMillis(100))) {
+                queue.ack(message);
+                drained++;
+            }
+        }
+        return drained;
+    }
+}
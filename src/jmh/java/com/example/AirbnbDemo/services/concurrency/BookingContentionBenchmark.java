@@ -0,0 +1,119 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import com.example.AirbnbDemo.AirbnbDemoApplication;
+import com.example.AirbnbDemo.models.Airbnb;
+import com.example.AirbnbDemo.models.Availability;
+import com.example.AirbnbDemo.repository.writes.AirbnbRepository;
+import com.example.AirbnbDemo.repository.writes.AvailabilityRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking-lock throughput under contention, per {@code booking.concurrency.strategy}.
+ *
+ * Boots the application (no web server, Kafka listeners off) against the local MySQL and
+ * Redis from application.properties, provisions {@code listings} throw-away listings with
+ * {@value #DAYS} open nights each, and has every benchmark thread try to take a random
+ * 1–5 night stay and give it back, inside a transaction as {@code createBooking} does.
+ * {@code listings=1} puts every thread on the same calendar.
+ *
+ * The {@code acquired}/{@code conflicts} counters show how many attempts won versus were
+ * turned away: the range lock only rejects identical stays (overlaps are left to the DB
+ * count), the night lock, the optimistic claim and the SKIP LOCKED rows reject every overlap.
+ * Throughput and sample-time (p99) are both reported; {@code listings=1} is the hot listing.
+ *
+ * Run: ./gradlew jmh -Pjmh.includes=BookingContentionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class BookingContentionBenchmark {
+
+    private static final int DAYS = 60;
+
+    @Param({"range", "night", "optimistic", "pessimistic"})
+    public String strategy;
+
+    @Param({"1", "16"})
+    public int listings;
+
+    private ConfigurableApplicationContext context;
+    private ConcurrencyControlStrategy concurrencyControlStrategy;
+    private TransactionTemplate transactionTemplate;
+    private final List<Long> airbnbIds = new ArrayList<>();
+    private LocalDate firstNight;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcome {
+        public long acquired;
+        public long conflicts;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(AirbnbDemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "booking.concurrency.strategy=" + strategy,
+                        "spring.kafka.listener.auto-startup=false",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+        concurrencyControlStrategy = context.getBean(ConcurrencyControlStrategy.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        AirbnbRepository airbnbRepository = context.getBean(AirbnbRepository.class);
+        AvailabilityRepository availabilityRepository = context.getBean(AvailabilityRepository.class);
+        firstNight = LocalDate.now().plusDays(1);
+        for (int i = 0; i < listings; i++) {
+            Airbnb airbnb = airbnbRepository.save(Airbnb.builder()
+                    .name("bench-" + i)
+                    .pricePerNight(100L)
+                    .location("bench")
+                    .build());
+            List<Availability> nights = new ArrayList<>(DAYS);
+            for (int day = 0; day < DAYS; day++) {
+                nights.add(Availability.builder().airbnb(airbnb).date(firstNight.plusDays(day)).build());
+            }
+            availabilityRepository.saveAll(nights);
+            airbnbIds.add(airbnb.getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        AirbnbRepository airbnbRepository = context.getBean(AirbnbRepository.class);
+        transactionTemplate.executeWithoutResult(status -> airbnbRepository.deleteAllById(airbnbIds));
+        context.close();
+    }
+
+    @Benchmark
+    public void bookRandomStay(Outcome outcome) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long airbnbId = airbnbIds.get(random.nextInt(listings));
+        LocalDate checkIn = firstNight.plusDays(random.nextInt(DAYS - 5));
+        LocalDate lastNight = checkIn.plusDays(random.nextInt(5));
+        Long userId = random.nextLong(1, Long.MAX_VALUE);
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    concurrencyControlStrategy.lockAndCheckAvailability(airbnbId, checkIn, lastNight, userId));
+        } catch (RuntimeException e) {
+            outcome.conflicts++;
+            return;
+        }
+        outcome.acquired++;
+        concurrencyControlStrategy.releaseBookingLock(airbnbId, checkIn, lastNight, userId);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.AirbnbDemo.calendar;
+
+import com.example.AirbnbDemo.repository.reads.RedisWriteRepository;
+import com.example.AirbnbDemo.repository.writes.AirbnbRepository;
+import com.example.AirbnbDemo.repository.writes.AvailabilityBatchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps {@code availabilities} to the nights that still matter: nights more than
+ * {@code retention-days} in the past are moved into {@code availability_archives} (a bitmap
+ * per listing and year) and trimmed from the Redis hash and calendar, and the lock fences of
+ * stays that ended by then are dropped. Listings are walked in
+ * keyset chunks; each transaction archives at most {@code batch-size} nights, so row locks are
+ * held for one small batch, and the job pauses {@code pause-ms} between batches to leave room
+ * for bookings and replication.
+ *
+ * Archiving is idempotent — rows are locked before they are merged and deleted, and a merge
+ * ORs bits in — so no run lock is needed; a second node running at the same time only finds
+ * less to do.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilityArchiver {
+
+    @Value("${availability.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${availability.archive.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${availability.archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${availability.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${availability.archive.pause-ms:50}")
+    private long pauseMs;
+
+    private final AirbnbRepository airbnbRepository;
+    private final AvailabilityBatchRepository availabilityBatchRepository;
+    private final RedisWriteRepository redisWriteRepository;
+
+    @Scheduled(cron = "${availability.archive.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (!enabled) return;
+        try {
+            run(LocalDate.now());
+        } catch (Exception e) {
+            // Every committed batch is archived and trimmed; the next run picks up the rest
+            log.error("Availability archiver stopped: {}", e.getMessage(), e);
+        }
+    }
+
+    /** Archives every night before {@code today − retention-days}; returns how many. */
+    public long run(LocalDate today) {
+        LocalDate cutoff = today.minusDays(retentionDays);
+        long archived = 0;
+        long lastId = 0;
+        List<Long> ids;
+        do {
+            ids = airbnbRepository.findIdsAfter(lastId, Limit.of(chunkSize));
+            if (ids.isEmpty()) break;
+            archived += archiveChunk(ids, cutoff);
+            lastId = ids.getLast();
+        } while (ids.size() == chunkSize);
+        int fences = pruneLockFences(cutoff);
+        log.info("Availability archiver done: {} nights before {} archived, {} lock fences dropped", archived, cutoff, fences);
+        return archived;
+    }
+
+    // Fence rows only matter while a booking of their dates can still be confirmed
+    private int pruneLockFences(LocalDate cutoff) {
+        int pruned = 0;
+        int deleted;
+        do {
+            deleted = availabilityBatchRepository.deleteLockFencesBefore(cutoff, batchSize);
+            pruned += deleted;
+            if (deleted == batchSize) pause();
+        } while (deleted == batchSize);
+        return pruned;
+    }
+
+    private long archiveChunk(List<Long> ids, LocalDate cutoff) {
+        long archived = 0;
+        List<Long> remaining = ids;
+        while (!remaining.isEmpty()) {
+            Map<Long, List<LocalDate>> batch = availabilityBatchRepository.archiveNightsBefore(remaining, cutoff, batchSize);
+            int nights = batch.values().stream().mapToInt(List::size).sum();
+            if (nights == 0) break;
+            redisWriteRepository.deleteAvailabilities(batch);
+            archived += nights;
+            if (nights < batchSize) break;
+            // Nights come in listing order: the listings before the batch's last one are done
+            Long last = batch.keySet().stream().reduce((first, second) -> second).orElseThrow();
+            remaining = remaining.subList(remaining.indexOf(last), remaining.size());
+            pause();
+        }
+        return archived;
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) return;
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Availability archiver interrupted", e);
+        }
+    }
+}
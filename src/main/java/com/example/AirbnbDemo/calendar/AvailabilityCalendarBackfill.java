@@ -0,0 +1,59 @@
+package com.example.AirbnbDemo.calendar;
+
+import com.example.AirbnbDemo.models.readModels.AvailabilityReadModel;
+import com.example.AirbnbDemo.repository.reads.RedisReadRepository;
+import com.example.AirbnbDemo.repository.reads.RedisWriteRepository;
+import com.example.AirbnbDemo.repository.writes.AirbnbRepository;
+import com.example.AirbnbDemo.repository.writes.AvailabilityBatchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills the bitmap calendars from the database for nights that existed before CDC started
+ * writing them, then sets {@value RedisReadRepository#CALENDAR_READY_KEY}. Until then every
+ * calendar read reports a miss and callers go to the database. Listings are walked in keyset
+ * chunks; each chunk is one query and one Redis pipeline. Nights CDC already wrote are left as
+ * they are, so the backfill can run while CDC keeps the calendars current. Runs at startup only
+ * when the ready marker is missing (first deploy, or Redis was flushed).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilityCalendarBackfill {
+
+    @Value("${availability.calendar.backfill-chunk-size:200}")
+    private int chunkSize;
+
+    private final AirbnbRepository airbnbRepository;
+    private final AvailabilityBatchRepository availabilityBatchRepository;
+    private final RedisWriteRepository redisWriteRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(RedisReadRepository.CALENDAR_READY_KEY))) return;
+        long started = System.nanoTime();
+        long lastId = 0;
+        long nightsRead = 0;
+        List<Long> ids;
+        do {
+            ids = airbnbRepository.findIdsAfter(lastId, Limit.of(chunkSize));
+            if (ids.isEmpty()) break;
+            Map<Long, List<AvailabilityReadModel>> nights = availabilityBatchRepository.findNights(ids);
+            redisWriteRepository.backfillCalendarNights(nights);
+            nightsRead += nights.values().stream().mapToLong(List::size).sum();
+            lastId = ids.getLast();
+        } while (ids.size() == chunkSize);
+        redisTemplate.opsForValue().set(RedisReadRepository.CALENDAR_READY_KEY, "1");
+        log.info("Backfilled availability calendars from {} nights in {} ms", nightsRead, (System.nanoTime() - started) / 1_000_000);
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.AirbnbDemo.calendar;
+
+import com.example.AirbnbDemo.models.readModels.AvailabilityReadModel;
+import com.example.AirbnbDemo.repository.reads.RedisWriteRepository;
+import com.example.AirbnbDemo.repository.writes.AirbnbRepository;
+import com.example.AirbnbDemo.repository.writes.AvailabilityBatchRepository;
+import com.example.AirbnbDemo.repository.writes.AvailabilityRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps every listing's calendar open {@code days-ahead} nights from today. Each run walks the
+ * listings in keyset chunks of {@code chunk-size} ids; one grouped query gives each listing's
+ * last provisioned night, and only the nights after it (and not before today) are created —
+ * gaps left on purpose inside the calendar are not refilled. A chunk is split into
+ * {@code parallelism} partitions on a fixed pool; each partition inserts its nights in
+ * multi-row batches and mirrors them to Redis in one pipeline.
+ *
+ * One node runs at a time ({@value #LOCK_KEY}). After every chunk the last listing id is
+ * checkpointed in {@value #CHECKPOINT_KEY} together with the run's horizon, so a run that
+ * stopped half way — crash, deploy, lost lock — resumes after that id instead of starting over.
+ * An unfinished run is picked up at startup, and by the next cron run whatever its horizon:
+ * a later horizon carries on after the checkpoint and then sweeps the listings the cut-short
+ * run had already done, which only need the nights the horizon moved by.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RollingCalendarGenerator {
+
+    static final String LOCK_KEY = "calendar:generator:lock";
+    static final String CHECKPOINT_KEY = "calendar:generator:checkpoint";
+    static final String DONE = "done";
+
+    // Extends or deletes the run lock only for its owner
+    private static final String RENEW_SCRIPT =
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end";
+    private static final String RELEASE_SCRIPT =
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end";
+
+    private static final DefaultRedisScript<Long> RENEW_REDIS_SCRIPT = new DefaultRedisScript<>(RENEW_SCRIPT, Long.class);
+    private static final DefaultRedisScript<Long> RELEASE_REDIS_SCRIPT = new DefaultRedisScript<>(RELEASE_SCRIPT, Long.class);
+
+    @Value("${availability.generator.enabled:true}")
+    private boolean enabled;
+
+    @Value("${availability.generator.days-ahead:365}")
+    private int daysAhead;
+
+    @Value("${availability.generator.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${availability.generator.parallelism:4}")
+    private int parallelism;
+
+    // Renewed after every chunk, so it only has to outlive one chunk
+    @Value("${availability.generator.lock-ttl-seconds:300}")
+    private long lockTtlSeconds;
+
+    private final AirbnbRepository airbnbRepository;
+    private final AvailabilityRepository availabilityRepository;
+    private final AvailabilityBatchRepository availabilityBatchRepository;
+    private final RedisWriteRepository redisWriteRepository;
+    private final RedisTemplate<String,String> redisTemplate;
+
+    private final String owner = UUID.randomUUID().toString();
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newFixedThreadPool(parallelism);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(cron = "${availability.generator.cron:0 0 2 * * *}")
+    public void scheduledRun() {
+        if (!enabled) return;
+        try {
+            run(LocalDate.now());
+        } catch (Exception e) {
+            // The checkpoint holds the last finished chunk; the next run resumes after it
+            log.error("Calendar generator stopped: {}", e.getMessage(), e);
+        }
+    }
+
+    // A run cut short by a crash or deploy finishes now instead of waiting for the next cron
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        if (!enabled) return;
+        Object lastId = redisTemplate.opsForHash().get(CHECKPOINT_KEY, "lastId");
+        if (lastId == null || DONE.equals(lastId)) return;
+        log.info("Calendar generator resuming an unfinished run at startup");
+        scheduledRun();
+    }
+
+    /** Returns the number of nights created, or -1 if another node holds the run. */
+    public long run(LocalDate today) {
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, owner, Duration.ofSeconds(lockTtlSeconds));
+        if (!Boolean.TRUE.equals(acquired)) {
+            log.info("Calendar generator is running on another node");
+            return -1;
+        }
+        try {
+            LocalDate horizon = today.plusDays(daysAhead - 1);
+            Map<Object, Object> checkpoint = redisTemplate.opsForHash().entries(CHECKPOINT_KEY);
+            boolean sameHorizon = horizon.toString().equals(checkpoint.get("horizon"));
+            Object checkpointedId = checkpoint.get("lastId");
+            // The walk runs from start to the last listing, then sweeps the listings up to start
+            long start;
+            long lastId;
+            if (checkpointedId == null || DONE.equals(checkpointedId)) {
+                if (sameHorizon) return 0;
+                start = 0;
+                lastId = 0;
+            } else if (sameHorizon) {
+                start = Long.parseLong((String) checkpoint.getOrDefault("start", "0"));
+                lastId = Long.parseLong((String) checkpointedId);
+                log.info("Calendar generator resuming after listing {} (horizon {})", lastId, horizon);
+            } else {
+                // Cut short under an earlier horizon: the listings it did only lack the nights the horizon moved by
+                start = Long.parseLong((String) checkpointedId);
+                lastId = start;
+                log.info("Calendar generator continuing an unfinished run after listing {} (horizon {} → {})",
+                        lastId, checkpoint.get("horizon"), horizon);
+            }
+
+            long created = 0;
+            while (true) {
+                boolean sweep = lastId < start;
+                List<Long> ids = airbnbRepository.findIdsAfter(lastId, Limit.of(chunkSize));
+                boolean passDone = ids.size() < chunkSize;
+                if (sweep && !ids.isEmpty() && ids.getLast() >= start) {
+                    long end = start;
+                    ids = ids.stream().filter(id -> id <= end).toList();
+                    passDone = true;
+                }
+                if (!ids.isEmpty()) {
+                    created += generateChunk(ids, today, horizon);
+                    lastId = ids.getLast();
+                }
+                if (passDone && (sweep || start == 0)) break;
+                if (passDone) lastId = 0;
+                checkpoint(horizon, start, String.valueOf(lastId));
+                if (!renewLock()) {
+                    log.warn("Calendar generator lost its lock after listing {}, stopping", lastId);
+                    return created;
+                }
+            }
+            checkpoint(horizon, start, DONE);
+            log.info("Calendar generator done: {} nights created up to {}", created, horizon);
+            return created;
+        } finally {
+            redisTemplate.execute(RELEASE_REDIS_SCRIPT, List.of(LOCK_KEY), owner);
+        }
+    }
+
+    private long generateChunk(List<Long> ids, LocalDate today, LocalDate horizon) {
+        Map<Long, LocalDate> lastNights = availabilityRepository.findLastNights(ids).stream()
+                .collect(Collectors.toMap(AvailabilityRepository.LastNight::getAirbnbId, AvailabilityRepository.LastNight::getLastNight));
+        Map<Long, List<LocalDate>> missing = new LinkedHashMap<>();
+        for (Long id : ids) {
+            LocalDate last = lastNights.get(id);
+            LocalDate first = last == null || last.isBefore(today) ? today : last.plusDays(1);
+            if (!first.isAfter(horizon)) missing.put(id, first.datesUntil(horizon.plusDays(1)).toList());
+        }
+        if (missing.isEmpty()) return 0;
+
+        // Partition by listing: every listing's nights stay in one partition
+        List<Map<Long, List<LocalDate>>> partitions = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) partitions.add(new LinkedHashMap<>());
+        int next = 0;
+        for (Map.Entry<Long, List<LocalDate>> listing : missing.entrySet()) {
+            partitions.get(next++ % parallelism).put(listing.getKey(), listing.getValue());
+        }
+        List<CompletableFuture<Integer>> futures = partitions.stream()
+                .filter(partition -> !partition.isEmpty())
+                .map(partition -> CompletableFuture.supplyAsync(() -> generatePartition(partition), executor))
+                .toList();
+        // join() rethrows the first failure: the chunk is not checkpointed and is retried next run
+        return futures.stream().mapToLong(CompletableFuture::join).sum();
+    }
+
+    private int generatePartition(Map<Long, List<LocalDate>> nightsByListing) {
+        int created = availabilityBatchRepository.insertOpenNights(nightsByListing);
+        // Adds only nights the calendar does not have: one someone else created meanwhile keeps its state
+        Map<Long, List<AvailabilityReadModel>> models = new LinkedHashMap<>();
+        nightsByListing.forEach((airbnbId, nights) -> models.put(airbnbId, nights.stream()
+                .map(night -> AvailabilityReadModel.builder()
+                        .airbnbId(airbnbId)
+                        .date(night.toString())
+                        .isAvailable(true)
+                        .build())
+                .toList()));
+        redisWriteRepository.backfillCalendarNights(models);
+        return created;
+    }
+
+    private void checkpoint(LocalDate horizon, long start, String lastId) {
+        redisTemplate.opsForHash().putAll(CHECKPOINT_KEY,
+                Map.of("horizon", horizon.toString(), "start", String.valueOf(start), "lastId", lastId));
+    }
+
+    private boolean renewLock() {
+        Long renewed = redisTemplate.execute(RENEW_REDIS_SCRIPT, List.of(LOCK_KEY), owner,
+                String.valueOf(Duration.ofSeconds(lockTtlSeconds).toMillis()));
+        return renewed != null && renewed == 1;
+    }
+}
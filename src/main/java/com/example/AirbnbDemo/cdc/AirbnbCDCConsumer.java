@@ -2,10 +2,10 @@ package com.example.AirbnbDemo.cdc;
 
 import com.example.AirbnbDemo.mapper.AirbnbMapper;
 import com.example.AirbnbDemo.models.readModels.AirbnbReadModel;
-import com.example.AirbnbDemo.repository.reads.RedisReadRepository;
+import com.example.AirbnbDemo.repository.reads.RedisWriteRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 import tools.jackson.databind.JsonNode;
@@ -16,7 +16,11 @@ import tools.jackson.databind.ObjectMapper;
 @Slf4j
 public class AirbnbCDCConsumer {
 
-    private final RedisTemplate<String, String> redisTemplate;
+    // Coalesce this consumer's Redis writes in the shared write buffer (flushed by size and interval)
+    @Value("${redis.write-buffer.cdc:false}")
+    private boolean bufferWrites;
+
+    private final RedisWriteRepository redisWriteRepository;
     private final ObjectMapper objectMapper;
 
     @KafkaListener(topics = "airbnb.airbnbspringdemo.airbnbs", groupId = "airbnb-cdc-group")
@@ -29,18 +33,15 @@ public class AirbnbCDCConsumer {
             boolean deleted = "true".equals(payload.path("__deleted").stringValue());
 
             if (deleted) {
-                String id = String.valueOf(payload.path("id").longValue());
-                redisTemplate.delete(RedisReadRepository.AIRBNB_KEY_PREFIX + id);
+                Long id = payload.path("id").longValue();
+                redisWriteRepository.deleteAirbnb(id, bufferWrites);
                 log.info("CDC deleted airbnb {} from Redis", id);
                 return;
             }
 
             AirbnbReadModel model = AirbnbMapper.toReadModelFromCDC(payload);
 
-            redisTemplate.opsForValue().set(
-                    RedisReadRepository.AIRBNB_KEY_PREFIX + model.getId(),
-                    objectMapper.writeValueAsString(model)
-            );
+            redisWriteRepository.writeAirbnbModel(model, bufferWrites);
             log.info("CDC synced airbnb {} to Redis", model.getId());
 
         } catch (Exception e) {
@@ -2,10 +2,10 @@ package com.example.AirbnbDemo.cdc;
 
 import com.example.AirbnbDemo.mapper.AvailabilityMapper;
 import com.example.AirbnbDemo.models.readModels.AvailabilityReadModel;
-import com.example.AirbnbDemo.repository.reads.RedisReadRepository;
+import com.example.AirbnbDemo.repository.reads.RedisWriteRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 import tools.jackson.databind.JsonNode;
@@ -19,7 +19,11 @@ import java.time.LocalDate;
 @Slf4j
 public class AvailabilityCDCConsumer {
 
-    private final RedisTemplate<String, String> redisTemplate;
+    // Coalesce this consumer's Redis writes in the shared write buffer (flushed by size and interval)
+    @Value("${redis.write-buffer.cdc:false}")
+    private boolean bufferWrites;
+
+    private final RedisWriteRepository redisWriteRepository;
     private final ObjectMapper objectMapper;
 
     @KafkaListener(topics = "airbnb.airbnbspringdemo.availabilities", groupId = "airbnb-cdc-group")
@@ -30,20 +34,19 @@ public class AvailabilityCDCConsumer {
             JsonNode payload = root.path("payload");
 
             boolean deleted = "true".equals(payload.path("__deleted").stringValue());
-            if (deleted) {
-                log.info("CDC availability delete event received");
-                return;
-            }
             Long airbnbId = payload.path("airbnb_id").longValue();
             // ← Debezium stores date as epoch days (integer), convert to LocalDate string
             int epochDays = payload.path("date").intValue();
             String date = LocalDate.ofEpochDay(epochDays).toString(); // → "2026-02-25"
+            if (deleted) {
+                // Archived (or removed) night: drop it from the hash and the calendar
+                redisWriteRepository.deleteAvailability(airbnbId, LocalDate.ofEpochDay(epochDays), bufferWrites);
+                log.info("CDC removed availability for airbnb {} date {}", airbnbId, date);
+                return;
+            }
             AvailabilityReadModel model = AvailabilityMapper.toReadModelFromCDC(airbnbId,date,payload);
-            redisTemplate.opsForHash().put(
-                    RedisReadRepository.AVAILABILITY_AIRBNB_PREFIX + airbnbId,
-                    date,
-                    objectMapper.writeValueAsString(model)
-            );
+            // Per-date JSON hash and the bitmap calendar
+            redisWriteRepository.writeAvailabilityModel(model, bufferWrites);
             log.info("CDC synced availability for airbnb {} date {}", airbnbId, date);
 
         } catch (Exception e) {
@@ -2,10 +2,10 @@ package com.example.AirbnbDemo.cdc;
 
 import com.example.AirbnbDemo.mapper.BookingMapper;
 import com.example.AirbnbDemo.models.readModels.BookingReadModel;
-import com.example.AirbnbDemo.repository.reads.RedisReadRepository;
+import com.example.AirbnbDemo.repository.reads.RedisWriteRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 import tools.jackson.databind.JsonNode;
@@ -16,7 +16,11 @@ import tools.jackson.databind.ObjectMapper;
 @Slf4j
 public class BookingCDCConsumer {
 
-    private final RedisTemplate<String, String> redisTemplate;
+    // Coalesce this consumer's Redis writes in the shared write buffer (flushed by size and interval)
+    @Value("${redis.write-buffer.cdc:false}")
+    private boolean bufferWrites;
+
+    private final RedisWriteRepository redisWriteRepository;
     private final ObjectMapper objectMapper;
 
     @KafkaListener(topics = "airbnb.airbnbspringdemo.bookings", groupId = "airbnb-cdc-group")
@@ -34,13 +38,9 @@ public class BookingCDCConsumer {
             Long id = payload.path("id").longValue();
             String idempotencyKey = payload.path("idempotency_key").stringValue();
             BookingReadModel model = BookingMapper.ToReadModelFromCDC(id,idempotencyKey,payload);
-            redisTemplate.opsForValue().set(
-                    RedisReadRepository.BOOKING_KEY_PREFIX + id,
-                    objectMapper.writeValueAsString(model)
-            );
+            // The booking and its idempotency key (when it has one) in one MSET
+            redisWriteRepository.writeBookingModel(model, bufferWrites);
             if (idempotencyKey != null && !idempotencyKey.isBlank()) {
-                redisTemplate.opsForValue().set(
-                        RedisReadRepository.IDEMPOTENCY_KEY_PREFIX + idempotencyKey, id.toString());
                 log.info("CDC stored idempotency key {} → booking {}", idempotencyKey, id);
             }
             log.info("CDC synced booking {} to Redis", id);
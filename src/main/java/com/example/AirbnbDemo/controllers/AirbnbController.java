@@ -3,16 +3,20 @@ package com.example.AirbnbDemo.controllers;
 
 import com.example.AirbnbDemo.mapper.AirbnbMapper;
 import com.example.AirbnbDemo.dtos.AirbnbDTO;
+import com.example.AirbnbDemo.dtos.AirbnbPageDTO;
 import com.example.AirbnbDemo.dtos.CreateAirbnbDTO;
 import com.example.AirbnbDemo.models.readModels.AirbnbReadModel;
 import com.example.AirbnbDemo.services.AirbnbService;
+import com.example.AirbnbDemo.services.IExportService;
+import com.example.AirbnbDemo.services.export.ExportFormat;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 @RestController
 @RequestMapping("/api/airbnb")
@@ -20,6 +24,10 @@ import java.util.List;
 public class AirbnbController {
 
     private final AirbnbService airbnbService;
+    private final IExportService exportService;
+
+    @Value("${export.timeout-ms:1800000}")
+    private long exportTimeoutMs;
 
     @PostMapping
     public ResponseEntity<AirbnbDTO> create(@Valid @RequestBody CreateAirbnbDTO dto) {
@@ -32,9 +40,19 @@ public class AirbnbController {
         return ResponseEntity.ok(airbnb);
     }
 
+    // Keyset pages in id order; pass the previous page's nextCursor as ?after=
     @GetMapping
-    public ResponseEntity<List<AirbnbReadModel>> getAllAirbnbs() {
-        return ResponseEntity.ok(airbnbService.getAllAirbnbs());
+    public ResponseEntity<AirbnbPageDTO> getAirbnbs(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(airbnbService.getAirbnbs(after, limit));
+    }
+
+    // The whole collection, streamed as it is read: ?format=ndjson (default) or csv
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportAirbnbs(@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response) {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        return ExportResponses.download(response, exportFormat, "airbnbs", exportTimeoutMs, exportService.exportAirbnbs(exportFormat));
     }
 
 
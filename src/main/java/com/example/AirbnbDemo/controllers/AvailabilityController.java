@@ -2,16 +2,21 @@ package com.example.AirbnbDemo.controllers;
 
 import com.example.AirbnbDemo.mapper.AvailabilityMapper;
 import com.example.AirbnbDemo.dtos.AvailabilityDTO;
+import com.example.AirbnbDemo.dtos.AvailabilityRangeDTO;
 import com.example.AirbnbDemo.dtos.CreateAvailabilityDTO;
+import com.example.AirbnbDemo.dtos.ProvisionAvailabilityDTO;
+import com.example.AirbnbDemo.dtos.ProvisionResultDTO;
 import com.example.AirbnbDemo.models.readModels.AvailabilityReadModel;
 import com.example.AirbnbDemo.services.IAvailabilityService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -29,10 +34,31 @@ public class AvailabilityController {
         return ResponseEntity.status(HttpStatus.CREATED).body(AvailabilityMapper.toDTO(availabilityService.createAvailability(dto)));
     }
 
+    // A listing's calendar for one or more date ranges in a single call
+    @PostMapping("/bulk")
+    public ResponseEntity<ProvisionResultDTO> provision(@Valid @RequestBody ProvisionAvailabilityDTO dto) {
+        log.info("Request to provision availability for airbnb {} over {} range(s)", dto.getAirbnbId(), dto.getRanges().size());
+        return ResponseEntity.status(HttpStatus.CREATED).body(availabilityService.provisionAvailability(dto));
+    }
+
 
 
     @GetMapping("/airbnb")
     public ResponseEntity<List<AvailabilityReadModel>> getAllAirbnbs(@RequestParam Long airbnbId) {
         return ResponseEntity.ok(availabilityService.checkAvailability(airbnbId));
     }
+
+    // One year from the bitmap calendar — a single Redis round trip
+    @GetMapping("/airbnb/calendar")
+    public ResponseEntity<List<AvailabilityReadModel>> getCalendar(@RequestParam Long airbnbId, @RequestParam int year) {
+        return ResponseEntity.ok(availabilityService.checkAvailability(airbnbId, year));
+    }
+
+    // "Is from..to free?" without downloading the calendar — one Redis script call
+    @GetMapping("/range")
+    public ResponseEntity<AvailabilityRangeDTO> checkRange(@RequestParam Long airbnbId,
+                                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(availabilityService.checkRange(airbnbId, from, to));
+    }
 }
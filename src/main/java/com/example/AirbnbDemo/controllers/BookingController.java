@@ -2,16 +2,22 @@ package com.example.AirbnbDemo.controllers;
 
 import com.example.AirbnbDemo.mapper.BookingMapper;
 import com.example.AirbnbDemo.dtos.BookingDTO;
+import com.example.AirbnbDemo.dtos.BookingPageDTO;
 import com.example.AirbnbDemo.dtos.CreateBookingDTO;
 import com.example.AirbnbDemo.dtos.UpdateBookingRequest;
 import com.example.AirbnbDemo.models.Booking;
 import com.example.AirbnbDemo.models.readModels.BookingReadModel;
 import com.example.AirbnbDemo.services.IBookingService;
+import com.example.AirbnbDemo.services.IExportService;
+import com.example.AirbnbDemo.services.export.ExportFormat;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import java.util.List;
 
@@ -21,6 +27,10 @@ import java.util.List;
 public class BookingController {
 
     private final IBookingService bookingService;
+    private final IExportService exportService;
+
+    @Value("${export.timeout-ms:1800000}")
+    private long exportTimeoutMs;
 
 
     @PostMapping
@@ -43,9 +53,19 @@ public class BookingController {
     }
 
 
+    // Keyset pages in id order; pass the previous page's nextCursor as ?after=
     @GetMapping
-    public ResponseEntity<List<BookingReadModel>> getAllBookings() {
-        return ResponseEntity.ok(bookingService.getAllBookings());
+    public ResponseEntity<BookingPageDTO> getBookings(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(bookingService.getBookings(after, limit));
+    }
+
+    // The whole collection, streamed as it is read: ?format=ndjson (default) or csv
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportBookings(@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response) {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        return ExportResponses.download(response, exportFormat, "bookings", exportTimeoutMs, exportService.exportBookings(exportFormat));
     }
 
     @GetMapping("/user")
@@ -0,0 +1,28 @@
+package com.example.AirbnbDemo.controllers;
+
+import com.example.AirbnbDemo.services.export.ExportFormat;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Runs an export as its own async task, so the long timeout applies to the export requests only
+ * and every other async endpoint keeps the default. The task writes straight to the response,
+ * as Spring does for a returned {@link StreamingResponseBody}.
+ */
+final class ExportResponses {
+
+    private ExportResponses() {}
+
+    static WebAsyncTask<Void> download(HttpServletResponse response, ExportFormat format, String name,
+                                       long timeoutMs, StreamingResponseBody body) {
+        response.setContentType(format.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + format.fileName(name) + "\"");
+        return new WebAsyncTask<>(timeoutMs, () -> {
+            body.writeTo(response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
+}
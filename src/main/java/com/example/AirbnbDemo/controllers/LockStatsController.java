@@ -0,0 +1,33 @@
+package com.example.AirbnbDemo.controllers;
+
+import com.example.AirbnbDemo.dtos.HotListingDTO;
+import com.example.AirbnbDemo.dtos.LockStatsDTO;
+import com.example.AirbnbDemo.services.ILockStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/locks")
+@RequiredArgsConstructor
+public class LockStatsController {
+
+    private final ILockStatsService lockStatsService;
+
+    // Latency per strategy call and outcome, plus booking-lock hold times, on this node
+    @GetMapping("/stats")
+    public ResponseEntity<LockStatsDTO> getLockStats() {
+        return ResponseEntity.ok(lockStatsService.getStats());
+    }
+
+    // Most contended listings over the sliding window, by refused lock acquisitions
+    @GetMapping("/hot")
+    public ResponseEntity<List<HotListingDTO>> getHotListings(@RequestParam(defaultValue = "10") int top) {
+        return ResponseEntity.ok(lockStatsService.getHotListings(top));
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.AirbnbDemo.controllers;
+
+import com.example.AirbnbDemo.dtos.SagaQueueStatsDTO;
+import com.example.AirbnbDemo.services.ISagaQueueService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/saga")
+@RequiredArgsConstructor
+public class SagaQueueController {
+
+    private final ISagaQueueService sagaQueueService;
+
+    // Backlog, unacknowledged (pending) and parked-for-retry counts of the saga transport
+    @GetMapping("/queue")
+    public ResponseEntity<SagaQueueStatsDTO> getQueueStats() {
+        return ResponseEntity.ok(sagaQueueService.getStats());
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.AirbnbDemo.controllers;
+
+import com.example.AirbnbDemo.dtos.ListingSearchResultDTO;
+import com.example.AirbnbDemo.dtos.NearbySearchResultDTO;
+import com.example.AirbnbDemo.services.ISearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/search")
+@ConditionalOnProperty(name = "search.index.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final ISearchService searchService;
+
+    // Listings free from..to (inclusive), optionally in one location and under a price, from this node's memory
+    @GetMapping("/listings")
+    public ResponseEntity<ListingSearchResultDTO> searchListings(
+            @RequestParam(required = false) String location,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long maxPrice,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(searchService.searchListings(location, from, to, maxPrice, limit));
+    }
+
+    // Listings within radiusKm of (lat, lon), nearest first; from/to (together) also require those nights free
+    @GetMapping("/nearby")
+    public ResponseEntity<NearbySearchResultDTO> searchNearby(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam double radiusKm,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long maxPrice,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String after) {
+        return ResponseEntity.ok(searchService.searchNearby(lat, lon, radiusKm, from, to, maxPrice, limit, after));
+    }
+}
@@ -1,16 +1,17 @@
 package com.example.AirbnbDemo.controllers;
 
+import com.example.AirbnbDemo.saga.BookingSagaPayload;
 import com.example.AirbnbDemo.saga.SagaEvent;
+import com.example.AirbnbDemo.saga.SagaEventCodec;
 import com.example.AirbnbDemo.saga.SagaStatus;
+import com.example.AirbnbDemo.saga.queue.SagaLanes;
+import com.example.AirbnbDemo.saga.queue.SagaQueue;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import tools.jackson.databind.ObjectMapper;
 
-import java.time.LocalDateTime;
-import java.util.Map;
+import java.time.LocalDate;
 import java.util.UUID;
 
 @RestController
@@ -18,9 +19,9 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class TestController {
 
-    private static final String SAGA_QUEUE = "saga:events";
-    private final RedisTemplate<String, String> redisTemplate;
-    private final ObjectMapper objectMapper;
+    private final SagaQueue sagaQueue;
+    private final SagaEventCodec sagaEventCodec;
+    private final SagaLanes sagaLanes;
 
     @PostMapping("/push-failing-event")
     public String pushFailingEvent() throws Exception {
@@ -29,12 +30,12 @@ public class TestController {
                 .eventType("TEST_FAILURE")       // ← hits the throwing case
                 .step("TEST_STEP")
                 .status(SagaStatus.PENDING)
-                .timestamp(LocalDateTime.now())
-                .payload(Map.of("bookingId", "999", "airbnbId", "1",
-                        "checkInDate", "2025-01-01", "checkOutDate", "2025-01-05"))
+                .timestamp(System.currentTimeMillis())
+                .payload(BookingSagaPayload.of(999L, 1L, 0L,
+                        LocalDate.parse("2025-01-01"), LocalDate.parse("2025-01-05")))
                 .build();
 
-        redisTemplate.opsForList().rightPush(SAGA_QUEUE, objectMapper.writeValueAsString(event));
+        sagaQueue.publish(sagaLanes.laneFor(event.getEventType()), sagaEventCodec.encode(event));
         return "Failing event pushed to saga queue with sagaId: " + event.getSagaId();
     }
 }
\ No newline at end of file
@@ -5,12 +5,17 @@ import com.example.AirbnbDemo.mapper.UserMapper;
 import com.example.AirbnbDemo.dtos.CreateUserDTO;
 import com.example.AirbnbDemo.dtos.UserDTO;
 import com.example.AirbnbDemo.models.User;
+import com.example.AirbnbDemo.services.IExportService;
 import com.example.AirbnbDemo.services.IUserService;
+import com.example.AirbnbDemo.services.export.ExportFormat;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import java.util.List;
 
@@ -20,6 +25,10 @@ import java.util.List;
 public class UserController {
 
     private final IUserService userService;
+    private final IExportService exportService;
+
+    @Value("${export.timeout-ms:1800000}")
+    private long exportTimeoutMs;
 
     @PostMapping
     public ResponseEntity<UserDTO> CreateUser(@Valid @RequestBody CreateUserDTO dto) {
@@ -47,6 +56,13 @@ public class UserController {
         return ResponseEntity.ok(userDTOList);
     }
 
+    // The whole collection, streamed as it is read: ?format=ndjson (default) or csv
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportUsers(@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response) {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        return ExportResponses.download(response, exportFormat, "users", exportTimeoutMs, exportService.exportUsers(exportFormat));
+    }
+
 
 
     @PutMapping("/{id}")
@@ -13,4 +13,6 @@ public class AirbnbDTO {
     private String description;
     private Long pricePerNight;
     private String location;
+    private Double latitude;
+    private Double longitude;
 }
@@ -0,0 +1,16 @@
+package com.example.AirbnbDemo.dtos;
+
+import com.example.AirbnbDemo.models.readModels.AirbnbReadModel;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AirbnbPageDTO {
+    private List<AirbnbReadModel> airbnbs; // ascending id
+    private String nextCursor; // pass as ?after= for the next page; null on the last page
+}
@@ -0,0 +1,19 @@
+package com.example.AirbnbDemo.dtos;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AvailabilityRangeDTO {
+    private Long airbnbId;
+    private LocalDate from;
+    private LocalDate to;                 // last night, inclusive
+    private boolean available;            // every night from..to is open and not booked
+    private List<LocalDate> blockedNights; // booked, closed or never provisioned
+}
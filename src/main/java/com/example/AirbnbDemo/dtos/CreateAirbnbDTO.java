@@ -1,5 +1,7 @@
 package com.example.AirbnbDemo.dtos;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
@@ -22,4 +24,12 @@ public class CreateAirbnbDTO {
 
     @NotBlank(message = "Location is Required")
     private String location;
+
+    @DecimalMin(value = "-90.0", message = "latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "latitude must be between -90 and 90")
+    private Double latitude; // optional, needed for /api/search/nearby
+
+    @DecimalMin(value = "-180.0", message = "longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "longitude must be between -180 and 180")
+    private Double longitude;
 }
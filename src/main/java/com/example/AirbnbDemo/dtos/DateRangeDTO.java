@@ -0,0 +1,20 @@
+package com.example.AirbnbDemo.dtos;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DateRangeDTO {
+
+    @NotNull(message = "from is Required")
+    private LocalDate from;
+
+    @NotNull(message = "to is Required")
+    private LocalDate to; // last night, inclusive
+}
@@ -0,0 +1,14 @@
+package com.example.AirbnbDemo.dtos;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class HotListingDTO {
+    private Long airbnbId;
+    private long attempts;   // booking-lock acquisitions tried in the window
+    private long conflicts;  // of which were refused
+}
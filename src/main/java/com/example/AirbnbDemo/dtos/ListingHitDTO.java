@@ -0,0 +1,15 @@
+package com.example.AirbnbDemo.dtos;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ListingHitDTO {
+    private Long id;
+    private String name;
+    private String location;
+    private Long pricePerNight;
+}
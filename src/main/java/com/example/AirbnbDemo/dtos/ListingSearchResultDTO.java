@@ -0,0 +1,16 @@
+package com.example.AirbnbDemo.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ListingSearchResultDTO {
+    private int matched;                 // all listings that match, before the limit
+    private List<ListingHitDTO> listings; // cheapest first, at most `limit`
+    private long tookMicros;             // time spent in the index on this node
+}
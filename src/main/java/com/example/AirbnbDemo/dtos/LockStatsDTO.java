@@ -0,0 +1,18 @@
+package com.example.AirbnbDemo.dtos;
+
+import lombok.*;
+
+import java.util.Map;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LockStatsDTO {
+    private String strategy;
+    private Map<String, LockTimerDTO> operations; // "<method>.<outcome>" → latency
+    private LockTimerDTO holdTime;                 // acquisition → release, locks released on this node
+    private int heldNow;                           // booking locks taken here and not yet released
+    private long longestHeldMs;
+}
@@ -0,0 +1,14 @@
+package com.example.AirbnbDemo.dtos;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LockTimerDTO {
+    private long count;
+    private double meanMs;
+    private double maxMs;
+}
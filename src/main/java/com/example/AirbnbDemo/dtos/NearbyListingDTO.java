@@ -0,0 +1,18 @@
+package com.example.AirbnbDemo.dtos;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class NearbyListingDTO {
+    private Long id;
+    private String name;
+    private String location;
+    private Long pricePerNight;
+    private Double latitude;
+    private Double longitude;
+    private double distanceKm;
+}
@@ -0,0 +1,15 @@
+package com.example.AirbnbDemo.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class NearbySearchResultDTO {
+    private List<NearbyListingDTO> listings; // nearest first
+    private String nextCursor;               // pass as ?after= for the next page; null on the last page
+}
@@ -0,0 +1,22 @@
+package com.example.AirbnbDemo.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProvisionAvailabilityDTO {
+
+    @NotNull(message = "airbnbID is Required")
+    private Long airbnbId;
+
+    @NotEmpty(message = "At least one date range is Required")
+    private List<@Valid DateRangeDTO> ranges; // may overlap, each night is created once
+}
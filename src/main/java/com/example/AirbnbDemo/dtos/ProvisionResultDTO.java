@@ -0,0 +1,15 @@
+package com.example.AirbnbDemo.dtos;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProvisionResultDTO {
+    private Long airbnbId;
+    private int requested; // distinct nights across all ranges
+    private int created;
+    private int skipped;   // already in the calendar
+}
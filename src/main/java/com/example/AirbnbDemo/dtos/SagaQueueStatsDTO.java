@@ -0,0 +1,19 @@
+package com.example.AirbnbDemo.dtos;
+
+import lombok.*;
+
+import java.util.Map;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SagaQueueStatsDTO {
+    private String mode;
+    private long backlog;         // waiting to be delivered, all lanes
+    private Map<String, Long> laneBacklog; // per lane, in priority order
+    private long inFlight;        // delivered, not yet acknowledged (pending entries for streams)
+    private long scheduledRetries;
+    private long outboxPending;   // committed, not yet relayed to the queue
+}
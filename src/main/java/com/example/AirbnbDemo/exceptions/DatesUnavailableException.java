@@ -0,0 +1,12 @@
+package com.example.AirbnbDemo.exceptions;
+
+/**
+ * The booking lock was granted but some of the nights are already booked in the DB.
+ * Answered like any other {@link RuntimeException} (400), but typed so lock metrics can
+ * count it as a conflict instead of a backend error.
+ */
+public class DatesUnavailableException extends RuntimeException {
+    public DatesUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -1,4 +1,5 @@
 package com.example.AirbnbDemo.exceptions;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -62,6 +63,34 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    // Lock held by another booking: 409 with a hint of when the holder's lease can run out
+    @ExceptionHandler(LockBusyException.class)
+    public ResponseEntity<Map<String, Object>> handleLockBusyException(LockBusyException ex) {
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfterMs() + 999) / 1000);
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("message", ex.getMessage());
+        error.put("status", HttpStatus.CONFLICT.value());
+        error.put("retryAfterMs", ex.getRetryAfterMs());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(error);
+    }
+
+    // Search index still building: the node is fine, the search just cannot be answered yet
+    @ExceptionHandler(SearchIndexUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleSearchIndexUnavailableException(SearchIndexUnavailableException ex) {
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfterMs() + 999) / 1000);
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("message", ex.getMessage());
+        error.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        error.put("retryAfterMs", ex.getRetryAfterMs());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(error);
+    }
+
     /**
      * FIX: IllegalStateException (thrown by RedisLockStrategy when lock cannot be
      * acquired) should return 409 CONFLICT, not 400 BAD_REQUEST.
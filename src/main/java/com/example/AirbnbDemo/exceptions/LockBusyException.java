@@ -0,0 +1,19 @@
+package com.example.AirbnbDemo.exceptions;
+
+import lombok.Getter;
+
+/**
+ * The booking lock for the stay is held by someone else, or the listing's wait queue did not
+ * reach this contender in time. Answered with 409 like any {@link IllegalStateException}, plus
+ * a {@code Retry-After} hint: no sooner than the holder's lease can run out, or one max wait.
+ */
+@Getter
+public class LockBusyException extends IllegalStateException {
+
+    private final long retryAfterMs;
+
+    public LockBusyException(String message, long retryAfterMs) {
+        super(message);
+        this.retryAfterMs = retryAfterMs;
+    }
+}
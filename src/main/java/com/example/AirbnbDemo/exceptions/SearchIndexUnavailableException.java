@@ -0,0 +1,18 @@
+package com.example.AirbnbDemo.exceptions;
+
+import lombok.Getter;
+
+/**
+ * This node's search index has not finished its first build. Answered with 503 and a
+ * {@code Retry-After} hint: the node is healthy and will serve the search shortly.
+ */
+@Getter
+public class SearchIndexUnavailableException extends RuntimeException {
+
+    private final long retryAfterMs;
+
+    public SearchIndexUnavailableException(String message, long retryAfterMs) {
+        super(message);
+        this.retryAfterMs = retryAfterMs;
+    }
+}
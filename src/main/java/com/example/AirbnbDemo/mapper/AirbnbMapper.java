@@ -16,6 +16,8 @@ public class AirbnbMapper {
                 .description(dto.getDescription())
                 .pricePerNight(dto.getPricePerNight())
                 .location(dto.getLocation())
+                .latitude(dto.getLatitude())
+                .longitude(dto.getLongitude())
                 .build();
     }
 
@@ -26,6 +28,8 @@ public class AirbnbMapper {
                 .description(entity.getDescription())
                 .pricePerNight(entity.getPricePerNight())
                 .location(entity.getLocation())
+                .latitude(entity.getLatitude())
+                .longitude(entity.getLongitude())
                 .build();
     }
 
@@ -36,6 +40,8 @@ public class AirbnbMapper {
                 .description(airbnb.getDescription())
                 .location(airbnb.getLocation())
                 .pricePerNight(airbnb.getPricePerNight())
+                .latitude(airbnb.getLatitude())
+                .longitude(airbnb.getLongitude())
 //                .availability(availabilityReadModel)
                 .build();
     }
@@ -47,6 +53,8 @@ public class AirbnbMapper {
                 .description(payload.path("description").stringValue()) // ← stringValue()
                 .location(payload.path("location").stringValue())       // ← stringValue()
                 .pricePerNight(payload.path("price_per_night").longValue())
+                .latitude(payload.hasNonNull("latitude") ? payload.path("latitude").doubleValue() : null)
+                .longitude(payload.hasNonNull("longitude") ? payload.path("longitude").doubleValue() : null)
                 .build();
     }
 }
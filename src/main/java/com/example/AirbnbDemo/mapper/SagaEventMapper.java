@@ -1,22 +1,20 @@
 package com.example.AirbnbDemo.mapper;
 
+import com.example.AirbnbDemo.saga.BookingSagaPayload;
 import com.example.AirbnbDemo.saga.SagaEvent;
 import com.example.AirbnbDemo.saga.SagaStatus;
 
-import java.time.LocalDateTime;
-import java.util.Map;
-
 public class SagaEventMapper {
 
     public static SagaEvent toEntity(String id,String eventType,String step,
-                                     Map<String,Object> payload
+                                     BookingSagaPayload payload
     ){
         return SagaEvent.builder()
                 .sagaId(id)
                 .eventType(eventType)
                 .step(step)
                 .payload(payload)
-                .timestamp(LocalDateTime.now())
+                .timestamp(System.currentTimeMillis())
                 .status(SagaStatus.PENDING)
                 .build();
     }
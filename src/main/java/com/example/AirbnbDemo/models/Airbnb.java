@@ -25,6 +25,11 @@ public class Airbnb extends BaseModel {
     @Column(nullable = false)
     private String location;
 
+    // WGS84 coordinates; null for listings created before geo search, which then never match a radius
+    private Double latitude;
+
+    private Double longitude;
+
     // One Airbnb can have many bookings
     @OneToMany(mappedBy = "airbnb", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
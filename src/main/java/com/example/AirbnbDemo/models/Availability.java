@@ -44,6 +44,15 @@ public class Availability {
     @Builder.Default
     private Boolean isAvailable = true;
 
+    // ── Hold (OptimisticBookingStrategy, PessimisticLockStrategy) ─
+    // Set while a pending booking's saga runs; an expired hold is free to be claimed again.
+
+    @Column(name = "held_by")
+    private Long heldBy;
+
+    @Column(name = "held_until")
+    private LocalDateTime heldUntil;
+
     // ── Audit fields (replaces BaseModel since we have a custom PK) ─
 
     @CreatedDate
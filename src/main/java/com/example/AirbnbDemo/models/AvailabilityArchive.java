@@ -0,0 +1,45 @@
+package com.example.AirbnbDemo.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Past nights moved out of {@code availabilities} by the archiver: one row per listing and
+ * year, a bit per night in the same layout as the Redis calendar (offset = day of year − 1,
+ * MSB of byte 0 first, see {@link com.example.AirbnbDemo.models.readModels.AvailabilityCalendar#bit}).
+ * {@code openNights} has the nights that existed, {@code bookedNights} those that were taken;
+ * which booking took them stays in {@code bookings}. 92 bytes per listing and year instead of
+ * up to 366 rows.
+ */
+@Entity
+@Table(name = "availability_archives")
+@IdClass(AvailabilityArchiveId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvailabilityArchive {
+
+    // 366 nights, rounded up to whole bytes; always written at full length so rows can be OR-ed in SQL
+    public static final int BITMAP_BYTES = 46;
+
+    @Id
+    @Column(name = "airbnb_id", nullable = false)
+    private Long airbnbId;
+
+    @Id
+    @Column(nullable = false)
+    private Integer year;
+
+    @Column(name = "open_nights", nullable = false, length = BITMAP_BYTES)
+    private byte[] openNights;
+
+    @Column(name = "booked_nights", nullable = false, length = BITMAP_BYTES)
+    private byte[] bookedNights;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,16 @@
+package com.example.AirbnbDemo.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityArchiveId implements Serializable {
+    // Field names must exactly match the @Id field names in AvailabilityArchive
+    private Long airbnbId;
+    private Integer year;
+}
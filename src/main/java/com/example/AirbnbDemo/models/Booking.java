@@ -46,6 +46,10 @@ public class Booking extends BaseModel {
     @Column(nullable = false)
     private LocalDate checkOutDate;
 
+    // Fencing token of the booking lock this booking was created under; null if the strategy does not fence
+    @Column(name = "lock_fence")
+    private Long lockFence;
+
     public String toString(){
         return idempotencyKey;
     }
@@ -0,0 +1,44 @@
+package com.example.AirbnbDemo.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Highest fencing token a range booking lock has been granted under, one row per lock key
+ * ({@code lock:availability:<airbnbId>:<checkIn>:<lastNight>}). A confirm is stale only if a
+ * newer holder of the <em>same</em> lock stamped a higher token; an overlapping lock on other
+ * dates has its own row and never fences this one out — overlaps are the availability
+ * check's job. Rows of stays that ended are pruned by the archiver.
+ */
+@Entity
+@Table(name = "lock_fences")
+@IdClass(LockFenceId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LockFence {
+
+    @Id
+    @Column(name = "airbnb_id", nullable = false)
+    private Long airbnbId;
+
+    @Id
+    @Column(name = "check_in", nullable = false)
+    private LocalDate checkIn;
+
+    @Id
+    @Column(name = "last_night", nullable = false)
+    private LocalDate lastNight;
+
+    // Only ever raised
+    @Column(nullable = false)
+    private Long fence;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
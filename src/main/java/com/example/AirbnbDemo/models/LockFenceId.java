@@ -0,0 +1,18 @@
+package com.example.AirbnbDemo.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LockFenceId implements Serializable {
+    // Field names must exactly match the @Id field names in LockFence
+    private Long airbnbId;
+    private LocalDate checkIn;
+    private LocalDate lastNight;
+}
@@ -0,0 +1,33 @@
+package com.example.AirbnbDemo.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// A saga event written in the same transaction as the state change that produced it;
+// SagaOutboxRelay pushes it to the saga queue after commit and stamps sentAt
+@Entity
+@Table(
+    name = "saga_outbox",
+    indexes = {
+        @Index(name = "idx_saga_outbox_sent_at", columnList = "sent_at, id")
+    }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SagaOutboxEvent extends BaseModel {
+
+    @Column(nullable = false, length = 64)
+    private String eventType;
+
+    // SagaEventCodec wire form, published as-is
+    @Column(nullable = false, length = 512)
+    private String event;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt; // null until relayed
+}
@@ -13,5 +13,7 @@ public class AirbnbReadModel {
     private String description;
     private String location;
     private Long pricePerNight;
+    private Double latitude;
+    private Double longitude;
     //private List<AvailabilityReadModel> availability;
 }
\ No newline at end of file
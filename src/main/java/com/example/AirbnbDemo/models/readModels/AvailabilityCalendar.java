@@ -0,0 +1,73 @@
+package com.example.AirbnbDemo.models.readModels;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One listing's availability for one year, as stored in Redis: a bit per night of the year
+ * (offset = day of year − 1, Redis bit order: MSB of byte 0 first) in two bitmaps —
+ * {@code open} (the night exists in the calendar) and {@code booked} (it is taken) — plus the
+ * booking id of every booked night that has one. About 100 bytes and a small hash per year,
+ * against one JSON document per night in {@code availability:airbnb:<id>}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvailabilityCalendar {
+    private Long airbnbId;
+    private int year;
+    private byte[] open;
+    private byte[] booked;
+    private Map<Integer, Long> bookingIds; // bit offset → booking id
+
+    public static int offset(LocalDate date) {
+        return date.getDayOfYear() - 1;
+    }
+
+    public static boolean bit(byte[] bits, int offset) {
+        int index = offset >>> 3;
+        return bits != null && index < bits.length && (bits[index] & (0x80 >>> (offset & 7))) != 0;
+    }
+
+    public boolean isOpen(LocalDate date) {
+        return bit(open, offset(date));
+    }
+
+    public boolean isBooked(LocalDate date) {
+        return bit(booked, offset(date));
+    }
+
+    // Open and not booked, indexed by day of year − 1
+    public BitSet freeNights() {
+        BitSet free = new BitSet(Year.of(year).length());
+        for (int offset = 0; offset < Year.of(year).length(); offset++) {
+            if (bit(open, offset) && !bit(booked, offset)) free.set(offset);
+        }
+        return free;
+    }
+
+    // Same shape the per-date hash served, built without parsing anything
+    public List<AvailabilityReadModel> toReadModels() {
+        List<AvailabilityReadModel> models = new ArrayList<>();
+        LocalDate day = LocalDate.of(year, 1, 1);
+        for (int offset = 0; offset < Year.of(year).length(); offset++, day = day.plusDays(1)) {
+            if (!bit(open, offset)) continue;
+            boolean taken = bit(booked, offset);
+            models.add(AvailabilityReadModel.builder()
+                    .airbnbId(airbnbId)
+                    .date(day.toString())
+                    .bookingId(bookingIds == null ? null : bookingIds.get(offset))
+                    .isAvailable(!taken)
+                    .build());
+        }
+        return models;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.AirbnbDemo.readmodel;
+
+import com.example.AirbnbDemo.repository.reads.RedisReadRepository;
+import com.example.AirbnbDemo.repository.writes.AirbnbRepository;
+import com.example.AirbnbDemo.repository.writes.BookingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Fills the id indexes ({@code index:airbnbs}, {@code index:bookings}) from the database for
+ * rows that existed before the CDC consumers started maintaining them, then marks each index
+ * ready. Until then the list endpoints page straight from the database. Ids are read in keyset
+ * pages and added one ZADD per page, so neither side sees a long-running command. Runs at
+ * startup only when the ready marker is missing (first deploy, or Redis was flushed); CDC keeps
+ * adding ids meanwhile, and adding an id twice is harmless.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReadModelIndexBackfill {
+
+    @Value("${read-model.index.backfill-page-size:1000}")
+    private int pageSize;
+
+    private final AirbnbRepository airbnbRepository;
+    private final BookingRepository bookingRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        backfill(RedisReadRepository.AIRBNB_INDEX_KEY, airbnbRepository::findIdsAfter);
+        backfill(RedisReadRepository.BOOKING_INDEX_KEY, bookingRepository::findIdsAfter);
+    }
+
+    void backfill(String indexKey, BiFunction<Long, Limit, List<Long>> idsAfter) {
+        String readyKey = RedisReadRepository.indexReadyKey(indexKey);
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(readyKey))) return;
+        long started = System.nanoTime();
+        long lastId = 0;
+        long added = 0;
+        List<Long> ids;
+        do {
+            ids = idsAfter.apply(lastId, Limit.of(pageSize));
+            if (ids.isEmpty()) break;
+            Set<ZSetOperations.TypedTuple<String>> members = ids.stream()
+                    .map(id -> ZSetOperations.TypedTuple.of(id.toString(), id.doubleValue()))
+                    .collect(Collectors.toSet());
+            redisTemplate.opsForZSet().add(indexKey, members);
+            added += ids.size();
+            lastId = ids.getLast();
+        } while (ids.size() == pageSize);
+        redisTemplate.opsForValue().set(readyKey, "1");
+        log.info("Backfilled {} with {} ids in {} ms", indexKey, added, (System.nanoTime() - started) / 1_000_000);
+    }
+}
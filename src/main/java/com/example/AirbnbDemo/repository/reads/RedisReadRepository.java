@@ -1,15 +1,23 @@
 package com.example.AirbnbDemo.repository.reads;
 
 import com.example.AirbnbDemo.models.readModels.AirbnbReadModel;
-import com.example.AirbnbDemo.models.readModels.AvailabilityReadModel;
+import com.example.AirbnbDemo.models.readModels.AvailabilityCalendar;
 import com.example.AirbnbDemo.models.readModels.BookingReadModel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Repository;
 import tools.jackson.core.JacksonException;
 import tools.jackson.databind.ObjectMapper;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -23,6 +31,40 @@ public class RedisReadRepository {
     public static final String AVAILABLE_KEY_PREFIX = "available:";
     public static final String IDEMPOTENCY_KEY_PREFIX = "idempotency:";
     public static final String AVAILABILITY_AIRBNB_PREFIX = "availability:airbnb:";
+    public static final String CALENDAR_OPEN_PREFIX = "calendar:open:";
+    public static final String CALENDAR_BOOKED_PREFIX = "calendar:booked:";
+    public static final String CALENDAR_BOOKINGS_PREFIX = "calendar:bookings:";
+    public static final String CALENDAR_YEARS_PREFIX = "calendar:years:";
+    // Set once every existing night is in the calendars; until then calendar reads report a miss
+    public static final String CALENDAR_READY_KEY = "calendar:ready";
+    // Sorted sets of ids (score = id), kept by the CDC consumers; "<index>:ready" once backfilled from the DB
+    public static final String AIRBNB_INDEX_KEY = "index:airbnbs";
+    public static final String BOOKING_INDEX_KEY = "index:bookings";
+    public static final String INDEX_READY_SUFFIX = ":ready";
+
+    // KEYS = open, booked bitmap per calendar year touched; ARGV = first bit, last bit, nights before it, per year.
+    // Returns the blocked nights as indexes from the start of the range, nil if a year is not cached.
+    // Two BITCOUNTs settle a free year; only a year with blocked nights is walked bit by bit.
+    private static final String BLOCKED_NIGHTS_SCRIPT =
+            "local blocked = {} " +
+                    "for i = 1, #KEYS, 2 do " +
+                    "  local y = (i + 1) / 2 " +
+                    "  local first, last, base = tonumber(ARGV[3*y-2]), tonumber(ARGV[3*y-1]), tonumber(ARGV[3*y]) " +
+                    "  if redis.call('exists', KEYS[i]) == 0 then return false end " +
+                    "  if redis.call('bitcount', KEYS[i], first, last, 'BIT') ~= last - first + 1 " +
+                    "     or redis.call('bitcount', KEYS[i+1], first, last, 'BIT') > 0 then " +
+                    "    for o = first, last do " +
+                    "      if redis.call('getbit', KEYS[i], o) == 0 or redis.call('getbit', KEYS[i+1], o) == 1 then " +
+                    "        blocked[#blocked + 1] = base + o - first " +
+                    "      end " +
+                    "    end " +
+                    "  end " +
+                    "end " +
+                    "return blocked";
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> BLOCKED_NIGHTS_REDIS_SCRIPT =
+            new DefaultRedisScript<>(BLOCKED_NIGHTS_SCRIPT, List.class);
 
     private final RedisTemplate<String, String> redisTemplate;
     private final ObjectMapper objectMapper;
@@ -35,39 +77,153 @@ public class RedisReadRepository {
         return Optional.ofNullable(getByKey(BOOKING_KEY_PREFIX + id, BookingReadModel.class));
     }
 
-    // Get ALL availability for an airbnb — single round trip O(1)
-    public List<AvailabilityReadModel> getAvailabilityByAirbnbId(Long airbnbId) {
-        String hashKey = AVAILABILITY_AIRBNB_PREFIX + airbnbId;
-        Map<Object, Object> entries = redisTemplate.opsForHash().entries(hashKey);
-        if (entries == null || entries.isEmpty()) return List.of(); // null = cache miss
-        return entries.values().stream()
-                .map(v -> {
-                    try {
-                        return objectMapper.readValue((String) v, AvailabilityReadModel.class);
-                    } catch (JacksonException e) {
-                        throw new RuntimeException("Failed to parse availability", e);
-                    }
-                })
-                .collect(Collectors.toList());
-    }
-
-    // Get a single date's availability
-    public AvailabilityReadModel getAvailabilityByAirbnbIdAndDate(Long airbnbId, String date) {
-        String hashKey = AVAILABILITY_AIRBNB_PREFIX + airbnbId;
-        String value = (String) redisTemplate.opsForHash().get(hashKey, date);
-        if (value == null) return null;
-        try {
-            return objectMapper.readValue(value, AvailabilityReadModel.class);
-        } catch (JacksonException e) {
-            throw new RuntimeException("Failed to parse availability", e);
+    // ─── Availability calendar (bitmaps) ──────────────────────────
+
+    // {airbnbId} hash tag: a listing's calendar keys share a cluster slot, so one script can touch them all
+    public static String calendarKey(String prefix, Long airbnbId, int year) {
+        return prefix + "{" + airbnbId + "}:" + year;
+    }
+
+    public static String calendarYearsKey(Long airbnbId) {
+        return CALENDAR_YEARS_PREFIX + "{" + airbnbId + "}";
+    }
+
+    // A full year in one round trip: both bitmaps and the booking ids, nothing to parse but the ids
+    public Optional<AvailabilityCalendar> getCalendar(Long airbnbId, int year) {
+        return getCalendars(List.of(airbnbId), List.of(year)).stream().findFirst();
+    }
+
+    // Every cached year of a listing, in two round trips (years index, then one pipeline)
+    public List<AvailabilityCalendar> getCalendars(Long airbnbId) {
+        Set<String> years = redisTemplate.opsForSet().members(calendarYearsKey(airbnbId));
+        if (years == null || years.isEmpty()) return List.of();
+        List<Integer> sorted = years.stream().map(Integer::parseInt).sorted().toList();
+        return getCalendars(Collections.nCopies(sorted.size(), airbnbId), sorted);
+    }
+
+    // Every cached year of many listings in two round trips: all years indexes, then all bitmaps
+    @SuppressWarnings("unchecked")
+    public Map<Long, List<AvailabilityCalendar>> getCalendars(List<Long> airbnbIds) {
+        if (airbnbIds.isEmpty()) return Map.of();
+        List<Object> yearSets = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long airbnbId : airbnbIds) connection.setCommands().sMembers(bytes(calendarYearsKey(airbnbId)));
+            return null;
+        });
+        List<Long> ids = new ArrayList<>();
+        List<Integer> years = new ArrayList<>();
+        for (int i = 0; i < airbnbIds.size(); i++) {
+            Set<String> listingYears = (Set<String>) yearSets.get(i);
+            if (listingYears == null) continue;
+            for (String year : listingYears) {
+                ids.add(airbnbIds.get(i));
+                years.add(Integer.parseInt(year));
+            }
         }
+        if (ids.isEmpty()) return Map.of();
+        return getCalendars(ids, years).stream().collect(Collectors.groupingBy(AvailabilityCalendar::getAirbnbId));
     }
 
-    public List<AirbnbReadModel> getAllAirbnbs() {
-        return getAllByPrefix(AIRBNB_KEY_PREFIX, AirbnbReadModel.class);
+    /**
+     * The nights from {@code firstNight} to {@code lastNight} that are booked or not in the
+     * calendar at all, in one round trip (the ready marker and one script call) whatever the
+     * number of years touched. Empty list if the whole range is free; empty Optional if any year
+     * of it is not cached or the calendars are not backfilled yet. Two keys per year: callers
+     * bound the range ({@code availability.range.max-nights}).
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<List<LocalDate>> getBlockedNights(Long airbnbId, LocalDate firstNight, LocalDate lastNight) {
+        List<String> keys = new ArrayList<>();
+        List<String> args = new ArrayList<>();
+        for (LocalDate start = firstNight; !start.isAfter(lastNight); start = LocalDate.of(start.getYear() + 1, 1, 1)) {
+            LocalDate end = lastNight.getYear() == start.getYear() ? lastNight : LocalDate.of(start.getYear(), 12, 31);
+            keys.add(calendarKey(CALENDAR_OPEN_PREFIX, airbnbId, start.getYear()));
+            keys.add(calendarKey(CALENDAR_BOOKED_PREFIX, airbnbId, start.getYear()));
+            args.add(String.valueOf(AvailabilityCalendar.offset(start)));
+            args.add(String.valueOf(AvailabilityCalendar.offset(end)));
+            args.add(String.valueOf(ChronoUnit.DAYS.between(firstNight, start)));
+        }
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                redisTemplate.hasKey(CALENDAR_READY_KEY);
+                redisTemplate.execute(BLOCKED_NIGHTS_REDIS_SCRIPT, keys, args.toArray());
+                return null;
+            }
+        });
+        if (!Boolean.TRUE.equals(results.get(0))) return Optional.empty();
+        List<?> blocked = (List<?>) results.get(1);
+        if (blocked == null) return Optional.empty();
+        return Optional.of(blocked.stream()
+                .map(night -> firstNight.plusDays(((Number) night).longValue()))
+                .toList());
     }
 
-    public List<BookingReadModel> getAllBookings() { return  getAllByPrefix(BOOKING_KEY_PREFIX, BookingReadModel.class); }
+    // (airbnbIds[i], years[i]) pairs and the ready marker, one pipeline for all of them; none before the backfill is done
+    @SuppressWarnings("unchecked")
+    private List<AvailabilityCalendar> getCalendars(List<Long> airbnbIds, List<Integer> years) {
+        // Raw bytes: the bitmaps are binary, not strings
+        List<Object> pipelined = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.keyCommands().exists(bytes(CALENDAR_READY_KEY));
+            for (int i = 0; i < years.size(); i++) {
+                Long airbnbId = airbnbIds.get(i);
+                int year = years.get(i);
+                connection.stringCommands().get(bytes(calendarKey(CALENDAR_OPEN_PREFIX, airbnbId, year)));
+                connection.stringCommands().get(bytes(calendarKey(CALENDAR_BOOKED_PREFIX, airbnbId, year)));
+                connection.hashCommands().hGetAll(bytes(calendarKey(CALENDAR_BOOKINGS_PREFIX, airbnbId, year)));
+            }
+            return null;
+        }, RedisSerializer.byteArray());
+        if (!Boolean.TRUE.equals(pipelined.get(0))) return List.of();
+        List<Object> results = pipelined.subList(1, pipelined.size());
+        List<AvailabilityCalendar> calendars = new ArrayList<>(years.size());
+        for (int i = 0; i < years.size(); i++) {
+            byte[] open = (byte[]) results.get(3 * i);
+            if (open == null) continue;
+            Map<Integer, Long> bookingIds = new HashMap<>();
+            Map<byte[], byte[]> bookings = (Map<byte[], byte[]>) results.get(3 * i + 2);
+            if (bookings != null) {
+                bookings.forEach((offset, id) -> bookingIds.put(
+                        Integer.parseInt(new String(offset, StandardCharsets.UTF_8)),
+                        Long.parseLong(new String(id, StandardCharsets.UTF_8))));
+            }
+            calendars.add(AvailabilityCalendar.builder()
+                    .airbnbId(airbnbIds.get(i))
+                    .year(years.get(i))
+                    .open(open)
+                    .booked((byte[]) results.get(3 * i + 1))
+                    .bookingIds(bookingIds)
+                    .build());
+        }
+        return calendars;
+    }
+
+    private static byte[] bytes(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // ─── Id indexes and pages ─────────────────────────────────────
+
+    public static String indexReadyKey(String indexKey) {
+        return indexKey + INDEX_READY_SUFFIX;
+    }
+
+    /** The next {@code limit} airbnb ids after {@code afterId}, ascending; empty Optional if the index is not built. */
+    public Optional<List<Long>> getAirbnbIdsAfter(long afterId, int limit) {
+        return getIdsAfter(AIRBNB_INDEX_KEY, afterId, limit);
+    }
+
+    public Optional<List<Long>> getBookingIdsAfter(long afterId, int limit) {
+        return getIdsAfter(BOOKING_INDEX_KEY, afterId, limit);
+    }
+
+    // One MGET; ids whose document is not cached are left out
+    public Map<Long, AirbnbReadModel> getAirbnbsByIds(List<Long> ids) {
+        return getByIds(AIRBNB_KEY_PREFIX, ids, AirbnbReadModel.class);
+    }
+
+    public Map<Long, BookingReadModel> getBookingsByIds(List<Long> ids) {
+        return getByIds(BOOKING_KEY_PREFIX, ids, BookingReadModel.class);
+    }
 
     public BookingReadModel findBookingByIdempotencyKey(String idempotencyKey) {
         log.info("Finding Booking for idempotency key {}", idempotencyKey);
@@ -93,12 +249,37 @@ public class RedisReadRepository {
         }
     }
 
-    private <T> List<T> getAllByPrefix(String prefix, Class<T> type) {
-        Set<String> keys = redisTemplate.keys(prefix + "*");
-        if (keys == null || keys.isEmpty()) return List.of();
-        return keys.stream()
-                .map(k -> getByKey(k, type))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+    // Readiness and the page in one round trip; ids are whole numbers, so "after" is a score of afterId + 1 and up
+    @SuppressWarnings("unchecked")
+    private Optional<List<Long>> getIdsAfter(String indexKey, long afterId, int limit) {
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                redisTemplate.hasKey(indexReadyKey(indexKey));
+                redisTemplate.opsForZSet().rangeByScore(indexKey, afterId + 1, Double.POSITIVE_INFINITY, 0, limit);
+                return null;
+            }
+        });
+        if (!Boolean.TRUE.equals(results.get(0))) return Optional.empty();
+        Set<String> ids = (Set<String>) results.get(1);
+        if (ids == null) return Optional.of(List.of());
+        return Optional.of(ids.stream().map(Long::parseLong).toList());
+    }
+
+    private <T> Map<Long, T> getByIds(String prefix, List<Long> ids, Class<T> type) {
+        Map<Long, T> found = new LinkedHashMap<>();
+        if (ids.isEmpty()) return found;
+        List<String> values = redisTemplate.opsForValue().multiGet(ids.stream().map(id -> prefix + id).toList());
+        if (values == null) return found;
+        for (int i = 0; i < ids.size(); i++) {
+            String value = values.get(i);
+            if (value == null) continue;
+            try {
+                found.put(ids.get(i), objectMapper.readValue(value, type));
+            } catch (JacksonException e) {
+                throw new RuntimeException("Failed to parse " + type.getSimpleName() + " from Redis", e);
+            }
+        }
+        return found;
     }
 }
\ No newline at end of file
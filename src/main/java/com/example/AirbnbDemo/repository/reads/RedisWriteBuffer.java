@@ -0,0 +1,211 @@
+package com.example.AirbnbDemo.repository.reads;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces read-model writes and sends them to Redis in one pipeline: all string writes as
+ * one MSET, each hash as one multi-field HSET, each sorted set as one ZADD, deletes as one
+ * DEL / HDEL / ZREM, then the queued scripts in the order they were added. A flush happens once {@code flush-size} writes are
+ * pending (in the writer's thread) and every {@code flush-interval-ms} otherwise.
+ *
+ * Only the last write of a key or hash field is kept, so writes to different keys may reach
+ * Redis in any order within a flush — fine for a read model where every key is a document of
+ * its own. Scripts are never coalesced. Writes still pending when a node dies are lost, so
+ * writers opt in: {@code redis.write-buffer.repository} for {@link RedisWriteRepository}'s own
+ * callers, {@code redis.write-buffer.cdc} for the CDC consumers (a lost write there is repaired by
+ * the next change of the row).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RedisWriteBuffer {
+
+    private record ScriptCall(RedisScript<?> script, List<String> keys, Object[] args) {}
+
+    // A null value is a pending deletion of the key or field
+    private static final class Pending {
+        final Map<String, String> values = new LinkedHashMap<>();
+        final Map<String, Map<String, String>> hashes = new LinkedHashMap<>();
+        final Map<String, Map<String, Double>> sortedSets = new LinkedHashMap<>();
+        final List<ScriptCall> scripts = new ArrayList<>();
+        int size;
+    }
+
+    @Value("${redis.write-buffer.flush-size:256}")
+    private int flushSize;
+
+    @Value("${redis.write-buffer.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private Pending pending = new Pending();
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    void init() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "redis-write-buffer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::scheduledFlush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdownNow();
+        flush();
+    }
+
+    public void set(String key, String value) {
+        boolean full;
+        synchronized (this) {
+            if (!pending.values.containsKey(key)) pending.size++;
+            pending.values.put(key, value);
+            full = pending.size >= flushSize;
+        }
+        if (full) flush();
+    }
+
+    public void delete(String key) {
+        boolean full;
+        synchronized (this) {
+            if (!pending.values.containsKey(key)) pending.size++;
+            pending.values.put(key, null);
+            // The whole key goes, so do the fields still waiting to be set on it; later ones are sent after the DEL
+            Map<String, String> fields = pending.hashes.remove(key);
+            if (fields != null) pending.size -= fields.size();
+            full = pending.size >= flushSize;
+        }
+        if (full) flush();
+    }
+
+    public void hset(String key, String field, String value) {
+        hashWrite(key, field, value);
+    }
+
+    public void hdel(String key, String field) {
+        hashWrite(key, field, null);
+    }
+
+    public void zadd(String key, String member, double score) {
+        sortedSetWrite(key, member, score);
+    }
+
+    public void zrem(String key, String member) {
+        sortedSetWrite(key, member, null);
+    }
+
+    public void eval(RedisScript<?> script, List<String> keys, Object... args) {
+        boolean full;
+        synchronized (this) {
+            pending.scripts.add(new ScriptCall(script, keys, args));
+            pending.size++;
+            full = pending.size >= flushSize;
+        }
+        if (full) flush();
+    }
+
+    private void hashWrite(String key, String field, String value) {
+        boolean full;
+        synchronized (this) {
+            Map<String, String> fields = pending.hashes.computeIfAbsent(key, k -> new LinkedHashMap<>());
+            if (!fields.containsKey(field)) pending.size++;
+            fields.put(field, value);
+            full = pending.size >= flushSize;
+        }
+        if (full) flush();
+    }
+
+    private void sortedSetWrite(String key, String member, Double score) {
+        boolean full;
+        synchronized (this) {
+            Map<String, Double> members = pending.sortedSets.computeIfAbsent(key, k -> new LinkedHashMap<>());
+            if (!members.containsKey(member)) pending.size++;
+            members.put(member, score);
+            full = pending.size >= flushSize;
+        }
+        if (full) flush();
+    }
+
+    /** Sends everything pending in one pipeline; flushes run one at a time, in the order they were taken. */
+    public void flush() {
+        flushLock.lock();
+        try {
+            Pending batch;
+            synchronized (this) {
+                if (pending.size == 0) return;
+                batch = pending;
+                pending = new Pending();
+            }
+            send(batch);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Redis write buffer flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void send(Pending batch) {
+        Map<String, String> sets = new LinkedHashMap<>();
+        List<String> deletes = new ArrayList<>();
+        batch.values.forEach((key, value) -> {
+            if (value == null) deletes.add(key);
+            else sets.put(key, value);
+        });
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                // redisTemplate is bound to the pipelined connection here; DELs go first so later hash writes survive them
+                if (!deletes.isEmpty()) redisTemplate.delete(deletes);
+                if (!sets.isEmpty()) redisTemplate.opsForValue().multiSet(sets);
+                batch.hashes.forEach((key, fields) -> {
+                    Map<String, String> puts = new LinkedHashMap<>();
+                    List<Object> removed = new ArrayList<>();
+                    fields.forEach((field, value) -> {
+                        if (value == null) removed.add(field);
+                        else puts.put(field, value);
+                    });
+                    if (!puts.isEmpty()) redisTemplate.opsForHash().putAll(key, puts);
+                    if (!removed.isEmpty()) redisTemplate.opsForHash().delete(key, removed.toArray());
+                });
+                batch.sortedSets.forEach((key, members) -> {
+                    Set<ZSetOperations.TypedTuple<String>> adds = new LinkedHashSet<>();
+                    List<Object> removed = new ArrayList<>();
+                    members.forEach((member, score) -> {
+                        if (score == null) removed.add(member);
+                        else adds.add(ZSetOperations.TypedTuple.of(member, score));
+                    });
+                    if (!adds.isEmpty()) redisTemplate.opsForZSet().add(key, adds);
+                    if (!removed.isEmpty()) redisTemplate.opsForZSet().remove(key, removed.toArray());
+                });
+                batch.scripts.forEach(call -> redisTemplate.execute(call.script(), call.keys(), call.args()));
+                return null;
+            }
+        });
+    }
+}
@@ -9,79 +9,341 @@ import com.example.AirbnbDemo.models.Booking;
 import com.example.AirbnbDemo.models.readModels.AirbnbReadModel;
 import com.example.AirbnbDemo.models.readModels.AvailabilityReadModel;
 import com.example.AirbnbDemo.models.readModels.BookingReadModel;
+import com.example.AirbnbDemo.models.readModels.AvailabilityCalendar;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Repository;
 import tools.jackson.core.JacksonException;
 import tools.jackson.databind.ObjectMapper;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Repository
 @RequiredArgsConstructor
 public class RedisWriteRepository {
 
+        // KEYS = open bitmap, booked bitmap, booking ids, years set; ARGV = bit offset, booked 0/1, booking id or '', year
+        private static final String MARK_NIGHT_SCRIPT =
+                "redis.call('setbit', KEYS[1], ARGV[1], 1) " +
+                        "redis.call('setbit', KEYS[2], ARGV[1], ARGV[2]) " +
+                        "if ARGV[3] == '' then redis.call('hdel', KEYS[3], ARGV[1]) " +
+                        "else redis.call('hset', KEYS[3], ARGV[1], ARGV[3]) end " +
+                        "redis.call('sadd', KEYS[4], ARGV[4]) " +
+                        "return 1";
+
+        private static final DefaultRedisScript<Long> MARK_NIGHT_REDIS_SCRIPT =
+                new DefaultRedisScript<>(MARK_NIGHT_SCRIPT, Long.class);
+
+        // KEYS as above; ARGV = year, then bit offsets. A year left with no open night is dropped altogether
+        private static final String CLEAR_NIGHTS_SCRIPT =
+                "for i = 2, #ARGV do " +
+                        "redis.call('setbit', KEYS[1], ARGV[i], 0) " +
+                        "redis.call('setbit', KEYS[2], ARGV[i], 0) " +
+                        "redis.call('hdel', KEYS[3], ARGV[i]) end " +
+                        "if redis.call('bitcount', KEYS[1]) == 0 then " +
+                        "redis.call('del', KEYS[1], KEYS[2], KEYS[3]) " +
+                        "redis.call('srem', KEYS[4], ARGV[1]) end " +
+                        "return 1";
+
+        private static final DefaultRedisScript<Long> CLEAR_NIGHTS_REDIS_SCRIPT =
+                new DefaultRedisScript<>(CLEAR_NIGHTS_SCRIPT, Long.class);
+
+        // KEYS as above; ARGV = year, then (bit offset, booked 0/1, booking id or '') per night.
+        // Backfill from a DB snapshot: a night already in the calendar was written by CDC, which is newer, and is left alone.
+        private static final String BACKFILL_NIGHTS_SCRIPT =
+                "local written = 0 " +
+                        "for i = 2, #ARGV, 3 do " +
+                        "if redis.call('getbit', KEYS[1], ARGV[i]) == 0 then " +
+                        "redis.call('setbit', KEYS[1], ARGV[i], 1) " +
+                        "redis.call('setbit', KEYS[2], ARGV[i], ARGV[i+1]) " +
+                        "if ARGV[i+2] ~= '' then redis.call('hset', KEYS[3], ARGV[i], ARGV[i+2]) end " +
+                        "written = written + 1 end end " +
+                        "redis.call('sadd', KEYS[4], ARGV[1]) " +
+                        "return written";
+
+        private static final DefaultRedisScript<Long> BACKFILL_NIGHTS_REDIS_SCRIPT =
+                new DefaultRedisScript<>(BACKFILL_NIGHTS_SCRIPT, Long.class);
+
+        // Legacy per-date JSON hash, off by default: the calendar is the read model, the hash doubles its memory
+        @Value("${availability.read-model.json-hash:false}")
+        private boolean writeJsonHash;
+
+        // Opt-in for callers of the entity-level methods below; CDC consumers choose with redis.write-buffer.cdc
+        @Value("${redis.write-buffer.repository:false}")
+        private boolean bufferWrites;
+
         private final RedisTemplate<String, String> redisTemplate;
+        private final RedisWriteBuffer writeBuffer;
         private final ObjectMapper objectMapper;
 
         public void writeBooking(Booking booking) {
-            BookingReadModel model = BookingMapper.toReadModel(booking);
-            save(RedisReadRepository.BOOKING_KEY_PREFIX + model.getId(), model);
-            save(RedisReadRepository.IDEMPOTENCY_KEY_PREFIX + model.getIdempotencyKey(), model.getId());
+            writeBookingModel(BookingMapper.toReadModel(booking), bufferWrites);
         }
 
-        // Write a single availability slot into the airbnb's hash
-        public void writeAvailability(Availability availability) {
-            AvailabilityReadModel model = AvailabilityMapper.toReadModel(availability);
-            String hashKey = RedisReadRepository.AVAILABILITY_AIRBNB_PREFIX + model.getAirbnbId();
-            String field = model.getDate(); // "2025-01-01"
-            try {
-                redisTemplate.opsForHash().put(hashKey, field, objectMapper.writeValueAsString(model));
-            } catch (JacksonException e) {
-                throw new RuntimeException("Failed to serialize availability", e);
+        // The booking and its idempotency key as one MSET plus the id index, in one round trip; or buffered
+        public void writeBookingModel(BookingReadModel model, boolean buffered) {
+            Map<String, String> values = new LinkedHashMap<>();
+            values.put(RedisReadRepository.BOOKING_KEY_PREFIX + model.getId(), serialize(model));
+            if (model.getIdempotencyKey() != null && !model.getIdempotencyKey().isBlank()) {
+                values.put(RedisReadRepository.IDEMPOTENCY_KEY_PREFIX + model.getIdempotencyKey(), model.getId().toString());
             }
+            if (buffered) {
+                values.forEach(writeBuffer::set);
+                writeBuffer.zadd(RedisReadRepository.BOOKING_INDEX_KEY, model.getId().toString(), model.getId());
+                return;
+            }
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    redisTemplate.opsForValue().multiSet(values);
+                    redisTemplate.opsForZSet().add(RedisReadRepository.BOOKING_INDEX_KEY, model.getId().toString(), model.getId());
+                    return null;
+                }
+            });
+        }
+
+        // Write a single availability slot into the airbnb's hash and calendar
+        public void writeAvailability(Availability availability) {
+            writeAvailabilityModel(AvailabilityMapper.toReadModel(availability));
         }
 
         public void writeAvailabilities(Long airbnbId, List<Availability> availabilities) {
             if (availabilities == null || availabilities.isEmpty()) return;
-            String hashKey = RedisReadRepository.AVAILABILITY_AIRBNB_PREFIX + airbnbId;
-            for (Availability a : availabilities) {
-                AvailabilityReadModel model = AvailabilityMapper.toReadModel(a);
-                try {
-                    redisTemplate.opsForHash().put(hashKey, model.getDate(), objectMapper.writeValueAsString(model));
-                } catch (JacksonException e) {
-                    throw new RuntimeException("Failed to serialize availability for airbnb " + airbnbId, e);
+            writeAvailabilityModels(availabilities.stream().map(AvailabilityMapper::toReadModel).toList());
+        }
+
+        // Many nights in one round trip: one HSET per listing for the JSON hash, the calendar scripts pipelined behind it
+        public void writeAvailabilityModels(List<AvailabilityReadModel> models) {
+            if (models == null || models.isEmpty()) return;
+            if (bufferWrites) {
+                models.forEach(model -> writeAvailabilityModel(model, true));
+                return;
+            }
+            Map<String, Map<String, String>> hashes = new HashMap<>();
+            if (writeJsonHash) {
+                for (AvailabilityReadModel model : models) {
+                    hashes.computeIfAbsent(RedisReadRepository.AVAILABILITY_AIRBNB_PREFIX + model.getAirbnbId(), k -> new HashMap<>())
+                            .put(model.getDate(), toJson(model));
+                }
+            }
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    // redisTemplate is bound to the pipelined connection here; scripts go out as EVAL
+                    hashes.forEach((hashKey, fields) -> redisTemplate.opsForHash().putAll(hashKey, fields));
+                    models.forEach(model -> writeCalendarNight(model, false));
+                    return null;
+                }
+            });
+        }
+
+        public void writeAvailabilityModel(AvailabilityReadModel model) {
+            writeAvailabilityModel(model, bufferWrites);
+        }
+
+        // One round trip per night: the calendar script, pipelined behind the HSET when the JSON hash is kept
+        public void writeAvailabilityModel(AvailabilityReadModel model, boolean buffered) {
+            if (!writeJsonHash) {
+                writeCalendarNight(model, buffered);
+                return;
+            }
+            String hashKey = RedisReadRepository.AVAILABILITY_AIRBNB_PREFIX + model.getAirbnbId();
+            String json = toJson(model);
+            if (buffered) {
+                writeBuffer.hset(hashKey, model.getDate(), json);
+                writeCalendarNight(model, true);
+                return;
+            }
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    redisTemplate.opsForHash().put(hashKey, model.getDate(), json); // field "2025-01-01"
+                    writeCalendarNight(model, false);
+                    return null;
+                }
+            });
+        }
+
+        /**
+         * Adds DB nights to the calendars in one pipeline, one script call per listing and year,
+         * skipping nights the calendar already has (CDC's copy is newer). Used by the startup
+         * backfill and by the bulk inserts, whose rows may have been created concurrently. With
+         * the JSON hash off, the listings' leftover hashes are dropped in the same pipeline.
+         */
+        public void backfillCalendarNights(Map<Long, List<AvailabilityReadModel>> nightsByListing) {
+            if (nightsByListing == null || nightsByListing.isEmpty()) return;
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    nightsByListing.forEach((airbnbId, nights) -> {
+                        Map<Integer, List<String>> argsByYear = new TreeMap<>();
+                        for (AvailabilityReadModel night : nights) {
+                            LocalDate date = LocalDate.parse(night.getDate());
+                            List<String> args = argsByYear.computeIfAbsent(date.getYear(), year -> {
+                                List<String> first = new ArrayList<>();
+                                first.add(String.valueOf(year));
+                                return first;
+                            });
+                            args.add(String.valueOf(AvailabilityCalendar.offset(date)));
+                            args.add(Boolean.TRUE.equals(night.getIsAvailable()) ? "0" : "1");
+                            args.add(night.getBookingId() == null ? "" : night.getBookingId().toString());
+                        }
+                        argsByYear.forEach((year, args) ->
+                                redisTemplate.execute(BACKFILL_NIGHTS_REDIS_SCRIPT, calendarKeys(airbnbId, year), args.toArray()));
+                        if (!writeJsonHash) redisTemplate.delete(RedisReadRepository.AVAILABILITY_AIRBNB_PREFIX + airbnbId);
+                    });
+                    return null;
+                }
+            });
+        }
+
+        // Archived or deleted nights: their hash fields and calendar bits, one pipeline for all listings
+        public void deleteAvailabilities(Map<Long, List<LocalDate>> nightsByListing) {
+            if (nightsByListing == null || nightsByListing.isEmpty()) return;
+            if (bufferWrites) {
+                nightsByListing.forEach((airbnbId, nights) -> deleteNights(airbnbId, nights, true));
+                return;
+            }
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    nightsByListing.forEach((airbnbId, nights) -> deleteNights(airbnbId, nights, false));
+                    return null;
+                }
+            });
+        }
+
+        public void deleteAvailability(Long airbnbId, LocalDate night) {
+            deleteAvailability(airbnbId, night, bufferWrites);
+        }
+
+        public void deleteAvailability(Long airbnbId, LocalDate night, boolean buffered) {
+            if (buffered) {
+                deleteNights(airbnbId, List.of(night), true);
+                return;
+            }
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    deleteNights(airbnbId, List.of(night), false);
+                    return null;
                 }
+            });
+        }
+
+        private void deleteNights(Long airbnbId, List<LocalDate> nights, boolean buffered) {
+            if (nights.isEmpty()) return;
+            if (writeJsonHash) {
+                String hashKey = RedisReadRepository.AVAILABILITY_AIRBNB_PREFIX + airbnbId;
+                if (buffered) nights.forEach(night -> writeBuffer.hdel(hashKey, night.toString()));
+                else redisTemplate.opsForHash().delete(hashKey, nights.stream().map(LocalDate::toString).toArray());
+            }
+            Map<Integer, List<String>> offsetsByYear = new HashMap<>();
+            nights.forEach(night -> offsetsByYear.computeIfAbsent(night.getYear(), k -> new ArrayList<>())
+                    .add(String.valueOf(AvailabilityCalendar.offset(night))));
+            offsetsByYear.forEach((year, offsets) -> {
+                List<String> args = new ArrayList<>(offsets.size() + 1);
+                args.add(String.valueOf(year));
+                args.addAll(offsets);
+                eval(buffered, CLEAR_NIGHTS_REDIS_SCRIPT, calendarKeys(airbnbId, year), args.toArray());
+            });
+        }
+
+        private String toJson(AvailabilityReadModel model) {
+            try {
+                return objectMapper.writeValueAsString(model);
+            } catch (JacksonException e) {
+                throw new RuntimeException("Failed to serialize availability for airbnb " + model.getAirbnbId(), e);
             }
         }
 
+        // One script call: the night's open and booked bits, its booking id and the year index
+        private void writeCalendarNight(AvailabilityReadModel model, boolean buffered) {
+            LocalDate date = LocalDate.parse(model.getDate());
+            Long airbnbId = model.getAirbnbId();
+            int year = date.getYear();
+            boolean booked = !Boolean.TRUE.equals(model.getIsAvailable());
+            eval(buffered, MARK_NIGHT_REDIS_SCRIPT, calendarKeys(airbnbId, year),
+                    String.valueOf(AvailabilityCalendar.offset(date)),
+                    booked ? "1" : "0",
+                    model.getBookingId() == null ? "" : model.getBookingId().toString(),
+                    String.valueOf(year));
+        }
+
+        private static List<String> calendarKeys(Long airbnbId, int year) {
+            return List.of(RedisReadRepository.calendarKey(RedisReadRepository.CALENDAR_OPEN_PREFIX, airbnbId, year),
+                    RedisReadRepository.calendarKey(RedisReadRepository.CALENDAR_BOOKED_PREFIX, airbnbId, year),
+                    RedisReadRepository.calendarKey(RedisReadRepository.CALENDAR_BOOKINGS_PREFIX, airbnbId, year),
+                    RedisReadRepository.calendarYearsKey(airbnbId));
+        }
+
+        private void eval(boolean buffered, RedisScript<?> script, List<String> keys, Object... args) {
+            if (buffered) writeBuffer.eval(script, keys, args);
+            else redisTemplate.execute(script, keys, args);
+        }
+
 
         public void writeAirbnb(Airbnb airbnb) {
-            AirbnbReadModel model = AirbnbMapper.toReadModel(airbnb);
-            save(RedisReadRepository.AIRBNB_KEY_PREFIX + airbnb.getId(), model);
+            writeAirbnbModel(AirbnbMapper.toReadModel(airbnb), bufferWrites);
+        }
+
+        // The document and its entry in the id index
+        public void writeAirbnbModel(AirbnbReadModel model, boolean buffered) {
+            String key = RedisReadRepository.AIRBNB_KEY_PREFIX + model.getId();
+            String json = serialize(model);
+            if (buffered) {
+                writeBuffer.set(key, json);
+                writeBuffer.zadd(RedisReadRepository.AIRBNB_INDEX_KEY, model.getId().toString(), model.getId());
+                return;
+            }
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    redisTemplate.opsForValue().set(key, json);
+                    redisTemplate.opsForZSet().add(RedisReadRepository.AIRBNB_INDEX_KEY, model.getId().toString(), model.getId());
+                    return null;
+                }
+            });
         }
 
         public void deleteAirbnb(Long id) {
-            String key=RedisReadRepository.AIRBNB_KEY_PREFIX + id;
-            delete(key);
+            deleteAirbnb(id, bufferWrites);
         }
 
-        private void delete(String key){
-            redisTemplate.delete(key);
+        public void deleteAirbnb(Long id, boolean buffered) {
+            String key = RedisReadRepository.AIRBNB_KEY_PREFIX + id;
+            if (buffered) {
+                writeBuffer.delete(key);
+                writeBuffer.zrem(RedisReadRepository.AIRBNB_INDEX_KEY, id.toString());
+                return;
+            }
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    redisTemplate.delete(key);
+                    redisTemplate.opsForZSet().remove(RedisReadRepository.AIRBNB_INDEX_KEY, id.toString());
+                    return null;
+                }
+            });
         }
 
-        private void save(String key, Object value) {
+        private String serialize(Object value) {
             try {
-                redisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(value));
+                return objectMapper.writeValueAsString(value);
             } catch (JacksonException e) {
                 throw new RuntimeException("Failed to serialize " + value.getClass().getSimpleName() + " to Redis", e);
             }
         }
 
-
-    // Delete a single date field from the hash
-//    public void deleteAvailabilityDate(Long airbnbId, String date) {
-//        redisTemplate.opsForHash().delete(AIRBNB_AVAILABILITY_PREFIX + airbnbId, date);
-//    }
-
 }
@@ -1,7 +1,18 @@
 package com.example.AirbnbDemo.repository.writes;
 
 import com.example.AirbnbDemo.models.Airbnb;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface AirbnbRepository extends JpaRepository<Airbnb, Long> {
+    // Keyset page: the next `limit` listings after `id`, no OFFSET scan however deep the page
+    List<Airbnb> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Same page, ids only, for jobs that do not need the listing itself
+    @Query("SELECT a.id FROM Airbnb a WHERE a.id > :id ORDER BY a.id")
+    List<Long> findIdsAfter(@Param("id") Long id, Limit limit);
 }
@@ -0,0 +1,162 @@
+package com.example.AirbnbDemo.repository.writes;
+
+import com.example.AirbnbDemo.models.AvailabilityArchive;
+import com.example.AirbnbDemo.models.readModels.AvailabilityCalendar;
+import com.example.AirbnbDemo.models.readModels.AvailabilityReadModel;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC for bulk availability writes. {@code saveAll} on {@link com.example.AirbnbDemo.models.Availability}
+ * cannot batch: the composite id is assigned, so every entity is merged (one SELECT, then one
+ * INSERT). Here a whole chunk of nights is one multi-row INSERT.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AvailabilityBatchRepository {
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO availabilities (airbnb_id, date, is_available, created_date, updated_at) VALUES ";
+    private static final String ROW = "(?, ?, true, ?, ?)";
+    // Only a duplicate key is skipped (the row is left as it is); any other error still fails the statement
+    private static final String ON_DUPLICATE = " ON DUPLICATE KEY UPDATE airbnb_id = airbnb_id";
+
+    // Locking read: the rows and the gaps between them stay put until the batch is deleted
+    private static final String SELECT_PAST =
+            "SELECT airbnb_id, date, is_available FROM availabilities WHERE airbnb_id IN (%s) AND date < ? " +
+                    "ORDER BY airbnb_id, date LIMIT ? FOR UPDATE";
+    // Bitwise OR of equal-length binary strings (MySQL 8): merging a batch into a year that is already archived
+    private static final String UPSERT_ARCHIVE =
+            "INSERT INTO availability_archives (airbnb_id, year, open_nights, booked_nights, updated_at) VALUES (?, ?, ?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE open_nights = open_nights | VALUES(open_nights), " +
+                    "booked_nights = booked_nights | VALUES(booked_nights), updated_at = VALUES(updated_at)";
+    private static final String DELETE_RANGE =
+            "DELETE FROM availabilities WHERE airbnb_id = ? AND date BETWEEN ? AND ?";
+    // Plain columns for the calendar backfill: no entities, no lazy associations
+    private static final String SELECT_NIGHTS =
+            "SELECT airbnb_id, date, is_available, booking_id FROM availabilities WHERE airbnb_id IN (%s) " +
+                    "ORDER BY airbnb_id, date";
+    private static final String DELETE_ENDED_FENCES =
+            "DELETE FROM lock_fences WHERE last_night < ? LIMIT ?";
+
+    private record ArchiveYear(Long airbnbId, int year) {}
+
+    @Value("${availability.provision.batch-size:500}")
+    private int batchSize;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the nights as open, {@code batch-size} rows per statement. A night that another
+     * writer created in the meantime is left as it is; truncation, foreign-key and other errors
+     * are not swallowed. The result is the affected-row count: a skipped night counts 0, or 1
+     * when the connection reports found rows (Connector/J's default), so it is exact only
+     * without concurrent writers.
+     */
+    @Transactional
+    public int insertOpenNights(Long airbnbId, List<LocalDate> nights) {
+        return insertOpenNights(Map.of(airbnbId, nights));
+    }
+
+    // Same for many listings: rows of different listings share statements, so small per-listing top-ups still batch
+    @Transactional
+    public int insertOpenNights(Map<Long, List<LocalDate>> nightsByListing) {
+        List<Object[]> rows = new ArrayList<>();
+        nightsByListing.forEach((airbnbId, nights) -> nights.forEach(night -> rows.add(new Object[]{airbnbId, night})));
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int inserted = 0;
+        for (int start = 0; start < rows.size(); start += batchSize) {
+            List<Object[]> chunk = rows.subList(start, Math.min(start + batchSize, rows.size()));
+            Object[] args = new Object[chunk.size() * 4];
+            for (int i = 0; i < chunk.size(); i++) {
+                args[4 * i] = chunk.get(i)[0];
+                args[4 * i + 1] = Date.valueOf((LocalDate) chunk.get(i)[1]);
+                args[4 * i + 2] = now;
+                args[4 * i + 3] = now;
+            }
+            inserted += jdbcTemplate.update(INSERT_PREFIX + String.join(", ", Collections.nCopies(chunk.size(), ROW)) + ON_DUPLICATE, args);
+        }
+        return inserted;
+    }
+
+    /**
+     * Moves up to {@code limit} nights before {@code cutoff} of the given listings into
+     * {@code availability_archives}, oldest first, in one short transaction: the rows are read
+     * with FOR UPDATE, OR-ed into the listing's archive bitmaps for their year and deleted.
+     * Returns the archived nights by listing, in date order; fewer than {@code limit} in total
+     * means these listings have nothing older left.
+     */
+    @Transactional
+    public Map<Long, List<LocalDate>> archiveNightsBefore(List<Long> airbnbIds, LocalDate cutoff, int limit) {
+        Map<Long, List<LocalDate>> archived = new LinkedHashMap<>();
+        if (airbnbIds.isEmpty()) return archived;
+        Map<ArchiveYear, byte[][]> bitmaps = new LinkedHashMap<>();
+        Object[] args = new Object[airbnbIds.size() + 2];
+        for (int i = 0; i < airbnbIds.size(); i++) args[i] = airbnbIds.get(i);
+        args[airbnbIds.size()] = Date.valueOf(cutoff);
+        args[airbnbIds.size() + 1] = limit;
+        jdbcTemplate.query(SELECT_PAST.formatted(String.join(", ", Collections.nCopies(airbnbIds.size(), "?"))), rs -> {
+            Long airbnbId = rs.getLong("airbnb_id");
+            LocalDate night = rs.getDate("date").toLocalDate();
+            byte[][] bits = bitmaps.computeIfAbsent(new ArchiveYear(airbnbId, night.getYear()),
+                    k -> new byte[][]{new byte[AvailabilityArchive.BITMAP_BYTES], new byte[AvailabilityArchive.BITMAP_BYTES]});
+            int offset = AvailabilityCalendar.offset(night);
+            bits[0][offset >>> 3] |= (byte) (0x80 >>> (offset & 7));
+            if (!rs.getBoolean("is_available")) bits[1][offset >>> 3] |= (byte) (0x80 >>> (offset & 7));
+            archived.computeIfAbsent(airbnbId, k -> new ArrayList<>()).add(night);
+        }, args);
+        if (archived.isEmpty()) return archived;
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> upserts = new ArrayList<>();
+        bitmaps.forEach((key, bits) -> upserts.add(new Object[]{key.airbnbId(), key.year(), bits[0], bits[1], now}));
+        jdbcTemplate.batchUpdate(UPSERT_ARCHIVE, upserts);
+        // A listing's nights in the batch are contiguous in key order, and the locking read kept the gaps empty
+        List<Object[]> deletes = new ArrayList<>();
+        archived.forEach((airbnbId, nights) ->
+                deletes.add(new Object[]{airbnbId, Date.valueOf(nights.getFirst()), Date.valueOf(nights.getLast())}));
+        jdbcTemplate.batchUpdate(DELETE_RANGE, deletes);
+        return archived;
+    }
+
+    /**
+     * Deletes up to {@code limit} fence rows of range locks whose stay ended before
+     * {@code cutoff}; no booking of those dates can still be confirmed. Returns how many.
+     */
+    @Transactional
+    public int deleteLockFencesBefore(LocalDate cutoff, int limit) {
+        return jdbcTemplate.update(DELETE_ENDED_FENCES, Date.valueOf(cutoff), limit);
+    }
+
+    /** Every night of the given listings as read models, grouped by listing in id and date order. */
+    @Transactional(readOnly = true)
+    public Map<Long, List<AvailabilityReadModel>> findNights(List<Long> airbnbIds) {
+        Map<Long, List<AvailabilityReadModel>> nights = new LinkedHashMap<>();
+        if (airbnbIds.isEmpty()) return nights;
+        jdbcTemplate.query(SELECT_NIGHTS.formatted(String.join(", ", Collections.nCopies(airbnbIds.size(), "?"))), rs -> {
+            Long airbnbId = rs.getLong("airbnb_id");
+            long rawBookingId = rs.getLong("booking_id");
+            Long bookingId = rs.wasNull() ? null : rawBookingId;
+            nights.computeIfAbsent(airbnbId, k -> new ArrayList<>()).add(AvailabilityReadModel.builder()
+                    .airbnbId(airbnbId)
+                    .date(rs.getDate("date").toLocalDate().toString())
+                    .isAvailable(rs.getBoolean("is_available"))
+                    .bookingId(bookingId)
+                    .build());
+        }, airbnbIds.toArray());
+        return nights;
+    }
+}
@@ -9,32 +9,134 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface AvailabilityRepository extends JpaRepository<Availability, AvailabilityId> {
+
+    // Projection for findLastNights
+    interface LastNight {
+        Long getAirbnbId();
+        LocalDate getLastNight();
+    }
+
     List<Availability> findByAirbnbId(Long airbnbId);
     List<Availability> findByAirbnbIdAndDateBetween(Long airbnbId, LocalDate startDate, LocalDate endDate);
+    long countByAirbnbIdAndDateBetween(Long airbnbId, LocalDate startDate, LocalDate endDate);
     Long countByAirbnbIdAndDateBetweenAndBookingIsNotNull(Long airbnbId, LocalDate startDate, LocalDate endDate);
+    long countByBookingId(Long bookingId);
+
+    // Bulk provisioning: the nights that already exist, in one query, so only the rest is inserted
+    @Query("SELECT a.date FROM Availability a WHERE a.airbnb.id = :airbnbId AND a.date BETWEEN :startDate AND :endDate")
+    List<LocalDate> findDates(
+            @Param("airbnbId")  Long airbnbId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate")   LocalDate endDate);
+
+    // Calendar generator: how far each listing of a chunk is provisioned, one grouped query per chunk
+    @Query("SELECT a.airbnb.id AS airbnbId, MAX(a.date) AS lastNight FROM Availability a " +
+            "WHERE a.airbnb.id IN :airbnbIds GROUP BY a.airbnb.id")
+    List<LastNight> findLastNights(@Param("airbnbIds") Collection<Long> airbnbIds);
+
+    // Range check on a read-model miss: only the free dates come back, every other night of the range is blocked
+    @Query("SELECT a.date FROM Availability a WHERE a.airbnb.id = :airbnbId AND a.date BETWEEN :startDate AND :endDate " +
+            "AND a.booking IS NULL AND a.isAvailable = true")
+    List<LocalDate> findFreeDates(
+            @Param("airbnbId")  Long airbnbId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate")   LocalDate endDate);
 
+    // Fenced: nothing is written if the same range lock was granted again with a newer token; the caller compares the count
     @Modifying
     @Transactional
-    @Query("UPDATE Availability a SET a.booking.id = :bookingId, a.isAvailable = false " +
-            "WHERE a.airbnb.id = :airbnbId AND a.date BETWEEN :startDate AND :endDate")
-    void updateBookingIdByAirbnbIdAndDateBetween(
+    @Query(value = "UPDATE availabilities a JOIN bookings b ON b.id = :bookingId " +
+            "SET a.booking_id = :bookingId, a.is_available = false " +
+            "WHERE a.airbnb_id = :airbnbId AND a.date BETWEEN :startDate AND :endDate " +
+            "AND NOT EXISTS (SELECT 1 FROM lock_fences f WHERE f.airbnb_id = :airbnbId " +
+            "AND f.check_in = :startDate AND f.last_night = :endDate AND f.fence > b.lock_fence)",
+            nativeQuery = true)
+    int updateBookingIdByAirbnbIdAndDateBetween(
             @Param("bookingId") Long bookingId,
             @Param("airbnbId")  Long airbnbId,
             @Param("startDate") LocalDate startDate,
             @Param("endDate")   LocalDate endDate);
 
 
+    // Frees only the nights this booking holds, so a late or repeated cancel never frees another booking's nights
     @Modifying
     @Transactional
     @Query(value = "UPDATE availabilities SET booking_id = NULL, is_available = true " +
-            "WHERE airbnb_id = :airbnbId AND date BETWEEN :startDate AND :endDate",
+            "WHERE airbnb_id = :airbnbId AND date BETWEEN :startDate AND :endDate AND booking_id = :bookingId",
             nativeQuery = true)
-    void clearBookingByAirbnbIdAndDateBetween(
+    int clearBookingByIdAndDateBetween(
+            @Param("bookingId") Long bookingId,
             @Param("airbnbId")  Long airbnbId,
             @Param("startDate") LocalDate startDate,
             @Param("endDate")   LocalDate endDate);
+
+    // Raises the range lock's own fence row; overlapping locks on other dates keep theirs
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO lock_fences (airbnb_id, check_in, last_night, fence, updated_at) " +
+            "VALUES (:airbnbId, :startDate, :endDate, :fence, NOW()) " +
+            "ON DUPLICATE KEY UPDATE updated_at = IF(VALUES(fence) > fence, VALUES(updated_at), updated_at), " +
+            "fence = GREATEST(fence, VALUES(fence))",
+            nativeQuery = true)
+    int stampLockFence(
+            @Param("airbnbId")  Long airbnbId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate")   LocalDate endDate,
+            @Param("fence")     long fence);
+
+    // Claims every free night of the range in one statement; the caller compares the count with the nights asked for
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE availabilities SET held_by = :userId, held_until = :heldUntil " +
+            "WHERE airbnb_id = :airbnbId AND date BETWEEN :startDate AND :endDate " +
+            "AND booking_id IS NULL AND (held_until IS NULL OR held_until < :now)",
+            nativeQuery = true)
+    int holdFreeNights(
+            @Param("airbnbId")  Long airbnbId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate")   LocalDate endDate,
+            @Param("userId")    Long userId,
+            @Param("heldUntil") LocalDateTime heldUntil,
+            @Param("now")       LocalDateTime now);
+
+    // Row-locks the free nights of the range; nights locked by another transaction are skipped, so a short list means taken
+    @Query(value = "SELECT * FROM availabilities " +
+            "WHERE airbnb_id = :airbnbId AND date BETWEEN :startDate AND :endDate " +
+            "AND booking_id IS NULL AND (held_until IS NULL OR held_until < :now) " +
+            "FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Availability> lockFreeNightsSkipLocked(
+            @Param("airbnbId")  Long airbnbId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate")   LocalDate endDate,
+            @Param("now")       LocalDateTime now);
+
+    // Same as above, but fails with a lock error as soon as any night is locked by another transaction
+    @Query(value = "SELECT * FROM availabilities " +
+            "WHERE airbnb_id = :airbnbId AND date BETWEEN :startDate AND :endDate " +
+            "AND booking_id IS NULL AND (held_until IS NULL OR held_until < :now) " +
+            "FOR UPDATE NOWAIT",
+            nativeQuery = true)
+    List<Availability> lockFreeNightsNoWait(
+            @Param("airbnbId")  Long airbnbId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate")   LocalDate endDate,
+            @Param("now")       LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE availabilities SET held_by = NULL, held_until = NULL " +
+            "WHERE airbnb_id = :airbnbId AND date BETWEEN :startDate AND :endDate AND held_by = :userId",
+            nativeQuery = true)
+    int releaseHeldNights(
+            @Param("airbnbId")  Long airbnbId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate")   LocalDate endDate,
+            @Param("userId")    Long userId);
 }
 
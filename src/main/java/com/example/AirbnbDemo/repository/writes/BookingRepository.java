@@ -1,7 +1,12 @@
 package com.example.AirbnbDemo.repository.writes;
 
 import com.example.AirbnbDemo.models.Booking;
+import com.example.AirbnbDemo.models.BookingStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.List;
 import java.util.Optional;
 
@@ -9,4 +14,15 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByUserId(Long id);
     List<Booking> findByAirbnbId(Long id);
     Optional<Booking> findByIdempotencyKey(String idempotencyKey);
+
+    // Keyset page for the list endpoint's fallback, no OFFSET scan however deep the page
+    List<Booking> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Same page, ids only, for the read-model index backfill
+    @Query("SELECT b.id FROM Booking b WHERE b.id > :id ORDER BY b.id")
+    List<Long> findIdsAfter(@Param("id") Long id, Limit limit);
+
+    // Saga handlers check where a booking stands before acting on an event that may arrive out of order
+    @Query("SELECT b.status FROM Booking b WHERE b.id = :id")
+    Optional<BookingStatus> findStatusById(@Param("id") Long id);
 }
@@ -0,0 +1,28 @@
+package com.example.AirbnbDemo.repository.writes;
+
+import com.example.AirbnbDemo.models.SagaOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SagaOutboxRepository extends JpaRepository<SagaOutboxEvent, Long> {
+
+    long countBySentAtIsNull();
+
+    // SKIP LOCKED lets relays on several nodes drain disjoint batches without waiting on each other
+    @Query(value = "SELECT * FROM saga_outbox WHERE sent_at IS NULL ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<SagaOutboxEvent> lockUnsentBatch(@Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE SagaOutboxEvent e SET e.sentAt = :sentAt WHERE e.id IN :ids")
+    int markSent(@Param("ids") List<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query(value = "DELETE FROM saga_outbox WHERE sent_at < :before LIMIT :limit", nativeQuery = true)
+    int deleteSentBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
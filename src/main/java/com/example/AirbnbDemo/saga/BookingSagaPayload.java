@@ -0,0 +1,37 @@
+package com.example.AirbnbDemo.saga;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Payload carried by every booking saga event. Dates are stored as epoch days so the
+ * event needs no date parsing on the way in or out; {@code checkOutEpochDay} is the
+ * check-out day itself (exclusive), like {@code Booking.checkOutDate}.
+ */
+public record BookingSagaPayload(
+        long bookingId,
+        long airbnbId,
+        long userId,
+        int checkInEpochDay,
+        int checkOutEpochDay
+) implements Serializable {
+
+    public static BookingSagaPayload of(Long bookingId, Long airbnbId, Long userId,
+                                        LocalDate checkInDate, LocalDate checkOutDate) {
+        return new BookingSagaPayload(bookingId, airbnbId, userId,
+                (int) checkInDate.toEpochDay(), (int) checkOutDate.toEpochDay());
+    }
+
+    public LocalDate checkInDate() {
+        return LocalDate.ofEpochDay(checkInEpochDay);
+    }
+
+    public LocalDate checkOutDate() {
+        return LocalDate.ofEpochDay(checkOutEpochDay);
+    }
+
+    // Last night actually stayed — the availability rows are keyed by night, check-out is exclusive
+    public LocalDate lastNight() {
+        return LocalDate.ofEpochDay(checkOutEpochDay - 1L);
+    }
+}
@@ -20,42 +20,85 @@ public class RetryableSagaProcessor {
 
     private final SagaEventProcessor sagaEventProcessor;
     private final DeadLetterEventPublisher deadLetterEventPublisher;
+    private final SagaRetryScheduler sagaRetryScheduler;
+    private final SagaParkedKeys sagaParkedKeys;
 
-    public void processWithRetry(SagaEvent sagaEvent) {
-        Exception lastException = null;
-        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
-            try {
-                sagaEventProcessor.processEvent(sagaEvent);
-                return;//success - exit immediately
-            } catch (Exception e) {
-                lastException = e;
-                log.warn(
-                        "Saga event processing failed on attempt {}/{} for sagaId={} type={}: {}",
-                        attempt, maxAttempts,
-                        sagaEvent.getSagaId(),
-                        sagaEvent.getEventType(),
-                        e.getMessage()
-                );
-                if (attempt < maxAttempts) {
-                    sleepWithBackOff(attempt);
-                }
+    private enum Outcome { SUCCEEDED, PARKED, DEAD_LETTERED }
+
+    /**
+     * Runs one attempt. On failure the event is parked in the retry queue with its
+     * attempt count bumped, so the calling worker is free immediately; after the last
+     * attempt it goes to the DLQ. While an event of a listing is parked, later events of
+     * that listing are held behind it ({@link SagaParkedKeys}) and run once it is done.
+     * Returns true only if this attempt succeeded.
+     */
+    public boolean processWithRetry(SagaEvent sagaEvent) {
+        Long airbnbId = sagaEvent.partitionKey();
+        if (airbnbId == null) return attempt(sagaEvent) == Outcome.SUCCEEDED;
+        switch (sagaParkedKeys.admit(sagaEvent)) {
+            case HELD -> {
+                log.info("Holding {} behind the parked event of airbnb {}", sagaEvent, airbnbId);
+                return false;
+            }
+            case DRAIN -> {
+                runHeld(airbnbId);
+                return false;
+            }
+            case RETURNING -> {
+                Outcome outcome = attempt(sagaEvent);
+                if (outcome != Outcome.PARKED) runHeld(airbnbId);
+                return outcome == Outcome.SUCCEEDED;
+            }
+            default -> {
+                return attempt(sagaEvent) == Outcome.SUCCEEDED;
             }
         }
-        log.error( "All {} attempts failed for sagaId={} type={}. Moving to DLQ.",
-                maxAttempts, sagaEvent.getSagaId(), sagaEvent.getEventType());
-        deadLetterEventPublisher.publish(sagaEvent, lastException, maxAttempts);
     }
 
-    private void sleepWithBackOff(int attempt){
-        try{
-            long delay = retryDelayMs * (1L << (attempt - 1));
-            log.info("Retrying in {} ms....", delay);
-            Thread.sleep(delay);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.warn("Retry sleep interrupted");
+    // In arrival order, until one of them fails and parks the listing again
+    private void runHeld(Long airbnbId) {
+        SagaEvent held;
+        while ((held = sagaParkedKeys.nextHeld(airbnbId)) != null) {
+            if (attempt(held) == Outcome.PARKED) return;
         }
     }
 
+    private Outcome attempt(SagaEvent sagaEvent) {
+        int attempt = sagaEvent.getAttempt() + 1;
+        try {
+            sagaEventProcessor.processEvent(sagaEvent);
+            return Outcome.SUCCEEDED;
+        } catch (Exception e) {
+            log.warn(
+                    "Saga event processing failed on attempt {}/{} for sagaId={} type={}: {}",
+                    attempt, maxAttempts,
+                    sagaEvent.getSagaId(),
+                    sagaEvent.getEventType(),
+                    e.getMessage()
+            );
+            if (attempt < maxAttempts) {
+                return scheduleRetry(sagaEvent, attempt, e) ? Outcome.PARKED : Outcome.DEAD_LETTERED;
+            }
+            log.error( "All {} attempts failed for sagaId={} type={}. Moving to DLQ.",
+                    maxAttempts, sagaEvent.getSagaId(), sagaEvent.getEventType());
+            deadLetterEventPublisher.publish(sagaEvent, e, attempt);
+            return Outcome.DEAD_LETTERED;
+        }
+    }
 
+    private boolean scheduleRetry(SagaEvent sagaEvent, int attempt, Exception cause) {
+        long delay = retryDelayMs * (1L << (attempt - 1));
+        sagaEvent.setAttempt(attempt);
+        try {
+            if (sagaEvent.partitionKey() != null) sagaParkedKeys.park(sagaEvent);
+            sagaRetryScheduler.schedule(sagaEvent, delay);
+            log.info("Retrying sagaId={} in {} ms....", sagaEvent.getSagaId(), delay);
+            return true;
+        } catch (Exception e) {
+            // Could not park the event — the DLQ is the only place left where it is not lost
+            log.error("Failed to schedule retry for sagaId={}: {}", sagaEvent.getSagaId(), e.getMessage());
+            deadLetterEventPublisher.publish(sagaEvent, cause, attempt);
+            return false;
+        }
+    }
 }
@@ -3,8 +3,6 @@ package com.example.AirbnbDemo.saga;
 import lombok.*;
 
 import java.io.Serializable;
-import java.time.LocalDateTime;
-import java.util.Map;
 
 @Getter
 @Setter
@@ -15,11 +13,17 @@ public class SagaEvent implements Serializable {
     private String sagaId;
     private String eventType;
     private String step;
-    private Map<String,Object> payload;
-    private LocalDateTime timestamp;
+    private BookingSagaPayload payload;
+    private long timestamp; // epoch millis
     private SagaStatus status;
+    private int attempt; // failed attempts so far — travels with the event through the retry queue
+
+    // Routing key for the worker pool: every event of a listing lands on the same worker
+    public Long partitionKey() {
+        return payload == null ? null : payload.airbnbId();
+    }
 
     public String toString(){
-        return eventType+" "+payload.get("bookingId")+" "+status;
+        return eventType+" "+(payload == null ? null : payload.bookingId())+" "+status;
     }
 }
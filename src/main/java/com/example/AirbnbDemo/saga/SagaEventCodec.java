@@ -0,0 +1,141 @@
+package com.example.AirbnbDemo.saga;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Wire format of saga events on the queue and in the retry set: one pipe-delimited line,
+ *
+ * <pre>S1|sagaId|eventType|step|status|attempt|timestamp|bookingId|airbnbId|userId|checkInEpochDay|checkOutEpochDay</pre>
+ *
+ * About a third of the size of the JSON form, and decoding is a handful of
+ * {@code indexOf}/{@code parseLong} calls with no tree building or date parsing.
+ * Messages that start with <code>{</code> are events queued before the codec existed and
+ * are still read through Jackson.
+ */
+@Component
+@RequiredArgsConstructor
+public class SagaEventCodec {
+
+    private static final String VERSION = "S1";
+    private static final char SEPARATOR = '|';
+
+    private final ObjectMapper objectMapper;
+
+    public String encode(SagaEvent sagaEvent) {
+        BookingSagaPayload payload = sagaEvent.getPayload();
+        return new StringBuilder(112)
+                .append(VERSION).append(SEPARATOR)
+                .append(sagaEvent.getSagaId()).append(SEPARATOR)
+                .append(sagaEvent.getEventType()).append(SEPARATOR)
+                .append(sagaEvent.getStep() == null ? "" : sagaEvent.getStep()).append(SEPARATOR)
+                .append(sagaEvent.getStatus() == null ? "" : sagaEvent.getStatus().name()).append(SEPARATOR)
+                .append(sagaEvent.getAttempt()).append(SEPARATOR)
+                .append(sagaEvent.getTimestamp()).append(SEPARATOR)
+                .append(payload.bookingId()).append(SEPARATOR)
+                .append(payload.airbnbId()).append(SEPARATOR)
+                .append(payload.userId()).append(SEPARATOR)
+                .append(payload.checkInEpochDay()).append(SEPARATOR)
+                .append(payload.checkOutEpochDay())
+                .toString();
+    }
+
+    public SagaEvent decode(String raw) {
+        if (raw.startsWith("{")) return decodeJson(objectMapper.readTree(raw));
+        if (!raw.startsWith(VERSION) || raw.length() <= VERSION.length() || raw.charAt(VERSION.length()) != SEPARATOR) {
+            throw new IllegalArgumentException("Unknown saga event encoding: " + abbreviate(raw));
+        }
+        Fields fields = new Fields(raw, VERSION.length() + 1);
+        SagaEvent sagaEvent = new SagaEvent();
+        sagaEvent.setSagaId(fields.nextString());
+        sagaEvent.setEventType(fields.nextString());
+        String step = fields.nextString();
+        sagaEvent.setStep(step.isEmpty() ? null : step);
+        String status = fields.nextString();
+        sagaEvent.setStatus(status.isEmpty() ? null : SagaStatus.valueOf(status));
+        sagaEvent.setAttempt((int) fields.nextLong());
+        sagaEvent.setTimestamp(fields.nextLong());
+        sagaEvent.setPayload(new BookingSagaPayload(
+                fields.nextLong(),
+                fields.nextLong(),
+                fields.nextLong(),
+                (int) fields.nextLong(),
+                (int) fields.nextLong()));
+        return sagaEvent;
+    }
+
+    /**
+     * Reads a Jackson-form event in either shape: the current one (typed payload, epoch-millis
+     * timestamp) or the one written before typed payloads (Map payload with string ids and ISO
+     * dates, LocalDateTime timestamp). DLQ entries keep the Jackson form, so both can be found there.
+     */
+    public SagaEvent decodeJson(JsonNode root) {
+        JsonNode payload = root.path("payload");
+        if (!payload.has("checkInDate") && !root.path("timestamp").isString()) {
+            return objectMapper.treeToValue(root, SagaEvent.class);
+        }
+        JsonNode timestamp = root.path("timestamp");
+        String status = text(root.path("status"));
+        return SagaEvent.builder()
+                .sagaId(text(root.path("sagaId")))
+                .eventType(text(root.path("eventType")))
+                .step(text(root.path("step")))
+                .status(status == null ? null : SagaStatus.valueOf(status))
+                .attempt(root.path("attempt").asInt())
+                .timestamp(timestamp.isString()
+                        ? LocalDateTime.parse(timestamp.asString()).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                        : System.currentTimeMillis())
+                .payload(BookingSagaPayload.of(
+                        payload.path("bookingId").asLong(),
+                        payload.path("airbnbId").asLong(),
+                        payload.path("userId").asLong(),
+                        LocalDate.parse(payload.path("checkInDate").asString()),
+                        LocalDate.parse(payload.path("checkOutDate").asString())))
+                .build();
+    }
+
+    private static String text(JsonNode node) {
+        return node.isString() ? node.asString() : null;
+    }
+
+    private static String abbreviate(String raw) {
+        return raw.length() <= 40 ? raw : raw.substring(0, 40) + "...";
+    }
+
+    // Cursor over the separator-delimited fields, parsing numbers in place without substrings
+    private static final class Fields {
+        private final String raw;
+        private int position;
+
+        Fields(String raw, int position) {
+            this.raw = raw;
+            this.position = position;
+        }
+
+        String nextString() {
+            int end = end();
+            String value = raw.substring(position, end);
+            position = end + 1;
+            return value;
+        }
+
+        long nextLong() {
+            int end = end();
+            long value = Long.parseLong(raw, position, end, 10);
+            position = end + 1;
+            return value;
+        }
+
+        private int end() {
+            if (position > raw.length()) throw new IllegalArgumentException("Truncated saga event: " + abbreviate(raw));
+            int end = raw.indexOf(SEPARATOR, position);
+            return end < 0 ? raw.length() : end;
+        }
+    }
+}
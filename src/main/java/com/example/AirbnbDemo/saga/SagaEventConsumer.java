@@ -1,39 +1,114 @@
 package com.example.AirbnbDemo.saga;
 
+import com.example.AirbnbDemo.saga.queue.SagaMessage;
+import com.example.AirbnbDemo.saga.queue.SagaQueue;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.stereotype.Component;
-import tools.jackson.databind.ObjectMapper;
 import java.time.Duration;
 
+/**
+ * Drains {@code saga:events} continuously on a dedicated dispatcher thread and fans the
+ * events out to a {@link SagaWorkerPool}. Events are routed by {@link SagaEvent#partitionKey()},
+ * so all events of one listing are still handled one after another, in queue order.
+ * Each message is acknowledged to the {@link SagaQueue} once its worker is done with it.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
-public class SagaEventConsumer {
+public class SagaEventConsumer implements SmartLifecycle {
 
-    private static final String SAGA_QUEUE = "saga:events";
-    private final RedisTemplate<String,String> redisTemplate;
-    private final ObjectMapper objectMapper;
+    private final SagaQueue sagaQueue;
+    private final SagaEventCodec sagaEventCodec;
     private final RetryableSagaProcessor retryableSagaProcessor;
 
-    @Scheduled(fixedDelay = 500) //poll every 500 mili seconds
-    public void consumeEvents(){
-        try{
-            String event = redisTemplate.opsForList().leftPop(SAGA_QUEUE, Duration.ofSeconds(1));
-            if(event == null || event.isEmpty())return;
-            SagaEvent sagaEvent = objectMapper.readValue(event, SagaEvent.class);
+    @Value("${saga.consumer.workers:4}")
+    private int workers;
+
+    @Value("${saga.consumer.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${saga.consumer.poll-timeout-ms:1000}")
+    private long pollTimeoutMs;
+
+    @Value("${saga.consumer.shutdown-grace-ms:5000}")
+    private long shutdownGraceMs;
+
+    private volatile boolean running;
+    private SagaWorkerPool workerPool;
+    private Thread dispatcher;
+
+    @Override
+    public void start() {
+        workerPool = new SagaWorkerPool("saga-worker", workers, queueCapacity);
+        running = true;
+        dispatcher = Thread.ofPlatform().name("saga-dispatcher").daemon(true).start(this::dispatchLoop);
+        log.info("Saga consumer started with {} workers", workers);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (dispatcher != null) dispatcher.interrupt();
+        if (workerPool != null) workerPool.shutdown(Duration.ofMillis(shutdownGraceMs));
+        log.info("Saga consumer stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                consumeEvents();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Log-and-continue: one bad message or a Redis hiccup must not kill the dispatcher
+                log.error("Error Processing saga events: {}", e.getMessage());
+                pause();
+            }
+        }
+    }
+
+    // Blocks on the queue for up to the poll timeout, then hands each event to the worker owning its key
+    void consumeEvents() throws InterruptedException {
+        for (SagaMessage message : sagaQueue.poll(Duration.ofMillis(pollTimeoutMs))) {
+            SagaEvent sagaEvent;
+            try {
+                sagaEvent = sagaEventCodec.decode(message.body());
+            } catch (Exception e) {
+                // Unreadable now means unreadable forever — acknowledge so it is not redelivered
+                log.error("Dropping malformed saga event {}: {}", message.id(), e.getMessage());
+                sagaQueue.ack(message);
+                continue;
+            }
+            workerPool.submit(sagaEvent.partitionKey(), () -> process(message, sagaEvent));
+        }
+    }
+
+    private void process(SagaMessage message, SagaEvent sagaEvent) {
+        try {
             log.info("Processing SagaEvent {}", sagaEvent.toString());
             retryableSagaProcessor.processWithRetry(sagaEvent);
             log.info("SagaEvent Processing Done for saga Id:{}", sagaEvent.toString());
+        } finally {
+            // Succeeded, parked for retry or dead-lettered — either way this delivery is done
+            sagaQueue.ack(message);
         }
-        catch (Exception e){
-            log.error("Error Processing saga events: {}", e.getMessage());
+    }
 
-            //throw new RuntimeException("Failed to process Saga Event",e);
-            //Throwing from a @Scheduled method causes Spring to suppress future scheduled runs in some configurations.
-            // You should log-and-continue instead:
+    private void pause() {
+        try {
+            Thread.sleep(pollTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
         }
     }
 }
@@ -18,7 +18,7 @@ public class SagaEventProcessor {
         log.info("Processing SagaEvent In The Saga Event Processor : {}", sagaEvent.toString());
         switch(sagaEvent.getEventType()){
             case "BOOKING_CREATED":
-                log.info("Booking Created for booking id: {}",sagaEvent.getPayload().get("bookingId"));
+                log.info("Booking Created for booking id: {}",sagaEvent.getPayload().bookingId());
                 break;
             case "BOOKING_CONFIRM_REQUESTED":
                 bookingEventHandler.handleBookingConfirmRequest(sagaEvent);
@@ -32,8 +32,11 @@ public class SagaEventProcessor {
             case "BOOKING_CANCELLED":
                 availabilityEventHandler.handleBookingCancelled(sagaEvent);
                 break;
+            case "BOOKING_CONFIRM_COMPLETED":
+                log.info("Booking confirmed on the fast path for booking id: {}", sagaEvent.getPayload().bookingId());
+                break;
             case "BOOKING_COMPENSATED":
-                log.info("Booking compensated for booking id: {}", sagaEvent.getPayload().get("bookingId"));
+                log.info("Booking compensated for booking id: {}", sagaEvent.getPayload().bookingId());
                 availabilityEventHandler.handleBookingCompensated(sagaEvent);
                 break;
             case "TEST_FAILURE":
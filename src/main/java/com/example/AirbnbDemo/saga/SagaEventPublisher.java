@@ -1,28 +1,52 @@
 package com.example.AirbnbDemo.saga;
 
 import com.example.AirbnbDemo.mapper.SagaEventMapper;
+import com.example.AirbnbDemo.models.SagaOutboxEvent;
+import com.example.AirbnbDemo.repository.writes.SagaOutboxRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Component;
-import tools.jackson.databind.ObjectMapper;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Map;
 import java.util.UUID;
 
+/**
+ * Publishes saga events through the transactional outbox: the event becomes a
+ * {@code saga_outbox} row in the caller's transaction and {@link SagaOutboxRelay} pushes
+ * it to the saga queue after commit. An event is therefore never seen for a transaction
+ * that rolls back, and the request path pays one local insert instead of a Redis round trip.
+ */
 @Component
 @RequiredArgsConstructor
 public class SagaEventPublisher {
     // This class is voilating a solid principal
     public static final String SAGA_QUEUE = "saga:events";
-    private final RedisTemplate<String,String> redisTemplate;
-    private final ObjectMapper objectMapper;
+    private final SagaOutboxRepository sagaOutboxRepository;
+    private final SagaEventCodec sagaEventCodec;
 
-    public void publishEvent(String eventType, String step, Map<String,Object> payload){
+    @Transactional
+    public void publishEvent(String eventType, String step, BookingSagaPayload payload){
+        append(eventType, step, payload);
+    }
+
+    /**
+     * For events published right before the caller throws — compensations and cancel
+     * requests. The row is committed in its own transaction so it survives the rollback
+     * of the caller's.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void publishEventIndependently(String eventType, String step, BookingSagaPayload payload){
+        append(eventType, step, payload);
+    }
+
+    private void append(String eventType, String step, BookingSagaPayload payload){
         String sagaId = UUID.randomUUID().toString();
         SagaEvent sagaEvent = SagaEventMapper.toEntity(sagaId,eventType,step,payload);
         try{
-            String value = objectMapper.writeValueAsString(sagaEvent);
-            redisTemplate.opsForList().rightPush(SAGA_QUEUE,value);
+            sagaOutboxRepository.save(SagaOutboxEvent.builder()
+                    .eventType(eventType)
+                    .event(sagaEventCodec.encode(sagaEvent))
+                    .build());
         }
         catch (Exception e){
             throw new RuntimeException("Failed to publish the sagae Event",e);
@@ -0,0 +1,90 @@
+package com.example.AirbnbDemo.saga;
+
+import com.example.AirbnbDemo.models.SagaOutboxEvent;
+import com.example.AirbnbDemo.repository.writes.SagaOutboxRepository;
+import com.example.AirbnbDemo.saga.queue.SagaLanes;
+import com.example.AirbnbDemo.saga.queue.SagaQueue;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves committed outbox rows onto the saga queue. Each batch is locked with
+ * {@code FOR UPDATE SKIP LOCKED}, published with one {@link SagaQueue#publishAll} call per lane and
+ * stamped as sent in the same transaction, so a batch is never published by two nodes.
+ * A crash between the publish and the commit re-publishes the batch — delivery is
+ * at-least-once, like the reliable and stream queue modes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SagaOutboxRelay {
+
+    @Value("${saga.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${saga.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    private final SagaOutboxRepository sagaOutboxRepository;
+    private final SagaQueue sagaQueue;
+    private final SagaLanes sagaLanes;
+    private final TransactionTemplate transactionTemplate;
+
+    @Scheduled(fixedDelayString = "${saga.outbox.poll-interval-ms:100}")
+    public void relayPending() {
+        try {
+            int relayed;
+            do {
+                Integer batch = transactionTemplate.execute(status -> relayBatch());
+                relayed = batch == null ? 0 : batch;
+            } while (relayed == batchSize);
+        } catch (Exception e) {
+            // Log-and-continue: the rows stay unsent and are retried on the next tick
+            log.error("Failed to relay saga outbox: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${saga.outbox.purge-interval-ms:3600000}")
+    public void purgeSent() {
+        try {
+            LocalDateTime before = LocalDateTime.now().minusHours(retentionHours);
+            int deleted;
+            do {
+                Integer batch = transactionTemplate.execute(status -> sagaOutboxRepository.deleteSentBefore(before, batchSize));
+                deleted = batch == null ? 0 : batch;
+                if (deleted > 0) log.info("Purged {} relayed saga outbox rows", deleted);
+            } while (deleted == batchSize);
+        } catch (Exception e) {
+            log.error("Failed to purge saga outbox: {}", e.getMessage());
+        }
+    }
+
+    private int relayBatch() {
+        List<SagaOutboxEvent> batch = sagaOutboxRepository.lockUnsentBatch(batchSize);
+        if (batch.isEmpty()) return 0;
+        Map<String, List<String>> eventsByLane = new LinkedHashMap<>();
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (SagaOutboxEvent row : batch) {
+            eventsByLane.computeIfAbsent(sagaLanes.laneFor(row.getEventType()), lane -> new ArrayList<>()).add(row.getEvent());
+            ids.add(row.getId());
+        }
+        eventsByLane.forEach(sagaQueue::publishAll);
+        sagaOutboxRepository.markSent(ids, LocalDateTime.now());
+        log.debug("Relayed {} saga events from the outbox", batch.size());
+        return batch.size();
+    }
+
+    public long pending() {
+        return sagaOutboxRepository.countBySentAtIsNull();
+    }
+}
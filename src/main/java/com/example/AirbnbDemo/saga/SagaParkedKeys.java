@@ -0,0 +1,89 @@
+package com.example.AirbnbDemo.saga;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Keeps a listing's saga events in order while one of them waits in the retry set. A failed
+ * event parks its listing ({@code saga:events:parked:<airbnbId>} holds the event's id), and
+ * later events of that listing are held in {@code saga:events:held:<airbnbId>} instead of
+ * running ahead of it. Once the parked event succeeds or is dead-lettered, the worker that
+ * handled it runs the held events in arrival order.
+ *
+ * The marker expires after {@code saga.retry.parked-ttl-ms}, so a parked event that never
+ * comes back (queue flushed, retry set cleared) cannot hold its listing forever; the next
+ * event of the listing then finds the held events without a marker and runs them first.
+ */
+@Component
+@RequiredArgsConstructor
+public class SagaParkedKeys {
+
+    static final String PARKED_PREFIX = "saga:events:parked:";
+    static final String HELD_PREFIX = "saga:events:held:";
+
+    public enum Admission {
+        /** Nothing parked for the listing: run it. */
+        FREE,
+        /** The parked event itself is back: run it, then the events held behind it. */
+        RETURNING,
+        /** Held behind the parked event. */
+        HELD,
+        /** Held behind events an expired marker left behind: run them now, this one last. */
+        DRAIN
+    }
+
+    // KEYS[1] = parked marker, KEYS[2] = held list; ARGV = event id, encoded event
+    private static final String ADMIT_SCRIPT =
+            "local parked = redis.call('get', KEYS[1]) " +
+                    "if parked == ARGV[1] then return 1 end " +
+                    "if parked then redis.call('rpush', KEYS[2], ARGV[2]) return 2 end " +
+                    "if redis.call('llen', KEYS[2]) > 0 then redis.call('rpush', KEYS[2], ARGV[2]) return 3 end " +
+                    "return 0";
+
+    // Next held event; the listing is no longer parked once none are left
+    private static final String NEXT_SCRIPT =
+            "local next = redis.call('lpop', KEYS[2]) " +
+                    "if not next then redis.call('del', KEYS[1]) end " +
+                    "return next";
+
+    static final DefaultRedisScript<Long> ADMIT_REDIS_SCRIPT = new DefaultRedisScript<>(ADMIT_SCRIPT, Long.class);
+    static final DefaultRedisScript<String> NEXT_REDIS_SCRIPT = new DefaultRedisScript<>(NEXT_SCRIPT, String.class);
+
+    @Value("${saga.retry.parked-ttl-ms:600000}")
+    private long parkedTtlMs;
+
+    private final RedisTemplate<String,String> redisTemplate;
+    private final SagaEventCodec sagaEventCodec;
+
+    static String eventId(SagaEvent sagaEvent) {
+        return sagaEvent.getSagaId() + ":" + sagaEvent.getEventType();
+    }
+
+    private static List<String> keys(Long airbnbId) {
+        return List.of(PARKED_PREFIX + airbnbId, HELD_PREFIX + airbnbId);
+    }
+
+    public Admission admit(SagaEvent sagaEvent) {
+        Long result = redisTemplate.execute(ADMIT_REDIS_SCRIPT, keys(sagaEvent.partitionKey()),
+                eventId(sagaEvent), sagaEventCodec.encode(sagaEvent));
+        return result == null ? Admission.FREE : Admission.values()[result.intValue()];
+    }
+
+    /** Marks the listing as waiting for this event; set before the event is scheduled, so it never returns unmarked. */
+    public void park(SagaEvent sagaEvent) {
+        redisTemplate.opsForValue().set(PARKED_PREFIX + sagaEvent.partitionKey(), eventId(sagaEvent),
+                Duration.ofMillis(parkedTtlMs));
+    }
+
+    /** Removes and returns the listing's oldest held event, or null (and unparks the listing) if there is none. */
+    public SagaEvent nextHeld(Long airbnbId) {
+        String next = redisTemplate.execute(NEXT_REDIS_SCRIPT, keys(airbnbId));
+        return next == null ? null : sagaEventCodec.decode(next);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.AirbnbDemo.saga;
+
+import com.example.AirbnbDemo.saga.queue.SagaLanes;
+import com.example.AirbnbDemo.saga.queue.SagaQueue;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delayed-retry stage for failed saga events. Instead of sleeping inside a worker,
+ * a failed event is parked in a sorted set scored by the time of its next attempt,
+ * and a scheduler moves it back onto the work queue once that time has passed. The move
+ * is a single script per batch, so two nodes can never both release the same event.
+ * Each lane has its own retry set, so a released event goes back to the lane it came from.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SagaRetryScheduler {
+
+    public static final String RETRY_QUEUE = "saga:events:retry";
+
+    @Value("${saga.retry.batch-size:100}")
+    private int batchSize;
+
+    private final RedisTemplate<String,String> redisTemplate;
+    private final SagaEventCodec sagaEventCodec;
+    private final SagaQueue sagaQueue;
+    private final SagaLanes sagaLanes;
+
+    public void schedule(SagaEvent sagaEvent, long delayMs) {
+        String value = sagaEventCodec.encode(sagaEvent);
+        String retryKey = SagaLanes.key(RETRY_QUEUE, sagaLanes.laneFor(sagaEvent.getEventType()));
+        redisTemplate.opsForZSet().add(retryKey, value, System.currentTimeMillis() + delayMs);
+    }
+
+    @Scheduled(fixedDelayString = "${saga.retry.poll-interval-ms:200}")
+    public void releaseDueEvents() {
+        try {
+            for (SagaLanes.Lane lane : sagaLanes.lanes()) {
+                String retryKey = SagaLanes.key(RETRY_QUEUE, lane.name());
+                long released;
+                do {
+                    released = sagaQueue.moveDue(retryKey, lane.name(), System.currentTimeMillis(), batchSize);
+                    if (released > 0) log.info("Moved {} due saga events back to lane {}", released, lane.name());
+                } while (released == batchSize);
+            }
+        } catch (Exception e) {
+            // Log-and-continue: the events stay parked and are picked up on the next tick
+            log.error("Failed to release due saga retries: {}", e.getMessage());
+        }
+    }
+
+    public Long size() {
+        long total = 0;
+        for (SagaLanes.Lane lane : sagaLanes.lanes()) {
+            Long size = redisTemplate.opsForZSet().zCard(SagaLanes.key(RETRY_QUEUE, lane.name()));
+            total += size == null ? 0 : size;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.AirbnbDemo.saga;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed set of virtual-thread workers, each draining its own bounded queue.
+ * Tasks are routed by key, so everything submitted for the same key runs on the
+ * same worker in submission order while different keys run in parallel.
+ */
+@Slf4j
+public class SagaWorkerPool implements AutoCloseable {
+
+    private final List<BlockingQueue<Runnable>> partitions;
+    private final List<Thread> workers;
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    private volatile boolean running = true;
+
+    public SagaWorkerPool(String name, int workerCount, int queueCapacity) {
+        if (workerCount < 1) throw new IllegalArgumentException("workerCount must be at least 1");
+        this.partitions = new ArrayList<>(workerCount);
+        this.workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+            partitions.add(queue);
+            workers.add(Thread.ofVirtual().name(name + "-" + i).start(() -> drain(queue)));
+        }
+    }
+
+    /**
+     * Hands the task to the worker owning {@code key}. Blocks when that worker's queue
+     * is full, which pushes back on the dispatcher instead of buffering without bound.
+     */
+    public void submit(Object key, Runnable task) throws InterruptedException {
+        if (!running) throw new IllegalStateException("Saga worker pool is shut down");
+        partitions.get(partitionFor(key)).put(task);
+    }
+
+    public int partitionFor(Object key) {
+        if (key == null) return Math.floorMod(roundRobin.getAndIncrement(), partitions.size());
+        return Math.floorMod(key.hashCode(), partitions.size());
+    }
+
+    public int size() {
+        return partitions.size();
+    }
+
+    public int pending() {
+        return partitions.stream().mapToInt(BlockingQueue::size).sum();
+    }
+
+    private void drain(BlockingQueue<Runnable> queue) {
+        while (running || !queue.isEmpty()) {
+            try {
+                Runnable task = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (task == null) continue;
+                task.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // A task must never kill its worker — the partition would stall forever
+                log.error("Saga worker task failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting work, lets workers finish what is already queued and interrupts
+     * anything still running after the grace period.
+     */
+    public void shutdown(Duration grace) {
+        running = false;
+        long deadline = System.nanoTime() + grace.toNanos();
+        for (Thread worker : workers) {
+            long remaining = deadline - System.nanoTime();
+            try {
+                if (remaining > 0) worker.join(Duration.ofNanos(remaining));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        int dropped = pending();
+        workers.forEach(Thread::interrupt);
+        if (dropped > 0) log.warn("Saga worker pool stopped with {} queued events not processed", dropped);
+    }
+
+    @Override
+    public void close() {
+        shutdown(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.AirbnbDemo.saga.queue;
+
+import com.example.AirbnbDemo.saga.SagaEventPublisher;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.List;
+
+/**
+ * Publishing side shared by the list-based queues: events are {@code RPUSH}ed onto
+ * {@code saga:events}, or {@code saga:events:<lane>} for lanes other than the default.
+ */
+public abstract class ListSagaQueue implements SagaQueue {
+
+    protected final RedisTemplate<String,String> redisTemplate;
+    protected final SagaLanes sagaLanes;
+
+    // Claim-and-requeue in one step so two nodes can never both release the same event
+    private static final String MOVE_DUE_SCRIPT =
+            "local due = redis.call('zrangebyscore', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2])) " +
+                    "for _, event in ipairs(due) do " +
+                    "    redis.call('zrem', KEYS[1], event) " +
+                    "    redis.call('rpush', KEYS[2], event) " +
+                    "end " +
+                    "return #due";
+
+    private static final DefaultRedisScript<Long> MOVE_DUE_REDIS_SCRIPT =
+            new DefaultRedisScript<>(MOVE_DUE_SCRIPT, Long.class);
+
+    protected ListSagaQueue(RedisTemplate<String,String> redisTemplate, SagaLanes sagaLanes) {
+        this.redisTemplate = redisTemplate;
+        this.sagaLanes = sagaLanes;
+    }
+
+    @Override
+    public void publish(String lane, String event) {
+        redisTemplate.opsForList().rightPush(queueKey(lane), event);
+    }
+
+    // One multi-value RPUSH for the whole batch
+    @Override
+    public void publishAll(String lane, List<String> events) {
+        if (events.isEmpty()) return;
+        redisTemplate.opsForList().rightPushAll(queueKey(lane), events);
+    }
+
+    @Override
+    public long moveDue(String zsetKey, String lane, long maxScore, int limit) {
+        Long moved = redisTemplate.execute(MOVE_DUE_REDIS_SCRIPT,
+                List.of(zsetKey, queueKey(lane)),
+                String.valueOf(maxScore), String.valueOf(limit));
+        return moved == null ? 0 : moved;
+    }
+
+    @Override
+    public long backlog(String lane) {
+        Long size = redisTemplate.opsForList().size(queueKey(lane));
+        return size == null ? 0 : size;
+    }
+
+    protected static String queueKey(String lane) {
+        return SagaLanes.key(SagaEventPublisher.SAGA_QUEUE, lane);
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.AirbnbDemo.saga.queue;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisListCommands;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reliable-queue mode: each event is atomically moved from its lane list into this
+ * consumer's processing list for that lane, and it is only removed from there by {@link #ack}.
+ * A crash between the two leaves the event in the processing list, from where it is
+ * put back on its lane either when this consumer restarts or by the reaper of any
+ * node once its visibility timeout has passed.
+ *
+ * Lanes are drained by weight with a script that moves a whole quota and stamps its
+ * deadlines in one call. {@code BLMOVE} can only wait on one list, so when every lane is
+ * empty the consumer blocks on the highest-priority lane for at most
+ * {@code saga.queue.lane-block-ms} before checking all lanes again.
+ *
+ * Delivery is at-least-once — an event whose timeout expires while it is still being
+ * handled will run twice, so the visibility timeout must cover worker queueing plus
+ * handler time.
+ */
+@Component
+@ConditionalOnProperty(name = "saga.queue.mode", havingValue = "reliable")
+@Slf4j
+public class ReliableSagaQueue extends ListSagaQueue {
+
+    public static final String PROCESSING_PREFIX = "saga:events:processing:";
+    public static final String CONSUMERS_KEY = "saga:consumers";
+    private static final String DEADLINES_SUFFIX = ":deadlines";
+    private static final String HEARTBEAT_PREFIX = "saga:consumer:heartbeat:";
+
+    @Value("${saga.consumer.id:${HOSTNAME:}}")
+    private String consumerId;
+
+    @Value("${saga.queue.visibility-timeout-ms:120000}")
+    private long visibilityTimeoutMs;
+
+    @Value("${saga.queue.heartbeat-ttl-ms:30000}")
+    private long heartbeatTtlMs;
+
+    @Value("${saga.queue.lane-block-ms:100}")
+    private long laneBlockMs;
+
+    public ReliableSagaQueue(RedisTemplate<String,String> redisTemplate, SagaLanes sagaLanes) {
+        super(redisTemplate, sagaLanes);
+    }
+
+    // Moves up to ARGV[1] events into the processing list, each with its deadline
+    private static final String MOVE_BATCH_SCRIPT =
+            "local out = {} " +
+                    "for i = 1, tonumber(ARGV[1]) do " +
+                    "    local event = redis.call('lmove', KEYS[1], KEYS[2], 'LEFT', 'RIGHT') " +
+                    "    if not event then break end " +
+                    "    redis.call('zadd', KEYS[3], ARGV[2], event) " +
+                    "    table.insert(out, event) " +
+                    "end " +
+                    "return out";
+
+    private static final String ACK_SCRIPT =
+            "redis.call('lrem', KEYS[1], 1, ARGV[1]) " +
+                    "return redis.call('zrem', KEYS[2], ARGV[1])";
+
+    // Puts this consumer's leftovers back at the HEAD of the queue, preserving their order
+    private static final String RECOVER_SCRIPT =
+            "local n = 0 " +
+                    "while redis.call('lmove', KEYS[1], KEYS[3], 'RIGHT', 'LEFT') do n = n + 1 end " +
+                    "redis.call('del', KEYS[2]) " +
+                    "return n";
+
+    // KEYS: heartbeat, consumers set, then (processing, deadlines, lane queue) per lane.
+    // An entry is stale if its deadline passed, or if it never got one and its owner is dead;
+    // a dead consumer is forgotten once all of its processing lists are empty.
+    private static final String REAP_SCRIPT =
+            "local alive = redis.call('exists', KEYS[1]) == 1 " +
+                    "local now = tonumber(ARGV[1]) " +
+                    "local requeued = 0 " +
+                    "local remaining = 0 " +
+                    "for k = 3, #KEYS, 3 do " +
+                    "    for _, item in ipairs(redis.call('lrange', KEYS[k], 0, -1)) do " +
+                    "        local deadline = redis.call('zscore', KEYS[k + 1], item) " +
+                    "        if (deadline and tonumber(deadline) <= now) or ((not deadline) and (not alive)) then " +
+                    "            redis.call('lrem', KEYS[k], 1, item) " +
+                    "            redis.call('zrem', KEYS[k + 1], item) " +
+                    "            redis.call('rpush', KEYS[k + 2], item) " +
+                    "            requeued = requeued + 1 " +
+                    "        end " +
+                    "    end " +
+                    "    remaining = remaining + redis.call('llen', KEYS[k]) " +
+                    "end " +
+                    "if (not alive) and remaining == 0 then " +
+                    "    for k = 3, #KEYS, 3 do redis.call('del', KEYS[k + 1]) end " +
+                    "    redis.call('srem', KEYS[2], ARGV[2]) " +
+                    "end " +
+                    "return requeued";
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> MOVE_BATCH_REDIS_SCRIPT = new DefaultRedisScript<>(MOVE_BATCH_SCRIPT, List.class);
+    private static final DefaultRedisScript<Long> ACK_REDIS_SCRIPT = new DefaultRedisScript<>(ACK_SCRIPT, Long.class);
+    private static final DefaultRedisScript<Long> RECOVER_REDIS_SCRIPT = new DefaultRedisScript<>(RECOVER_SCRIPT, Long.class);
+    private static final DefaultRedisScript<Long> REAP_REDIS_SCRIPT = new DefaultRedisScript<>(REAP_SCRIPT, Long.class);
+
+    @PostConstruct
+    public void recoverInFlight() {
+        consumerId = SagaConsumerIds.resolve(consumerId);
+        if (SagaConsumerIds.isGenerated(consumerId)) {
+            log.warn("Neither saga.consumer.id nor HOSTNAME is set; using {} for this run. Events in flight at a crash "
+                    + "are requeued by the reaper, not on restart — set saga.consumer.id to a stable per-instance value", consumerId);
+        }
+        try {
+            heartbeat();
+            redisTemplate.opsForSet().add(CONSUMERS_KEY, consumerId);
+            for (SagaLanes.Lane lane : sagaLanes.lanes()) {
+                Long recovered = redisTemplate.execute(RECOVER_REDIS_SCRIPT,
+                        List.of(processingKey(consumerId, lane.name()), deadlinesKey(consumerId, lane.name()), queueKey(lane.name())));
+                if (recovered != null && recovered > 0) {
+                    log.warn("Recovered {} unacknowledged saga events on lane {} left by previous run of consumer {}",
+                            recovered, lane.name(), consumerId);
+                }
+            }
+        } catch (Exception e) {
+            // Not fatal — the reaper will requeue them once their visibility timeout passes
+            log.error("Failed to recover in-flight saga events for consumer {}: {}", consumerId, e.getMessage());
+        }
+    }
+
+    @Override
+    public List<SagaMessage> poll(Duration timeout) {
+        List<SagaMessage> messages = new ArrayList<>();
+        String deadline = String.valueOf(System.currentTimeMillis() + visibilityTimeoutMs);
+        int carry = 0;
+        for (SagaLanes.Lane lane : sagaLanes.lanes()) {
+            int quota = lane.weight() + carry;
+            List<?> moved = redisTemplate.execute(MOVE_BATCH_REDIS_SCRIPT,
+                    List.of(queueKey(lane.name()), processingKey(consumerId, lane.name()), deadlinesKey(consumerId, lane.name())),
+                    String.valueOf(quota), deadline);
+            int taken = moved == null ? 0 : moved.size();
+            if (moved != null) {
+                for (Object event : moved) messages.add(new SagaMessage(lane.name(), event.toString(), event.toString()));
+            }
+            carry = quota - taken;
+        }
+        if (!messages.isEmpty()) return messages;
+
+        SagaLanes.Lane first = sagaLanes.lanes().getFirst();
+        Duration block = sagaLanes.lanes().size() == 1 || timeout.toMillis() <= laneBlockMs
+                ? timeout : Duration.ofMillis(laneBlockMs);
+        String event = redisTemplate.opsForList().move(
+                queueKey(first.name()), RedisListCommands.Direction.LEFT,
+                processingKey(consumerId, first.name()), RedisListCommands.Direction.RIGHT,
+                block);
+        if (event == null || event.isEmpty()) return List.of();
+        redisTemplate.opsForZSet().add(deadlinesKey(consumerId, first.name()), event, System.currentTimeMillis() + visibilityTimeoutMs);
+        return List.of(new SagaMessage(first.name(), event, event));
+    }
+
+    @Override
+    public void ack(SagaMessage message) {
+        redisTemplate.execute(ACK_REDIS_SCRIPT,
+                List.of(processingKey(consumerId, message.lane()), deadlinesKey(consumerId, message.lane())), message.id());
+    }
+
+    @Override
+    public long inFlight() {
+        Set<String> consumers = redisTemplate.opsForSet().members(CONSUMERS_KEY);
+        if (consumers == null) return 0;
+        long total = 0;
+        for (String consumer : consumers) {
+            for (SagaLanes.Lane lane : sagaLanes.lanes()) {
+                Long size = redisTemplate.opsForList().size(processingKey(consumer, lane.name()));
+                total += size == null ? 0 : size;
+            }
+        }
+        return total;
+    }
+
+    @Scheduled(fixedDelayString = "${saga.queue.heartbeat-interval-ms:10000}")
+    public void heartbeat() {
+        try {
+            redisTemplate.opsForValue().set(HEARTBEAT_PREFIX + consumerId, "1", Duration.ofMillis(heartbeatTtlMs));
+        } catch (Exception e) {
+            log.error("Failed to refresh saga consumer heartbeat: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${saga.queue.reaper-interval-ms:15000}")
+    public void requeueExpired() {
+        try {
+            Set<String> consumers = redisTemplate.opsForSet().members(CONSUMERS_KEY);
+            if (consumers == null) return;
+            String now = String.valueOf(System.currentTimeMillis());
+            for (String consumer : consumers) {
+                List<String> keys = new ArrayList<>();
+                keys.add(HEARTBEAT_PREFIX + consumer);
+                keys.add(CONSUMERS_KEY);
+                for (SagaLanes.Lane lane : sagaLanes.lanes()) {
+                    keys.add(processingKey(consumer, lane.name()));
+                    keys.add(deadlinesKey(consumer, lane.name()));
+                    keys.add(queueKey(lane.name()));
+                }
+                Long requeued = redisTemplate.execute(REAP_REDIS_SCRIPT, keys, now, consumer);
+                if (requeued != null && requeued > 0) {
+                    log.warn("Requeued {} saga events whose visibility timeout expired on consumer {}", requeued, consumer);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Saga reaper run failed: {}", e.getMessage());
+        }
+    }
+
+    private static String processingKey(String consumer, String lane) {
+        return SagaLanes.key(PROCESSING_PREFIX + consumer, lane);
+    }
+
+    private static String deadlinesKey(String consumer, String lane) {
+        return processingKey(consumer, lane) + DEADLINES_SUFFIX;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.AirbnbDemo.saga.queue;
+
+import java.util.UUID;
+
+/**
+ * Consumer id of this instance for the queues that track in-flight events per consumer.
+ * Two live instances must never share one: each would recover and reclaim the other's
+ * in-flight events.
+ */
+final class SagaConsumerIds {
+
+    static final String GENERATED_PREFIX = "saga-consumer-";
+
+    private SagaConsumerIds() {
+    }
+
+    // saga.consumer.id, else $HOSTNAME; with neither, a fresh id for this run rather than a shared fallback
+    static String resolve(String configured) {
+        if (configured != null && !configured.isBlank()) return configured.trim();
+        return GENERATED_PREFIX + UUID.randomUUID();
+    }
+
+    static boolean isGenerated(String consumerId) {
+        return consumerId.startsWith(GENERATED_PREFIX);
+    }
+}
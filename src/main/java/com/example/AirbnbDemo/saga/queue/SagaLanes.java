@@ -0,0 +1,97 @@
+package com.example.AirbnbDemo.saga.queue;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Priority lanes for saga events. Each lane is its own Redis key, so a backlog in one lane
+ * cannot sit in front of the events routed to a higher one.
+ *
+ * {@code saga.lanes.weights} lists the lanes in priority order with the number of events
+ * taken from each per drain cycle ({@code urgent:40,default:10}); quota a lane leaves
+ * unused passes down to the next one, so an idle urgent lane costs the others nothing.
+ * {@code saga.lanes.routes} maps event types to lanes; anything unlisted goes to
+ * {@code default}, whose keys are the original single-queue keys.
+ *
+ * Events are only ordered within a lane. The lock-releasing types, {@code BOOKING_CANCELLED}
+ * and {@code BOOKING_COMPENSATED}, may jump ahead (and do by default): their handlers and the
+ * confirm they can overtake check the booking's state before acting. The rest of the booking
+ * lifecycle still relies on arrival order, so those types can be routed only all to one lane.
+ */
+@Component
+public class SagaLanes {
+
+    public static final String DEFAULT_LANE = "default";
+
+    // Event types that act on one booking and depend on each other's order
+    static final Set<String> ORDERED_LIFECYCLE = Set.of(
+            "BOOKING_CONFIRM_REQUESTED", "BOOKING_CONFIRMED", "BOOKING_CANCEL_REQUESTED");
+
+    public record Lane(String name, int weight) {
+    }
+
+    @Value("${saga.lanes.weights:urgent:40,default:10}")
+    private String weights;
+
+    @Value("${saga.lanes.routes:BOOKING_CANCELLED:urgent,BOOKING_COMPENSATED:urgent}")
+    private String routes;
+
+    private List<Lane> lanes;
+    private Map<String, String> laneByEventType;
+
+    @PostConstruct
+    public void init() {
+        List<Lane> parsedLanes = new ArrayList<>();
+        for (Map.Entry<String, String> entry : parsePairs(weights).entrySet()) {
+            int weight = Integer.parseInt(entry.getValue());
+            if (weight < 1) throw new IllegalStateException("saga.lanes.weights: weight of " + entry.getKey() + " must be at least 1");
+            parsedLanes.add(new Lane(entry.getKey(), weight));
+        }
+        if (parsedLanes.stream().noneMatch(lane -> lane.name().equals(DEFAULT_LANE))) {
+            throw new IllegalStateException("saga.lanes.weights must include the '" + DEFAULT_LANE + "' lane");
+        }
+        Map<String, String> parsedRoutes = parsePairs(routes);
+        for (Map.Entry<String, String> route : parsedRoutes.entrySet()) {
+            if (parsedLanes.stream().noneMatch(lane -> lane.name().equals(route.getValue()))) {
+                throw new IllegalStateException("saga.lanes.routes: " + route.getKey() + " routed to unknown lane " + route.getValue());
+            }
+        }
+        Set<String> lifecycleLanes = new TreeSet<>();
+        for (String eventType : ORDERED_LIFECYCLE) lifecycleLanes.add(parsedRoutes.getOrDefault(eventType, DEFAULT_LANE));
+        if (lifecycleLanes.size() > 1) {
+            throw new IllegalStateException("saga.lanes.routes: " + ORDERED_LIFECYCLE
+                    + " must all be routed to the same lane, but are split over " + lifecycleLanes);
+        }
+        lanes = List.copyOf(parsedLanes);
+        laneByEventType = Map.copyOf(parsedRoutes);
+    }
+
+    // Priority order, highest first
+    public List<Lane> lanes() {
+        return lanes;
+    }
+
+    public String laneFor(String eventType) {
+        return eventType == null ? DEFAULT_LANE : laneByEventType.getOrDefault(eventType, DEFAULT_LANE);
+    }
+
+    // The default lane keeps the un-suffixed key, so a single-lane setup uses the same keys as before
+    public static String key(String baseKey, String lane) {
+        return DEFAULT_LANE.equals(lane) ? baseKey : baseKey + ":" + lane;
+    }
+
+    // "a:1,b:2" → {a=1, b=2}, insertion-ordered
+    private static Map<String, String> parsePairs(String value) {
+        Map<String, String> pairs = new LinkedHashMap<>();
+        if (value == null || value.isBlank()) return pairs;
+        for (String pair : value.split(",")) {
+            int separator = pair.indexOf(':');
+            if (separator <= 0) throw new IllegalStateException("Expected name:value but got '" + pair.trim() + "'");
+            pairs.put(pair.substring(0, separator).trim(), pair.substring(separator + 1).trim());
+        }
+        return pairs;
+    }
+}
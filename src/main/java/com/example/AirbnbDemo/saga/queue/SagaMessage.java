@@ -0,0 +1,9 @@
+package com.example.AirbnbDemo.saga.queue;
+
+/**
+ * A serialized saga event as delivered by a {@link SagaQueue}; {@code lane} is the
+ * {@link SagaLanes} lane it was read from and {@code id} is whatever the queue needs to
+ * acknowledge it later.
+ */
+public record SagaMessage(String lane, String id, String body) {
+}
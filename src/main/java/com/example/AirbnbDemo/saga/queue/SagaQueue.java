@@ -0,0 +1,40 @@
+package com.example.AirbnbDemo.saga.queue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Transport for saga events. {@link #poll} hands out raw serialized events; every message
+ * handed out must be passed to {@link #ack} once it has been dealt with (processed, parked
+ * for retry or dead-lettered). Implementations that track in-flight messages redeliver
+ * anything that is never acknowledged.
+ *
+ * Events are published to one of the {@link SagaLanes} lanes and {@link #poll} drains the
+ * lanes by weight, highest priority first.
+ *
+ * Selected with {@code saga.queue.mode}: {@code simple} and {@code reliable} use the
+ * {@code saga:events} lists, {@code stream} uses Redis Streams with a consumer group.
+ */
+public interface SagaQueue {
+
+    void publish(String lane, String event);
+
+    // Publishes a batch in one round trip; order within the batch is preserved
+    default void publishAll(String lane, List<String> events) {
+        for (String event : events) publish(lane, event);
+    }
+
+    List<SagaMessage> poll(Duration timeout);
+    void ack(SagaMessage message);
+
+    /**
+     * Atomically moves up to {@code limit} members of the sorted set {@code zsetKey} whose
+     * score is at most {@code maxScore} onto {@code lane}. Returns how many were moved.
+     */
+    long moveDue(String zsetKey, String lane, long maxScore, int limit);
+
+    // Events waiting to be delivered on one lane
+    long backlog(String lane);
+    // Events delivered but not yet acknowledged
+    long inFlight();
+}
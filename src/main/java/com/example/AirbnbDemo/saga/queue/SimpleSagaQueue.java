@@ -0,0 +1,75 @@
+package com.example.AirbnbDemo.saga.queue;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plain {@code LPOP} on the lane lists. At-most-once: an event popped by a node
+ * that dies before handling it is gone.
+ *
+ * Each poll pops up to each lane's weight with {@code LPOP key count}, highest priority
+ * first; only when every lane is empty does it block, on all lanes at once with a
+ * multi-key {@code BLPOP}.
+ */
+@Component
+@ConditionalOnProperty(name = "saga.queue.mode", havingValue = "simple", matchIfMissing = true)
+public class SimpleSagaQueue extends ListSagaQueue {
+
+    public SimpleSagaQueue(RedisTemplate<String,String> redisTemplate, SagaLanes sagaLanes) {
+        super(redisTemplate, sagaLanes);
+    }
+
+    @Override
+    public List<SagaMessage> poll(Duration timeout) {
+        List<SagaMessage> messages = new ArrayList<>();
+        int carry = 0;
+        for (SagaLanes.Lane lane : sagaLanes.lanes()) {
+            int quota = lane.weight() + carry;
+            List<String> events = redisTemplate.opsForList().leftPop(queueKey(lane.name()), quota);
+            int taken = events == null ? 0 : events.size();
+            if (events != null) {
+                for (String event : events) messages.add(new SagaMessage(lane.name(), event, event));
+            }
+            carry = quota - taken;
+        }
+        if (!messages.isEmpty()) return messages;
+        return blockingPop(timeout);
+    }
+
+    @Override
+    public void ack(SagaMessage message) {
+        // nothing is tracked in flight
+    }
+
+    @Override
+    public long inFlight() {
+        return 0;
+    }
+
+    private List<SagaMessage> blockingPop(Duration timeout) {
+        List<SagaLanes.Lane> lanes = sagaLanes.lanes();
+        byte[][] keys = new byte[lanes.size()][];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = queueKey(lanes.get(i).name()).getBytes(StandardCharsets.UTF_8);
+        }
+        int timeoutSeconds = (int) Math.max(1, timeout.toSeconds());
+        // BLPOP returns [key, value] from the first non-empty key in the order given
+        List<byte[]> popped = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.listCommands().bLPop(timeoutSeconds, keys));
+        if (popped == null || popped.size() < 2) return List.of();
+        String key = new String(popped.get(0), StandardCharsets.UTF_8);
+        String event = new String(popped.get(1), StandardCharsets.UTF_8);
+        if (event.isEmpty()) return List.of();
+        for (SagaLanes.Lane lane : lanes) {
+            if (queueKey(lane.name()).equals(key)) return List.of(new SagaMessage(lane.name(), event, event));
+        }
+        return List.of(new SagaMessage(SagaLanes.DEFAULT_LANE, event, event));
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.AirbnbDemo.saga.queue;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Redis Streams transport. Events are appended with {@code XADD}, read in batches of
+ * {@code saga.stream.batch-size} through a consumer group, and acknowledged with
+ * {@code XACK}. Several app instances can share one group; unacknowledged entries stay in
+ * the group's pending-entries list (visible via {@code XPENDING}) and are taken over with
+ * {@code XAUTOCLAIM} once they have been idle longer than the visibility timeout.
+ *
+ * Acknowledged entries are not removed by {@code XACK}, so every {@code saga.stream.trim-interval-ms}
+ * each stream is trimmed with {@code XTRIM MINID ~} up to its acked watermark — the oldest
+ * entry still pending, or the last one delivered if none is — of every group on it.
+ * Entries that were never delivered are never trimmed.
+ *
+ * Each lane is its own stream ({@code saga:stream}, {@code saga:stream:<lane>}). Lanes are
+ * read by weight without blocking; only when all are empty does one {@code XREADGROUP}
+ * block on every lane stream at once.
+ */
+@Component
+@ConditionalOnProperty(name = "saga.queue.mode", havingValue = "stream")
+@RequiredArgsConstructor
+@Slf4j
+public class StreamSagaQueue implements SagaQueue {
+
+    public static final String SAGA_STREAM = "saga:stream";
+    private static final String EVENT_FIELD = "event";
+
+    @Value("${saga.stream.group:saga-workers}")
+    private String group;
+
+    @Value("${saga.consumer.id:${HOSTNAME:}}")
+    private String consumerId;
+
+    @Value("${saga.stream.batch-size:50}")
+    private int batchSize;
+
+    @Value("${saga.queue.visibility-timeout-ms:120000}")
+    private long visibilityTimeoutMs;
+
+    @Value("${saga.stream.claim-interval-ms:15000}")
+    private long claimIntervalMs;
+
+    private final RedisTemplate<String,String> redisTemplate;
+    private final SagaLanes sagaLanes;
+
+    // Only touched by the dispatcher thread; a lane is dropped once its own pending entries are re-read
+    private final Map<String, String> ownPendingCursors = new LinkedHashMap<>();
+    private long nextClaimAt;
+    private StreamOffset<String>[] allLanesOffsets;
+
+    // Entries the fallback in BACKLOG_SCRIPT counts at most
+    private static final int BACKLOG_SCAN_LIMIT = 100_000;
+
+    private static final String PUBLISH_SCRIPT =
+            "return redis.call('xadd', KEYS[1], '*', 'event', ARGV[1])";
+
+    private static final String MOVE_DUE_SCRIPT =
+            "local due = redis.call('zrangebyscore', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2])) " +
+                    "for _, event in ipairs(due) do " +
+                    "    redis.call('zrem', KEYS[1], event) " +
+                    "    redis.call('xadd', KEYS[2], '*', 'event', event) " +
+                    "end " +
+                    "return #due";
+
+    // Flattens the XAUTOCLAIM reply to {id1, event1, id2, event2, ...}
+    private static final String AUTOCLAIM_SCRIPT =
+            "local reply = redis.call('xautoclaim', KEYS[1], ARGV[1], ARGV[2], ARGV[3], '0-0', 'COUNT', ARGV[4]) " +
+                    "local out = {} " +
+                    "for _, entry in ipairs(reply[2]) do " +
+                    "    local fields = entry[2] " +
+                    "    if fields then " +
+                    "        for i = 1, #fields, 2 do " +
+                    "            if fields[i] == 'event' then " +
+                    "                table.insert(out, entry[1]) " +
+                    "                table.insert(out, fields[i + 1]) " +
+                    "            end " +
+                    "        end " +
+                    "    end " +
+                    "end " +
+                    "return out";
+
+    // Undelivered entries for the group: XINFO GROUPS lag, or — where Redis cannot tell (before 7.0,
+    // or after deletions inside the range) — the entries after its last-delivered-id, counted up to ARGV[2]
+    private static final String BACKLOG_SCRIPT =
+            "if redis.call('exists', KEYS[1]) == 0 then return 0 end " +
+                    "for _, group in ipairs(redis.call('xinfo', 'groups', KEYS[1])) do " +
+                    "    local info = {} " +
+                    "    for i = 1, #group, 2 do info[group[i]] = group[i + 1] end " +
+                    "    if info['name'] == ARGV[1] then " +
+                    "        if info['lag'] then return info['lag'] end " +
+                    "        return #redis.call('xrange', KEYS[1], '(' .. info['last-delivered-id'], '+', 'COUNT', tonumber(ARGV[2])) " +
+                    "    end " +
+                    "end " +
+                    "return redis.call('xlen', KEYS[1])";
+
+    // Trims below the lowest acked watermark over all groups: per group the first pending id,
+    // or its last-delivered-id when nothing is pending. A stream without groups is left alone.
+    private static final String TRIM_SCRIPT =
+            "local function before(a, b) " +
+                    "    local ams, aseq = string.match(a, '(%d+)-(%d+)') " +
+                    "    local bms, bseq = string.match(b, '(%d+)-(%d+)') " +
+                    "    if tonumber(ams) ~= tonumber(bms) then return tonumber(ams) < tonumber(bms) end " +
+                    "    return tonumber(aseq) < tonumber(bseq) " +
+                    "end " +
+                    "if redis.call('exists', KEYS[1]) == 0 then return 0 end " +
+                    "local watermark = nil " +
+                    "for _, group in ipairs(redis.call('xinfo', 'groups', KEYS[1])) do " +
+                    "    local info = {} " +
+                    "    for i = 1, #group, 2 do info[group[i]] = group[i + 1] end " +
+                    "    local floor = info['last-delivered-id'] " +
+                    "    local pending = redis.call('xpending', KEYS[1], info['name']) " +
+                    "    if pending[1] > 0 then floor = pending[2] end " +
+                    "    if (not watermark) or before(floor, watermark) then watermark = floor end " +
+                    "end " +
+                    "if not watermark then return 0 end " +
+                    "return redis.call('xtrim', KEYS[1], 'MINID', '~', watermark)";
+
+    private static final DefaultRedisScript<String> PUBLISH_REDIS_SCRIPT = new DefaultRedisScript<>(PUBLISH_SCRIPT, String.class);
+    private static final DefaultRedisScript<Long> MOVE_DUE_REDIS_SCRIPT = new DefaultRedisScript<>(MOVE_DUE_SCRIPT, Long.class);
+    private static final DefaultRedisScript<Long> BACKLOG_REDIS_SCRIPT = new DefaultRedisScript<>(BACKLOG_SCRIPT, Long.class);
+    private static final DefaultRedisScript<Long> TRIM_REDIS_SCRIPT = new DefaultRedisScript<>(TRIM_SCRIPT, Long.class);
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> AUTOCLAIM_REDIS_SCRIPT = new DefaultRedisScript<>(AUTOCLAIM_SCRIPT, List.class);
+
+    @PostConstruct
+    public void createGroup() {
+        consumerId = SagaConsumerIds.resolve(consumerId);
+        if (SagaConsumerIds.isGenerated(consumerId)) {
+            log.warn("Neither saga.consumer.id nor HOSTNAME is set; using {} for this run. Its unacknowledged entries "
+                    + "are claimed by other consumers once idle, not re-read on restart", consumerId);
+        }
+        for (SagaLanes.Lane lane : sagaLanes.lanes()) {
+            String stream = streamKey(lane.name());
+            ownPendingCursors.put(lane.name(), "0-0");
+            try {
+                redisTemplate.opsForStream().createGroup(stream, ReadOffset.from("0"), group);
+                log.info("Created consumer group {} on {}", group, stream);
+            } catch (Exception e) {
+                if (!String.valueOf(e.getMessage()).contains("BUSYGROUP")) {
+                    log.error("Failed to create consumer group {} on {}: {}", group, stream, e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void publish(String lane, String event) {
+        redisTemplate.execute(PUBLISH_REDIS_SCRIPT, List.of(streamKey(lane)), event);
+    }
+
+    // The publish script is a bare XADD, so a batch sends the XADDs themselves in one pipeline
+    @Override
+    public void publishAll(String lane, List<String> events) {
+        if (events.isEmpty()) return;
+        byte[] stream = streamKey(lane).getBytes(StandardCharsets.UTF_8);
+        byte[] field = EVENT_FIELD.getBytes(StandardCharsets.UTF_8);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String event : events) {
+                connection.streamCommands().xAdd(
+                        MapRecord.create(stream, Map.of(field, event.getBytes(StandardCharsets.UTF_8))));
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public List<SagaMessage> poll(Duration timeout) {
+        // After a restart, first re-deliver whatever this consumer had read but never acknowledged
+        Iterator<Map.Entry<String, String>> cursors = ownPendingCursors.entrySet().iterator();
+        while (cursors.hasNext()) {
+            Map.Entry<String, String> cursor = cursors.next();
+            List<SagaMessage> pending = read(StreamReadOptions.empty().count(batchSize),
+                    StreamOffset.create(streamKey(cursor.getKey()), ReadOffset.from(cursor.getValue())));
+            if (!pending.isEmpty()) {
+                cursor.setValue(pending.getLast().id());
+                return pending;
+            }
+            cursors.remove();
+        }
+        long now = System.currentTimeMillis();
+        if (now >= nextClaimAt) {
+            nextClaimAt = now + claimIntervalMs;
+            List<SagaMessage> claimed = claimStuck();
+            if (!claimed.isEmpty()) return claimed;
+        }
+        List<SagaMessage> messages = new ArrayList<>();
+        int carry = 0;
+        for (SagaLanes.Lane lane : sagaLanes.lanes()) {
+            int quota = lane.weight() + carry;
+            List<SagaMessage> read = read(StreamReadOptions.empty().count(quota),
+                    StreamOffset.create(streamKey(lane.name()), ReadOffset.lastConsumed()));
+            messages.addAll(read);
+            carry = quota - read.size();
+        }
+        if (!messages.isEmpty()) return messages;
+        return read(StreamReadOptions.empty().count(batchSize).block(timeout), allLanesOffsets());
+    }
+
+    @Override
+    public void ack(SagaMessage message) {
+        redisTemplate.opsForStream().acknowledge(streamKey(message.lane()), group, message.id());
+    }
+
+    @Override
+    public long moveDue(String zsetKey, String lane, long maxScore, int limit) {
+        Long moved = redisTemplate.execute(MOVE_DUE_REDIS_SCRIPT, List.of(zsetKey, streamKey(lane)),
+                String.valueOf(maxScore), String.valueOf(limit));
+        return moved == null ? 0 : moved;
+    }
+
+    // XLEN would also count entries already delivered and acknowledged — the group's lag is what is still waiting
+    @Override
+    public long backlog(String lane) {
+        Long lag = redisTemplate.execute(BACKLOG_REDIS_SCRIPT, List.of(streamKey(lane)), group, String.valueOf(BACKLOG_SCAN_LIMIT));
+        return lag == null ? 0 : lag;
+    }
+
+    @Override
+    public long inFlight() {
+        long total = 0;
+        for (SagaLanes.Lane lane : sagaLanes.lanes()) {
+            PendingMessagesSummary summary = redisTemplate.opsForStream().pending(streamKey(lane.name()), group);
+            total += summary == null ? 0 : summary.getTotalPendingMessages();
+        }
+        return total;
+    }
+
+    @Scheduled(fixedDelayString = "${saga.stream.trim-interval-ms:60000}")
+    public void trimAcknowledged() {
+        for (SagaLanes.Lane lane : sagaLanes.lanes()) {
+            try {
+                Long trimmed = redisTemplate.execute(TRIM_REDIS_SCRIPT, List.of(streamKey(lane.name())));
+                if (trimmed != null && trimmed > 0) log.debug("Trimmed {} acknowledged entries from {}", trimmed, streamKey(lane.name()));
+            } catch (Exception e) {
+                // Log-and-continue: the stream only grows until the next run
+                log.error("Failed to trim saga stream {}: {}", streamKey(lane.name()), e.getMessage());
+            }
+        }
+    }
+
+    // Built once: the multi-stream XREADGROUP needs them as an array, and creating a generic array
+    // is always an unchecked conversion — kept to this method, the array never leaves the class
+    @SuppressWarnings("unchecked")
+    private StreamOffset<String>[] allLanesOffsets() {
+        if (allLanesOffsets == null) {
+            allLanesOffsets = sagaLanes.lanes().stream()
+                    .map(lane -> StreamOffset.create(streamKey(lane.name()), ReadOffset.lastConsumed()))
+                    .toArray(StreamOffset[]::new);
+        }
+        return allLanesOffsets;
+    }
+
+    @SafeVarargs
+    private List<SagaMessage> read(StreamReadOptions options, StreamOffset<String>... offsets) {
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(
+                Consumer.from(group, consumerId), options, offsets);
+        if (records == null || records.isEmpty()) return List.of();
+        List<SagaMessage> messages = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            Object event = record.getValue().get(EVENT_FIELD);
+            messages.add(new SagaMessage(laneOf(record.getStream()), record.getId().getValue(), event == null ? "" : event.toString()));
+        }
+        return messages;
+    }
+
+    private List<SagaMessage> claimStuck() {
+        List<SagaMessage> claimed = new ArrayList<>();
+        for (SagaLanes.Lane lane : sagaLanes.lanes()) {
+            List<?> flat = redisTemplate.execute(AUTOCLAIM_REDIS_SCRIPT, List.of(streamKey(lane.name())),
+                    group, consumerId, String.valueOf(visibilityTimeoutMs), String.valueOf(batchSize));
+            if (flat == null) continue;
+            for (int i = 0; i + 1 < flat.size(); i += 2) {
+                claimed.add(new SagaMessage(lane.name(), flat.get(i).toString(), flat.get(i + 1).toString()));
+            }
+        }
+        if (!claimed.isEmpty()) {
+            log.warn("Claimed {} saga events idle for more than {} ms", claimed.size(), visibilityTimeoutMs);
+        }
+        return claimed;
+    }
+
+    private String laneOf(String stream) {
+        for (SagaLanes.Lane lane : sagaLanes.lanes()) {
+            if (streamKey(lane.name()).equals(stream)) return lane.name();
+        }
+        return SagaLanes.DEFAULT_LANE;
+    }
+
+    private static String streamKey(String lane) {
+        return SagaLanes.key(SAGA_STREAM, lane);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.AirbnbDemo.search;
+
+import com.example.AirbnbDemo.models.readModels.AvailabilityCalendar;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One listing in the {@link ListingSearchIndex}: what the search filters on, and a bitset of
+ * free nights per year (bit = day of year − 1). Never mutated once indexed — an update builds
+ * a new entry, so a search running next to a CDC update sees either the old or the new one.
+ */
+public record IndexedListing(long id, String name, String location, long pricePerNight,
+                             Double latitude, Double longitude, Map<Integer, BitSet> freeNights) {
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+
+    boolean hasCoordinates() {
+        return latitude != null && longitude != null;
+    }
+
+    // Great-circle (haversine) distance from the given point
+    double distanceKm(double lat, double lon) {
+        double dLat = Math.toRadians(latitude - lat);
+        double dLon = Math.toRadians(longitude - lon);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat)) * Math.cos(Math.toRadians(latitude)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // Every night from firstNight to lastNight is free: for each year touched, no clear bit inside the range
+    boolean isFree(LocalDate firstNight, LocalDate lastNight) {
+        for (int year = firstNight.getYear(); year <= lastNight.getYear(); year++) {
+            BitSet free = freeNights.get(year);
+            if (free == null) return false;
+            int first = year == firstNight.getYear() ? AvailabilityCalendar.offset(firstNight) : 0;
+            int last = year == lastNight.getYear() ? AvailabilityCalendar.offset(lastNight) : LocalDate.of(year, 12, 31).getDayOfYear() - 1;
+            if (free.nextClearBit(first) <= last) return false;
+        }
+        return true;
+    }
+
+    IndexedListing withNight(LocalDate night, boolean free) {
+        Map<Integer, BitSet> nights = new HashMap<>(freeNights);
+        BitSet year = nights.containsKey(night.getYear()) ? (BitSet) nights.get(night.getYear()).clone() : new BitSet(366);
+        year.set(AvailabilityCalendar.offset(night), free);
+        nights.put(night.getYear(), year);
+        return new IndexedListing(id, name, location, pricePerNight, latitude, longitude, Map.copyOf(nights));
+    }
+}
@@ -0,0 +1,367 @@
+package com.example.AirbnbDemo.search;
+
+import com.example.AirbnbDemo.mapper.AirbnbMapper;
+import com.example.AirbnbDemo.models.Airbnb;
+import com.example.AirbnbDemo.models.readModels.AirbnbReadModel;
+import com.example.AirbnbDemo.models.readModels.AvailabilityCalendar;
+import com.example.AirbnbDemo.models.readModels.AvailabilityReadModel;
+import com.example.AirbnbDemo.repository.reads.RedisReadRepository;
+import com.example.AirbnbDemo.repository.writes.AirbnbRepository;
+import com.example.AirbnbDemo.repository.writes.AvailabilityBatchRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Per-node, in-memory index for "listings in location X, free from D1 to D2, at most P a
+ * night" — answered without MySQL or Redis. Each listing keeps its metadata and a bitset of
+ * free nights per year ({@link IndexedListing}); an inverted index maps the normalised
+ * location to listing ids, so a search only evaluates that location's listings. Large
+ * candidate sets are evaluated in parallel on a dedicated pool. Listings with coordinates are
+ * also bucketed in a lat/lon grid of {@code search.geo.cell-degrees} cells for radius search.
+ *
+ * Built once the application is ready — listings in keyset pages from MySQL, their nights from
+ * the Redis bitmap calendars, or from MySQL for listings the calendars do not have yet — and
+ * kept fresh by {@link SearchIndexCDCListener}. CDC events that arrive during a build are
+ * applied and also recorded, then replayed over the finished build, since a page may have been
+ * read before them. The build is repeated every {@code reconcile-interval-ms} to repair
+ * anything the consumer missed. Eventually consistent: a search may miss an update that is
+ * still in Kafka.
+ */
+@Component
+@ConditionalOnProperty(name = "search.index.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class ListingSearchIndex {
+
+    @Value("${search.index.page-size:1000}")
+    private int pageSize;
+
+    @Value("${search.index.parallelism:4}")
+    private int parallelism;
+
+    // Below this many candidates a sequential scan is faster than forking
+    @Value("${search.index.parallel-threshold:5000}")
+    private int parallelThreshold;
+
+    // 0.1° ≈ 11 km of latitude: a city-sized radius touches a few dozen cells
+    @Value("${search.geo.cell-degrees:0.1}")
+    private double cellDegrees;
+
+    private static final double KM_PER_DEGREE = Math.PI * IndexedListing.EARTH_RADIUS_KM / 180;
+    // Ring bounds are measured along parallels; the great circle is slightly shorter, so stay on the safe side
+    private static final double RING_SLACK = 0.95;
+    private static final double MIN_COS = 0.01;
+
+    private final AirbnbRepository airbnbRepository;
+    private final RedisReadRepository redisReadRepository;
+    private final AvailabilityBatchRepository availabilityBatchRepository;
+
+    private final Map<Long, IndexedListing> listings = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> byLocation = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> byCell = new ConcurrentHashMap<>();
+    // CDC updates seen while a build runs; guarded by itself, which also orders them against the replay
+    private final List<Runnable> duringRebuild = new ArrayList<>();
+    private boolean rebuilding;
+    private ForkJoinPool pool;
+    private volatile boolean ready;
+
+    @PostConstruct
+    void init() {
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return listings.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        synchronized (duringRebuild) {
+            rebuilding = true;
+        }
+        Set<Long> seen = new HashSet<>();
+        long lastId = 0;
+        List<Airbnb> page;
+        try {
+            do {
+                page = airbnbRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(pageSize));
+                if (page.isEmpty()) break;
+                Map<Long, Map<Integer, BitSet>> nights = loadNights(page.stream().map(Airbnb::getId).toList());
+                for (Airbnb airbnb : page) {
+                    index(AirbnbMapper.toReadModel(airbnb), nights.getOrDefault(airbnb.getId(), Map.of()));
+                    seen.add(airbnb.getId());
+                }
+                lastId = page.getLast().getId();
+            } while (page.size() == pageSize);
+            // Listings deleted while the index was down
+            listings.keySet().stream().filter(id -> !seen.contains(id)).toList().forEach(this::unindex);
+        } finally {
+            // The pages may predate these events: apply them again, in order, before live events resume
+            synchronized (duringRebuild) {
+                duringRebuild.forEach(Runnable::run);
+                duringRebuild.clear();
+                rebuilding = false;
+            }
+        }
+        ready = true;
+        log.info("Search index built: {} listings in {} ms", listings.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    // Repairs whatever the CDC listener missed (e.g. events before this node's consumer group first joined)
+    @Scheduled(fixedDelayString = "${search.index.reconcile-interval-ms:3600000}",
+            initialDelayString = "${search.index.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        rebuild();
+    }
+
+    /**
+     * Listings free every night from {@code firstNight} to {@code lastNight}, cheapest first.
+     * {@code location} (case-insensitive) and {@code maxPrice} are optional filters.
+     */
+    public List<IndexedListing> search(String location, LocalDate firstNight, LocalDate lastNight, Long maxPrice) {
+        Collection<Long> candidates = location == null || location.isBlank()
+                ? listings.keySet()
+                : byLocation.getOrDefault(normalize(location), Set.of());
+        if (candidates.size() < parallelThreshold) {
+            return matches(candidates.stream(), firstNight, lastNight, maxPrice);
+        }
+        return pool.submit(() -> matches(candidates.parallelStream(), firstNight, lastNight, maxPrice)).join();
+    }
+
+    /**
+     * Up to {@code limit} listings within {@code radiusKm} of (lat, lon), nearest first, that come
+     * after the ({@code afterKm}, {@code afterId}) cursor — pass (-1, 0) for the first page.
+     * Filters as {@link #search}; the range check is skipped when {@code firstNight} is null.
+     *
+     * Scans grid cells in rings around the point. After ring r nothing unscanned is closer than
+     * r cell widths, so hits up to that distance are final and leave the heap in order: a page
+     * stops as soon as it is full, without collecting every listing in the radius.
+     */
+    public List<NearbyListing> nearby(double lat, double lon, double radiusKm, LocalDate firstNight, LocalDate lastNight,
+                                      Long maxPrice, double afterKm, long afterId, int limit) {
+        // A degree of longitude is shortest at the band's edge nearest a pole
+        double maxAbsLat = Math.min(90, Math.abs(lat) + radiusKm / KM_PER_DEGREE);
+        double kmPerRing = RING_SLACK * cellDegrees * KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(maxAbsLat)), MIN_COS);
+        int maxRing = (int) Math.min(Math.ceil(radiusKm / kmPerRing) + 1, (columns() - 1) / 2);
+
+        PriorityQueue<NearbyListing> heap = new PriorityQueue<>(
+                Comparator.comparingDouble(NearbyListing::distanceKm).thenComparingLong(hit -> hit.listing().id()));
+        List<NearbyListing> page = new ArrayList<>(limit);
+        int row = row(lat);
+        int column = column(lon);
+        for (int ring = 0; ring <= maxRing && page.size() < limit; ring++) {
+            forEachCellInRing(row, column, ring, cell -> {
+                for (Long id : byCell.getOrDefault(cell, Set.of())) {
+                    IndexedListing listing = listings.get(id);
+                    if (listing == null || !listing.hasCoordinates()) continue;
+                    double distance = listing.distanceKm(lat, lon);
+                    if (distance > radiusKm || distance < afterKm || (distance == afterKm && id <= afterId)) continue;
+                    if (maxPrice != null && listing.pricePerNight() > maxPrice) continue;
+                    if (firstNight != null && !listing.isFree(firstNight, lastNight)) continue;
+                    heap.add(new NearbyListing(listing, distance));
+                }
+            });
+            double settled = ring * kmPerRing;
+            while (page.size() < limit && !heap.isEmpty() && heap.peek().distanceKm() <= settled) page.add(heap.poll());
+        }
+        // Every ring in the radius scanned: what is left is in order
+        while (page.size() < limit && !heap.isEmpty()) page.add(heap.poll());
+        return page;
+    }
+
+    // ─── CDC updates ────────────────────────────────────────────────
+
+    public void upsertListing(AirbnbReadModel model) {
+        apply(() -> {
+            // A listing new to this node may already have nights: its availability events can arrive first
+            Map<Integer, BitSet> nights = listings.containsKey(model.getId())
+                    ? null
+                    : loadNights(List.of(model.getId())).getOrDefault(model.getId(), Map.of());
+            index(model, nights);
+        });
+    }
+
+    public void updateNight(Long airbnbId, LocalDate night, boolean free) {
+        apply(() -> {
+            // A listing not indexed yet (its own event still in Kafka) is loaded, then the night applied on top
+            if (!listings.containsKey(airbnbId)) loadListing(airbnbId);
+            listings.computeIfPresent(airbnbId, (id, listing) -> listing.withNight(night, free));
+        });
+    }
+
+    public void removeListing(Long airbnbId) {
+        apply(() -> unindex(airbnbId));
+    }
+
+    // ─── private helpers ───────────────────────────────────────────
+
+    private void apply(Runnable update) {
+        synchronized (duringRebuild) {
+            if (rebuilding) duringRebuild.add(update);
+            update.run();
+        }
+    }
+
+    private void loadListing(Long airbnbId) {
+        airbnbRepository.findById(airbnbId).ifPresent(airbnb ->
+                index(AirbnbMapper.toReadModel(airbnb), loadNights(List.of(airbnbId)).getOrDefault(airbnbId, Map.of())));
+    }
+
+    // Free nights from the calendars; listings they do not have (not backfilled yet) from MySQL in one query
+    private Map<Long, Map<Integer, BitSet>> loadNights(List<Long> airbnbIds) {
+        Map<Long, Map<Integer, BitSet>> nights = new HashMap<>();
+        redisReadRepository.getCalendars(airbnbIds).forEach((id, calendars) -> nights.put(id, freeNights(calendars)));
+        List<Long> missing = airbnbIds.stream().filter(id -> !nights.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            availabilityBatchRepository.findNights(missing).forEach((id, models) -> nights.put(id, freeNightsOf(models)));
+        }
+        return nights;
+    }
+
+    private void unindex(Long airbnbId) {
+        IndexedListing removed = listings.remove(airbnbId);
+        if (removed == null) return;
+        unlinkLocation(normalize(removed.location()), airbnbId);
+        if (removed.hasCoordinates()) unlinkCell(cellOf(removed), airbnbId);
+    }
+
+    // nights == null keeps the nights already indexed
+    void index(AirbnbReadModel model, Map<Integer, BitSet> nights) {
+        String location = normalize(model.getLocation());
+        IndexedListing[] previous = new IndexedListing[1];
+        listings.compute(model.getId(), (id, current) -> {
+            previous[0] = current;
+            Map<Integer, BitSet> freeNights = nights != null ? nights : current != null ? current.freeNights() : Map.of();
+            return new IndexedListing(id, model.getName(), model.getLocation(), model.getPricePerNight(),
+                    model.getLatitude(), model.getLongitude(), freeNights);
+        });
+        byLocation.computeIfAbsent(location, k -> ConcurrentHashMap.newKeySet()).add(model.getId());
+        if (previous[0] != null && !normalize(previous[0].location()).equals(location)) {
+            unlinkLocation(normalize(previous[0].location()), model.getId());
+        }
+        Long cell = model.getLatitude() != null && model.getLongitude() != null
+                ? cellOf(model.getLatitude(), model.getLongitude())
+                : null;
+        if (cell != null) byCell.computeIfAbsent(cell, k -> ConcurrentHashMap.newKeySet()).add(model.getId());
+        if (previous[0] != null && previous[0].hasCoordinates() && !cellOf(previous[0]).equals(cell)) {
+            unlinkCell(cellOf(previous[0]), model.getId());
+        }
+    }
+
+    private void unlinkCell(Long cell, Long airbnbId) {
+        byCell.computeIfPresent(cell, (k, ids) -> {
+            ids.remove(airbnbId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    // ─── grid ───────────────────────────────────────────────────────
+
+    // cell-degrees should divide 180 evenly; round, so 360 / 0.1 is 3600 columns and not 3601
+    private int rows() {
+        return (int) Math.round(180 / cellDegrees);
+    }
+
+    private int columns() {
+        return (int) Math.round(360 / cellDegrees);
+    }
+
+    private int row(double lat) {
+        return Math.min((int) Math.floor((lat + 90) / cellDegrees), rows() - 1);
+    }
+
+    private int column(double lon) {
+        return Math.floorMod((int) Math.floor((lon + 180) / cellDegrees), columns());
+    }
+
+    private long cellOf(double lat, double lon) {
+        return cell(row(lat), column(lon));
+    }
+
+    private Long cellOf(IndexedListing listing) {
+        return cellOf(listing.latitude(), listing.longitude());
+    }
+
+    private static long cell(int row, int column) {
+        return ((long) row << 32) | column;
+    }
+
+    // The cells at Chebyshev distance `ring` from (row, column); columns wrap at the antimeridian
+    private void forEachCellInRing(int row, int column, int ring, LongConsumer visit) {
+        int rows = rows();
+        int columns = columns();
+        for (int dRow = -ring; dRow <= ring; dRow++) {
+            int r = row + dRow;
+            if (r < 0 || r >= rows) continue;
+            boolean edgeRow = Math.abs(dRow) == ring;
+            for (int dColumn = -ring; dColumn <= ring; dColumn += edgeRow || ring == 0 ? 1 : 2 * ring) {
+                visit.accept(cell(r, Math.floorMod(column + dColumn, columns)));
+            }
+        }
+    }
+
+    private void unlinkLocation(String location, Long airbnbId) {
+        byLocation.computeIfPresent(location, (k, ids) -> {
+            ids.remove(airbnbId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private List<IndexedListing> matches(Stream<Long> candidates, LocalDate firstNight, LocalDate lastNight, Long maxPrice) {
+        return candidates
+                .map(listings::get)
+                .filter(Objects::nonNull)
+                .filter(listing -> maxPrice == null || listing.pricePerNight() <= maxPrice)
+                .filter(listing -> listing.isFree(firstNight, lastNight))
+                .sorted(Comparator.comparingLong(IndexedListing::pricePerNight).thenComparingLong(IndexedListing::id))
+                .toList();
+    }
+
+    private static Map<Integer, BitSet> freeNights(List<AvailabilityCalendar> calendars) {
+        return calendars.stream().collect(Collectors.toUnmodifiableMap(AvailabilityCalendar::getYear, AvailabilityCalendar::freeNights));
+    }
+
+    // Same rule as the calendar: a night is free when it exists and is available
+    private static Map<Integer, BitSet> freeNightsOf(List<AvailabilityReadModel> models) {
+        Map<Integer, BitSet> nights = new HashMap<>();
+        for (AvailabilityReadModel model : models) {
+            LocalDate night = LocalDate.parse(model.getDate());
+            BitSet year = nights.computeIfAbsent(night.getYear(), k -> new BitSet(366));
+            if (Boolean.TRUE.equals(model.getIsAvailable())) year.set(AvailabilityCalendar.offset(night));
+        }
+        return Map.copyOf(nights);
+    }
+
+    static String normalize(String location) {
+        return location == null ? "" : location.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.AirbnbDemo.search;
+
+// A geo search hit: the listing and its distance from the search point
+public record NearbyListing(IndexedListing listing, double distanceKm) {
+}
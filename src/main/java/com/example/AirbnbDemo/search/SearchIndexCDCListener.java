@@ -0,0 +1,76 @@
+package com.example.AirbnbDemo.search;
+
+import com.example.AirbnbDemo.mapper.AirbnbMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.LocalDate;
+
+/**
+ * Feeds the same Debezium topics as the CDC consumers into this node's {@link ListingSearchIndex}.
+ * The consumer group is per node — every node must see every event, unlike the read-model
+ * consumers that share {@code airbnb-cdc-group} — and named after {@code search.index.node-id},
+ * which must be set and stable: a restarted node resumes from its committed offsets instead of
+ * leaving an abandoned group on the broker. A group's very first start begins at the latest
+ * offset, since the index itself is built from MySQL and Redis; the periodic reconcile in
+ * {@link ListingSearchIndex} repairs anything committed before it joined.
+ */
+@Component
+@ConditionalOnProperty(name = "search.index.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexCDCListener {
+
+    @Value("${search.index.node-id:}")
+    private String nodeId;
+
+    private final ListingSearchIndex listingSearchIndex;
+    private final ObjectMapper objectMapper;
+
+    @PostConstruct
+    void checkNodeId() {
+        if (nodeId == null || nodeId.isBlank()) {
+            throw new IllegalStateException("search.index.node-id must be set to a stable, per-node value "
+                    + "(or set search.index.enabled=false on this node)");
+        }
+    }
+
+    @KafkaListener(topics = "airbnb.airbnbspringdemo.airbnbs",
+            groupId = "airbnb-search-${search.index.node-id:}",
+            properties = "auto.offset.reset=latest")
+    public void onAirbnb(String message) {
+        try {
+            JsonNode payload = objectMapper.readTree(message).path("payload");
+            if ("true".equals(payload.path("__deleted").stringValue())) {
+                listingSearchIndex.removeListing(payload.path("id").longValue());
+                return;
+            }
+            listingSearchIndex.upsertListing(AirbnbMapper.toReadModelFromCDC(payload));
+        } catch (Exception e) {
+            log.error("Failed to index airbnb CDC event: {}", e.getMessage(), e);
+        }
+    }
+
+    @KafkaListener(topics = "airbnb.airbnbspringdemo.availabilities",
+            groupId = "airbnb-search-${search.index.node-id:}",
+            properties = "auto.offset.reset=latest")
+    public void onAvailability(String message) {
+        try {
+            JsonNode payload = objectMapper.readTree(message).path("payload");
+            boolean deleted = "true".equals(payload.path("__deleted").stringValue());
+            // Debezium stores date as epoch days; a deleted night is no longer bookable
+            LocalDate night = LocalDate.ofEpochDay(payload.path("date").intValue());
+            boolean free = !deleted && payload.path("is_available").booleanValue(); // same rule as the bitmap calendar
+            listingSearchIndex.updateNight(payload.path("airbnb_id").longValue(), night, free);
+        } catch (Exception e) {
+            log.error("Failed to index availability CDC event: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.AirbnbDemo.services;
 
 import com.example.AirbnbDemo.mapper.AirbnbMapper;
+import com.example.AirbnbDemo.dtos.AirbnbPageDTO;
 import com.example.AirbnbDemo.dtos.CreateAirbnbDTO;
 import com.example.AirbnbDemo.exceptions.ResourceNotFoundException;
 import com.example.AirbnbDemo.models.Airbnb;
@@ -9,16 +10,23 @@ import com.example.AirbnbDemo.repository.reads.RedisReadRepository;
 import com.example.AirbnbDemo.repository.writes.AirbnbRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AirbnbService implements IAirbnbService{
 
+    @Value("${read-model.page.max-size:500}")
+    private int maxPageSize;
+
     private final AirbnbRepository airbnbRepository;
     private final RedisReadRepository redisReadRepository;
 
@@ -42,13 +50,29 @@ public class AirbnbService implements IAirbnbService{
     }
 
     @Override
-    public List<AirbnbReadModel> getAllAirbnbs() {
-        List<AirbnbReadModel> cached = redisReadRepository.getAllAirbnbs();
-        if (!cached.isEmpty()) return cached;
-        log.warn("Cache miss for all airbnbs, falling back to DB");
-        return airbnbRepository.findAll().stream()
-                .map(AirbnbMapper::toReadModel)
-                .toList();
+    public AirbnbPageDTO getAirbnbs(String after, int limit) {
+        long afterId = PageCursors.parseAfter(after);
+        int pageSize = Math.clamp(limit, 1, maxPageSize);
+        List<Long> ids = redisReadRepository.getAirbnbIdsAfter(afterId, pageSize).orElse(null);
+        if (ids == null) {
+            log.warn("Airbnb id index not built yet, paging from DB");
+            List<Airbnb> page = airbnbRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize));
+            return AirbnbPageDTO.builder()
+                    .airbnbs(page.stream().map(AirbnbMapper::toReadModel).toList())
+                    .nextCursor(page.size() == pageSize ? page.getLast().getId().toString() : null)
+                    .build();
+        }
+        // One MGET for the page; the few documents not cached come from the DB in one query
+        Map<Long, AirbnbReadModel> found = redisReadRepository.getAirbnbsByIds(ids);
+        List<Long> missing = ids.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            log.warn("Cache miss for {} airbnbs of a page, falling back to DB", missing.size());
+            airbnbRepository.findAllById(missing).forEach(airbnb -> found.put(airbnb.getId(), AirbnbMapper.toReadModel(airbnb)));
+        }
+        return AirbnbPageDTO.builder()
+                .airbnbs(ids.stream().map(found::get).filter(Objects::nonNull).toList())
+                .nextCursor(ids.size() == pageSize ? ids.getLast().toString() : null)
+                .build();
     }
 
     @Override
@@ -60,6 +84,8 @@ public class AirbnbService implements IAirbnbService{
         existing.setDescription(dto.getDescription());
         existing.setPricePerNight(dto.getPricePerNight());
         existing.setLocation(dto.getLocation());
+        existing.setLatitude(dto.getLatitude());
+        existing.setLongitude(dto.getLongitude());
         return airbnbRepository.save(existing);
     }
 
@@ -1,22 +1,36 @@
 package com.example.AirbnbDemo.services;
 
 import com.example.AirbnbDemo.mapper.AvailabilityMapper;
+import com.example.AirbnbDemo.dtos.AvailabilityRangeDTO;
 import com.example.AirbnbDemo.dtos.CreateAvailabilityDTO;
+import com.example.AirbnbDemo.dtos.DateRangeDTO;
+import com.example.AirbnbDemo.dtos.ProvisionAvailabilityDTO;
+import com.example.AirbnbDemo.dtos.ProvisionResultDTO;
 import com.example.AirbnbDemo.exceptions.AvailabilityAlreadyExistsException;
 import com.example.AirbnbDemo.exceptions.ResourceNotFoundException;
 import com.example.AirbnbDemo.models.Airbnb;
 import com.example.AirbnbDemo.models.Availability;
 import com.example.AirbnbDemo.models.AvailabilityId;
+import com.example.AirbnbDemo.models.readModels.AvailabilityCalendar;
 import com.example.AirbnbDemo.models.readModels.AvailabilityReadModel;
 import com.example.AirbnbDemo.repository.reads.RedisReadRepository;
+import com.example.AirbnbDemo.repository.reads.RedisWriteRepository;
 import com.example.AirbnbDemo.repository.writes.AirbnbRepository;
+import com.example.AirbnbDemo.repository.writes.AvailabilityBatchRepository;
 import com.example.AirbnbDemo.repository.writes.AvailabilityRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Service
 @RequiredArgsConstructor
@@ -26,6 +40,15 @@ public class AvailabilityService implements IAvailabilityService {
     private final AvailabilityRepository availabilityRepository;
     private final AirbnbRepository airbnbRepository;
     private final RedisReadRepository redisReadRepository;
+    private final RedisWriteRepository redisWriteRepository;
+    private final AvailabilityBatchRepository availabilityBatchRepository;
+
+    @Value("${availability.provision.max-nights:1100}")
+    private int maxProvisionNights;
+
+    // Longest range one availability check may cover: bounds the years the script touches and the DB fallback
+    @Value("${availability.range.max-nights:1100}")
+    private int maxRangeNights;
 
 
     @Override
@@ -43,15 +66,107 @@ public class AvailabilityService implements IAvailabilityService {
         return availability;
     }
 
+    /**
+     * Opens every night of the given ranges that is not in the calendar yet: one query for the
+     * nights that exist, multi-row INSERTs for the rest, then one pipelined Redis write so the
+     * read model is complete before the CDC events arrive. The Redis write only adds nights the
+     * calendar does not have, so a night created concurrently, or already mirrored and booked
+     * since, keeps its state. Not transactional itself — the inserts commit in their own
+     * transaction before Redis is touched.
+     */
+    @Override
+    public ProvisionResultDTO provisionAvailability(ProvisionAvailabilityDTO dto) {
+        Long airbnbId = dto.getAirbnbId();
+        if (!airbnbRepository.existsById(airbnbId)) {
+            throw new ResourceNotFoundException("Airbnb with Id:" + airbnbId + " not found");
+        }
+        TreeSet<LocalDate> nights = new TreeSet<>();
+        for (DateRangeDTO range : dto.getRanges()) {
+            if (range.getTo().isBefore(range.getFrom())) {
+                throw new IllegalArgumentException("Range end " + range.getTo() + " is before its start " + range.getFrom());
+            }
+            // Sized before it is expanded: a range of decades is rejected without allocating its dates
+            if (ChronoUnit.DAYS.between(range.getFrom(), range.getTo()) + 1 > maxProvisionNights) {
+                throw new IllegalArgumentException("At most " + maxProvisionNights + " nights can be provisioned per request");
+            }
+            range.getFrom().datesUntil(range.getTo().plusDays(1)).forEach(nights::add);
+            if (nights.size() > maxProvisionNights) {
+                throw new IllegalArgumentException("At most " + maxProvisionNights + " nights can be provisioned per request");
+            }
+        }
+        Set<LocalDate> existing = new HashSet<>(availabilityRepository.findDates(airbnbId, nights.first(), nights.last()));
+        List<LocalDate> missing = nights.stream().filter(night -> !existing.contains(night)).toList();
+
+        int created = 0;
+        if (!missing.isEmpty()) {
+            created = availabilityBatchRepository.insertOpenNights(airbnbId, missing);
+            redisWriteRepository.backfillCalendarNights(Map.of(airbnbId, missing.stream()
+                    .map(night -> AvailabilityReadModel.builder()
+                            .airbnbId(airbnbId)
+                            .date(night.toString())
+                            .isAvailable(true)
+                            .build())
+                    .toList()));
+        }
+        log.info("Provisioned {} of {} nights for airbnb {}", created, nights.size(), airbnbId);
+        return ProvisionResultDTO.builder()
+                .airbnbId(airbnbId)
+                .requested(nights.size())
+                .created(created)
+                .skipped(nights.size() - created)
+                .build();
+    }
+
 
     @Override
     @Transactional(readOnly = true)
     public List<AvailabilityReadModel> checkAvailability(Long airbnbId) {
-        List<AvailabilityReadModel> cached = redisReadRepository.getAvailabilityByAirbnbId(airbnbId);
-        if (!cached.isEmpty()) return cached;
+        List<AvailabilityReadModel> calendar = redisReadRepository.getCalendars(airbnbId).stream()
+                .flatMap(c -> c.toReadModels().stream())
+                .toList();
+        if (!calendar.isEmpty()) return calendar;
         log.warn("Cache miss for availability of airbnb {}, falling back to DB", airbnbId);
         return availabilityRepository.findByAirbnbId(airbnbId).stream()
                 .map(AvailabilityMapper::toReadModel)
                 .toList();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AvailabilityReadModel> checkAvailability(Long airbnbId, int year) {
+        return redisReadRepository.getCalendar(airbnbId, year)
+                .map(AvailabilityCalendar::toReadModels)
+                .orElseGet(() -> {
+                    log.warn("Calendar miss for airbnb {} year {}, falling back to DB", airbnbId, year);
+                    return availabilityRepository.findByAirbnbIdAndDateBetween(
+                                    airbnbId, LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31)).stream()
+                            .map(AvailabilityMapper::toReadModel)
+                            .toList();
+                });
+    }
+
+    // Nights from..to inclusive, the same range a booking's checkIn..checkOut claims
+    @Override
+    @Transactional(readOnly = true)
+    public AvailabilityRangeDTO checkRange(Long airbnbId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Range end " + to + " is before its start " + from);
+        }
+        if (ChronoUnit.DAYS.between(from, to) + 1 > maxRangeNights) {
+            throw new IllegalArgumentException("A range may cover at most " + maxRangeNights + " nights");
+        }
+        List<LocalDate> blocked = redisReadRepository.getBlockedNights(airbnbId, from, to)
+                .orElseGet(() -> {
+                    log.warn("Calendar miss for airbnb {} range {}..{}, falling back to DB", airbnbId, from, to);
+                    Set<LocalDate> free = new HashSet<>(availabilityRepository.findFreeDates(airbnbId, from, to));
+                    return from.datesUntil(to.plusDays(1)).filter(night -> !free.contains(night)).toList();
+                });
+        return AvailabilityRangeDTO.builder()
+                .airbnbId(airbnbId)
+                .from(from)
+                .to(to)
+                .available(blocked.isEmpty())
+                .blockedNights(blocked)
+                .build();
+    }
 }
@@ -1,6 +1,7 @@
 package com.example.AirbnbDemo.services;
 
 import com.example.AirbnbDemo.mapper.BookingMapper;
+import com.example.AirbnbDemo.dtos.BookingPageDTO;
 import com.example.AirbnbDemo.dtos.CreateBookingDTO;
 import com.example.AirbnbDemo.dtos.UpdateBookingRequest;
 import com.example.AirbnbDemo.exceptions.ResourceNotFoundException;
@@ -10,10 +11,14 @@ import com.example.AirbnbDemo.repository.reads.RedisReadRepository;
 import com.example.AirbnbDemo.repository.writes.AirbnbRepository;
 import com.example.AirbnbDemo.repository.writes.BookingRepository;
 import com.example.AirbnbDemo.repository.writes.UserRepository;
+import com.example.AirbnbDemo.saga.BookingSagaPayload;
 import com.example.AirbnbDemo.saga.SagaEventPublisher;
 import com.example.AirbnbDemo.services.concurrency.ConcurrencyControlStrategy;
+import com.example.AirbnbDemo.services.handlers.BookingConfirmFastPath;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +26,7 @@ import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
@@ -35,6 +41,14 @@ public class BookingService implements IBookingService {
     private final RedisReadRepository redisReadRepository;
     private final ConcurrencyControlStrategy concurrencyControlStrategy;
     private final SagaEventPublisher sagaEventPublisher;
+    private final BookingConfirmFastPath bookingConfirmFastPath;
+
+    @Value("${read-model.page.max-size:500}")
+    private int maxPageSize;
+
+    // Confirm in one local transaction instead of two saga hops; falls back to the saga on failure
+    @Value("${saga.confirm.fast-path:false}")
+    private boolean confirmFastPath;
 
     private void validateDates(LocalDate checkIn, LocalDate checkOut) {
         if (checkIn.isAfter(checkOut)) {
@@ -84,6 +98,8 @@ public class BookingService implements IBookingService {
 
             Booking booking = BookingMapper.toEntity(
                     dto, user, airbnb, idempotencyKey, totalPrice);
+            booking.setLockFence(concurrencyControlStrategy.fencingToken(
+                    dto.getAirbnbId(), checkIn, realCheckOut, dto.getUserId()));
 
             return bookingRepository.save(booking);
 
@@ -124,15 +140,18 @@ public class BookingService implements IBookingService {
                         "Booking is already processed with status: " + status);
             }
 
-            Map<String, Object> payload = Map.of(
-                    "bookingId",    bookingReadModel.getId().toString(),
-                    "airbnbId",     bookingReadModel.getAirbnbId().toString(),
-                    "userId",       bookingReadModel.getUserId(),
-                    "checkInDate",  bookingReadModel.getCheckInDate().toString(),
-                    "checkOutDate", bookingReadModel.getCheckOutDate().toString()
+            BookingSagaPayload payload = BookingSagaPayload.of(
+                    bookingReadModel.getId(),
+                    bookingReadModel.getAirbnbId(),
+                    bookingReadModel.getUserId(),
+                    bookingReadModel.getCheckInDate(),
+                    bookingReadModel.getCheckOutDate()
             );
 
             if (request.getBookingStatus() == BookingStatus.CONFIRMED) {
+                if (confirmFastPath && tryFastConfirm(payload)) {
+                    return "Booking confirmed";
+                }
                 sagaEventPublisher.publishEvent(
                         "BOOKING_CONFIRM_REQUESTED", "CONFIRM_BOOKING", payload);
             } else if (request.getBookingStatus() == BookingStatus.CANCELLED) {
@@ -161,6 +180,17 @@ public class BookingService implements IBookingService {
         }
     }
 
+    private boolean tryFastConfirm(BookingSagaPayload payload) {
+        try {
+            bookingConfirmFastPath.confirm(payload);
+            return true;
+        } catch (Exception e) {
+            log.warn("Fast confirm failed for booking {}, falling back to the saga: {}",
+                    payload.bookingId(), e.getMessage());
+            return false;
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public BookingReadModel getBookingById(Long id) {
@@ -175,13 +205,29 @@ public class BookingService implements IBookingService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<BookingReadModel> getAllBookings() {
-        List<BookingReadModel> cached = redisReadRepository.getAllBookings();
-        if (!cached.isEmpty()) return cached;
-        log.warn("Cache miss for all bookings, falling back to DB");
-        return bookingRepository.findAll().stream()
-                .map(BookingMapper::toReadModel)
-                .toList();
+    public BookingPageDTO getBookings(String after, int limit) {
+        long afterId = PageCursors.parseAfter(after);
+        int pageSize = Math.clamp(limit, 1, maxPageSize);
+        List<Long> ids = redisReadRepository.getBookingIdsAfter(afterId, pageSize).orElse(null);
+        if (ids == null) {
+            log.warn("Booking id index not built yet, paging from DB");
+            List<Booking> page = bookingRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize));
+            return BookingPageDTO.builder()
+                    .bookings(page.stream().map(BookingMapper::toReadModel).toList())
+                    .nextCursor(page.size() == pageSize ? page.getLast().getId().toString() : null)
+                    .build();
+        }
+        // One MGET for the page; the few documents not cached come from the DB in one query
+        Map<Long, BookingReadModel> found = redisReadRepository.getBookingsByIds(ids);
+        List<Long> missing = ids.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            log.warn("Cache miss for {} bookings of a page, falling back to DB", missing.size());
+            bookingRepository.findAllById(missing).forEach(booking -> found.put(booking.getId(), BookingMapper.toReadModel(booking)));
+        }
+        return BookingPageDTO.builder()
+                .bookings(ids.stream().map(found::get).filter(Objects::nonNull).toList())
+                .nextCursor(ids.size() == pageSize ? ids.getLast().toString() : null)
+                .build();
     }
 
     @Override
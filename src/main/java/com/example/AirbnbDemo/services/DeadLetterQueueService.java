@@ -3,12 +3,16 @@ package com.example.AirbnbDemo.services;
 import com.example.AirbnbDemo.dlq.DeadLetterEvent;
 import com.example.AirbnbDemo.dlq.DeadLetterEventPublisher;
 import com.example.AirbnbDemo.saga.RetryableSagaProcessor;
+import com.example.AirbnbDemo.saga.SagaEvent;
+import com.example.AirbnbDemo.saga.SagaEventCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
+import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.ObjectMapper;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -22,6 +26,7 @@ public class DeadLetterQueueService implements IDeadLetterQueueService {
     private final RedisTemplate<String,String> redisTemplate;
     private final ObjectMapper objectMapper;
     private final RetryableSagaProcessor retryableSagaProcessor;
+    private final SagaEventCodec sagaEventCodec;
 
 
     @Override
@@ -38,7 +43,7 @@ public class DeadLetterQueueService implements IDeadLetterQueueService {
                 .stream()
                 .map(json->{
                     try{
-                        return  objectMapper.readValue(json, DeadLetterEvent.class);
+                        return  readEntry(json);
                     }
                     catch(Exception e){
                         log.error("Failed to deserialize DLQ event: {}", e.getMessage());
@@ -55,10 +60,13 @@ public class DeadLetterQueueService implements IDeadLetterQueueService {
         if(topEvent==null)return "DLQ is empty";
 
         try{
-            DeadLetterEvent deadLetterEvent = objectMapper.readValue(topEvent, DeadLetterEvent.class);
-            log.info("Replaying DLQ event: {}", deadLetterEvent.getOriginalEvent());
-            retryableSagaProcessor.processWithRetry(deadLetterEvent.getOriginalEvent());
-            return "Replayed successfully: " + deadLetterEvent.getOriginalEvent().getEventType();
+            DeadLetterEvent deadLetterEvent = readEntry(topEvent);
+            SagaEvent originalEvent = deadLetterEvent.getOriginalEvent();
+            log.info("Replaying DLQ event: {}", originalEvent);
+            if (!replay(originalEvent)) {
+                return "Replay attempt failed, retrying with back-off: " + originalEvent.getEventType();
+            }
+            return "Replayed successfully: " + originalEvent.getEventType();
         }
         catch(Exception e){
             log.error("Replay failed: {}", e.getMessage());
@@ -69,23 +77,46 @@ public class DeadLetterQueueService implements IDeadLetterQueueService {
     //Replay All events in dlq
     @Override
     public String replayAll() {
-        int success=0,failed=0;
+        int success=0,retrying=0,failed=0;
         Long size= getDlqSize();
         long snapshot = size == null ? 0 : size;
         for (long i = 0; i < snapshot; i++) {
             try{
                 String topEvent = redisTemplate.opsForList().rightPop(DeadLetterEventPublisher.DLQ_QUEUE);
                 if (topEvent == null) break;
-                DeadLetterEvent deadLetterEvent = objectMapper.readValue(topEvent, DeadLetterEvent.class);
-                log.info("Replaying DLQ event: {}", deadLetterEvent.getOriginalEvent());
-                retryableSagaProcessor.processWithRetry(deadLetterEvent.getOriginalEvent());
-                success++;
+                DeadLetterEvent deadLetterEvent = readEntry(topEvent);
+                SagaEvent originalEvent = deadLetterEvent.getOriginalEvent();
+                log.info("Replaying DLQ event: {}", originalEvent);
+                if (replay(originalEvent)) success++;
+                else retrying++;
             } catch (Exception e) {
                 log.error("Replay failed for event: {}", e.getMessage());
                 failed++;
             }
         }
-        return String.format("Replay complete — success: %d, failed: %d", success, failed);
+        return String.format("Replay complete — success: %d, retrying: %d, failed: %d", success, retrying, failed);
+    }
+
+    // Entries written before typed payloads hold the old SagaEvent shape; the codec reads both
+    private DeadLetterEvent readEntry(String json) {
+        JsonNode root = objectMapper.readTree(json);
+        JsonNode failedAt = root.path("failedAt");
+        return DeadLetterEvent.builder()
+                .originalEvent(sagaEventCodec.decodeJson(root.path("originalEvent")))
+                .errorMessage(root.path("errorMessage").isString() ? root.path("errorMessage").asString() : null)
+                .attemptCount(root.path("attemptCount").asInt())
+                .failedAt(failedAt.isString() ? LocalDateTime.parse(failedAt.asString()) : null)
+                .build();
+    }
+
+    /**
+     * First attempt runs inline; if it fails the event gets the full retry budget again —
+     * parked in the delayed-retry queue with the usual back-off, and back in the DLQ only
+     * once every attempt has failed. Returns true if the inline attempt succeeded.
+     */
+    private boolean replay(SagaEvent originalEvent) {
+        originalEvent.setAttempt(0);
+        return retryableSagaProcessor.processWithRetry(originalEvent);
     }
 
     @Override
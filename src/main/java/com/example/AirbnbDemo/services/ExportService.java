@@ -0,0 +1,141 @@
+package com.example.AirbnbDemo.services;
+
+import com.example.AirbnbDemo.dtos.AirbnbPageDTO;
+import com.example.AirbnbDemo.dtos.BookingPageDTO;
+import com.example.AirbnbDemo.dtos.UserDTO;
+import com.example.AirbnbDemo.mapper.UserMapper;
+import com.example.AirbnbDemo.models.User;
+import com.example.AirbnbDemo.models.readModels.AirbnbReadModel;
+import com.example.AirbnbDemo.models.readModels.BookingReadModel;
+import com.example.AirbnbDemo.repository.writes.UserRepository;
+import com.example.AirbnbDemo.services.export.ExportFormat;
+import com.example.AirbnbDemo.services.export.RecordWriter;
+import com.example.AirbnbDemo.services.export.RecordWriter.Column;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Whole collections as NDJSON or CSV, written while they are read so the heap holds one page
+ * at most. Airbnbs and bookings walk the same keyset pages as the list endpoints (id index +
+ * MGET, or the DB until the index is built) and flush after each page; users, which have no
+ * read model, come from a streamed JPA query, each row detached once written.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportService implements IExportService {
+
+    private static final List<Column<AirbnbReadModel>> AIRBNB_COLUMNS = List.of(
+            new Column<>("id", AirbnbReadModel::getId),
+            new Column<>("name", AirbnbReadModel::getName),
+            new Column<>("description", AirbnbReadModel::getDescription),
+            new Column<>("location", AirbnbReadModel::getLocation),
+            new Column<>("pricePerNight", AirbnbReadModel::getPricePerNight),
+            new Column<>("latitude", AirbnbReadModel::getLatitude),
+            new Column<>("longitude", AirbnbReadModel::getLongitude));
+
+    private static final List<Column<BookingReadModel>> BOOKING_COLUMNS = List.of(
+            new Column<>("id", BookingReadModel::getId),
+            new Column<>("airbnbId", BookingReadModel::getAirbnbId),
+            new Column<>("userId", BookingReadModel::getUserId),
+            new Column<>("totalPrice", BookingReadModel::getTotalPrice),
+            new Column<>("bookingStatus", BookingReadModel::getBookingStatus),
+            new Column<>("checkInDate", BookingReadModel::getCheckInDate),
+            new Column<>("checkOutDate", BookingReadModel::getCheckOutDate));
+
+    private static final List<Column<UserDTO>> USER_COLUMNS = List.of(
+            new Column<>("id", UserDTO::getId),
+            new Column<>("name", UserDTO::getName),
+            new Column<>("email", UserDTO::getEmail));
+
+    @Value("${export.page-size:500}")
+    private int pageSize;
+
+    // Users are flushed to the client every this many rows
+    @Value("${export.flush-every:1000}")
+    private int flushEvery;
+
+    private final IAirbnbService airbnbService;
+    private final IBookingService bookingService;
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @PostConstruct
+    void checkSettings() {
+        if (pageSize <= 0) throw new IllegalStateException("export.page-size must be positive, was " + pageSize);
+        if (flushEvery <= 0) throw new IllegalStateException("export.flush-every must be positive, was " + flushEvery);
+    }
+
+    @Override
+    public StreamingResponseBody exportAirbnbs(ExportFormat format) {
+        return out -> {
+            RecordWriter<AirbnbReadModel> writer = new RecordWriter<>(out, format, objectMapper, AIRBNB_COLUMNS);
+            String cursor = null;
+            do {
+                AirbnbPageDTO page = airbnbService.getAirbnbs(cursor, pageSize);
+                for (AirbnbReadModel airbnb : page.getAirbnbs()) writer.write(airbnb);
+                writer.flush();
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            log.info("Exported {} airbnbs as {}", writer.written(), format);
+        };
+    }
+
+    @Override
+    public StreamingResponseBody exportBookings(ExportFormat format) {
+        return out -> {
+            RecordWriter<BookingReadModel> writer = new RecordWriter<>(out, format, objectMapper, BOOKING_COLUMNS);
+            String cursor = null;
+            do {
+                BookingPageDTO page = bookingService.getBookings(cursor, pageSize);
+                for (BookingReadModel booking : page.getBookings()) writer.write(booking);
+                writer.flush();
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            log.info("Exported {} bookings as {}", writer.written(), format);
+        };
+    }
+
+    @Override
+    public StreamingResponseBody exportUsers(ExportFormat format) {
+        return out -> {
+            RecordWriter<UserDTO> writer = new RecordWriter<>(out, format, objectMapper, USER_COLUMNS);
+            try {
+                // The stream's result set and connection live as long as this transaction
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<User> users = userRepository.streamAll()) {
+                        Iterator<User> rows = users.iterator();
+                        while (rows.hasNext()) {
+                            User user = rows.next();
+                            writer.write(UserMapper.toDTO(user));
+                            entityManager.detach(user);
+                            if (writer.written() % flushEvery == 0) writer.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                // Client went away mid-export
+                throw e.getCause();
+            }
+            writer.flush();
+            log.info("Exported {} users as {}", writer.written(), format);
+        };
+    }
+}
@@ -1,11 +1,19 @@
 package com.example.AirbnbDemo.services;
 
+import com.example.AirbnbDemo.dtos.AvailabilityRangeDTO;
 import com.example.AirbnbDemo.dtos.CreateAvailabilityDTO;
+import com.example.AirbnbDemo.dtos.ProvisionAvailabilityDTO;
+import com.example.AirbnbDemo.dtos.ProvisionResultDTO;
 import com.example.AirbnbDemo.models.Availability;
 import com.example.AirbnbDemo.models.readModels.AvailabilityReadModel;
+
+import java.time.LocalDate;
 import java.util.List;
 
 public interface IAvailabilityService {
     Availability createAvailability(CreateAvailabilityDTO dto) ;
+    ProvisionResultDTO provisionAvailability(ProvisionAvailabilityDTO dto) ;
     List<AvailabilityReadModel> checkAvailability(Long airbnbId) ;
+    List<AvailabilityReadModel> checkAvailability(Long airbnbId, int year) ;
+    AvailabilityRangeDTO checkRange(Long airbnbId, LocalDate from, LocalDate to) ;
 }
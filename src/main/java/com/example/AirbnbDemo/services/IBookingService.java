@@ -1,5 +1,6 @@
 package com.example.AirbnbDemo.services;
 
+import com.example.AirbnbDemo.dtos.BookingPageDTO;
 import com.example.AirbnbDemo.dtos.CreateBookingDTO;
 import com.example.AirbnbDemo.dtos.UpdateBookingRequest;
 import com.example.AirbnbDemo.models.Booking;
@@ -11,7 +12,7 @@ public interface IBookingService {
     Booking createBooking(CreateBookingDTO dto);
     String updateBooking(UpdateBookingRequest request);
     BookingReadModel getBookingById(Long id);
-    List<BookingReadModel> getAllBookings();
+    BookingPageDTO getBookings(String after, int limit);
     List<Booking> getUserBookingHistory(Long userId);
     List<Booking> getAirbnbBookingHistory(Long airbnbId);
 }
@@ -0,0 +1,10 @@
+package com.example.AirbnbDemo.services;
+
+import com.example.AirbnbDemo.services.export.ExportFormat;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+public interface IExportService {
+    StreamingResponseBody exportAirbnbs(ExportFormat format);
+    StreamingResponseBody exportBookings(ExportFormat format);
+    StreamingResponseBody exportUsers(ExportFormat format);
+}
@@ -0,0 +1,11 @@
+package com.example.AirbnbDemo.services;
+
+import com.example.AirbnbDemo.dtos.HotListingDTO;
+import com.example.AirbnbDemo.dtos.LockStatsDTO;
+
+import java.util.List;
+
+public interface ILockStatsService {
+    LockStatsDTO getStats();
+    List<HotListingDTO> getHotListings(int top);
+}
@@ -0,0 +1,7 @@
+package com.example.AirbnbDemo.services;
+
+import com.example.AirbnbDemo.dtos.SagaQueueStatsDTO;
+
+public interface ISagaQueueService {
+    SagaQueueStatsDTO getStats();
+}
@@ -0,0 +1,12 @@
+package com.example.AirbnbDemo.services;
+
+import com.example.AirbnbDemo.dtos.ListingSearchResultDTO;
+import com.example.AirbnbDemo.dtos.NearbySearchResultDTO;
+
+import java.time.LocalDate;
+
+public interface ISearchService {
+    ListingSearchResultDTO searchListings(String location, LocalDate from, LocalDate to, Long maxPrice, int limit);
+    NearbySearchResultDTO searchNearby(double lat, double lon, double radiusKm, LocalDate from, LocalDate to,
+                                       Long maxPrice, int limit, String after);
+}
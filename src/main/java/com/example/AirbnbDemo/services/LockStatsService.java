@@ -0,0 +1,36 @@
+package com.example.AirbnbDemo.services;
+
+import com.example.AirbnbDemo.dtos.HotListingDTO;
+import com.example.AirbnbDemo.dtos.LockStatsDTO;
+import com.example.AirbnbDemo.services.concurrency.LockMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class LockStatsService implements ILockStatsService {
+
+    @Value("${booking.concurrency.strategy:range}")
+    private String strategy;
+
+    private final LockMetrics lockMetrics;
+
+    @Override
+    public LockStatsDTO getStats() {
+        return LockStatsDTO.builder()
+                .strategy(strategy)
+                .operations(lockMetrics.timers())
+                .holdTime(lockMetrics.holdTime())
+                .heldNow(lockMetrics.heldNow())
+                .longestHeldMs(lockMetrics.longestHeldMs())
+                .build();
+    }
+
+    @Override
+    public List<HotListingDTO> getHotListings(int top) {
+        return lockMetrics.hottest(Math.max(1, top));
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.AirbnbDemo.services;
+
+// Keyset-page cursors shared by the paged list endpoints
+final class PageCursors {
+
+    private PageCursors() {
+    }
+
+    // The cursor is the last id of the previous page; none means the first page
+    static long parseAfter(String after) {
+        if (after == null || after.isBlank()) return 0;
+        try {
+            return Long.parseLong(after);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + after);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.AirbnbDemo.services;
+
+import com.example.AirbnbDemo.dtos.SagaQueueStatsDTO;
+import com.example.AirbnbDemo.saga.SagaOutboxRelay;
+import com.example.AirbnbDemo.saga.SagaRetryScheduler;
+import com.example.AirbnbDemo.saga.queue.SagaLanes;
+import com.example.AirbnbDemo.saga.queue.SagaQueue;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class SagaQueueService implements ISagaQueueService {
+
+    @Value("${saga.queue.mode:simple}")
+    private String mode;
+
+    private final SagaQueue sagaQueue;
+    private final SagaRetryScheduler sagaRetryScheduler;
+    private final SagaOutboxRelay sagaOutboxRelay;
+    private final SagaLanes sagaLanes;
+
+    @Override
+    public SagaQueueStatsDTO getStats() {
+        Long retries = sagaRetryScheduler.size();
+        Map<String, Long> laneBacklog = new LinkedHashMap<>();
+        for (SagaLanes.Lane lane : sagaLanes.lanes()) {
+            laneBacklog.put(lane.name(), sagaQueue.backlog(lane.name()));
+        }
+        return SagaQueueStatsDTO.builder()
+                .mode(mode)
+                .backlog(laneBacklog.values().stream().mapToLong(Long::longValue).sum())
+                .laneBacklog(laneBacklog)
+                .inFlight(sagaQueue.inFlight())
+                .scheduledRetries(retries == null ? 0 : retries)
+                .outboxPending(sagaOutboxRelay.pending())
+                .build();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.AirbnbDemo.services;
+
+import com.example.AirbnbDemo.dtos.ListingHitDTO;
+import com.example.AirbnbDemo.dtos.ListingSearchResultDTO;
+import com.example.AirbnbDemo.dtos.NearbyListingDTO;
+import com.example.AirbnbDemo.dtos.NearbySearchResultDTO;
+import com.example.AirbnbDemo.exceptions.SearchIndexUnavailableException;
+import com.example.AirbnbDemo.search.IndexedListing;
+import com.example.AirbnbDemo.search.ListingSearchIndex;
+import com.example.AirbnbDemo.search.NearbyListing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@ConditionalOnProperty(name = "search.index.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class SearchService implements ISearchService {
+
+    @Value("${search.max-results:500}")
+    private int maxResults;
+
+    @Value("${search.geo.max-radius-km:500}")
+    private double maxRadiusKm;
+
+    @Value("${search.index.retry-after-ms:5000}")
+    private long retryAfterMs;
+
+    private final ListingSearchIndex listingSearchIndex;
+
+    // Nights from..to inclusive, like the range check and a booking's checkIn..checkOut
+    @Override
+    public ListingSearchResultDTO searchListings(String location, LocalDate from, LocalDate to, Long maxPrice, int limit) {
+        checkRange(from, to);
+        checkReady();
+        long started = System.nanoTime();
+        List<IndexedListing> matches = listingSearchIndex.search(location, from, to, maxPrice);
+        long tookMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started);
+        return ListingSearchResultDTO.builder()
+                .matched(matches.size())
+                .listings(matches.stream()
+                        .limit(Math.clamp(limit, 1, maxResults))
+                        .map(listing -> ListingHitDTO.builder()
+                                .id(listing.id())
+                                .name(listing.name())
+                                .location(listing.location())
+                                .pricePerNight(listing.pricePerNight())
+                                .build())
+                        .toList())
+                .tookMicros(tookMicros)
+                .build();
+    }
+
+    // Cursor "<distanceKm>:<id>" of the last hit: the next page starts strictly after it, so pages never overlap
+    @Override
+    public NearbySearchResultDTO searchNearby(double lat, double lon, double radiusKm, LocalDate from, LocalDate to,
+                                              Long maxPrice, int limit, String after) {
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            throw new IllegalArgumentException("lat must be within [-90, 90] and lon within [-180, 180]");
+        }
+        if (radiusKm <= 0 || radiusKm > maxRadiusKm) {
+            throw new IllegalArgumentException("radiusKm must be greater than 0 and at most " + maxRadiusKm);
+        }
+        if ((from == null) != (to == null)) {
+            throw new IllegalArgumentException("from and to must be given together");
+        }
+        if (from != null) checkRange(from, to);
+        checkReady();
+        double afterKm = -1;
+        long afterId = 0;
+        if (after != null && !after.isBlank()) {
+            try {
+                int colon = after.lastIndexOf(':');
+                afterKm = Double.parseDouble(after.substring(0, colon));
+                afterId = Long.parseLong(after.substring(colon + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Malformed cursor: " + after);
+            }
+        }
+        int pageSize = Math.clamp(limit, 1, maxResults);
+        List<NearbyListing> hits = listingSearchIndex.nearby(lat, lon, radiusKm, from, to, maxPrice, afterKm, afterId, pageSize);
+        NearbyListing last = hits.isEmpty() ? null : hits.getLast();
+        return NearbySearchResultDTO.builder()
+                .listings(hits.stream()
+                        .map(hit -> NearbyListingDTO.builder()
+                                .id(hit.listing().id())
+                                .name(hit.listing().name())
+                                .location(hit.listing().location())
+                                .pricePerNight(hit.listing().pricePerNight())
+                                .latitude(hit.listing().latitude())
+                                .longitude(hit.listing().longitude())
+                                .distanceKm(Math.round(hit.distanceKm() * 1000) / 1000.0)
+                                .build())
+                        .toList())
+                .nextCursor(hits.size() == pageSize ? last.distanceKm() + ":" + last.listing().id() : null)
+                .build();
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Range end " + to + " is before its start " + from);
+        }
+    }
+
+    private void checkReady() {
+        if (!listingSearchIndex.isReady()) {
+            throw new SearchIndexUnavailableException("Search index is still being built, try again shortly", retryAfterMs);
+        }
+    }
+}
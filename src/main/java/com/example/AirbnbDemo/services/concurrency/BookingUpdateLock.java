@@ -0,0 +1,52 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Short Redis lock on one booking, {@code lock:booking:update:<bookingId>}, taken while a
+ * booking is updated. Every {@link ConcurrencyControlStrategy} uses it as is; the strategies
+ * differ only in how they lock a stay's nights.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingUpdateLock {
+
+    static final String LOCK_KEY_PREFIX = "lock:booking:update:";
+
+    private static final String RELEASE_SCRIPT =
+            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+                    "    return redis.call('del', KEYS[1]) " +    // owner matches → delete
+                    "else " +
+                    "    return 0 " +                              // not owner → do nothing
+                    "end";
+
+    private static final DefaultRedisScript<Long> RELEASE_REDIS_SCRIPT =
+            new DefaultRedisScript<>(RELEASE_SCRIPT, Long.class);
+
+    @Value("${booking.lock.update-ttl-seconds:10}")
+    private long ttlSeconds;
+
+    private final RedisTemplate<String,String> redisTemplate;
+
+    /** Returns the lock value to release with, or null if someone else is updating the booking. */
+    public String tryLock(Long bookingId) {
+        if (bookingId == null) return null;
+        String lockValue = UUID.randomUUID().toString();
+        // Only ONE request wins
+        Boolean locked = redisTemplate.opsForValue()
+                .setIfAbsent(LOCK_KEY_PREFIX + bookingId, lockValue, Duration.ofSeconds(ttlSeconds));
+        return Boolean.TRUE.equals(locked) ? lockValue : null;
+    }
+
+    public void release(Long bookingId, String lockValue) {
+        redisTemplate.execute(RELEASE_REDIS_SCRIPT, List.of(LOCK_KEY_PREFIX + bookingId), lockValue);
+    }
+}
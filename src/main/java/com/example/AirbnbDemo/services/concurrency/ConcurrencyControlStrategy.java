@@ -11,4 +11,9 @@ public interface ConcurrencyControlStrategy {
     void releaseBookingLock(Long airbnbId, LocalDate checkIn,LocalDate checkOut,Long userId);
     List<Availability> lockAndCheckAvailability(Long airbnbId, LocalDate checkInDate, LocalDate checkOutDate,Long userId);
     String lockAndUpdateBooking(Long bookingId);
+
+    // Fencing token of the booking lock just taken by this node, null when the strategy does not fence
+    default Long fencingToken(Long airbnbId, LocalDate checkInDate, LocalDate checkOutDate, Long userId) {
+        return null;
+    }
 }
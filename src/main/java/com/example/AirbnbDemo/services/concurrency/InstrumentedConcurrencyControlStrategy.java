@@ -0,0 +1,101 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import com.example.AirbnbDemo.exceptions.DatesUnavailableException;
+import com.example.AirbnbDemo.models.Availability;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Wraps whichever {@link ConcurrencyControlStrategy} is active and times every call into
+ * {@link LockMetrics}, tagged by outcome. Booking-lock acquisitions also feed the per-listing
+ * contention window and start the hold-time clock that the matching release stops.
+ * Applied by {@link LockInstrumentationPostProcessor}, so strategies stay unaware of it.
+ */
+@RequiredArgsConstructor
+public class InstrumentedConcurrencyControlStrategy implements ConcurrencyControlStrategy {
+
+    static final String ACQUIRED = "acquired";
+    static final String CONFLICT = "conflict";
+    static final String RELEASED = "released";
+    static final String ERROR = "error";
+
+    private final ConcurrencyControlStrategy delegate;
+    private final LockMetrics lockMetrics;
+
+    @Override
+    public List<Availability> lockAndCheckAvailability(Long airbnbId, LocalDate checkInDate, LocalDate checkOutDate, Long userId) {
+        long start = System.nanoTime();
+        try {
+            List<Availability> availabilities = delegate.lockAndCheckAvailability(airbnbId, checkInDate, checkOutDate, userId);
+            lockMetrics.record("lockAndCheckAvailability", ACQUIRED, System.nanoTime() - start);
+            lockMetrics.recordAttempt(airbnbId, false);
+            lockMetrics.lockAcquired(holdKey(airbnbId, checkInDate, checkOutDate, userId));
+            return availabilities;
+        } catch (RuntimeException e) {
+            String outcome = outcome(e);
+            lockMetrics.record("lockAndCheckAvailability", outcome, System.nanoTime() - start);
+            lockMetrics.recordAttempt(airbnbId, CONFLICT.equals(outcome));
+            throw e;
+        }
+    }
+
+    // Lost the lock or the claim to another booking, or the dates are already booked; anything else is the backend
+    static String outcome(RuntimeException e) {
+        return e instanceof IllegalStateException || e instanceof DatesUnavailableException ? CONFLICT : ERROR;
+    }
+
+    @Override
+    public void releaseBookingLock(Long airbnbId, LocalDate checkIn, LocalDate checkOut, Long userId) {
+        timed("releaseBookingLock", () -> {
+            delegate.releaseBookingLock(airbnbId, checkIn, checkOut, userId);
+            return null;
+        });
+        lockMetrics.lockReleased(holdKey(airbnbId, checkIn, checkOut, userId));
+    }
+
+    @Override
+    public String lockAndUpdateBooking(Long bookingId) {
+        long start = System.nanoTime();
+        try {
+            String lockValue = delegate.lockAndUpdateBooking(bookingId);
+            lockMetrics.record("lockAndUpdateBooking", lockValue != null ? ACQUIRED : CONFLICT, System.nanoTime() - start);
+            return lockValue;
+        } catch (RuntimeException e) {
+            lockMetrics.record("lockAndUpdateBooking", ERROR, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public void releaseUpdateBookingLock(Long bookingId, String value) {
+        timed("releaseUpdateBookingLock", () -> {
+            delegate.releaseUpdateBookingLock(bookingId, value);
+            return null;
+        });
+    }
+
+    // A local lookup, not timed
+    @Override
+    public Long fencingToken(Long airbnbId, LocalDate checkInDate, LocalDate checkOutDate, Long userId) {
+        return delegate.fencingToken(airbnbId, checkInDate, checkOutDate, userId);
+    }
+
+    private <T> T timed(String operation, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            lockMetrics.record(operation, RELEASED, System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException e) {
+            lockMetrics.record(operation, ERROR, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    private static String holdKey(Long airbnbId, LocalDate checkIn, LocalDate lastNight, Long userId) {
+        return airbnbId + ":" + checkIn + ":" + lastNight + ":" + userId;
+    }
+}
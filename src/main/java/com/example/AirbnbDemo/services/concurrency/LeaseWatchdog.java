@@ -0,0 +1,118 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the booking-lock leases taken on this node alive. A lease is a short-TTL lock
+ * ({@code booking.lock.lease-ttl-seconds}) that is renewed every
+ * {@code booking.lock.renew-interval-ms} for as long as the owner still holds it, up to
+ * {@code booking.lock.ttl-minutes} in total. The saga's release deletes the key, so the next
+ * renewal finds it gone and the lease is dropped; a crashed node stops renewing, so its
+ * locks free up one lease TTL later instead of after the full TTL.
+ *
+ * A lease's value is {@code <owner>:<fencingToken>}. All leases are renewed by one script
+ * call per round.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LeaseWatchdog {
+
+    // KEYS = lock keys, ARGV = owner values (same order), ARGV[last] = lease ms; returns 1/0 per key
+    private static final String RENEW_SCRIPT =
+            "local ttl = ARGV[#ARGV] " +
+                    "local renewed = {} " +
+                    "for i, key in ipairs(KEYS) do " +
+                    "    if redis.call('get', key) == ARGV[i] then " +
+                    "        renewed[i] = redis.call('pexpire', key, ttl) " +
+                    "    else " +
+                    "        renewed[i] = 0 " +
+                    "    end " +
+                    "end " +
+                    "return renewed";
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> RENEW_REDIS_SCRIPT =
+            new DefaultRedisScript<>(RENEW_SCRIPT, List.class);
+
+    @Value("${booking.lock.lease-ttl-seconds:15}")
+    private long leaseTtlSeconds;
+
+    @Value("${booking.lock.ttl-minutes:5}")
+    private long maxLeaseMinutes;
+
+    private final RedisTemplate<String,String> redisTemplate;
+
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+
+    record Lease(String value, long fencingToken, long expiresAt) {}
+
+    public static String leaseValue(String owner, long fencingToken) {
+        return owner + ":" + fencingToken;
+    }
+
+    public Duration leaseTtl() {
+        return Duration.ofSeconds(leaseTtlSeconds);
+    }
+
+    public void watch(String lockKey, String owner, long fencingToken) {
+        long expiresAt = System.currentTimeMillis() + Duration.ofMinutes(maxLeaseMinutes).toMillis();
+        leases.put(lockKey, new Lease(leaseValue(owner, fencingToken), fencingToken, expiresAt));
+    }
+
+    public void unwatch(String lockKey) {
+        leases.remove(lockKey);
+    }
+
+    /** Fencing token of the lease this node holds on {@code lockKey} for {@code owner}, or null. */
+    public Long fencingToken(String lockKey, String owner) {
+        Lease lease = leases.get(lockKey);
+        return lease != null && lease.value().equals(leaseValue(owner, lease.fencingToken()))
+                ? lease.fencingToken() : null;
+    }
+
+    @Scheduled(fixedDelayString = "${booking.lock.renew-interval-ms:5000}")
+    public void renewLeases() {
+        if (leases.isEmpty()) return;
+        long now = System.currentTimeMillis();
+        List<String> keys = new ArrayList<>(leases.size());
+        List<Lease> renewing = new ArrayList<>(leases.size());
+        List<String> args = new ArrayList<>(leases.size() + 1);
+        leases.forEach((key, lease) -> {
+            if (lease.expiresAt() <= now) {
+                // Hard cap reached: stop renewing and let the last lease run out
+                leases.remove(key, lease);
+                log.warn("Lease on {} reached the maximum lifetime, no longer renewed", key);
+            } else {
+                keys.add(key);
+                renewing.add(lease);
+                args.add(lease.value());
+            }
+        });
+        if (keys.isEmpty()) return;
+        args.add(String.valueOf(leaseTtl().toMillis()));
+        try {
+            List<?> renewed = redisTemplate.execute(RENEW_REDIS_SCRIPT, keys, args.toArray());
+            for (int i = 0; i < keys.size(); i++) {
+                if (renewed == null || ((Number) renewed.get(i)).longValue() == 0) {
+                    // Released by the saga (possibly on another node) or lost to expiry
+                    leases.remove(keys.get(i), renewing.get(i));
+                }
+            }
+        } catch (Exception e) {
+            log.error("Lease renewal failed, retrying next round: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * In-process tier in front of the Redis booking lock. Contenders from this JVM for the same
+ * listing queue on a striped lock (stripe = airbnbId) for up to {@code wait-ms} instead of
+ * all racing to Redis, and a lock key this node saw taken in the last {@code remember-ms},
+ * by itself or by another node, is refused locally without a round trip.
+ *
+ * Redis stays the cross-node guarantee: every lock that is granted was granted by Redis.
+ * The local memory is kept short because a lock can be released on another node (the saga
+ * consumer) without this node hearing about it; a stale entry can only refuse, never grant.
+ */
+@Component
+@Slf4j
+public class LocalLockTier {
+
+    @Value("${booking.lock.local.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.lock.local.stripes:256}")
+    private int stripeCount;
+
+    @Value("${booking.lock.local.wait-ms:50}")
+    private long waitMs;
+
+    @Value("${booking.lock.local.remember-ms:2000}")
+    private long rememberMs;
+
+    private ReentrantLock[] stripes;
+    private final ConcurrentHashMap<String, Long> recentlyTaken = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        stripes = new ReentrantLock[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Runs {@code redisAcquire} (a SET NX on {@code lockKey}) unless this node already knows
+     * the key is taken or cannot get the listing's stripe in time. Returns whether the lock
+     * was acquired; either way the key is remembered as taken.
+     */
+    public boolean tryAcquire(Long airbnbId, String lockKey, BooleanSupplier redisAcquire) {
+        if (!enabled) return redisAcquire.getAsBoolean();
+        ReentrantLock stripe = stripes[Math.floorMod(Long.hashCode(airbnbId), stripes.length)];
+        if (!lockStripe(stripe)) {
+            log.debug("Local stripe busy for airbnb {}, rejecting without Redis", airbnbId);
+            return false;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            Long takenUntil = recentlyTaken.get(lockKey);
+            if (takenUntil != null && takenUntil > now) {
+                log.debug("Lock {} recently taken, rejecting without Redis", lockKey);
+                return false;
+            }
+            boolean acquired = redisAcquire.getAsBoolean();
+            remember(lockKey, now);
+            return acquired;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    public void forget(String lockKey) {
+        if (enabled) recentlyTaken.remove(lockKey);
+    }
+
+    private boolean lockStripe(ReentrantLock stripe) {
+        try {
+            return stripe.tryLock(waitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void remember(String lockKey, long now) {
+        recentlyTaken.put(lockKey, now + rememberMs);
+        // Expired entries are only dropped once the map grows; a hit on one is ignored anyway
+        if (recentlyTaken.size() > stripes.length * 16) {
+            recentlyTaken.values().removeIf(until -> until <= now);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps the active {@link ConcurrencyControlStrategy} bean in an
+ * {@link InstrumentedConcurrencyControlStrategy}. Runs last, after the transaction proxy has
+ * been applied, so the wrapper delegates to the proxied strategy and
+ * {@code @Transactional} on the strategies keeps working.
+ */
+@Component
+@RequiredArgsConstructor
+public class LockInstrumentationPostProcessor implements BeanPostProcessor, Ordered {
+
+    // Resolved lazily: post-processors are created before ordinary beans
+    private final ObjectProvider<LockMetrics> lockMetrics;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof ConcurrencyControlStrategy strategy
+                && !(bean instanceof InstrumentedConcurrencyControlStrategy)) {
+            return new InstrumentedConcurrencyControlStrategy(strategy, lockMetrics.getObject());
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
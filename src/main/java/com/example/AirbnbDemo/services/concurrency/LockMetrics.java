@@ -0,0 +1,184 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import com.example.AirbnbDemo.dtos.HotListingDTO;
+import com.example.AirbnbDemo.dtos.LockTimerDTO;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process lock statistics, fed by {@link InstrumentedConcurrencyControlStrategy}:
+ * <ul>
+ *   <li>a timer (count, mean, max) per strategy operation and outcome,</li>
+ *   <li>how long each booking lock was held, from acquisition in {@code createBooking} to the
+ *       release after the saga; only measured when both happen on this node,</li>
+ *   <li>acquisition attempts and conflicts per listing over a sliding window of
+ *       {@code booking.lock.metrics.window-seconds}, kept as a ring of
+ *       {@code bucket-seconds} buckets so old counts drop out without a sweeper.</li>
+ * </ul>
+ */
+@Component
+public class LockMetrics {
+
+    @Value("${booking.lock.metrics.window-seconds:300}")
+    private long windowSeconds;
+
+    @Value("${booking.lock.metrics.bucket-seconds:10}")
+    private long bucketSeconds;
+
+    @Value("${booking.lock.ttl-minutes:5}")
+    private long lockTtlMinutes;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Timer holdTimer = new Timer();
+    private final Map<String, Long> heldSince = new ConcurrentHashMap<>();
+    private AtomicReferenceArray<Bucket> ring;
+
+    private static final class Timer {
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        LockTimerDTO toDTO() {
+            long n = count.sum();
+            return LockTimerDTO.builder()
+                    .count(n)
+                    .meanMs(n == 0 ? 0 : totalNanos.sum() / n / 1_000_000.0)
+                    .maxMs(maxNanos.get() / 1_000_000.0)
+                    .build();
+        }
+    }
+
+    private record Bucket(long epoch, Map<Long, ListingCounts> listings) {}
+
+    private static final class ListingCounts {
+        final LongAdder attempts = new LongAdder();
+        final LongAdder conflicts = new LongAdder();
+    }
+
+    @PostConstruct
+    void init() {
+        ring = new AtomicReferenceArray<>((int) Math.max(1, windowSeconds / bucketSeconds));
+    }
+
+    // ─── Timers ──────────────────────────────────────────────────
+
+    public void record(String operation, String outcome, long nanos) {
+        timers.computeIfAbsent(operation + "." + outcome, k -> new Timer()).record(nanos);
+    }
+
+    public Map<String, LockTimerDTO> timers() {
+        Map<String, LockTimerDTO> snapshot = new TreeMap<>();
+        timers.forEach((name, timer) -> snapshot.put(name, timer.toDTO()));
+        return snapshot;
+    }
+
+    // ─── Hold time ───────────────────────────────────────────────
+
+    public void lockAcquired(String lock) {
+        long now = System.currentTimeMillis();
+        heldSince.put(lock, now);
+        // Locks released on another node never come back here; drop them once they are surely gone
+        if (heldSince.size() > 10_000) {
+            long expired = now - Duration.ofMinutes(lockTtlMinutes).toMillis();
+            heldSince.values().removeIf(since -> since < expired);
+        }
+    }
+
+    public void lockReleased(String lock) {
+        Long since = heldSince.remove(lock);
+        if (since != null) {
+            holdTimer.record(Duration.ofMillis(System.currentTimeMillis() - since).toNanos());
+        }
+    }
+
+    public LockTimerDTO holdTime() {
+        return holdTimer.toDTO();
+    }
+
+    public int heldNow() {
+        return heldSince.size();
+    }
+
+    public long longestHeldMs() {
+        long now = System.currentTimeMillis();
+        return heldSince.values().stream().mapToLong(since -> now - since).max().orElse(0);
+    }
+
+    // ─── Contention window ───────────────────────────────────────
+
+    public void recordAttempt(Long airbnbId, boolean conflict) {
+        recordAttempt(airbnbId, conflict, System.currentTimeMillis());
+    }
+
+    void recordAttempt(Long airbnbId, boolean conflict, long nowMillis) {
+        ListingCounts counts = bucket(nowMillis).listings()
+                .computeIfAbsent(airbnbId, id -> new ListingCounts());
+        counts.attempts.increment();
+        if (conflict) counts.conflicts.increment();
+    }
+
+    public List<HotListingDTO> hottest(int top) {
+        return hottest(top, System.currentTimeMillis());
+    }
+
+    List<HotListingDTO> hottest(int top, long nowMillis) {
+        AtomicReferenceArray<Bucket> buckets = ring;
+        long oldest = epoch(nowMillis) - buckets.length() + 1;
+        Map<Long, long[]> merged = new HashMap<>();
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket == null || bucket.epoch() < oldest) continue;
+            bucket.listings().forEach((airbnbId, counts) -> {
+                long[] total = merged.computeIfAbsent(airbnbId, id -> new long[2]);
+                total[0] += counts.attempts.sum();
+                total[1] += counts.conflicts.sum();
+            });
+        }
+        return merged.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<Long, long[]>>comparingLong(e -> e.getValue()[1])
+                        .thenComparingLong(e -> e.getValue()[0])
+                        .reversed())
+                .limit(top)
+                .map(e -> HotListingDTO.builder()
+                        .airbnbId(e.getKey())
+                        .attempts(e.getValue()[0])
+                        .conflicts(e.getValue()[1])
+                        .build())
+                .toList();
+    }
+
+    private Bucket bucket(long nowMillis) {
+        AtomicReferenceArray<Bucket> buckets = ring;
+        long epoch = epoch(nowMillis);
+        int slot = (int) (epoch % buckets.length());
+        Bucket bucket = buckets.get(slot);
+        if (bucket == null || bucket.epoch() != epoch) {
+            // First write of a new bucket recycles the slot of the one that left the window
+            Bucket fresh = new Bucket(epoch, new ConcurrentHashMap<>());
+            bucket = buckets.compareAndSet(slot, bucket, fresh) ? fresh : buckets.get(slot);
+        }
+        return bucket;
+    }
+
+    private long epoch(long nowMillis) {
+        return nowMillis / Duration.ofSeconds(bucketSeconds).toMillis();
+    }
+}
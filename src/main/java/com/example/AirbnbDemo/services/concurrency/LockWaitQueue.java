@@ -0,0 +1,183 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import com.example.AirbnbDemo.exceptions.LockBusyException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Optional fair wait for booking locks ({@code booking.lock.wait.enabled}). Contenders for one
+ * listing take the short acquire-and-check step one at a time, in arrival order: each appends
+ * a ticket to {@code lock:queue:<airbnbId>} and runs its step only once the ticket is at the
+ * head. The step ends as soon as the lock is taken (or refused) and the dates are checked, so
+ * a turn lasts milliseconds, unlike the lock itself, which is held until the saga confirms.
+ * Every contender therefore gets a definite answer within {@code max-wait-ms} instead of
+ * racing the others and retrying.
+ *
+ * Leaving the head publishes the listing on {@value #TURN_CHANNEL}; each node has one
+ * subscription and wakes only its waiters for that listing. Waiters also re-check every
+ * {@code poll-ms}. Tickets carry a deadline ({@code <uuid>|<epochMs>}, Redis time): the wait
+ * deadline while queued, {@code turn-ms} once at the head, so a waiter that gave up or died
+ * mid-turn is skipped instead of stalling the listing.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LockWaitQueue {
+
+    static final String QUEUE_KEY_PREFIX = "lock:queue:";
+    static final String TURN_CHANNEL = "lock:turn";
+
+    // KEYS[1] = queue; ARGV = ticket id, max wait ms, turn ms
+    private static final String ENQUEUE_SCRIPT =
+            "local t = redis.call('time') " +
+                    "local now = t[1] * 1000 + math.floor(t[2] / 1000) " +
+                    "redis.call('rpush', KEYS[1], ARGV[1] .. '|' .. (now + tonumber(ARGV[2]))) " +
+                    "redis.call('pexpire', KEYS[1], tonumber(ARGV[2]) + tonumber(ARGV[3])) " +
+                    "return 1";
+
+    // 1: the ticket is at the head and now owns the turn; 0: someone is ahead; -1: the ticket is gone.
+    // Head tickets past their deadline are dropped on the way.
+    private static final String TURN_SCRIPT =
+            "local t = redis.call('time') " +
+                    "local now = t[1] * 1000 + math.floor(t[2] / 1000) " +
+                    "local head = redis.call('lindex', KEYS[1], 0) " +
+                    "while head do " +
+                    "    local id, deadline = string.match(head, '^(.+)|(%d+)$') " +
+                    "    if id == ARGV[1] then " +
+                    "        redis.call('lset', KEYS[1], 0, id .. '|' .. (now + tonumber(ARGV[2]))) " +
+                    "        if redis.call('pttl', KEYS[1]) < tonumber(ARGV[2]) then redis.call('pexpire', KEYS[1], ARGV[2]) end " +
+                    "        return 1 " +
+                    "    end " +
+                    "    if tonumber(deadline) >= now then return 0 end " +
+                    "    redis.call('lpop', KEYS[1]) " +
+                    "    head = redis.call('lindex', KEYS[1], 0) " +
+                    "end " +
+                    "return -1";
+
+    // Removes the ticket wherever it is; leaving the head with waiters behind announces the next turn
+    private static final String LEAVE_SCRIPT =
+            "local tickets = redis.call('lrange', KEYS[1], 0, -1) " +
+                    "for i, ticket in ipairs(tickets) do " +
+                    "    if string.sub(ticket, 1, #ARGV[1] + 1) == ARGV[1] .. '|' then " +
+                    "        redis.call('lrem', KEYS[1], 1, ticket) " +
+                    "        if i == 1 and #tickets > 1 then redis.call('publish', ARGV[2], ARGV[3]) end " +
+                    "        return i " +
+                    "    end " +
+                    "end " +
+                    "return 0";
+
+    static final DefaultRedisScript<Long> ENQUEUE_REDIS_SCRIPT = new DefaultRedisScript<>(ENQUEUE_SCRIPT, Long.class);
+    static final DefaultRedisScript<Long> TURN_REDIS_SCRIPT = new DefaultRedisScript<>(TURN_SCRIPT, Long.class);
+    static final DefaultRedisScript<Long> LEAVE_REDIS_SCRIPT = new DefaultRedisScript<>(LEAVE_SCRIPT, Long.class);
+
+    @Value("${booking.lock.wait.enabled:false}")
+    private boolean enabled;
+
+    @Value("${booking.lock.wait.max-wait-ms:2000}")
+    private long maxWaitMs;
+
+    @Value("${booking.lock.wait.poll-ms:250}")
+    private long pollMs;
+
+    @Value("${booking.lock.wait.turn-ms:1000}")
+    private long turnMs;
+
+    private final RedisTemplate<String,String> redisTemplate;
+    private final RedisConnectionFactory redisConnectionFactory;
+
+    private final Map<Long, Set<Semaphore>> waiters = new ConcurrentHashMap<>();
+    private RedisMessageListenerContainer listenerContainer;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) return;
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(redisConnectionFactory);
+        listenerContainer.addMessageListener(
+                (Message message, byte[] pattern) -> wake(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8))),
+                new ChannelTopic(TURN_CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (listenerContainer != null) listenerContainer.destroy();
+    }
+
+    static String queueKey(Long airbnbId) {
+        return QUEUE_KEY_PREFIX + airbnbId;
+    }
+
+    /**
+     * Runs {@code step} in this caller's turn for the listing and returns its result. Without
+     * the wait mode the step runs at once. A caller whose turn does not come within
+     * {@code max-wait-ms} gets a {@link LockBusyException} and leaves the queue.
+     */
+    public <T> T inTurn(Long airbnbId, Supplier<T> step) {
+        if (!enabled) return step.get();
+        String queueKey = queueKey(airbnbId);
+        String ticket = UUID.randomUUID().toString();
+        // Registered before queueing, so a wake-up between the two is not lost
+        Semaphore wakeUp = new Semaphore(0);
+        waiters.computeIfAbsent(airbnbId, k -> ConcurrentHashMap.newKeySet()).add(wakeUp);
+        try {
+            redisTemplate.execute(ENQUEUE_REDIS_SCRIPT, List.of(queueKey), ticket,
+                    String.valueOf(maxWaitMs), String.valueOf(turnMs));
+            if (!awaitTurn(queueKey, ticket, wakeUp)) {
+                log.debug("No turn for airbnb {} within {} ms", airbnbId, maxWaitMs);
+                throw new LockBusyException("Too many bookings for this listing at once. Please try again.", maxWaitMs);
+            }
+            return step.get();
+        } finally {
+            waiters.computeIfPresent(airbnbId, (k, set) -> {
+                set.remove(wakeUp);
+                return set.isEmpty() ? null : set;
+            });
+            redisTemplate.execute(LEAVE_REDIS_SCRIPT, List.of(queueKey), ticket, TURN_CHANNEL, airbnbId.toString());
+        }
+    }
+
+    private boolean awaitTurn(String queueKey, String ticket, Semaphore wakeUp) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        try {
+            while (true) {
+                Long turn = redisTemplate.execute(TURN_REDIS_SCRIPT, List.of(queueKey), ticket, String.valueOf(turnMs));
+                if (turn != null && turn == 1) return true;
+                if (turn != null && turn < 0) return false;
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) return false;
+                wakeUp.tryAcquire(Math.min(remainingMs, pollMs), TimeUnit.MILLISECONDS);
+                wakeUp.drainPermits();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    void wake(Long airbnbId) {
+        Set<Semaphore> waiting = waiters.get(airbnbId);
+        if (waiting != null) waiting.forEach(Semaphore::release);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import com.example.AirbnbDemo.exceptions.DatesUnavailableException;
+import com.example.AirbnbDemo.models.Availability;
+import com.example.AirbnbDemo.repository.writes.AvailabilityRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Locks every night of a stay as its own key, {@code lock:night:{<airbnbId>}:<epochDay>},
+ * valued with the owner's token. All nights are checked and taken by one script, so a
+ * stay gets either all of its nights or none, in a single round trip: overlapping stays
+ * conflict on the shared nights, disjoint stays never touch the same key.
+ *
+ * Per-night keys rather than a per-listing bitmap because each night needs its own owner
+ * and TTL. The {@code {airbnbId}} hash tag keeps one listing's nights in one cluster slot.
+ * Selected with {@code booking.concurrency.strategy=night}; update locks and the optional
+ * {@link LockWaitQueue} work as for the range lock.
+ */
+@Service
+@ConditionalOnProperty(name = "booking.concurrency.strategy", havingValue = "night")
+@Slf4j
+public class NightLockStrategy extends RedisLockStrategy {
+
+    private static final String NIGHT_KEY_PREFIX = "lock:night:";
+
+    // Returns 0 when every night was taken, otherwise the 1-based index of the first night already held
+    private static final String ACQUIRE_SCRIPT =
+            "for i, key in ipairs(KEYS) do " +
+                    "    if redis.call('exists', key) == 1 then return i end " +
+                    "end " +
+                    "for _, key in ipairs(KEYS) do " +
+                    "    redis.call('set', key, ARGV[1], 'PX', ARGV[2]) " +
+                    "end " +
+                    "return 0";
+
+    // Only nights still held by this owner are released
+    private static final String RELEASE_SCRIPT =
+            "local released = 0 " +
+                    "for _, key in ipairs(KEYS) do " +
+                    "    if redis.call('get', key) == ARGV[1] then " +
+                    "        released = released + redis.call('del', key) " +
+                    "    end " +
+                    "end " +
+                    "return released";
+
+    private static final DefaultRedisScript<Long> ACQUIRE_REDIS_SCRIPT =
+            new DefaultRedisScript<>(ACQUIRE_SCRIPT, Long.class);
+    private static final DefaultRedisScript<Long> RELEASE_REDIS_SCRIPT =
+            new DefaultRedisScript<>(RELEASE_SCRIPT, Long.class);
+
+    public NightLockStrategy(RedisTemplate<String,String> redisTemplate, AvailabilityRepository availabilityRepository,
+                             LocalLockTier localLockTier, LeaseWatchdog leaseWatchdog, LockWaitQueue lockWaitQueue,
+                             BookingUpdateLock bookingUpdateLock) {
+        super(redisTemplate, availabilityRepository, localLockTier, leaseWatchdog, lockWaitQueue, bookingUpdateLock);
+    }
+
+    // checkOut here is the last night stayed, as everywhere on the lock path
+    @Override
+    public List<Availability> lockAndCheckAvailability(Long airbnbId, LocalDate checkInDate, LocalDate checkOutDate, Long userId) {
+        // Overlapping stays of one listing share its queue, so they are served in arrival order
+        return lockWaitQueue.inTurn(airbnbId, () -> acquireAndCheck(airbnbId, checkInDate, checkOutDate, userId));
+    }
+
+    private List<Availability> acquireAndCheck(Long airbnbId, LocalDate checkInDate, LocalDate checkOutDate, Long userId) {
+        List<String> nightKeys = nightKeys(airbnbId, checkInDate, checkOutDate);
+        Long conflict = redisTemplate.execute(ACQUIRE_REDIS_SCRIPT, nightKeys,
+                userId.toString(), String.valueOf(Duration.ofMinutes(lockTtlMinutes).toMillis()));
+        if (conflict == null || conflict != 0) {
+            String night = conflict == null ? "" : " (" + checkInDate.plusDays(conflict - 1) + " is being booked)";
+            throw new IllegalStateException("Failed to acquire booking for the given dates" + night + ". Please try again.");
+        }
+        Long bookedSlots = availabilityRepository.countByAirbnbIdAndDateBetweenAndBookingIsNotNull(airbnbId, checkInDate, checkOutDate);
+        if (bookedSlots > 0) {
+            // Give the nights back straight away instead of holding them for the full TTL
+            redisTemplate.execute(RELEASE_REDIS_SCRIPT, nightKeys, userId.toString());
+            throw new DatesUnavailableException("Airbnb is not available for the given dates. Please try again with different dates.");
+        }
+        return availabilityRepository.findByAirbnbIdAndDateBetween(airbnbId, checkInDate, checkOutDate);
+    }
+
+    @Override
+    public void releaseBookingLock(Long airbnbId, LocalDate checkIn, LocalDate checkOut, Long userId) {
+        redisTemplate.execute(RELEASE_REDIS_SCRIPT, nightKeys(airbnbId, checkIn, checkOut), userId.toString());
+    }
+
+    static List<String> nightKeys(Long airbnbId, LocalDate firstNight, LocalDate lastNight) {
+        String prefix = NIGHT_KEY_PREFIX + "{" + airbnbId + "}:";
+        List<String> keys = new ArrayList<>();
+        for (long day = firstNight.toEpochDay(); day <= lastNight.toEpochDay(); day++) {
+            keys.add(prefix + day);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import com.example.AirbnbDemo.models.Availability;
+import com.example.AirbnbDemo.repository.writes.AvailabilityRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Lock-free booking: the nights are claimed by one conditional {@code UPDATE} that only
+ * matches rows with no booking and no live hold, and the claim succeeded iff it touched
+ * exactly as many rows as the stay has nights. A short count means another stay got
+ * there first (or a night is not provisioned); the exception rolls the partial claim back
+ * with the surrounding transaction.
+ *
+ * The booking row does not exist yet when its nights are claimed, so the claim is a hold
+ * ({@code held_by}, {@code held_until} = now + lock TTL) rather than {@code booking_id};
+ * the saga writes {@code booking_id} on confirm as before. No Redis round trip and no
+ * count/find queries on this path — the returned list is empty, the caller does not use it.
+ * Selected with {@code booking.concurrency.strategy=optimistic}; update locks go through
+ * {@link BookingUpdateLock} as for every strategy.
+ */
+@Service
+@ConditionalOnProperty(name = "booking.concurrency.strategy", havingValue = "optimistic")
+@RequiredArgsConstructor
+@Slf4j
+public class OptimisticBookingStrategy implements ConcurrencyControlStrategy {
+
+    @Value("${booking.lock.ttl-minutes:5}")
+    private long lockTtlMinutes;
+
+    private final AvailabilityRepository availabilityRepository;
+    private final BookingUpdateLock bookingUpdateLock;
+
+    // checkOut here is the last night stayed, as everywhere on the lock path
+    @Override
+    @Transactional
+    public List<Availability> lockAndCheckAvailability(Long airbnbId, LocalDate checkInDate, LocalDate checkOutDate, Long userId) {
+        long nights = ChronoUnit.DAYS.between(checkInDate, checkOutDate) + 1;
+        LocalDateTime now = LocalDateTime.now();
+        int claimed = availabilityRepository.holdFreeNights(
+                airbnbId, checkInDate, checkOutDate, userId, now.plusMinutes(lockTtlMinutes), now);
+        if (claimed != nights) {
+            log.info("Optimistic claim for airbnb {} got {} of {} nights", airbnbId, claimed, nights);
+            throw new IllegalStateException("Failed to acquire booking for the given dates. Please try again.");
+        }
+        return List.of();
+    }
+
+    @Override
+    public void releaseBookingLock(Long airbnbId, LocalDate checkIn, LocalDate checkOut, Long userId) {
+        availabilityRepository.releaseHeldNights(airbnbId, checkIn, checkOut, userId);
+    }
+
+    @Override
+    public String lockAndUpdateBooking(Long bookingId) {
+        return bookingUpdateLock.tryLock(bookingId);
+    }
+
+    @Override
+    public void releaseUpdateBookingLock(Long bookingId, String value) {
+        bookingUpdateLock.release(bookingId, value);
+    }
+}
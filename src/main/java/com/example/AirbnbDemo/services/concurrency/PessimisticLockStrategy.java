@@ -0,0 +1,88 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import com.example.AirbnbDemo.models.Availability;
+import com.example.AirbnbDemo.repository.writes.AvailabilityRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * DB-native locking scoped to exactly the requested nights: the free availability rows of
+ * the stay are locked with {@code SELECT ... FOR UPDATE SKIP LOCKED} inside
+ * {@code createBooking}'s transaction. Nights locked by a concurrent booking are skipped,
+ * so fewer rows than nights means the stay is (being) taken and the request fails at once
+ * instead of queueing on the row locks. With {@code booking.concurrency.pessimistic.nowait=true}
+ * the query uses {@code NOWAIT} and the lock error itself is the conflict.
+ *
+ * Row locks end with the transaction, but the booking stays pending until its saga confirms,
+ * so the locked rows are also given a hold ({@code held_by}, {@code held_until}) for the lock
+ * TTL, the same hold {@link OptimisticBookingStrategy} uses. Releasing clears the hold.
+ * Selected with {@code booking.concurrency.strategy=pessimistic}; update locks go through
+ * {@link BookingUpdateLock}, the only Redis this strategy touches.
+ */
+@Service
+@ConditionalOnProperty(name = "booking.concurrency.strategy", havingValue = "pessimistic")
+@RequiredArgsConstructor
+@Slf4j
+public class PessimisticLockStrategy implements ConcurrencyControlStrategy {
+
+    @Value("${booking.concurrency.pessimistic.nowait:false}")
+    private boolean nowait;
+
+    @Value("${booking.lock.ttl-minutes:5}")
+    private long lockTtlMinutes;
+
+    private final AvailabilityRepository availabilityRepository;
+    private final BookingUpdateLock bookingUpdateLock;
+
+    // checkOut here is the last night stayed, as everywhere on the lock path
+    @Override
+    @Transactional
+    public List<Availability> lockAndCheckAvailability(Long airbnbId, LocalDate checkInDate, LocalDate checkOutDate, Long userId) {
+        long nights = ChronoUnit.DAYS.between(checkInDate, checkOutDate) + 1;
+        LocalDateTime now = LocalDateTime.now();
+        List<Availability> locked;
+        try {
+            locked = nowait
+                    ? availabilityRepository.lockFreeNightsNoWait(airbnbId, checkInDate, checkOutDate, now)
+                    : availabilityRepository.lockFreeNightsSkipLocked(airbnbId, checkInDate, checkOutDate, now);
+        } catch (PessimisticLockingFailureException e) {
+            log.info("Nights of airbnb {} locked by another booking: {}", airbnbId, e.getMessage());
+            throw new IllegalStateException("Failed to acquire booking for the given dates. Please try again.");
+        }
+        if (locked.size() != nights) {
+            log.info("Pessimistic lock for airbnb {} got {} of {} nights", airbnbId, locked.size(), nights);
+            throw new IllegalStateException("Failed to acquire booking for the given dates. Please try again.");
+        }
+        LocalDateTime heldUntil = now.plusMinutes(lockTtlMinutes);
+        for (Availability night : locked) {
+            night.setHeldBy(userId);
+            night.setHeldUntil(heldUntil);
+        }
+        return locked;
+    }
+
+    @Override
+    public void releaseBookingLock(Long airbnbId, LocalDate checkIn, LocalDate checkOut, Long userId) {
+        availabilityRepository.releaseHeldNights(airbnbId, checkIn, checkOut, userId);
+    }
+
+    @Override
+    public String lockAndUpdateBooking(Long bookingId) {
+        return bookingUpdateLock.tryLock(bookingId);
+    }
+
+    @Override
+    public void releaseUpdateBookingLock(Long bookingId, String value) {
+        bookingUpdateLock.release(bookingId, value);
+    }
+}
@@ -1,89 +1,136 @@
 package com.example.AirbnbDemo.services.concurrency;
 
+import com.example.AirbnbDemo.exceptions.DatesUnavailableException;
+import com.example.AirbnbDemo.exceptions.LockBusyException;
 import com.example.AirbnbDemo.models.Availability;
 import com.example.AirbnbDemo.repository.writes.AvailabilityRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.UUID;
 
+/**
+ * Locks the whole stay as one key, {@code lock:availability:<airbnbId>:<checkIn>:<checkOut>}.
+ * Only identical ranges conflict here; overlapping ones are caught by the DB count check.
+ * Local contenders are filtered by {@link LocalLockTier} before they reach Redis.
+ *
+ * The lock is a short lease kept alive by {@link LeaseWatchdog} and valued
+ * {@code <userId>:<fencingToken>}. The token comes from a per-listing counter, is stamped on
+ * the lock key's own {@link com.example.AirbnbDemo.models.LockFence} row and travels with the
+ * booking, so the confirm write of a holder whose lease already ran out (and was taken over by
+ * the same lock key) matches no rows. Overlapping locks on other dates never fence it out.
+ *
+ * A losing contender fails fast with a {@link LockBusyException} (409) whose retry hint is the
+ * holder's remaining lease: the lock lives until the saga confirms, far longer than any request
+ * should wait for it. With {@code booking.lock.wait.enabled} contenders for one listing take the
+ * acquire-and-check step in arrival order through {@link LockWaitQueue} instead of racing for it.
+ * Selected with {@code booking.concurrency.strategy=range} (the default).
+ */
 @Service
+@ConditionalOnProperty(name = "booking.concurrency.strategy", havingValue = "range", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
 public class RedisLockStrategy implements ConcurrencyControlStrategy {
 
     private static final String LOCK_KEY_PREFIX="lock:availability:";
-    private static final String LOCK_KEY_UPDATE_PREFIX = "lock:booking:update:";
+    private static final String FENCE_KEY_PREFIX = "lock:fence:";
 
     @Value("${booking.lock.ttl-minutes:5}")
-    private long lockTtlMinutes;
-
-    @Value("${booking.lock.update-ttl-seconds:10}")
-    private long updateLockTtlSeconds;
-
-    private final RedisTemplate<String,String> redisTemplate;
-    private final AvailabilityRepository availabilityRepository;
-
-
-    private static final String RELEASE_SCRIPT =
-            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
-                    "    return redis.call('del', KEYS[1]) " +    // owner matches → delete
-                    "else " +
-                    "    return 0 " +                              // not owner → do nothing
-                    "end";
-
-    private static final DefaultRedisScript<Long> RELEASE_REDIS_SCRIPT =
-            new DefaultRedisScript<>(RELEASE_SCRIPT, Long.class);
-
-    private void releaseAnyLock(String lockKey, String lockValue) {
-        redisTemplate.execute(RELEASE_REDIS_SCRIPT, List.of(lockKey), lockValue);
-    }
+    protected long lockTtlMinutes;
+
+    protected final RedisTemplate<String,String> redisTemplate;
+    protected final AvailabilityRepository availabilityRepository;
+    protected final LocalLockTier localLockTier;
+    protected final LeaseWatchdog leaseWatchdog;
+    protected final LockWaitQueue lockWaitQueue;
+    protected final BookingUpdateLock bookingUpdateLock;
+
+    // KEYS[1] = lock, KEYS[2] = listing's fence counter.
+    // Returns the fencing token, or minus the holder's remaining lease in ms if the lock is held.
+    private static final String ACQUIRE_LEASE_SCRIPT =
+            "local ttl = redis.call('pttl', KEYS[1]) " +
+                    "if ttl ~= -2 then return -math.max(ttl, 1) end " +
+                    "local token = redis.call('incr', KEYS[2]) " +
+                    "redis.call('set', KEYS[1], ARGV[1] .. ':' .. token, 'PX', ARGV[2]) " +
+                    "return token";
+
+    // Lease values carry the fencing token after the owner; releasing only needs the owner
+    private static final String RELEASE_LEASE_SCRIPT =
+            "local value = redis.call('get', KEYS[1]) " +
+                    "if value and string.sub(value, 1, #ARGV[1] + 1) == ARGV[1] .. ':' then " +
+                    "    return redis.call('del', KEYS[1]) " +
+                    "end " +
+                    "return 0";
+
+    private static final DefaultRedisScript<Long> ACQUIRE_LEASE_REDIS_SCRIPT =
+            new DefaultRedisScript<>(ACQUIRE_LEASE_SCRIPT, Long.class);
+    private static final DefaultRedisScript<Long> RELEASE_LEASE_REDIS_SCRIPT =
+            new DefaultRedisScript<>(RELEASE_LEASE_SCRIPT, Long.class);
 
     @Override
     public void releaseBookingLock(Long airbnbId, LocalDate checkIn, LocalDate checkOut, Long userId) {
         String key = generateLockKey(airbnbId, checkIn, checkOut);
-        releaseAnyLock(key,userId.toString());
+        redisTemplate.execute(RELEASE_LEASE_REDIS_SCRIPT, List.of(key), userId.toString());
+        leaseWatchdog.unwatch(key);
+        localLockTier.forget(key);
     }
 
     @Override
     public void releaseUpdateBookingLock(Long bookingId,String value) {
-        String key= LOCK_KEY_UPDATE_PREFIX+bookingId;
-        releaseAnyLock(key,value);
+        bookingUpdateLock.release(bookingId, value);
     }
 
     @Override
     public List<Availability> lockAndCheckAvailability(Long airbnbId, LocalDate checkInDate, LocalDate checkOutDate,Long userId) {
+        return lockWaitQueue.inTurn(airbnbId, () -> acquireAndCheck(airbnbId, checkInDate, checkOutDate, userId));
+    }
+
+    private List<Availability> acquireAndCheck(Long airbnbId, LocalDate checkInDate, LocalDate checkOutDate, Long userId) {
         String lockKey=generateLockKey(airbnbId,checkInDate,checkOutDate);
-        Boolean locked=redisTemplate.opsForValue().setIfAbsent(lockKey,userId.toString(),Duration.ofMinutes(lockTtlMinutes));
-        if (!Boolean.TRUE.equals(locked)) {
-            throw new IllegalStateException("Failed to acquire booking for the given dates. Please try again.");
+        long[] token = new long[1];
+        boolean locked=localLockTier.tryAcquire(airbnbId,lockKey,() -> {
+            token[0] = acquireLease(airbnbId, lockKey, userId);
+            return token[0] > 0;
+        });
+        if (!locked) {
+            // Negative: the holder's remaining lease; zero: turned away by the local tier without asking Redis
+            long retryAfterMs = token[0] < 0 ? -token[0] : leaseWatchdog.leaseTtl().toMillis();
+            throw new LockBusyException("Failed to acquire booking for the given dates. Please try again.", retryAfterMs);
         }
+        leaseWatchdog.watch(lockKey, userId.toString(), token[0]);
         Long bookedSlots=availabilityRepository.countByAirbnbIdAndDateBetweenAndBookingIsNotNull(airbnbId,checkInDate,checkOutDate);
-        if(bookedSlots>0) throw new RuntimeException("Airbnb is not available for the given dates. Please try again with different dates.");
+        if(bookedSlots>0) {
+            // Give the lease back straight away instead of the watchdog renewing it
+            releaseBookingLock(airbnbId,checkInDate,checkOutDate,userId);
+            throw new DatesUnavailableException("Airbnb is not available for the given dates. Please try again with different dates.");
+        }
+        // Any earlier holder of this same lock key loses its confirm from here on
+        availabilityRepository.stampLockFence(airbnbId,checkInDate,checkOutDate,token[0]);
         return availabilityRepository.findByAirbnbIdAndDateBetween(airbnbId,checkInDate,checkOutDate);
     }
 
-    public String lockAndUpdateBooking(Long bookingId){
-        if(bookingId==null) return null;
-        String lockKey = generateUpdateLockKey(bookingId);
-        String lockValue = UUID.randomUUID().toString();
-        // Try to acquire lock — only ONE request wins
-        Boolean locked = redisTemplate.opsForValue()
-                .setIfAbsent(lockKey, lockValue, Duration.ofSeconds(updateLockTtlSeconds));
-        if (!Boolean.TRUE.equals(locked)) return null;
-        return lockValue;
+    private long acquireLease(Long airbnbId, String lockKey, Long userId) {
+        Long fence = redisTemplate.execute(ACQUIRE_LEASE_REDIS_SCRIPT, List.of(lockKey, FENCE_KEY_PREFIX + airbnbId),
+                userId.toString(), String.valueOf(leaseWatchdog.leaseTtl().toMillis()));
+        return fence == null ? 0 : fence;
+    }
+
+    @Override
+    public Long fencingToken(Long airbnbId, LocalDate checkInDate, LocalDate checkOutDate, Long userId) {
+        return leaseWatchdog.fencingToken(generateLockKey(airbnbId,checkInDate,checkOutDate), userId.toString());
     }
 
-    private String generateUpdateLockKey(Long bookingId){
-        return  LOCK_KEY_UPDATE_PREFIX + bookingId;
+    @Override
+    public String lockAndUpdateBooking(Long bookingId){
+        return bookingUpdateLock.tryLock(bookingId);
     }
+
     private String generateLockKey(Long airbnbId, LocalDate checkInDate, LocalDate checkOutDate) {
         return LOCK_KEY_PREFIX + airbnbId +":"+checkInDate +":"+checkOutDate;
     }
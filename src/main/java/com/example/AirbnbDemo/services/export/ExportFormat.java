@@ -0,0 +1,32 @@
+package com.example.AirbnbDemo.services.export;
+
+import java.util.Locale;
+
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"), // one JSON document per line
+    CSV("text/csv", "csv");                   // header row, then one row per record
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String fileName(String name) {
+        return name + "." + extension;
+    }
+
+    public static ExportFormat parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("format must be ndjson or csv");
+        }
+    }
+}
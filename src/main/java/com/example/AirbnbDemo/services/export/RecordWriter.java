@@ -0,0 +1,77 @@
+package com.example.AirbnbDemo.services.export;
+
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes records to a response one at a time, as NDJSON (the record serialized by Jackson) or
+ * CSV (the given columns, header first). Nothing is kept per record: memory is the writer's
+ * buffer, whatever the number of records. {@link #flush()} pushes what is buffered to the client.
+ */
+public class RecordWriter<T> {
+
+    public record Column<T>(String name, Function<T, Object> value) {}
+
+    private final Writer out;
+    private final ExportFormat format;
+    private final ObjectMapper objectMapper;
+    private final List<Column<T>> columns;
+    private long written;
+
+    public RecordWriter(OutputStream out, ExportFormat format, ObjectMapper objectMapper, List<Column<T>> columns) throws IOException {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.columns = columns;
+        if (format == ExportFormat.CSV) {
+            writeRow(columns.stream().map(column -> (Object) column.name()).toList());
+        }
+    }
+
+    public void write(T record) throws IOException {
+        if (format == ExportFormat.NDJSON) {
+            out.write(objectMapper.writeValueAsString(record));
+            out.write('\n');
+        } else {
+            writeRow(columns.stream().map(column -> column.value().apply(record)).toList());
+        }
+        written++;
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    public long written() {
+        return written;
+    }
+
+    private void writeRow(List<Object> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) out.write(',');
+            out.write(csvField(values.get(i)));
+        }
+        out.write("\r\n");
+    }
+
+    // RFC 4180 quoting; text starting like a formula is prefixed with ' so spreadsheets show it as text
+    static String csvField(Object value) {
+        if (value == null) return "";
+        String text = value.toString();
+        if (value instanceof CharSequence && !text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.AirbnbDemo.services.handlers;
 
 import com.example.AirbnbDemo.exceptions.SagaAlreadyCompensatedException;
+import com.example.AirbnbDemo.models.BookingStatus;
 import com.example.AirbnbDemo.repository.writes.AvailabilityRepository;
+import com.example.AirbnbDemo.repository.writes.BookingRepository;
+import com.example.AirbnbDemo.saga.BookingSagaPayload;
 import com.example.AirbnbDemo.saga.SagaEvent;
 import com.example.AirbnbDemo.saga.SagaEventPublisher;
 import com.example.AirbnbDemo.services.concurrency.ConcurrencyControlStrategy;
@@ -11,14 +14,22 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.util.Map;
+import java.time.temporal.ChronoUnit;
 
+/**
+ * Availability side of the booking saga. {@code BOOKING_CANCELLED} and {@code BOOKING_COMPENSATED}
+ * may be routed to a higher saga lane than the confirm, so each handler checks where the booking
+ * stands instead of relying on arrival order: a confirm overtaken by its booking's cancel writes
+ * nothing, a cancel frees only the nights its booking holds, and a compensation overtaken by the
+ * confirm leaves the lock alone. All three are safe to run twice.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class AvailabilityEventHandler {
 
     private final AvailabilityRepository availabilityRepository;
+    private final BookingRepository bookingRepository;
     private final SagaEventPublisher sagaEventPublisher;
     private final ConcurrencyControlStrategy concurrencyControlStrategy;
 
@@ -26,20 +37,29 @@ public class AvailabilityEventHandler {
     public void handleBookingConfirmed(SagaEvent sagaEvent) {
         log.info("Processing SagaEvent In AvailabilityEventHandler {}", sagaEvent.toString());
         try{
-            Map<String,Object> payload = sagaEvent.getPayload();
-            Long bookingId=Long.parseLong(payload.get("bookingId").toString());
-            Long airbnbId=Long.parseLong(payload.get("airbnbId").toString());
-            Long userId=Long.parseLong(payload.get("userId").toString());
-            LocalDate checkInDate =  LocalDate.parse(payload.get("checkInDate").toString());
-            LocalDate checkOutDate =  LocalDate.parse(payload.get("checkOutDate").toString());
-            LocalDate realCheckOut = checkOutDate.minusDays(1);
+            BookingSagaPayload payload = sagaEvent.getPayload();
+            Long bookingId = payload.bookingId();
+            Long airbnbId = payload.airbnbId();
+            Long userId = payload.userId();
+            LocalDate checkInDate = payload.checkInDate();
+            LocalDate realCheckOut = payload.lastNight();
+            if (bookingRepository.findStatusById(bookingId).orElse(null) == BookingStatus.CANCELLED) {
+                // The cancel was drained first and already released the lock; the nights stay free
+                log.info("Booking {} was cancelled before its confirm ran, nothing to confirm", bookingId);
+                return;
+            }
             Long bookedSlots=availabilityRepository.countByAirbnbIdAndDateBetweenAndBookingIsNotNull(airbnbId,checkInDate,realCheckOut);
             if(bookedSlots>0){
-                sagaEventPublisher.publishEvent("BOOKING_CANCEL_REQUESTED","CANCEL_BOOKING",sagaEvent.getPayload());
+                sagaEventPublisher.publishEventIndependently("BOOKING_CANCEL_REQUESTED","CANCEL_BOOKING",sagaEvent.getPayload());
                 throw new SagaAlreadyCompensatedException("Airbnb is not available for the given dates. Please try again with different dates , This Booking Will be Cancelled.");
             }
             log.info("updating the availability in db {}", sagaEvent.toString());
-            availabilityRepository.updateBookingIdByAirbnbIdAndDateBetween(bookingId,airbnbId,checkInDate,realCheckOut);
+            int confirmed = availabilityRepository.updateBookingIdByAirbnbIdAndDateBetween(bookingId,airbnbId,checkInDate,realCheckOut);
+            // Fewer rows than exist means a newer lock stamped some nights — this booking's lock went stale
+            long nights = ChronoUnit.DAYS.between(checkInDate,realCheckOut)+1;
+            if(confirmed != nights && confirmed != availabilityRepository.countByAirbnbIdAndDateBetween(airbnbId,checkInDate,realCheckOut)){
+                throw new IllegalStateException("Booking "+bookingId+" was confirmed under a stale lock");
+            }
             log.info("done updating the availability in db {}", sagaEvent.toString());
             //  DB now permanently records the booking — release the temporary lock
             concurrencyControlStrategy.releaseBookingLock(airbnbId, checkInDate, realCheckOut,userId);
@@ -50,7 +70,7 @@ public class AvailabilityEventHandler {
             throw e;
         }
         catch(Exception e){
-            sagaEventPublisher.publishEvent("BOOKING_COMPENSATED","COMPENSATE_BOOKING",sagaEvent.getPayload());
+            sagaEventPublisher.publishEventIndependently("BOOKING_COMPENSATED","COMPENSATE_BOOKING",sagaEvent.getPayload());
             throw new RuntimeException("Failed to update booking",e);
         }
     }
@@ -61,12 +81,17 @@ public class AvailabilityEventHandler {
      */
     public void handleBookingCompensated(SagaEvent sagaEvent) {
         try {
-            Map<String, Object> payload = sagaEvent.getPayload();
-            Long airbnbId   = Long.parseLong(payload.get("airbnbId").toString());
-            Long userId     = Long.parseLong(payload.get("userId").toString());
-            LocalDate checkInDate  = LocalDate.parse(payload.get("checkInDate").toString());
-            LocalDate checkOutDate = LocalDate.parse(payload.get("checkOutDate").toString());
-            LocalDate realCheckOut = checkOutDate.minusDays(1);
+            BookingSagaPayload payload = sagaEvent.getPayload();
+            Long bookingId  = payload.bookingId();
+            Long airbnbId   = payload.airbnbId();
+            Long userId     = payload.userId();
+            LocalDate checkInDate  = payload.checkInDate();
+            LocalDate realCheckOut = payload.lastNight();
+            if (availabilityRepository.countByBookingId(bookingId) > 0) {
+                // The confirm got through after all and gave the lock back; the same user may hold these dates again
+                log.info("Booking {} is confirmed, compensation leaves the lock alone", bookingId);
+                return;
+            }
             concurrencyControlStrategy.releaseBookingLock(airbnbId, checkInDate, realCheckOut, userId);
             log.info("Lock released after saga compensation for airbnb {}", airbnbId);
         } catch (Exception e) {
@@ -78,14 +103,13 @@ public class AvailabilityEventHandler {
     @Transactional
     public void handleBookingCancelled(SagaEvent sagaEvent) {
         try{
-            Map<String,Object> payload = sagaEvent.getPayload();
-            Long bookingId=Long.parseLong(payload.get("bookingId").toString());
-            Long airbnbId=Long.parseLong(payload.get("airbnbId").toString());
-            Long userId=Long.parseLong(payload.get("userId").toString());
-            LocalDate checkInDate =  LocalDate.parse(payload.get("checkInDate").toString());
-            LocalDate checkOutDate =  LocalDate.parse(payload.get("checkOutDate").toString());
-            LocalDate realCheckOut = checkOutDate.minusDays(1);
-            availabilityRepository.clearBookingByAirbnbIdAndDateBetween(airbnbId,checkInDate,realCheckOut);
+            BookingSagaPayload payload = sagaEvent.getPayload();
+            Long bookingId = payload.bookingId();
+            Long airbnbId = payload.airbnbId();
+            Long userId = payload.userId();
+            LocalDate checkInDate = payload.checkInDate();
+            LocalDate realCheckOut = payload.lastNight();
+            availabilityRepository.clearBookingByIdAndDateBetween(bookingId,airbnbId,checkInDate,realCheckOut);
             //  Booking cancelled — release lock so others can book these dates
             concurrencyControlStrategy.releaseBookingLock(airbnbId, checkInDate, realCheckOut,userId);
             log.info("Lock released after cancelling booking for airbnb {}", airbnbId);
@@ -94,7 +118,7 @@ public class AvailabilityEventHandler {
             throw e; // pass through — already handled
         }
         catch(Exception e){
-            sagaEventPublisher.publishEvent("BOOKING_COMPENSATED","COMPENSATE_BOOKING",sagaEvent.getPayload());
+            sagaEventPublisher.publishEventIndependently("BOOKING_COMPENSATED","COMPENSATE_BOOKING",sagaEvent.getPayload());
             throw new RuntimeException("Failed to update booking",e);
         }
     }
@@ -0,0 +1,66 @@
+package com.example.AirbnbDemo.services.handlers;
+
+import com.example.AirbnbDemo.exceptions.ResourceNotFoundException;
+import com.example.AirbnbDemo.models.Booking;
+import com.example.AirbnbDemo.models.BookingStatus;
+import com.example.AirbnbDemo.repository.writes.AvailabilityRepository;
+import com.example.AirbnbDemo.repository.writes.BookingRepository;
+import com.example.AirbnbDemo.saga.BookingSagaPayload;
+import com.example.AirbnbDemo.saga.SagaEventPublisher;
+import com.example.AirbnbDemo.services.concurrency.ConcurrencyControlStrategy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.temporal.ChronoUnit;
+
+/**
+ * The confirm saga fused into one transaction: what {@link BookingEventHandler#handleBookingConfirmRequest}
+ * and {@link AvailabilityEventHandler#handleBookingConfirmed} do across two queue hops,
+ * done here in a single DB transaction, publishing only the terminal
+ * {@code BOOKING_CONFIRM_COMPLETED} event.
+ *
+ * Runs in its own transaction so that any failure rolls back only this attempt; the
+ * caller then falls back to the choreographed path, which also owns the conflict case
+ * (dates taken → cancel and compensate).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingConfirmFastPath {
+
+    private final BookingRepository bookingRepository;
+    private final AvailabilityRepository availabilityRepository;
+    private final SagaEventPublisher sagaEventPublisher;
+    private final ConcurrencyControlStrategy concurrencyControlStrategy;
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void confirm(BookingSagaPayload payload) {
+        Booking booking = bookingRepository.findById(payload.bookingId())
+                .orElseThrow(() -> new ResourceNotFoundException("Booking With Id:" + payload.bookingId() + " Not Found"));
+        if (booking.getStatus() != BookingStatus.PENDING) {
+            throw new IllegalStateException("Booking is already processed with status: " + booking.getStatus());
+        }
+        Long bookedSlots = availabilityRepository.countByAirbnbIdAndDateBetweenAndBookingIsNotNull(
+                payload.airbnbId(), payload.checkInDate(), payload.lastNight());
+        if (bookedSlots > 0) {
+            throw new IllegalStateException("Airbnb is not available for the given dates");
+        }
+        booking.setStatus(BookingStatus.CONFIRMED);
+        bookingRepository.save(booking);
+        int confirmed = availabilityRepository.updateBookingIdByAirbnbIdAndDateBetween(
+                payload.bookingId(), payload.airbnbId(), payload.checkInDate(), payload.lastNight());
+        long nights = ChronoUnit.DAYS.between(payload.checkInDate(), payload.lastNight()) + 1;
+        if (confirmed != nights && confirmed != availabilityRepository.countByAirbnbIdAndDateBetween(
+                payload.airbnbId(), payload.checkInDate(), payload.lastNight())) {
+            throw new IllegalStateException("Booking " + payload.bookingId() + " holds a stale lock");
+        }
+        sagaEventPublisher.publishEvent("BOOKING_CONFIRM_COMPLETED", "CONFIRM_BOOKING", payload);
+        //  Same as the choreographed path: the DB now records the booking, the temporary lock can go
+        concurrencyControlStrategy.releaseBookingLock(
+                payload.airbnbId(), payload.checkInDate(), payload.lastNight(), payload.userId());
+        log.info("Booking {} confirmed on the fast path", payload.bookingId());
+    }
+}
@@ -10,9 +10,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
-import java.util.Map;
-
 @Component
 @RequiredArgsConstructor
 public class BookingEventHandler {
@@ -24,12 +21,7 @@ public class BookingEventHandler {
     @Transactional
     public void handleBookingConfirmRequest(SagaEvent sagaEvent) {
         try{
-            Map<String,Object> payload = sagaEvent.getPayload();
-            Long bookingId=Long.parseLong(payload.get("bookingId").toString());
-            Long airbnbId=Long.parseLong(payload.get("airbnbId").toString());
-            Long userId=Long.parseLong(payload.get("userId").toString());
-            LocalDate checkInDate =  LocalDate.parse(payload.get("checkInDate").toString());
-            LocalDate checkOutDate =  LocalDate.parse(payload.get("checkOutDate").toString());
+            long bookingId = sagaEvent.getPayload().bookingId();
             Booking booking=bookingRepository.findById(bookingId)
                     .orElseThrow(()-> new ResourceNotFoundException("Booking With Id:"+bookingId+" Not Found"));
             booking.setStatus(BookingStatus.CONFIRMED);
@@ -37,7 +29,7 @@ public class BookingEventHandler {
             sagaEventPublisher.publishEvent("BOOKING_CONFIRMED","CONFIRM_BOOKING",sagaEvent.getPayload());
         }
         catch(Exception e){
-            sagaEventPublisher.publishEvent("BOOKING_COMPENSATED","COMPENSATE_BOOKING",sagaEvent.getPayload());
+            sagaEventPublisher.publishEventIndependently("BOOKING_COMPENSATED","COMPENSATE_BOOKING",sagaEvent.getPayload());
             throw new RuntimeException("Failed to comfirm booking",e);
         }
     }
@@ -45,12 +37,7 @@ public class BookingEventHandler {
     @Transactional
     public void handleBookingCancelRequest(SagaEvent sagaEvent) {
         try{
-            Map<String,Object> payload = sagaEvent.getPayload();
-            Long bookingId=Long.parseLong(payload.get("bookingId").toString());
-            Long airbnbId=Long.parseLong(payload.get("airbnbId").toString());
-            Long userId=Long.parseLong(payload.get("userId").toString());
-            LocalDate checkInDate =  LocalDate.parse(payload.get("checkInDate").toString());
-            LocalDate checkOutDate =  LocalDate.parse(payload.get("checkOutDate").toString());
+            long bookingId = sagaEvent.getPayload().bookingId();
             Booking booking=bookingRepository.findById(bookingId)
                     .orElseThrow(()-> new ResourceNotFoundException("Booking With Id:"+bookingId+" Not Found"));
             booking.setStatus(BookingStatus.CANCELLED);
@@ -58,7 +45,7 @@ public class BookingEventHandler {
             sagaEventPublisher.publishEvent("BOOKING_CANCELLED","CANCEL_BOOKING",sagaEvent.getPayload());
         }
         catch(Exception e){
-            sagaEventPublisher.publishEvent("BOOKING_COMPENSATED","COMPENSATE_BOOKING",sagaEvent.getPayload());
+            sagaEventPublisher.publishEventIndependently("BOOKING_COMPENSATED","COMPENSATE_BOOKING",sagaEvent.getPayload());
             throw new RuntimeException("Failed to cancel booking",e);
         }
 
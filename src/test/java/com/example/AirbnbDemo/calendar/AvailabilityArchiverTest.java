@@ -0,0 +1,99 @@
+package com.example.AirbnbDemo.calendar;
+
+import com.example.AirbnbDemo.repository.reads.RedisWriteRepository;
+import com.example.AirbnbDemo.repository.writes.AirbnbRepository;
+import com.example.AirbnbDemo.repository.writes.AvailabilityBatchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityArchiverTest {
+
+    @Mock
+    private AirbnbRepository airbnbRepository;
+
+    @Mock
+    private AvailabilityBatchRepository availabilityBatchRepository;
+
+    @Mock
+    private RedisWriteRepository redisWriteRepository;
+
+    private AvailabilityArchiver archiver;
+
+    private final LocalDate today = LocalDate.of(2026, 3, 31);
+    private final LocalDate cutoff = LocalDate.of(2026, 3, 1);
+
+    @BeforeEach
+    void setUp() {
+        archiver = new AvailabilityArchiver(airbnbRepository, availabilityBatchRepository, redisWriteRepository);
+        ReflectionTestUtils.setField(archiver, "retentionDays", 30);
+        ReflectionTestUtils.setField(archiver, "chunkSize", 3);
+        ReflectionTestUtils.setField(archiver, "batchSize", 2);
+        ReflectionTestUtils.setField(archiver, "pauseMs", 0L);
+    }
+
+    private static Map<Long, List<LocalDate>> batch(Object... listingAndNights) {
+        Map<Long, List<LocalDate>> batch = new LinkedHashMap<>();
+        for (int i = 0; i < listingAndNights.length; i += 2) {
+            batch.put((Long) listingAndNights[i], List.of((LocalDate) listingAndNights[i + 1]));
+        }
+        return batch;
+    }
+
+    // ─── Batching ────────────────────────────────────────────────
+
+    @Test
+    void run_shouldArchiveInBatchesAndTrimEachFromRedis() {
+        LocalDate feb1 = LocalDate.of(2026, 2, 1);
+        LocalDate feb2 = LocalDate.of(2026, 2, 2);
+        when(airbnbRepository.findIdsAfter(0L, Limit.of(3))).thenReturn(List.of(1L, 2L, 3L));
+        Map<Long, List<LocalDate>> first = batch(1L, feb1, 2L, feb1);
+        Map<Long, List<LocalDate>> second = batch(2L, feb2);
+        when(availabilityBatchRepository.archiveNightsBefore(List.of(1L, 2L, 3L), cutoff, 2)).thenReturn(first);
+        // Listing 1 is done once the batch has moved on to listing 2
+        when(availabilityBatchRepository.archiveNightsBefore(List.of(2L, 3L), cutoff, 2)).thenReturn(second);
+        when(airbnbRepository.findIdsAfter(3L, Limit.of(3))).thenReturn(List.of());
+
+        long archived = archiver.run(today);
+
+        assertThat(archived).isEqualTo(3);
+        verify(redisWriteRepository).deleteAvailabilities(first);
+        verify(redisWriteRepository).deleteAvailabilities(second);
+    }
+
+    @Test
+    void run_nothingBeforeTheCutoff_shouldNotTouchRedis() {
+        when(airbnbRepository.findIdsAfter(0L, Limit.of(3))).thenReturn(List.of(1L));
+        when(availabilityBatchRepository.archiveNightsBefore(List.of(1L), cutoff, 2)).thenReturn(Map.of());
+
+        assertThat(archiver.run(today)).isZero();
+        verify(airbnbRepository, never()).findIdsAfter(eq(1L), any());
+        verifyNoInteractions(redisWriteRepository);
+    }
+
+    // ─── Lock fences ─────────────────────────────────────────────
+
+    @Test
+    void run_shouldDropTheLockFencesOfEndedStaysInBatches() {
+        when(airbnbRepository.findIdsAfter(0L, Limit.of(3))).thenReturn(List.of());
+        when(availabilityBatchRepository.deleteLockFencesBefore(cutoff, 2)).thenReturn(2, 2, 1);
+
+        archiver.run(today);
+
+        verify(availabilityBatchRepository, times(3)).deleteLockFencesBefore(cutoff, 2);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.AirbnbDemo.calendar;
+
+import com.example.AirbnbDemo.models.readModels.AvailabilityReadModel;
+import com.example.AirbnbDemo.repository.reads.RedisReadRepository;
+import com.example.AirbnbDemo.repository.reads.RedisWriteRepository;
+import com.example.AirbnbDemo.repository.writes.AirbnbRepository;
+import com.example.AirbnbDemo.repository.writes.AvailabilityBatchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityCalendarBackfillTest {
+
+    @Mock
+    private AirbnbRepository airbnbRepository;
+
+    @Mock
+    private AvailabilityBatchRepository availabilityBatchRepository;
+
+    @Mock
+    private RedisWriteRepository redisWriteRepository;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private AvailabilityCalendarBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        backfill = new AvailabilityCalendarBackfill(airbnbRepository, availabilityBatchRepository, redisWriteRepository, redisTemplate);
+        ReflectionTestUtils.setField(backfill, "chunkSize", 2);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    private static Map<Long, List<AvailabilityReadModel>> nightsOf(Long... airbnbIds) {
+        Map<Long, List<AvailabilityReadModel>> nights = new LinkedHashMap<>();
+        for (Long id : airbnbIds) {
+            nights.put(id, List.of(AvailabilityReadModel.builder().airbnbId(id).date("2026-01-01").isAvailable(true).build()));
+        }
+        return nights;
+    }
+
+    // ─── Chunks ──────────────────────────────────────────────────
+
+    @Test
+    void backfill_shouldWriteEachChunkThenMarkTheCalendarsReady() {
+        when(redisTemplate.hasKey(RedisReadRepository.CALENDAR_READY_KEY)).thenReturn(false);
+        when(airbnbRepository.findIdsAfter(0L, Limit.of(2))).thenReturn(List.of(1L, 2L));
+        when(airbnbRepository.findIdsAfter(2L, Limit.of(2))).thenReturn(List.of(3L));
+        Map<Long, List<AvailabilityReadModel>> first = nightsOf(1L, 2L);
+        Map<Long, List<AvailabilityReadModel>> second = nightsOf(3L);
+        when(availabilityBatchRepository.findNights(List.of(1L, 2L))).thenReturn(first);
+        when(availabilityBatchRepository.findNights(List.of(3L))).thenReturn(second);
+
+        backfill.backfill();
+
+        InOrder inOrder = inOrder(redisWriteRepository, valueOperations);
+        inOrder.verify(redisWriteRepository).backfillCalendarNights(first);
+        inOrder.verify(redisWriteRepository).backfillCalendarNights(second);
+        inOrder.verify(valueOperations).set(RedisReadRepository.CALENDAR_READY_KEY, "1");
+        // A short chunk is the last one
+        verify(airbnbRepository, times(2)).findIdsAfter(anyLong(), any());
+    }
+
+    @Test
+    void backfill_noListings_shouldStillMarkTheCalendarsReady() {
+        when(redisTemplate.hasKey(RedisReadRepository.CALENDAR_READY_KEY)).thenReturn(false);
+        when(airbnbRepository.findIdsAfter(0L, Limit.of(2))).thenReturn(List.of());
+
+        backfill.backfill();
+
+        verifyNoInteractions(availabilityBatchRepository, redisWriteRepository);
+        verify(valueOperations).set(RedisReadRepository.CALENDAR_READY_KEY, "1");
+    }
+
+    @Test
+    void backfill_alreadyReady_shouldDoNothing() {
+        when(redisTemplate.hasKey(RedisReadRepository.CALENDAR_READY_KEY)).thenReturn(true);
+
+        backfill.backfill();
+
+        verifyNoInteractions(airbnbRepository, availabilityBatchRepository, redisWriteRepository);
+        verify(redisTemplate, never()).opsForValue();
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.AirbnbDemo.calendar;
+
+import com.example.AirbnbDemo.repository.reads.RedisWriteRepository;
+import com.example.AirbnbDemo.repository.writes.AirbnbRepository;
+import com.example.AirbnbDemo.repository.writes.AvailabilityBatchRepository;
+import com.example.AirbnbDemo.repository.writes.AvailabilityRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RollingCalendarGeneratorTest {
+
+    @Mock
+    private AirbnbRepository airbnbRepository;
+
+    @Mock
+    private AvailabilityRepository availabilityRepository;
+
+    @Mock
+    private AvailabilityBatchRepository availabilityBatchRepository;
+
+    @Mock
+    private RedisWriteRepository redisWriteRepository;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    private RollingCalendarGenerator generator;
+
+    private final LocalDate today = LocalDate.of(2026, 3, 1);
+    private final LocalDate horizon = LocalDate.of(2026, 3, 3);
+
+    @BeforeEach
+    void setUp() {
+        generator = new RollingCalendarGenerator(airbnbRepository, availabilityRepository,
+                availabilityBatchRepository, redisWriteRepository, redisTemplate);
+        ReflectionTestUtils.setField(generator, "enabled", true);
+        ReflectionTestUtils.setField(generator, "daysAhead", 3);
+        ReflectionTestUtils.setField(generator, "chunkSize", 2);
+        ReflectionTestUtils.setField(generator, "parallelism", 1);
+        ReflectionTestUtils.setField(generator, "lockTtlSeconds", 60L);
+        generator.init();
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @AfterEach
+    void tearDown() {
+        generator.shutdown();
+    }
+
+    private static AvailabilityRepository.LastNight lastNight(long airbnbId, LocalDate night) {
+        return new AvailabilityRepository.LastNight() {
+            public Long getAirbnbId() { return airbnbId; }
+            public LocalDate getLastNight() { return night; }
+        };
+    }
+
+    private void lockFree(boolean free) {
+        when(valueOperations.setIfAbsent(eq(RollingCalendarGenerator.LOCK_KEY), anyString(), any(Duration.class))).thenReturn(free);
+    }
+
+    private void renewSucceeds() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(RollingCalendarGenerator.LOCK_KEY)), any(), any()))
+                .thenReturn(1L);
+    }
+
+    // ─── Generation ──────────────────────────────────────────────
+
+    @Test
+    void run_shouldOnlyCreateNightsAfterEachListingsLastNight() {
+        lockFree(true);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(RollingCalendarGenerator.CHECKPOINT_KEY)).thenReturn(Map.of());
+        when(airbnbRepository.findIdsAfter(0L, Limit.of(2))).thenReturn(List.of(1L, 2L));
+        when(airbnbRepository.findIdsAfter(2L, Limit.of(2))).thenReturn(List.of(3L));
+        when(availabilityRepository.findLastNights(List.of(1L, 2L)))
+                .thenReturn(List.of(lastNight(1, LocalDate.of(2026, 3, 2)), lastNight(2, horizon)));
+        when(availabilityRepository.findLastNights(List.of(3L)))
+                .thenReturn(List.of(lastNight(3, LocalDate.of(2025, 12, 31))));
+        when(availabilityBatchRepository.insertOpenNights(anyMap())).thenReturn(1, 3);
+        renewSucceeds();
+
+        long created = generator.run(today);
+
+        assertThat(created).isEqualTo(4);
+        verify(availabilityBatchRepository).insertOpenNights(Map.of(1L, List.of(horizon)));
+        verify(availabilityBatchRepository).insertOpenNights(Map.of(3L, List.of(today, LocalDate.of(2026, 3, 2), horizon)));
+        verify(redisWriteRepository, times(2)).backfillCalendarNights(anyMap());
+        verify(hashOperations).putAll(RollingCalendarGenerator.CHECKPOINT_KEY, Map.of("horizon", horizon.toString(), "start", "0", "lastId", "2"));
+        verify(hashOperations).putAll(RollingCalendarGenerator.CHECKPOINT_KEY, Map.of("horizon", horizon.toString(), "start", "0", "lastId", "done"));
+    }
+
+    // ─── Checkpoints ─────────────────────────────────────────────
+
+    @Test
+    void run_checkpointOfTheSameHorizon_shouldResumeAfterIt() {
+        lockFree(true);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(RollingCalendarGenerator.CHECKPOINT_KEY))
+                .thenReturn(Map.of("horizon", horizon.toString(), "lastId", "500"));
+        when(airbnbRepository.findIdsAfter(500L, Limit.of(2))).thenReturn(List.of());
+
+        generator.run(today);
+
+        verify(airbnbRepository, never()).findIdsAfter(eq(0L), any());
+    }
+
+    @Test
+    void run_checkpointOfAnEarlierHorizon_shouldStartOver() {
+        lockFree(true);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(RollingCalendarGenerator.CHECKPOINT_KEY))
+                .thenReturn(Map.of("horizon", "2026-03-02", "lastId", "done"));
+        when(airbnbRepository.findIdsAfter(0L, Limit.of(2))).thenReturn(List.of());
+
+        generator.run(today);
+
+        verify(airbnbRepository).findIdsAfter(0L, Limit.of(2));
+    }
+
+    @Test
+    void run_unfinishedCheckpointOfYesterday_shouldContinueAfterItThenSweepTheListingsBefore() {
+        lockFree(true);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(RollingCalendarGenerator.CHECKPOINT_KEY))
+                .thenReturn(Map.of("horizon", "2026-03-02", "lastId", "2"));
+        when(airbnbRepository.findIdsAfter(2L, Limit.of(2))).thenReturn(List.of(3L));
+        when(airbnbRepository.findIdsAfter(0L, Limit.of(2))).thenReturn(List.of(1L, 2L));
+        when(availabilityRepository.findLastNights(List.of(3L)))
+                .thenReturn(List.of(lastNight(3, LocalDate.of(2026, 2, 20))));
+        // Yesterday's run got these up to its horizon
+        when(availabilityRepository.findLastNights(List.of(1L, 2L)))
+                .thenReturn(List.of(lastNight(1, LocalDate.of(2026, 3, 2)), lastNight(2, LocalDate.of(2026, 3, 2))));
+        when(availabilityBatchRepository.insertOpenNights(anyMap())).thenReturn(3, 2);
+        renewSucceeds();
+
+        long created = generator.run(today);
+
+        assertThat(created).isEqualTo(5);
+        var order = inOrder(airbnbRepository, hashOperations);
+        order.verify(airbnbRepository).findIdsAfter(2L, Limit.of(2));
+        order.verify(hashOperations).putAll(RollingCalendarGenerator.CHECKPOINT_KEY,
+                Map.of("horizon", horizon.toString(), "start", "2", "lastId", "0"));
+        order.verify(airbnbRepository).findIdsAfter(0L, Limit.of(2));
+        order.verify(hashOperations).putAll(RollingCalendarGenerator.CHECKPOINT_KEY,
+                Map.of("horizon", horizon.toString(), "start", "2", "lastId", "done"));
+        verify(availabilityBatchRepository).insertOpenNights(Map.of(3L, List.of(today, LocalDate.of(2026, 3, 2), horizon)));
+        verify(availabilityBatchRepository).insertOpenNights(Map.of(1L, List.of(horizon), 2L, List.of(horizon)));
+    }
+
+    @Test
+    void run_checkpointMidSweep_shouldStopAtTheListingTheRunBeganAt() {
+        lockFree(true);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(RollingCalendarGenerator.CHECKPOINT_KEY))
+                .thenReturn(Map.of("horizon", horizon.toString(), "start", "3", "lastId", "2"));
+        when(airbnbRepository.findIdsAfter(2L, Limit.of(2))).thenReturn(List.of(3L, 4L));
+        when(availabilityRepository.findLastNights(List.of(3L))).thenReturn(List.of(lastNight(3, horizon)));
+
+        generator.run(today);
+
+        verify(availabilityRepository, never()).findLastNights(List.of(3L, 4L));
+        verify(airbnbRepository, times(1)).findIdsAfter(anyLong(), any());
+        verify(hashOperations).putAll(RollingCalendarGenerator.CHECKPOINT_KEY,
+                Map.of("horizon", horizon.toString(), "start", "3", "lastId", "done"));
+    }
+
+    @Test
+    void resumeUnfinished_unfinishedCheckpoint_shouldRunAtStartup() {
+        lockFree(false);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.get(RollingCalendarGenerator.CHECKPOINT_KEY, "lastId")).thenReturn("2");
+
+        generator.resumeUnfinished();
+
+        verify(valueOperations).setIfAbsent(eq(RollingCalendarGenerator.LOCK_KEY), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void resumeUnfinished_finishedCheckpoint_shouldWaitForTheCron() {
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.get(RollingCalendarGenerator.CHECKPOINT_KEY, "lastId")).thenReturn("done");
+
+        generator.resumeUnfinished();
+
+        verifyNoInteractions(valueOperations, airbnbRepository);
+    }
+
+    @Test
+    void run_lockHeldByAnotherNode_shouldDoNothing() {
+        lockFree(false);
+
+        assertThat(generator.run(today)).isEqualTo(-1);
+        verifyNoInteractions(airbnbRepository, availabilityBatchRepository);
+    }
+}
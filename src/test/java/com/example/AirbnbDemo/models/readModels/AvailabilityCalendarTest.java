@@ -0,0 +1,59 @@
+package com.example.AirbnbDemo.models.readModels;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AvailabilityCalendarTest {
+
+    // Redis SETBIT order: offset 0 is the most significant bit of byte 0
+    private static byte[] bits(int length, int... offsets) {
+        byte[] bits = new byte[length];
+        for (int offset : offsets) bits[offset >>> 3] |= (byte) (0x80 >>> (offset & 7));
+        return bits;
+    }
+
+    // ─── Bits ────────────────────────────────────────────────────
+
+    @Test
+    void bit_shouldFollowRedisBitOrder() {
+        byte[] bits = bits(2, 0, 9);
+
+        assertThat(AvailabilityCalendar.bit(bits, 0)).isTrue();
+        assertThat(AvailabilityCalendar.bit(bits, 7)).isFalse();
+        assertThat(AvailabilityCalendar.bit(bits, 9)).isTrue();
+        assertThat(AvailabilityCalendar.bit(bits, 100)).isFalse();
+        assertThat(AvailabilityCalendar.bit(null, 0)).isFalse();
+    }
+
+    @Test
+    void offset_shouldBeZeroBasedDayOfYear() {
+        assertThat(AvailabilityCalendar.offset(LocalDate.of(2025, 1, 1))).isZero();
+        assertThat(AvailabilityCalendar.offset(LocalDate.of(2024, 12, 31))).isEqualTo(365);
+    }
+
+    // ─── Read models ─────────────────────────────────────────────
+
+    @Test
+    void toReadModels_shouldListOnlyOpenNightsWithTheirBookings() {
+        AvailabilityCalendar calendar = AvailabilityCalendar.builder()
+                .airbnbId(7L)
+                .year(2025)
+                .open(bits(46, 0, 1, 2))
+                .booked(bits(1, 1))
+                .bookingIds(Map.of(1, 99L))
+                .build();
+
+        List<AvailabilityReadModel> models = calendar.toReadModels();
+
+        assertThat(models).extracting(AvailabilityReadModel::getDate)
+                .containsExactly("2025-01-01", "2025-01-02", "2025-01-03");
+        assertThat(models).extracting(AvailabilityReadModel::getIsAvailable).containsExactly(true, false, true);
+        assertThat(models.get(1).getBookingId()).isEqualTo(99L);
+        assertThat(models.get(0).getBookingId()).isNull();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.AirbnbDemo.readmodel;
+
+import com.example.AirbnbDemo.repository.reads.RedisReadRepository;
+import com.example.AirbnbDemo.repository.writes.AirbnbRepository;
+import com.example.AirbnbDemo.repository.writes.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadModelIndexBackfillTest {
+
+    @Mock
+    private AirbnbRepository airbnbRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private ReadModelIndexBackfill backfill;
+
+    private static final String AIRBNBS_READY = RedisReadRepository.indexReadyKey(RedisReadRepository.AIRBNB_INDEX_KEY);
+    private static final String BOOKINGS_READY = RedisReadRepository.indexReadyKey(RedisReadRepository.BOOKING_INDEX_KEY);
+
+    @BeforeEach
+    void setUp() {
+        backfill = new ReadModelIndexBackfill(airbnbRepository, bookingRepository, redisTemplate);
+        ReflectionTestUtils.setField(backfill, "pageSize", 2);
+        lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    private static Set<ZSetOperations.TypedTuple<String>> members(long... ids) {
+        Set<ZSetOperations.TypedTuple<String>> members = new HashSet<>();
+        for (long id : ids) members.add(ZSetOperations.TypedTuple.of(Long.toString(id), (double) id));
+        return members;
+    }
+
+    // ─── Pages ───────────────────────────────────────────────────
+
+    @Test
+    void backfill_shouldAddEachPageWithOneZaddThenMarkTheIndexReady() {
+        when(redisTemplate.hasKey(AIRBNBS_READY)).thenReturn(false);
+        when(redisTemplate.hasKey(BOOKINGS_READY)).thenReturn(true);
+        when(airbnbRepository.findIdsAfter(0L, Limit.of(2))).thenReturn(List.of(1L, 2L));
+        when(airbnbRepository.findIdsAfter(2L, Limit.of(2))).thenReturn(List.of(5L));
+
+        backfill.backfill();
+
+        InOrder inOrder = inOrder(zSetOperations, valueOperations);
+        inOrder.verify(zSetOperations).add(RedisReadRepository.AIRBNB_INDEX_KEY, members(1, 2));
+        inOrder.verify(zSetOperations).add(RedisReadRepository.AIRBNB_INDEX_KEY, members(5));
+        inOrder.verify(valueOperations).set(AIRBNBS_READY, "1");
+        // A short page is the last one
+        verify(airbnbRepository, times(2)).findIdsAfter(anyLong(), any());
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void backfill_emptyTable_shouldStillMarkTheIndexReady() {
+        when(redisTemplate.hasKey(AIRBNBS_READY)).thenReturn(true);
+        when(redisTemplate.hasKey(BOOKINGS_READY)).thenReturn(false);
+        when(bookingRepository.findIdsAfter(0L, Limit.of(2))).thenReturn(List.of());
+
+        backfill.backfill();
+
+        verifyNoInteractions(zSetOperations);
+        verify(valueOperations).set(BOOKINGS_READY, "1");
+    }
+
+    @Test
+    void backfill_bothIndexesReady_shouldDoNothing() {
+        when(redisTemplate.hasKey(anyString())).thenReturn(true);
+
+        backfill.backfill();
+
+        verifyNoInteractions(airbnbRepository, bookingRepository, zSetOperations, valueOperations);
+    }
+}
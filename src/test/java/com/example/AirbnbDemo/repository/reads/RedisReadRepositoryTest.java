@@ -0,0 +1,164 @@
+package com.example.AirbnbDemo.repository.reads;
+
+import com.example.AirbnbDemo.models.readModels.AvailabilityCalendar;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisReadRepositoryTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private RedisReadRepository repository;
+
+    private final LocalDate from = LocalDate.of(2026, 1, 1);
+    private final LocalDate to = LocalDate.of(2026, 1, 5);
+
+    @BeforeEach
+    void setUp() {
+        repository = new RedisReadRepository(redisTemplate, JsonMapper.builder().build());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void pipelineReturns(Object... results) {
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(Arrays.asList(results));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rawPipelineReturns(Object... results) {
+        when(redisTemplate.executePipelined(any(RedisCallback.class), any(RedisSerializer.class))).thenReturn(Arrays.asList(results));
+    }
+
+    // ─── Blocked nights ──────────────────────────────────────────
+
+    @Test
+    void getBlockedNights_ready_shouldMapTheScriptOffsetsToNights() {
+        pipelineReturns(true, List.of(1L, 3L));
+
+        assertThat(repository.getBlockedNights(7L, from, to))
+                .contains(List.of(LocalDate.of(2026, 1, 2), LocalDate.of(2026, 1, 4)));
+    }
+
+    @Test
+    void getBlockedNights_freeRange_shouldBeAnEmptyList() {
+        pipelineReturns(true, List.of());
+
+        assertThat(repository.getBlockedNights(7L, from, to)).contains(List.of());
+    }
+
+    @Test
+    void getBlockedNights_yearNotCached_shouldBeAMiss() {
+        pipelineReturns(true, null);
+
+        assertThat(repository.getBlockedNights(7L, from, to)).isEmpty();
+    }
+
+    @Test
+    void getBlockedNights_beforeTheBackfill_shouldBeAMissWhateverTheScriptSaw() {
+        // A partial calendar would call nights the backfill has not reached yet blocked
+        pipelineReturns(false, List.of());
+
+        assertThat(repository.getBlockedNights(7L, from, to)).isEmpty();
+    }
+
+    // ─── Calendars ───────────────────────────────────────────────
+
+    @Test
+    void getCalendar_ready_shouldBuildItFromTheBitmapsAndBookingIds() {
+        byte[] open = {(byte) 0xF0};
+        byte[] booked = {(byte) 0x40};
+        rawPipelineReturns(true, open, booked,
+                Map.of("1".getBytes(StandardCharsets.UTF_8), "42".getBytes(StandardCharsets.UTF_8)));
+
+        Optional<AvailabilityCalendar> calendar = repository.getCalendar(7L, 2026);
+
+        assertThat(calendar).hasValueSatisfying(c -> {
+            assertThat(c.getAirbnbId()).isEqualTo(7L);
+            assertThat(c.getYear()).isEqualTo(2026);
+            assertThat(c.getOpen()).isEqualTo(open);
+            assertThat(c.getBooked()).isEqualTo(booked);
+            assertThat(c.getBookingIds()).containsExactly(Map.entry(1, 42L));
+        });
+    }
+
+    @Test
+    void getCalendar_notCached_shouldBeEmpty() {
+        rawPipelineReturns(true, null, null, Map.of());
+
+        assertThat(repository.getCalendar(7L, 2026)).isEmpty();
+    }
+
+    @Test
+    void getCalendar_beforeTheBackfill_shouldBeEmpty() {
+        rawPipelineReturns(false, new byte[]{(byte) 0xF0}, new byte[1], Map.of());
+
+        assertThat(repository.getCalendar(7L, 2026)).isEmpty();
+    }
+
+    // ─── Id indexes and pages ────────────────────────────────────
+
+    @Test
+    void getAirbnbIdsAfter_ready_shouldParseThePageInScoreOrder() {
+        pipelineReturns(true, new LinkedHashSet<>(List.of("11", "12", "13")));
+
+        assertThat(repository.getAirbnbIdsAfter(10L, 3)).contains(List.of(11L, 12L, 13L));
+    }
+
+    @Test
+    void getBookingIdsAfter_pastTheLastId_shouldBeAnEmptyPage() {
+        pipelineReturns(true, null);
+
+        assertThat(repository.getBookingIdsAfter(99L, 3)).contains(List.of());
+    }
+
+    @Test
+    void getAirbnbIdsAfter_indexNotBackfilled_shouldBeEmptySoCallersPageFromTheDb() {
+        pipelineReturns(false, new LinkedHashSet<>(List.of("11")));
+
+        assertThat(repository.getAirbnbIdsAfter(10L, 3)).isEmpty();
+    }
+
+    @Test
+    void getAirbnbsByIds_shouldReadOneMgetAndLeaveOutUncachedIds() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(List.of("airbnb:1", "airbnb:2", "airbnb:3")))
+                .thenReturn(Arrays.asList("{\"id\":1,\"name\":\"a\"}", null, "{\"id\":3,\"name\":\"c\"}"));
+
+        Map<Long, ?> found = repository.getAirbnbsByIds(List.of(1L, 2L, 3L));
+
+        assertThat(found).containsOnlyKeys(1L, 3L);
+        verify(valueOperations, times(1)).multiGet(anyList());
+    }
+
+    @Test
+    void getAirbnbsByIds_noIds_shouldNotTouchRedis() {
+        assertThat(repository.getAirbnbsByIds(List.of())).isEmpty();
+
+        verifyNoInteractions(redisTemplate);
+    }
+}
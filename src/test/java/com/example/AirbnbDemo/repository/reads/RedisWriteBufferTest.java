@@ -0,0 +1,111 @@
+package com.example.AirbnbDemo.repository.reads;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisWriteBufferTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    private RedisWriteBuffer buffer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        buffer = new RedisWriteBuffer(redisTemplate);
+        ReflectionTestUtils.setField(buffer, "flushSize", 3);
+        // Run the pipeline callback against the mocked template, as Redis would
+        lenient().when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            invocation.getArgument(0, SessionCallback.class).execute(redisTemplate);
+            return List.of();
+        });
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+    }
+
+    // ─── Coalescing ──────────────────────────────────────────────
+
+    @Test
+    void flush_shouldSendTheLastValueOfEachKeyAsOneMset() {
+        buffer.set("airbnb:1", "v1");
+        buffer.set("airbnb:1", "v2");
+        buffer.set("airbnb:2", "w");
+
+        buffer.flush();
+
+        verify(valueOperations).multiSet(Map.of("airbnb:1", "v2", "airbnb:2", "w"));
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+    }
+
+    @Test
+    void flush_shouldSendEachHashAsOneMultiFieldHset() {
+        buffer.hset("availability:airbnb:1", "2026-03-01", "a");
+        buffer.hset("availability:airbnb:1", "2026-03-02", "b");
+
+        buffer.flush();
+
+        verify(hashOperations).putAll("availability:airbnb:1", Map.of("2026-03-01", "a", "2026-03-02", "b"));
+    }
+
+    @Test
+    void delete_thenHset_shouldDeleteBeforeWritingTheNewFields() {
+        buffer.hset("availability:airbnb:1", "2026-03-01", "old");
+        buffer.delete("availability:airbnb:1");
+        buffer.hset("availability:airbnb:1", "2026-03-02", "new");
+
+        buffer.flush();
+
+        InOrder order = inOrder(redisTemplate, hashOperations);
+        order.verify(redisTemplate).delete(List.of("availability:airbnb:1"));
+        order.verify(hashOperations).putAll("availability:airbnb:1", Map.of("2026-03-02", "new"));
+        verifyNoMoreInteractions(hashOperations);
+    }
+
+    // ─── Flushing ────────────────────────────────────────────────
+
+    @Test
+    void flushSizeReached_shouldFlushInTheWritersThread() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>("return 1", Long.class);
+        buffer.set("a", "1");
+        buffer.eval(script, List.of("k"), "x");
+        verify(redisTemplate, never()).executePipelined(any(SessionCallback.class));
+
+        buffer.eval(script, List.of("k"), "y");
+
+        InOrder order = inOrder(redisTemplate);
+        order.verify(redisTemplate).execute(script, List.of("k"), "x");
+        order.verify(redisTemplate).execute(script, List.of("k"), "y");
+        verify(valueOperations).multiSet(Map.of("a", "1"));
+    }
+
+    @Test
+    void flush_nothingPending_shouldNotTouchRedis() {
+        buffer.flush();
+
+        verifyNoInteractions(redisTemplate);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.AirbnbDemo.repository.reads;
+
+import com.example.AirbnbDemo.models.readModels.AvailabilityReadModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisWriteRepositoryTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private RedisWriteBuffer writeBuffer;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    private RedisWriteRepository repository;
+
+    private static final List<String> CALENDAR_2026 = List.of(
+            "calendar:open:{7}:2026", "calendar:booked:{7}:2026", "calendar:bookings:{7}:2026", "calendar:years:{7}");
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = new RedisWriteRepository(redisTemplate, writeBuffer, JsonMapper.builder().build());
+        // Run the pipeline callback against the mocked template, as Redis would
+        lenient().when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            invocation.getArgument(0, SessionCallback.class).execute(redisTemplate);
+            return List.of();
+        });
+        lenient().when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+    }
+
+    private static AvailabilityReadModel night(String date, boolean available, Long bookingId) {
+        return AvailabilityReadModel.builder().airbnbId(7L).date(date).isAvailable(available).bookingId(bookingId).build();
+    }
+
+    // ─── One night ───────────────────────────────────────────────
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeAvailabilityModel_jsonHashOff_shouldSendOnlyTheCalendarScript() {
+        repository.writeAvailabilityModel(night("2026-01-03", false, 42L), false);
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(CALENDAR_2026), eq("2"), eq("1"), eq("42"), eq("2026"));
+        verify(redisTemplate, never()).executePipelined(any(SessionCallback.class));
+        verifyNoInteractions(hashOperations);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeAvailabilityModel_jsonHashOn_shouldPipelineTheHsetAndTheScriptInOneRoundTrip() {
+        ReflectionTestUtils.setField(repository, "writeJsonHash", true);
+
+        repository.writeAvailabilityModel(night("2026-01-03", true, null), false);
+
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        verify(hashOperations).put(eq("availability:airbnb:7"), eq("2026-01-03"), anyString());
+        verify(redisTemplate).execute(any(RedisScript.class), eq(CALENDAR_2026), eq("2"), eq("0"), eq(""), eq("2026"));
+    }
+
+    @Test
+    void writeAvailabilityModel_buffered_shouldQueueTheScriptOnly() {
+        repository.writeAvailabilityModel(night("2026-01-03", true, null), true);
+
+        verify(writeBuffer).eval(any(), eq(CALENDAR_2026), eq("2"), eq("0"), eq(""), eq("2026"));
+        verify(writeBuffer, never()).hset(any(), any(), any());
+    }
+
+    // ─── Backfill ────────────────────────────────────────────────
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void backfillCalendarNights_shouldSendOneScriptPerListingYearAndDropTheLegacyHash() {
+        repository.backfillCalendarNights(Map.of(7L, List.of(
+                night("2025-12-31", true, null),
+                night("2026-01-01", false, 42L),
+                night("2026-01-02", true, null))));
+
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        // year, then (offset, booked, booking id) per night
+        verify(redisTemplate).execute(any(RedisScript.class), eq(CALENDAR_2026),
+                eq("2026"), eq("0"), eq("1"), eq("42"), eq("1"), eq("0"), eq(""));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(
+                "calendar:open:{7}:2025", "calendar:booked:{7}:2025", "calendar:bookings:{7}:2025", "calendar:years:{7}")),
+                eq("2025"), eq("364"), eq("0"), eq(""));
+        verify(redisTemplate).delete("availability:airbnb:7");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void backfillCalendarNights_jsonHashOn_shouldKeepTheHash() {
+        ReflectionTestUtils.setField(repository, "writeJsonHash", true);
+
+        repository.backfillCalendarNights(Map.of(7L, List.of(night("2026-01-01", true, null))));
+
+        verify(redisTemplate, never()).delete(anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void backfillCalendarNights_nothingToWrite_shouldNotTouchRedis() {
+        repository.backfillCalendarNights(Map.of());
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    // ─── Delete ──────────────────────────────────────────────────
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deleteAvailability_jsonHashOff_shouldClearOnlyTheCalendarBits() {
+        repository.deleteAvailability(7L, LocalDate.of(2026, 1, 3), false);
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(CALENDAR_2026), eq("2026"), eq("2"));
+        verifyNoInteractions(hashOperations);
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.AirbnbDemo.saga;
+
+import com.example.AirbnbDemo.dlq.DeadLetterEventPublisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RetryableSagaProcessorTest {
+
+    @Mock
+    private SagaEventProcessor sagaEventProcessor;
+
+    @Mock
+    private DeadLetterEventPublisher deadLetterEventPublisher;
+
+    @Mock
+    private SagaRetryScheduler sagaRetryScheduler;
+
+    @Mock
+    private SagaParkedKeys sagaParkedKeys;
+
+    @InjectMocks
+    private RetryableSagaProcessor retryableSagaProcessor;
+
+    private SagaEvent event;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(retryableSagaProcessor, "maxAttempts", 3);
+        ReflectionTestUtils.setField(retryableSagaProcessor, "retryDelayMs", 1000L);
+        lenient().when(sagaParkedKeys.admit(any())).thenReturn(SagaParkedKeys.Admission.FREE);
+        event = event("saga-1", "BOOKING_CONFIRMED");
+    }
+
+    private static SagaEvent event(String sagaId, String eventType) {
+        return SagaEvent.builder()
+                .sagaId(sagaId)
+                .eventType(eventType)
+                .payload(BookingSagaPayload.of(1L, 1L, 1L, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 5)))
+                .build();
+    }
+
+    // ─── Back-off ────────────────────────────────────────────────
+
+    @Test
+    void processWithRetry_success_shouldNotScheduleRetry() {
+        assertThat(retryableSagaProcessor.processWithRetry(event)).isTrue();
+
+        verifyNoInteractions(sagaRetryScheduler, deadLetterEventPublisher);
+    }
+
+    @Test
+    void processWithRetry_firstFailure_shouldParkWithBackOffInsteadOfSleeping() {
+        doThrow(new RuntimeException("db down")).when(sagaEventProcessor).processEvent(event);
+
+        long start = System.nanoTime();
+        assertThat(retryableSagaProcessor.processWithRetry(event)).isFalse();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(elapsedMs).isLessThan(500);
+        assertThat(event.getAttempt()).isEqualTo(1);
+        verify(sagaParkedKeys).park(event);
+        verify(sagaRetryScheduler).schedule(event, 1000L);
+        verifyNoInteractions(deadLetterEventPublisher);
+    }
+
+    @Test
+    void processWithRetry_secondFailure_shouldDoubleTheDelay() {
+        event.setAttempt(1);
+        doThrow(new RuntimeException("db down")).when(sagaEventProcessor).processEvent(event);
+
+        retryableSagaProcessor.processWithRetry(event);
+
+        assertThat(event.getAttempt()).isEqualTo(2);
+        verify(sagaRetryScheduler).schedule(event, 2000L);
+    }
+
+    @Test
+    void processWithRetry_lastAttemptFails_shouldMoveToDlq() {
+        event.setAttempt(2);
+        doThrow(new RuntimeException("db down")).when(sagaEventProcessor).processEvent(event);
+
+        retryableSagaProcessor.processWithRetry(event);
+
+        verify(deadLetterEventPublisher).publish(eq(event), any(Exception.class), eq(3));
+        verify(sagaRetryScheduler, never()).schedule(any(), anyLong());
+    }
+
+    @Test
+    void processWithRetry_retryQueueUnavailable_shouldFallBackToDlq() {
+        doThrow(new RuntimeException("db down")).when(sagaEventProcessor).processEvent(event);
+        doThrow(new RuntimeException("redis down")).when(sagaRetryScheduler).schedule(any(), anyLong());
+
+        retryableSagaProcessor.processWithRetry(event);
+
+        verify(deadLetterEventPublisher).publish(eq(event), any(Exception.class), anyInt());
+    }
+
+    // ─── Per-listing order ───────────────────────────────────────
+
+    @Test
+    void processWithRetry_firstEventOfAListingFails_shouldRunTheLaterOneOnlyAfterIt() {
+        SagaEvent cancel = event("saga-1", "BOOKING_CANCEL_REQUESTED");
+        doThrow(new RuntimeException("db down")).doNothing().when(sagaEventProcessor).processEvent(event);
+        when(sagaParkedKeys.admit(cancel)).thenReturn(SagaParkedKeys.Admission.HELD);
+
+        // The confirm fails and parks the listing; the cancel behind it must not overtake it
+        assertThat(retryableSagaProcessor.processWithRetry(event)).isFalse();
+        assertThat(retryableSagaProcessor.processWithRetry(cancel)).isFalse();
+        verify(sagaParkedKeys).park(event);
+        verify(sagaEventProcessor, never()).processEvent(cancel);
+
+        // The confirm comes back from the retry set, succeeds, then the held cancel runs
+        when(sagaParkedKeys.admit(event)).thenReturn(SagaParkedKeys.Admission.RETURNING);
+        when(sagaParkedKeys.nextHeld(1L)).thenReturn(cancel, (SagaEvent) null);
+        assertThat(retryableSagaProcessor.processWithRetry(event)).isTrue();
+
+        InOrder order = inOrder(sagaEventProcessor);
+        order.verify(sagaEventProcessor, times(2)).processEvent(event);
+        order.verify(sagaEventProcessor).processEvent(cancel);
+    }
+
+    @Test
+    void processWithRetry_heldEventFails_shouldParkTheListingAgainAndKeepTheRestHeld() {
+        SagaEvent cancel = event("saga-1", "BOOKING_CANCEL_REQUESTED");
+        when(sagaParkedKeys.admit(event)).thenReturn(SagaParkedKeys.Admission.RETURNING);
+        when(sagaParkedKeys.nextHeld(1L)).thenReturn(cancel);
+        doThrow(new RuntimeException("db down")).when(sagaEventProcessor).processEvent(cancel);
+
+        retryableSagaProcessor.processWithRetry(event);
+
+        verify(sagaParkedKeys).park(cancel);
+        verify(sagaRetryScheduler).schedule(cancel, 1000L);
+        verify(sagaParkedKeys, times(1)).nextHeld(1L);
+    }
+
+    @Test
+    void processWithRetry_parkedEventFailsAgain_shouldNotReleaseTheHeldEvents() {
+        event.setAttempt(1);
+        when(sagaParkedKeys.admit(event)).thenReturn(SagaParkedKeys.Admission.RETURNING);
+        doThrow(new RuntimeException("db down")).when(sagaEventProcessor).processEvent(event);
+
+        retryableSagaProcessor.processWithRetry(event);
+
+        verify(sagaRetryScheduler).schedule(event, 2000L);
+        verify(sagaParkedKeys, never()).nextHeld(any());
+    }
+
+    @Test
+    void processWithRetry_parkedEventDeadLettered_shouldReleaseTheHeldEvents() {
+        event.setAttempt(2);
+        when(sagaParkedKeys.admit(event)).thenReturn(SagaParkedKeys.Admission.RETURNING);
+        doThrow(new RuntimeException("db down")).when(sagaEventProcessor).processEvent(event);
+
+        retryableSagaProcessor.processWithRetry(event);
+
+        verify(deadLetterEventPublisher).publish(eq(event), any(Exception.class), eq(3));
+        verify(sagaParkedKeys).nextHeld(1L);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.AirbnbDemo.saga;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SagaEventCodecTest {
+
+    private final SagaEventCodec codec = new SagaEventCodec(JsonMapper.builder().build());
+
+    private SagaEvent event() {
+        return SagaEvent.builder()
+                .sagaId("7d4c1d4e-0c8e-4b8a-9a43-2f1b7f0a9e11")
+                .eventType("BOOKING_CONFIRM_REQUESTED")
+                .step("CONFIRM_BOOKING")
+                .status(SagaStatus.PENDING)
+                .attempt(2)
+                .timestamp(1_735_689_600_000L)
+                .payload(BookingSagaPayload.of(42L, 7L, 3L, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 5)))
+                .build();
+    }
+
+    // ─── Round trip ──────────────────────────────────────────────
+
+    @Test
+    void encodeThenDecode_shouldPreserveEveryField() {
+        SagaEvent decoded = codec.decode(codec.encode(event()));
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event());
+        assertThat(decoded.getPayload().checkInDate()).isEqualTo(LocalDate.of(2025, 1, 1));
+        assertThat(decoded.getPayload().lastNight()).isEqualTo(LocalDate.of(2025, 1, 4));
+    }
+
+    @Test
+    void encodeThenDecode_missingStepAndStatus_shouldStayNull() {
+        SagaEvent sagaEvent = event();
+        sagaEvent.setStep(null);
+        sagaEvent.setStatus(null);
+
+        SagaEvent decoded = codec.decode(codec.encode(sagaEvent));
+
+        assertThat(decoded.getStep()).isNull();
+        assertThat(decoded.getStatus()).isNull();
+    }
+
+    // ─── Malformed input ─────────────────────────────────────────
+
+    @Test
+    void decode_unknownVersion_shouldThrow() {
+        assertThatThrownBy(() -> codec.decode("S9|x"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void decode_truncated_shouldThrow() {
+        String encoded = codec.encode(event());
+
+        assertThatThrownBy(() -> codec.decode(encoded.substring(0, encoded.lastIndexOf('|', encoded.lastIndexOf('|') - 1))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // ─── Legacy JSON ─────────────────────────────────────────────
+
+    @Test
+    void decode_legacyJson_shouldMapOldMapPayload() {
+        String legacy = """
+                {"sagaId":"saga-1","eventType":"BOOKING_CONFIRMED","step":"CONFIRM_BOOKING",
+                 "payload":{"bookingId":"42","airbnbId":"7","userId":3,
+                            "checkInDate":"2025-01-01","checkOutDate":"2025-01-05"},
+                 "timestamp":"2025-01-01T10:15:30","status":"PENDING","attempt":1}
+                """;
+
+        SagaEvent decoded = codec.decode(legacy);
+
+        assertThat(decoded.getSagaId()).isEqualTo("saga-1");
+        assertThat(decoded.getStatus()).isEqualTo(SagaStatus.PENDING);
+        assertThat(decoded.getAttempt()).isEqualTo(1);
+        assertThat(decoded.getPayload())
+                .isEqualTo(BookingSagaPayload.of(42L, 7L, 3L, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 5)));
+    }
+}
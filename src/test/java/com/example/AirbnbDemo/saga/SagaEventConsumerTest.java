@@ -0,0 +1,114 @@
+package com.example.AirbnbDemo.saga;
+
+import com.example.AirbnbDemo.dlq.DeadLetterEventPublisher;
+import com.example.AirbnbDemo.saga.queue.SagaMessage;
+import com.example.AirbnbDemo.saga.queue.SagaQueue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SagaEventConsumerTest {
+
+    @Mock
+    private SagaQueue sagaQueue;
+
+    @Mock
+    private SagaEventProcessor sagaEventProcessor;
+
+    @Mock
+    private DeadLetterEventPublisher deadLetterEventPublisher;
+
+    @Mock
+    private SagaRetryScheduler sagaRetryScheduler;
+
+    @Mock
+    private SagaParkedKeys sagaParkedKeys;
+
+    private final SagaEventCodec codec = new SagaEventCodec(JsonMapper.builder().build());
+    private SagaWorkerPool workerPool;
+    private SagaEventConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        RetryableSagaProcessor retryableSagaProcessor =
+                new RetryableSagaProcessor(sagaEventProcessor, deadLetterEventPublisher, sagaRetryScheduler, sagaParkedKeys);
+        lenient().when(sagaParkedKeys.admit(any())).thenReturn(SagaParkedKeys.Admission.FREE);
+        ReflectionTestUtils.setField(retryableSagaProcessor, "maxAttempts", 3);
+        ReflectionTestUtils.setField(retryableSagaProcessor, "retryDelayMs", 1000L);
+        consumer = new SagaEventConsumer(sagaQueue, codec, retryableSagaProcessor);
+        workerPool = new SagaWorkerPool("test-worker", 1, 10);
+        ReflectionTestUtils.setField(consumer, "workerPool", workerPool);
+        ReflectionTestUtils.setField(consumer, "pollTimeoutMs", 1000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        workerPool.shutdown(Duration.ofSeconds(2));
+    }
+
+    private SagaMessage message(int attempt) {
+        String body = codec.encode(SagaEvent.builder()
+                .sagaId("saga-1")
+                .eventType("BOOKING_CONFIRMED")
+                .attempt(attempt)
+                .payload(BookingSagaPayload.of(42L, 7L, 3L, LocalDate.of(2026, 5, 1), LocalDate.of(2026, 5, 4)))
+                .build());
+        return new SagaMessage("default", "1-0", body);
+    }
+
+    @Test
+    void lastAttemptFails_shouldDeadLetterThenAcknowledge() throws InterruptedException {
+        SagaMessage message = message(2);
+        when(sagaQueue.poll(any())).thenReturn(List.of(message));
+        doThrow(new RuntimeException("db down")).when(sagaEventProcessor).processEvent(any());
+
+        consumer.consumeEvents();
+
+        verify(sagaQueue, timeout(2000)).ack(message);
+        // Acknowledged only once the DLQ holds it, so a crash in between redelivers instead of losing it
+        InOrder order = inOrder(deadLetterEventPublisher, sagaQueue);
+        order.verify(deadLetterEventPublisher).publish(any(SagaEvent.class), any(Exception.class), eq(3));
+        order.verify(sagaQueue).ack(message);
+        verifyNoInteractions(sagaRetryScheduler);
+    }
+
+    @Test
+    void failureWithAttemptsLeft_shouldParkForRetryThenAcknowledge() throws InterruptedException {
+        SagaMessage message = message(0);
+        when(sagaQueue.poll(any())).thenReturn(List.of(message));
+        doThrow(new RuntimeException("db down")).when(sagaEventProcessor).processEvent(any());
+
+        consumer.consumeEvents();
+
+        verify(sagaQueue, timeout(2000)).ack(message);
+        InOrder order = inOrder(sagaRetryScheduler, sagaQueue);
+        order.verify(sagaRetryScheduler).schedule(any(SagaEvent.class), eq(1000L));
+        order.verify(sagaQueue).ack(message);
+        verifyNoInteractions(deadLetterEventPublisher);
+    }
+
+    @Test
+    void malformedMessage_shouldBeAcknowledgedWithoutProcessing() throws InterruptedException {
+        SagaMessage message = new SagaMessage("default", "2-0", "garbage");
+        when(sagaQueue.poll(any())).thenReturn(List.of(message));
+
+        consumer.consumeEvents();
+
+        verify(sagaQueue).ack(message);
+        verifyNoInteractions(sagaEventProcessor, deadLetterEventPublisher);
+    }
+}
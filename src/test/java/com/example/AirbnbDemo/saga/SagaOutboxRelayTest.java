@@ -0,0 +1,111 @@
+package com.example.AirbnbDemo.saga;
+
+import com.example.AirbnbDemo.models.SagaOutboxEvent;
+import com.example.AirbnbDemo.repository.writes.SagaOutboxRepository;
+import com.example.AirbnbDemo.saga.queue.SagaLanes;
+import com.example.AirbnbDemo.saga.queue.SagaQueue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SagaOutboxRelayTest {
+
+    @Mock
+    private SagaOutboxRepository sagaOutboxRepository;
+
+    @Mock
+    private SagaQueue sagaQueue;
+
+    @Mock
+    private SagaLanes sagaLanes;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private SagaOutboxRelay sagaOutboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(sagaOutboxRelay, "batchSize", 2);
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(sagaLanes.laneFor(any())).thenAnswer(inv ->
+                "BOOKING_COMPENSATED".equals(inv.getArgument(0)) ? "urgent" : SagaLanes.DEFAULT_LANE);
+    }
+
+    private SagaOutboxEvent row(long id, String event) {
+        return row(id, "BOOKING_CONFIRMED", event);
+    }
+
+    private SagaOutboxEvent row(long id, String eventType, String event) {
+        SagaOutboxEvent row = SagaOutboxEvent.builder().eventType(eventType).event(event).build();
+        row.setId(id);
+        return row;
+    }
+
+    // ─── Relay ───────────────────────────────────────────────────
+
+    @Test
+    void relayPending_shouldPublishEachBatchInOneCallAndMarkItSent() {
+        when(sagaOutboxRepository.lockUnsentBatch(2))
+                .thenReturn(List.of(row(1, "e1"), row(2, "e2")))
+                .thenReturn(List.of(row(3, "e3")));
+
+        sagaOutboxRelay.relayPending();
+
+        verify(sagaQueue).publishAll(SagaLanes.DEFAULT_LANE, List.of("e1", "e2"));
+        verify(sagaQueue).publishAll(SagaLanes.DEFAULT_LANE, List.of("e3"));
+        verify(sagaOutboxRepository).markSent(eq(List.of(1L, 2L)), any());
+        verify(sagaOutboxRepository).markSent(eq(List.of(3L)), any());
+    }
+
+    @Test
+    void relayPending_shouldSplitABatchByLaneKeepingOrderWithinEach() {
+        when(sagaOutboxRepository.lockUnsentBatch(2))
+                .thenReturn(List.of(row(1, "e1"), row(2, "BOOKING_COMPENSATED", "c2")))
+                .thenReturn(List.of());
+
+        sagaOutboxRelay.relayPending();
+
+        verify(sagaQueue).publishAll(SagaLanes.DEFAULT_LANE, List.of("e1"));
+        verify(sagaQueue).publishAll("urgent", List.of("c2"));
+        verify(sagaOutboxRepository).markSent(eq(List.of(1L, 2L)), any());
+    }
+
+    @Test
+    void relayPending_emptyOutbox_shouldNotTouchTheQueue() {
+        when(sagaOutboxRepository.lockUnsentBatch(anyInt())).thenReturn(List.of());
+
+        sagaOutboxRelay.relayPending();
+
+        verifyNoInteractions(sagaQueue);
+        verify(sagaOutboxRepository, never()).markSent(anyList(), any());
+    }
+
+    @Test
+    void relayPending_publishFails_shouldLeaveRowsUnsent() {
+        when(sagaOutboxRepository.lockUnsentBatch(2)).thenReturn(List.of(row(1, "e1")));
+        doThrow(new RuntimeException("redis down")).when(sagaQueue).publishAll(anyString(), anyList());
+
+        sagaOutboxRelay.relayPending();
+
+        verify(sagaOutboxRepository, never()).markSent(anyList(), any());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.AirbnbDemo.saga;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SagaParkedKeysTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final SagaEventCodec codec = new SagaEventCodec(JsonMapper.builder().build());
+    private SagaParkedKeys parkedKeys;
+    private SagaEvent event;
+
+    private final List<String> keys = List.of("saga:events:parked:42", "saga:events:held:42");
+
+    @BeforeEach
+    void setUp() {
+        parkedKeys = new SagaParkedKeys(redisTemplate, codec);
+        ReflectionTestUtils.setField(parkedKeys, "parkedTtlMs", 600_000L);
+        event = SagaEvent.builder()
+                .sagaId("saga-1")
+                .eventType("BOOKING_CONFIRMED")
+                .payload(BookingSagaPayload.of(7L, 42L, 3L, LocalDate.of(2026, 5, 1), LocalDate.of(2026, 5, 4)))
+                .build();
+    }
+
+    @Test
+    void admit_listingParkedByAnotherEvent_shouldHoldIt() {
+        when(redisTemplate.execute(eq(SagaParkedKeys.ADMIT_REDIS_SCRIPT), eq(keys), eq("saga-1:BOOKING_CONFIRMED"), eq(codec.encode(event))))
+                .thenReturn(2L);
+
+        assertThat(parkedKeys.admit(event)).isEqualTo(SagaParkedKeys.Admission.HELD);
+    }
+
+    @Test
+    void park_shouldMarkTheListingWithTheEventUntilTheTtl() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        parkedKeys.park(event);
+
+        verify(valueOperations).set("saga:events:parked:42", "saga-1:BOOKING_CONFIRMED", Duration.ofMinutes(10));
+    }
+
+    @Test
+    void nextHeld_shouldDecodeTheOldestHeldEvent() {
+        when(redisTemplate.execute(SagaParkedKeys.NEXT_REDIS_SCRIPT, keys)).thenReturn(codec.encode(event));
+
+        SagaEvent next = parkedKeys.nextHeld(42L);
+
+        assertThat(next.getSagaId()).isEqualTo("saga-1");
+        assertThat(next.getEventType()).isEqualTo("BOOKING_CONFIRMED");
+    }
+
+    @Test
+    void nextHeld_nothingHeld_shouldReturnNull() {
+        when(redisTemplate.execute(SagaParkedKeys.NEXT_REDIS_SCRIPT, keys)).thenReturn(null);
+
+        assertThat(parkedKeys.nextHeld(42L)).isNull();
+    }
+}
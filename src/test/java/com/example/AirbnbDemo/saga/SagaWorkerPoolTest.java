@@ -0,0 +1,96 @@
+package com.example.AirbnbDemo.saga;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SagaWorkerPoolTest {
+
+    private SagaWorkerPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) pool.shutdown(Duration.ofSeconds(2));
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // ordering
+    // ─────────────────────────────────────────────────────────────
+
+    @Test
+    void submit_sameKey_runsInSubmissionOrder() throws InterruptedException {
+        pool = new SagaWorkerPool("test-worker", 4, 1000);
+        Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(400);
+
+        for (int i = 0; i < 100; i++) {
+            for (String key : List.of("1", "2", "3", "4")) {
+                int seq = i;
+                pool.submit(key, () -> {
+                    seen.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>())).add(seq);
+                    done.countDown();
+                });
+            }
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        for (List<Integer> sequence : seen.values()) {
+            assertThat(sequence).isSorted().hasSize(100);
+        }
+    }
+
+    @Test
+    void partitionFor_sameKey_alwaysMapsToSameWorker() {
+        pool = new SagaWorkerPool("test-worker", 8, 10);
+        int partition = pool.partitionFor("42");
+        for (int i = 0; i < 100; i++) {
+            assertThat(pool.partitionFor("42")).isEqualTo(partition);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // parallelism
+    // ─────────────────────────────────────────────────────────────
+
+    /**
+     * Two tasks on different partitions block on the same barrier; they can only
+     * both finish if the pool really runs them at the same time.
+     */
+    @Test
+    void submit_differentPartitions_runConcurrently() throws Exception {
+        pool = new SagaWorkerPool("test-worker", 2, 10);
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        CountDownLatch done = new CountDownLatch(2);
+
+        String first = "a";
+        String second = "b";
+        while (pool.partitionFor(second) == pool.partitionFor(first)) second = second + "b";
+
+        for (String key : List.of(first, second)) {
+            pool.submit(key, () -> {
+                try {
+                    barrier.await(2, TimeUnit.SECONDS);
+                    done.countDown();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+
+        assertThat(done.await(3, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void submit_afterShutdown_shouldThrow() {
+        pool = new SagaWorkerPool("test-worker", 1, 10);
+        pool.shutdown(Duration.ofMillis(100));
+
+        assertThatThrownBy(() -> pool.submit("1", () -> {}))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.AirbnbDemo.saga.queue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisListCommands;
+import org.springframework.data.redis.core.*;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReliableSagaQueueTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ListOperations<String, String> listOperations;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private ReliableSagaQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        SagaLanes lanes = new SagaLanes();
+        ReflectionTestUtils.setField(lanes, "weights", "urgent:2,default:1");
+        ReflectionTestUtils.setField(lanes, "routes", "");
+        lanes.init();
+        queue = new ReliableSagaQueue(redisTemplate, lanes);
+        ReflectionTestUtils.setField(queue, "consumerId", "node-a");
+        ReflectionTestUtils.setField(queue, "visibilityTimeoutMs", 120_000L);
+        ReflectionTestUtils.setField(queue, "heartbeatTtlMs", 30_000L);
+        ReflectionTestUtils.setField(queue, "laneBlockMs", 100L);
+        lenient().when(redisTemplate.opsForList()).thenReturn(listOperations);
+        lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        lenient().when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    // queue, processing list, deadlines of one consumer and lane
+    private static List<String> claimKeys(String consumer, String lane) {
+        String processing = SagaLanes.key("saga:events:processing:" + consumer, lane);
+        return List.of(SagaLanes.key("saga:events", lane), processing, processing + ":deadlines");
+    }
+
+    // ─── Claim ───────────────────────────────────────────────────
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void poll_shouldClaimEachLaneQuotaAndCarryTheUnusedPart() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(claimKeys("node-a", "urgent")), eq("2"), anyString()))
+                .thenReturn(List.of("u1"));
+        // urgent left one of its two unused, so default may take 1 + 1
+        when(redisTemplate.execute(any(RedisScript.class), eq(claimKeys("node-a", "default")), eq("2"), anyString()))
+                .thenReturn(List.of("d1", "d2"));
+
+        List<SagaMessage> messages = queue.poll(Duration.ofSeconds(1));
+
+        assertThat(messages).containsExactly(
+                new SagaMessage("urgent", "u1", "u1"),
+                new SagaMessage("default", "d1", "d1"),
+                new SagaMessage("default", "d2", "d2"));
+        verify(listOperations, never()).move(anyString(), any(), anyString(), any(), any(Duration.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void poll_urgentAlwaysFull_shouldStillServeTheDefaultLaneEveryCycle() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(claimKeys("node-a", "urgent")), eq("2"), anyString()))
+                .thenReturn(List.of("u1", "u2"));
+        when(redisTemplate.execute(any(RedisScript.class), eq(claimKeys("node-a", "default")), eq("1"), anyString()))
+                .thenReturn(List.of("d1"));
+
+        for (int cycle = 0; cycle < 3; cycle++) {
+            assertThat(queue.poll(Duration.ofSeconds(1))).extracting(SagaMessage::lane)
+                    .containsExactly("urgent", "urgent", "default");
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void poll_allLanesEmpty_shouldBlockOnTheFirstLaneAndStampADeadline() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString())).thenReturn(List.of());
+        when(listOperations.move(eq("saga:events:urgent"), eq(RedisListCommands.Direction.LEFT),
+                eq("saga:events:processing:node-a:urgent"), eq(RedisListCommands.Direction.RIGHT), eq(Duration.ofMillis(100))))
+                .thenReturn("u9");
+
+        List<SagaMessage> messages = queue.poll(Duration.ofSeconds(1));
+
+        assertThat(messages).containsExactly(new SagaMessage("urgent", "u9", "u9"));
+        verify(zSetOperations).add(eq("saga:events:processing:node-a:urgent:deadlines"), eq("u9"), anyDouble());
+    }
+
+    // ─── Ack ─────────────────────────────────────────────────────
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ack_shouldRemoveFromTheLanesProcessingListAndDeadlines() {
+        queue.ack(new SagaMessage("urgent", "u1", "u1"));
+
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("saga:events:processing:node-a:urgent", "saga:events:processing:node-a:urgent:deadlines")),
+                eq("u1"));
+    }
+
+    // ─── Redelivery ──────────────────────────────────────────────
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recoverInFlight_shouldPutThisConsumersLeftoversBackOnEveryLane() {
+        queue.recoverInFlight();
+
+        verify(setOperations).add(ReliableSagaQueue.CONSUMERS_KEY, "node-a");
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(
+                "saga:events:processing:node-a:urgent", "saga:events:processing:node-a:urgent:deadlines", "saga:events:urgent")));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(
+                "saga:events:processing:node-a", "saga:events:processing:node-a:deadlines", "saga:events")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void requeueExpired_shouldReapEveryKnownConsumer() {
+        when(setOperations.members(ReliableSagaQueue.CONSUMERS_KEY)).thenReturn(Set.of("node-a", "node-b"));
+
+        queue.requeueExpired();
+
+        for (String consumer : List.of("node-a", "node-b")) {
+            verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(
+                    "saga:consumer:heartbeat:" + consumer, ReliableSagaQueue.CONSUMERS_KEY,
+                    "saga:events:processing:" + consumer + ":urgent", "saga:events:processing:" + consumer + ":urgent:deadlines", "saga:events:urgent",
+                    "saga:events:processing:" + consumer, "saga:events:processing:" + consumer + ":deadlines", "saga:events")),
+                    anyString(), eq(consumer));
+        }
+    }
+
+    // ─── Consumer id ─────────────────────────────────────────────
+
+    @Test
+    void recoverInFlight_noConsumerIdConfigured_shouldNotFallBackToASharedName() {
+        ReliableSagaQueue other = new ReliableSagaQueue(redisTemplate, (SagaLanes) ReflectionTestUtils.getField(queue, "sagaLanes"));
+        ReflectionTestUtils.setField(queue, "consumerId", "");
+        ReflectionTestUtils.setField(other, "consumerId", "");
+
+        queue.recoverInFlight();
+        other.recoverInFlight();
+
+        String first = (String) ReflectionTestUtils.getField(queue, "consumerId");
+        String second = (String) ReflectionTestUtils.getField(other, "consumerId");
+        assertThat(first).startsWith(SagaConsumerIds.GENERATED_PREFIX).isNotEqualTo(second);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.AirbnbDemo.saga.queue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SagaLanesTest {
+
+    private SagaLanes lanes(String weights, String routes) {
+        SagaLanes lanes = new SagaLanes();
+        ReflectionTestUtils.setField(lanes, "weights", weights);
+        ReflectionTestUtils.setField(lanes, "routes", routes);
+        lanes.init();
+        return lanes;
+    }
+
+    // ─── Parsing ─────────────────────────────────────────────────
+
+    @Test
+    void init_shouldKeepLanesInPriorityOrder() {
+        SagaLanes lanes = lanes("urgent:40, default:10", "TEST_FAILURE:urgent");
+
+        assertThat(lanes.lanes()).containsExactly(
+                new SagaLanes.Lane("urgent", 40),
+                new SagaLanes.Lane("default", 10));
+    }
+
+    @Test
+    void init_withoutDefaultLane_shouldFail() {
+        assertThatThrownBy(() -> lanes("urgent:40", ""))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void init_routeToUnknownLane_shouldFail() {
+        assertThatThrownBy(() -> lanes("default:10", "BOOKING_COMPENSATED:urgent"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void init_orderedLifecycleSplitOverLanes_shouldFail() {
+        assertThatThrownBy(() -> lanes("urgent:40,default:10", "BOOKING_CANCEL_REQUESTED:urgent"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("same lane");
+    }
+
+    @Test
+    void init_wholeOrderedLifecycleInOneLane_shouldBeAllowed() {
+        String routes = String.join(",", SagaLanes.ORDERED_LIFECYCLE.stream().map(type -> type + ":urgent").toList());
+
+        SagaLanes lanes = lanes("urgent:40,default:10", routes);
+
+        assertThat(SagaLanes.ORDERED_LIFECYCLE).allSatisfy(type -> assertThat(lanes.laneFor(type)).isEqualTo("urgent"));
+    }
+
+    @Test
+    void init_lockReleasingEventsAheadOfTheConfirm_shouldBeAllowed() {
+        SagaLanes lanes = lanes("urgent:40,default:10", "BOOKING_CANCELLED:urgent,BOOKING_COMPENSATED:urgent");
+
+        assertThat(lanes.laneFor("BOOKING_CANCELLED")).isEqualTo("urgent");
+        assertThat(lanes.laneFor("BOOKING_COMPENSATED")).isEqualTo("urgent");
+        assertThat(lanes.laneFor("BOOKING_CONFIRMED")).isEqualTo(SagaLanes.DEFAULT_LANE);
+    }
+
+    // ─── Routing ─────────────────────────────────────────────────
+
+    @Test
+    void laneFor_unlistedEventType_shouldUseDefaultLane() {
+        SagaLanes lanes = lanes("urgent:40,default:10", "TEST_FAILURE:urgent");
+
+        assertThat(lanes.laneFor("TEST_FAILURE")).isEqualTo("urgent");
+        assertThat(lanes.laneFor("BOOKING_CONFIRM_REQUESTED")).isEqualTo(SagaLanes.DEFAULT_LANE);
+        assertThat(lanes.laneFor(null)).isEqualTo(SagaLanes.DEFAULT_LANE);
+    }
+
+    @Test
+    void key_defaultLane_shouldKeepTheOriginalKey() {
+        assertThat(SagaLanes.key("saga:events", SagaLanes.DEFAULT_LANE)).isEqualTo("saga:events");
+        assertThat(SagaLanes.key("saga:events", "urgent")).isEqualTo("saga:events:urgent");
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.AirbnbDemo.saga.queue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SimpleSagaQueueTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ListOperations<String, String> listOperations;
+
+    private SimpleSagaQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        SagaLanes lanes = new SagaLanes();
+        ReflectionTestUtils.setField(lanes, "weights", "urgent:2,default:1");
+        ReflectionTestUtils.setField(lanes, "routes", "");
+        lanes.init();
+        queue = new SimpleSagaQueue(redisTemplate, lanes);
+        lenient().when(redisTemplate.opsForList()).thenReturn(listOperations);
+    }
+
+    private static List<String> events(String prefix, int count) {
+        List<String> events = new ArrayList<>();
+        for (int i = 1; i <= count; i++) events.add(prefix + i);
+        return events;
+    }
+
+    // ─── Quota and carry ─────────────────────────────────────────
+
+    @Test
+    void poll_shouldTakeEachLanesWeightHighestPriorityFirst() {
+        when(listOperations.leftPop("saga:events:urgent", 2)).thenReturn(events("u", 2));
+        when(listOperations.leftPop("saga:events", 1)).thenReturn(events("d", 1));
+
+        assertThat(queue.poll(Duration.ofSeconds(1))).extracting(SagaMessage::lane, SagaMessage::body)
+                .containsExactly(tuple("urgent", "u1"), tuple("urgent", "u2"), tuple("default", "d1"));
+    }
+
+    @Test
+    void poll_unusedQuota_shouldCarryDownToTheNextLane() {
+        when(listOperations.leftPop("saga:events:urgent", 2)).thenReturn(List.of());
+        when(listOperations.leftPop("saga:events", 3)).thenReturn(events("d", 3));
+
+        assertThat(queue.poll(Duration.ofSeconds(1))).extracting(SagaMessage::body).containsExactly("d1", "d2", "d3");
+    }
+
+    @Test
+    void poll_urgentAlwaysFull_shouldStillServeTheDefaultLaneEveryCycle() {
+        when(listOperations.leftPop("saga:events:urgent", 2)).thenReturn(events("u", 2));
+        when(listOperations.leftPop("saga:events", 1)).thenReturn(events("d", 1));
+
+        for (int cycle = 0; cycle < 3; cycle++) {
+            assertThat(queue.poll(Duration.ofSeconds(1))).extracting(SagaMessage::lane)
+                    .containsExactly("urgent", "urgent", "default");
+        }
+        verify(listOperations, times(3)).leftPop("saga:events", 1);
+    }
+
+    // ─── Blocking ────────────────────────────────────────────────
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void poll_allLanesEmpty_shouldBlockOnAllLanesAndLabelTheLaneItCameFrom() {
+        when(listOperations.leftPop(anyString(), anyLong())).thenReturn(List.of());
+        when(redisTemplate.execute(any(RedisCallback.class))).thenReturn(List.of(
+                "saga:events".getBytes(StandardCharsets.UTF_8), "d9".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(queue.poll(Duration.ofSeconds(1))).containsExactly(new SagaMessage("default", "d9", "d9"));
+    }
+}
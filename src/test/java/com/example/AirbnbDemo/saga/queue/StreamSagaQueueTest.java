@@ -0,0 +1,150 @@
+package com.example.AirbnbDemo.saga.queue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StreamSagaQueueTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private StreamOperations<String, Object, Object> streamOperations;
+
+    private StreamSagaQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        SagaLanes lanes = new SagaLanes();
+        ReflectionTestUtils.setField(lanes, "weights", "urgent:2,default:1");
+        ReflectionTestUtils.setField(lanes, "routes", "");
+        lanes.init();
+        queue = new StreamSagaQueue(redisTemplate, lanes);
+        ReflectionTestUtils.setField(queue, "group", "saga-workers");
+        ReflectionTestUtils.setField(queue, "consumerId", "node-a");
+        ReflectionTestUtils.setField(queue, "batchSize", 50);
+        ReflectionTestUtils.setField(queue, "nextClaimAt", Long.MAX_VALUE);
+        lenient().when(redisTemplate.opsForStream()).thenReturn(streamOperations);
+    }
+
+    // ─── Publish ─────────────────────────────────────────────────
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publish_shouldAppendWithoutALengthCap() {
+        queue.publish("urgent", "S1|event");
+
+        // Only the event goes to the script — no MAXLEN that could evict undelivered entries
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("saga:stream:urgent")), eq("S1|event"));
+    }
+
+    // ─── Backlog ─────────────────────────────────────────────────
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void backlog_shouldBeTheGroupsLagNotTheStreamLength() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("saga:stream")), eq("saga-workers"), anyString()))
+                .thenReturn(7L);
+
+        assertThat(queue.backlog(SagaLanes.DEFAULT_LANE)).isEqualTo(7);
+        verify(streamOperations, never()).size(anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void backlog_streamMissing_shouldBeZero() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("saga:stream:urgent")), eq("saga-workers"), anyString()))
+                .thenReturn(null);
+
+        assertThat(queue.backlog("urgent")).isZero();
+    }
+
+    // ─── Ack and trim ────────────────────────────────────────────
+
+    @Test
+    void ack_shouldAcknowledgeOnTheLaneStream() {
+        queue.ack(new SagaMessage("urgent", "1700000000000-0", "S1|event"));
+
+        verify(streamOperations).acknowledge("saga:stream:urgent", "saga-workers", "1700000000000-0");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void trimAcknowledged_shouldTrimEveryLaneEvenIfOneFails() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("saga:stream:urgent"))))
+                .thenThrow(new RuntimeException("NOGROUP"));
+
+        queue.trimAcknowledged();
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("saga:stream")));
+    }
+
+    // ─── Weighted drain ──────────────────────────────────────────
+
+    // Serves each lane stream from an endless supply, or up to `available` entries, honouring COUNT
+    @SuppressWarnings("unchecked")
+    private void streams(Map<String, Integer> available) {
+        Map<String, Integer> served = new HashMap<>();
+        lenient().when(streamOperations.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset.class)))
+                .thenAnswer(invocation -> {
+                    StreamReadOptions options = invocation.getArgument(1);
+                    StreamOffset<String> offset = invocation.getArgument(2);
+                    String stream = offset.getKey();
+                    int left = available.getOrDefault(stream, Integer.MAX_VALUE) - served.getOrDefault(stream, 0);
+                    int count = (int) Math.min(options.getCount(), Math.max(left, 0));
+                    List<MapRecord<String, Object, Object>> records = new ArrayList<>();
+                    for (int i = 0; i < count; i++) {
+                        int sequence = served.merge(stream, 1, Integer::sum);
+                        records.add(MapRecord.create(stream, Map.<Object, Object>of("event", stream + "#" + sequence))
+                                .withId(RecordId.of(1_700_000_000_000L, sequence)));
+                    }
+                    return records;
+                });
+    }
+
+    @Test
+    void poll_shouldTakeEachLanesWeightHighestPriorityFirst() {
+        streams(Map.of());
+
+        assertThat(queue.poll(Duration.ofSeconds(1))).extracting(SagaMessage::lane)
+                .containsExactly("urgent", "urgent", "default");
+    }
+
+    @Test
+    void poll_unusedQuota_shouldCarryDownToTheNextLane() {
+        streams(Map.of("saga:stream:urgent", 1));
+
+        // urgent had one of its two, so default may take 1 + 1
+        assertThat(queue.poll(Duration.ofSeconds(1))).extracting(SagaMessage::body)
+                .containsExactly("saga:stream:urgent#1", "saga:stream#1", "saga:stream#2");
+    }
+
+    @Test
+    void poll_urgentAlwaysFull_shouldStillServeTheDefaultLaneEveryCycle() {
+        streams(Map.of());
+
+        for (int cycle = 1; cycle <= 3; cycle++) {
+            assertThat(queue.poll(Duration.ofSeconds(1))).extracting(SagaMessage::body)
+                    .endsWith("saga:stream#" + cycle);
+        }
+    }
+}
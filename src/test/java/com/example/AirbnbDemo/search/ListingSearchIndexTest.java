@@ -0,0 +1,290 @@
+package com.example.AirbnbDemo.search;
+
+import com.example.AirbnbDemo.models.Airbnb;
+import com.example.AirbnbDemo.models.readModels.AirbnbReadModel;
+import com.example.AirbnbDemo.models.readModels.AvailabilityCalendar;
+import com.example.AirbnbDemo.models.readModels.AvailabilityReadModel;
+import com.example.AirbnbDemo.repository.reads.RedisReadRepository;
+import com.example.AirbnbDemo.repository.writes.AirbnbRepository;
+import com.example.AirbnbDemo.repository.writes.AvailabilityBatchRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ListingSearchIndexTest {
+
+    @Mock
+    private AirbnbRepository airbnbRepository;
+
+    @Mock
+    private RedisReadRepository redisReadRepository;
+
+    @Mock
+    private AvailabilityBatchRepository availabilityBatchRepository;
+
+    private ListingSearchIndex index;
+
+    private final LocalDate from = LocalDate.of(2026, 3, 12);
+    private final LocalDate to = LocalDate.of(2026, 3, 15);
+
+    @BeforeEach
+    void setUp() {
+        index = new ListingSearchIndex(airbnbRepository, redisReadRepository, availabilityBatchRepository);
+        ReflectionTestUtils.setField(index, "pageSize", 2);
+        ReflectionTestUtils.setField(index, "parallelism", 2);
+        ReflectionTestUtils.setField(index, "parallelThreshold", 1_000);
+        ReflectionTestUtils.setField(index, "cellDegrees", 0.1);
+        index.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+
+    private static AirbnbReadModel listing(long id, String location, long price) {
+        return AirbnbReadModel.builder().id(id).name("listing-" + id).location(location).pricePerNight(price).build();
+    }
+
+    private static AirbnbReadModel listingAt(long id, double lat, double lon) {
+        return AirbnbReadModel.builder().id(id).name("listing-" + id).location("Goa").pricePerNight(100L)
+                .latitude(lat).longitude(lon).build();
+    }
+
+    // Free every night of the years given
+    private static Map<Integer, BitSet> open(int... years) {
+        Map<Integer, BitSet> nights = new HashMap<>();
+        for (int year : years) {
+            BitSet free = new BitSet();
+            free.set(0, 366);
+            nights.put(year, free);
+        }
+        return nights;
+    }
+
+    // ─── Search ──────────────────────────────────────────────────
+
+    @Test
+    void search_shouldReturnListingsFreeEveryNightUnderThePriceCheapestFirst() {
+        index.index(listing(1, "Goa", 300), open(2026));
+        index.index(listing(2, "goa ", 100), open(2026));
+        index.index(listing(3, "Goa", 90), open(2026));
+        index.index(listing(4, "Goa", 120), open(2026));
+        index.index(listing(5, "Pune", 50), open(2026));
+        index.updateNight(3L, LocalDate.of(2026, 3, 14), false);
+
+        List<IndexedListing> hits = index.search("GOA", from, to, 200L);
+
+        assertThat(hits).extracting(IndexedListing::id).containsExactly(2L, 4L);
+    }
+
+    @Test
+    void search_rangeAcrossNewYear_shouldNeedBothYears() {
+        index.index(listing(1, "Goa", 100), open(2026, 2027));
+        index.index(listing(2, "Goa", 100), open(2026));
+
+        List<IndexedListing> hits = index.search("Goa", LocalDate.of(2026, 12, 30), LocalDate.of(2027, 1, 2), null);
+
+        assertThat(hits).extracting(IndexedListing::id).containsExactly(1L);
+    }
+
+    @Test
+    void search_largeCandidateSet_shouldGiveTheSameAnswerInParallel() {
+        for (long id = 1; id <= 50; id++) index.index(listing(id, "Goa", id), open(2026));
+        index.updateNight(7L, from, false);
+        List<IndexedListing> sequential = index.search("Goa", from, to, null);
+
+        ReflectionTestUtils.setField(index, "parallelThreshold", 1);
+
+        assertThat(index.search("Goa", from, to, null)).isEqualTo(sequential).hasSize(49);
+    }
+
+    // ─── Geo radius ──────────────────────────────────────────────
+
+    @Test
+    void nearby_shouldReturnListingsInsideTheRadiusNearestFirst() {
+        index.index(listingAt(1, 15.50, 73.80), open(2026));  // ~5.6 km north
+        index.index(listingAt(2, 15.45, 73.81), open(2026));  // ~1.1 km east
+        index.index(listingAt(3, 15.90, 73.80), open(2026));  // ~50 km, outside
+        index.index(listing(4, "Goa", 100), open(2026));       // no coordinates
+        index.index(listingAt(5, 15.451, 73.80), open(2026)); // ~0.1 km, but taken
+        index.updateNight(5L, from, false);
+
+        List<NearbyListing> hits = index.nearby(15.45, 73.80, 10, from, to, null, -1, 0, 10);
+
+        assertThat(hits).extracting(hit -> hit.listing().id()).containsExactly(2L, 1L);
+        assertThat(hits.get(0).distanceKm()).isBetween(1.0, 1.2);
+    }
+
+    @Test
+    void nearby_pagedWithACursor_shouldMatchOneBigPageWithoutOverlap() {
+        for (long id = 1; id <= 40; id++) {
+            index.index(listingAt(id, 15.45 + (id % 7) * 0.03, 73.80 + (id % 5) * 0.04), open(2026));
+        }
+        List<NearbyListing> all = index.nearby(15.45, 73.80, 50, null, null, null, -1, 0, 100);
+
+        List<NearbyListing> paged = new ArrayList<>();
+        double afterKm = -1;
+        long afterId = 0;
+        List<NearbyListing> page;
+        do {
+            page = index.nearby(15.45, 73.80, 50, null, null, null, afterKm, afterId, 7);
+            paged.addAll(page);
+            if (!page.isEmpty()) {
+                afterKm = page.getLast().distanceKm();
+                afterId = page.getLast().listing().id();
+            }
+        } while (page.size() == 7);
+
+        assertThat(all).hasSize(40);
+        assertThat(paged).isEqualTo(all);
+    }
+
+    @Test
+    void nearby_acrossTheAntimeridian_shouldFindListingsOnTheOtherSide() {
+        index.index(listingAt(1, -17.0, 179.98), open(2026));
+        index.index(listingAt(2, -17.0, -179.98), open(2026));
+
+        List<NearbyListing> hits = index.nearby(-17.0, 179.99, 5, null, null, null, -1, 0, 10);
+
+        assertThat(hits).extracting(hit -> hit.listing().id()).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    // ─── Updates ─────────────────────────────────────────────────
+
+    @Test
+    void upsertListing_locationChanged_shouldMoveItInTheLocationIndex() {
+        index.index(listing(1, "Goa", 100), open(2026));
+
+        index.upsertListing(listing(1, "Pune", 100));
+
+        assertThat(index.search("Goa", from, to, null)).isEmpty();
+        assertThat(index.search("Pune", from, to, null)).extracting(IndexedListing::id).containsExactly(1L);
+        verifyNoInteractions(redisReadRepository); // nights were already indexed
+    }
+
+    @Test
+    void upsertListing_moved_shouldOnlyBeFoundAtItsNewPosition() {
+        index.index(listingAt(1, 15.45, 73.80), open(2026));
+
+        index.upsertListing(listingAt(1, 19.07, 72.87));
+
+        assertThat(index.nearby(15.45, 73.80, 20, null, null, null, -1, 0, 10)).isEmpty();
+        assertThat(index.nearby(19.07, 72.87, 1, null, null, null, -1, 0, 10)).hasSize(1);
+    }
+
+    @Test
+    void upsertListing_newListing_shouldLoadItsNightsFromTheCalendar() {
+        byte[] open = new byte[46];
+        Arrays.fill(open, (byte) 0xFF);
+        when(redisReadRepository.getCalendars(List.of(1L))).thenReturn(Map.of(1L, List.of(AvailabilityCalendar.builder()
+                .airbnbId(1L).year(2026).open(open).booked(new byte[46]).build())));
+
+        index.upsertListing(listing(1, "Goa", 100));
+
+        assertThat(index.search("Goa", from, to, null)).hasSize(1);
+    }
+
+    @Test
+    void rebuild_shouldPageThroughListingsAndDropDeletedOnes() {
+        index.index(listing(99, "Goa", 100), open(2026));
+        when(airbnbRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2)))
+                .thenReturn(List.of(airbnb(1, "Goa"), airbnb(2, "Goa")));
+        when(airbnbRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(2)))
+                .thenReturn(List.of(airbnb(3, "Goa")));
+        when(redisReadRepository.getCalendars(anyList())).thenReturn(Map.of());
+
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.search("Goa", from, to, null)).isEmpty(); // no nights anywhere, nothing free
+    }
+
+    @Test
+    void rebuild_listingsWithoutCalendars_shouldTakeTheirNightsFromTheDatabase() {
+        when(airbnbRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2)))
+                .thenReturn(List.of(airbnb(1, "Goa"), airbnb(2, "Goa")));
+        when(airbnbRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(2))).thenReturn(List.of());
+        // Calendars not backfilled yet: only listing 2 has one
+        when(redisReadRepository.getCalendars(List.of(1L, 2L))).thenReturn(Map.of(2L, List.of(AvailabilityCalendar.builder()
+                .airbnbId(2L).year(2026).open(new byte[46]).booked(new byte[46]).build())));
+        when(availabilityBatchRepository.findNights(List.of(1L))).thenReturn(Map.of(1L, freeNights(1L, from, to)));
+
+        index.rebuild();
+
+        assertThat(index.search("Goa", from, to, null)).extracting(IndexedListing::id).containsExactly(1L);
+    }
+
+    @Test
+    void rebuild_eventDuringTheBuild_shouldBeReplayedOverTheSnapshot() {
+        when(airbnbRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).thenAnswer(invocation -> {
+            // Booked after the nights below were read, before the page is indexed
+            index.updateNight(1L, LocalDate.of(2026, 3, 13), false);
+            return List.of(airbnb(1, "Goa"));
+        });
+        when(airbnbRepository.findById(1L)).thenReturn(Optional.of(airbnb(1, "Goa")));
+        when(redisReadRepository.getCalendars(List.of(1L))).thenReturn(Map.of());
+        when(availabilityBatchRepository.findNights(List.of(1L))).thenReturn(Map.of(1L, freeNights(1L, from, to)));
+
+        index.rebuild();
+
+        assertThat(index.search("Goa", from, to, null)).isEmpty();
+        assertThat(index.search("Goa", LocalDate.of(2026, 3, 14), to, null)).hasSize(1);
+    }
+
+    // ─── CDC upserts ─────────────────────────────────────────────
+
+    @Test
+    void updateNight_listingNotIndexedYet_shouldLoadItAndApplyTheNight() {
+        when(airbnbRepository.findById(1L)).thenReturn(Optional.of(airbnb(1, "Goa")));
+        when(redisReadRepository.getCalendars(List.of(1L))).thenReturn(Map.of());
+        when(availabilityBatchRepository.findNights(List.of(1L))).thenReturn(Map.of(1L, freeNights(1L, from, to)));
+
+        index.updateNight(1L, to, false);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.search("Goa", from, to, null)).isEmpty();
+        assertThat(index.search("Goa", from, to.minusDays(1), null)).hasSize(1);
+    }
+
+    @Test
+    void updateNight_deletedListing_shouldBeIgnored() {
+        when(airbnbRepository.findById(1L)).thenReturn(Optional.empty());
+
+        index.updateNight(1L, from, true);
+
+        assertThat(index.size()).isZero();
+    }
+
+    private static List<AvailabilityReadModel> freeNights(long airbnbId, LocalDate first, LocalDate last) {
+        return first.datesUntil(last.plusDays(1))
+                .map(night -> AvailabilityReadModel.builder().airbnbId(airbnbId).date(night.toString()).isAvailable(true).build())
+                .toList();
+    }
+
+    private static Airbnb airbnb(long id, String location) {
+        Airbnb airbnb = Airbnb.builder().name("listing-" + id).location(location).pricePerNight(100L).build();
+        airbnb.setId(id);
+        return airbnb;
+    }
+}
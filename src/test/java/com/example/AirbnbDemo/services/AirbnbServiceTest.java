@@ -0,0 +1,113 @@
+package com.example.AirbnbDemo.services;
+
+import com.example.AirbnbDemo.dtos.AirbnbPageDTO;
+import com.example.AirbnbDemo.models.Airbnb;
+import com.example.AirbnbDemo.models.readModels.AirbnbReadModel;
+import com.example.AirbnbDemo.repository.reads.RedisReadRepository;
+import com.example.AirbnbDemo.repository.writes.AirbnbRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AirbnbServiceTest {
+
+    @Mock
+    private AirbnbRepository airbnbRepository;
+
+    @Mock
+    private RedisReadRepository redisReadRepository;
+
+    @InjectMocks
+    private AirbnbService airbnbService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(airbnbService, "maxPageSize", 500);
+    }
+
+    private static Airbnb airbnb(long id) {
+        Airbnb airbnb = Airbnb.builder().name("listing-" + id).location("Goa").pricePerNight(100L).build();
+        airbnb.setId(id);
+        return airbnb;
+    }
+
+    // ─── getAirbnbs — keyset pages ───────────────────────────────
+
+    @Test
+    void getAirbnbs_shouldReadThePageFromTheIndexAndFillMissesFromTheDb() {
+        when(redisReadRepository.getAirbnbIdsAfter(10L, 3)).thenReturn(Optional.of(List.of(11L, 12L, 13L)));
+        Map<Long, AirbnbReadModel> cached = new LinkedHashMap<>();
+        cached.put(11L, AirbnbReadModel.builder().id(11L).build());
+        cached.put(13L, AirbnbReadModel.builder().id(13L).build());
+        when(redisReadRepository.getAirbnbsByIds(List.of(11L, 12L, 13L))).thenReturn(cached);
+        when(airbnbRepository.findAllById(List.of(12L))).thenReturn(List.of(airbnb(12L)));
+
+        AirbnbPageDTO page = airbnbService.getAirbnbs("10", 3);
+
+        assertThat(page.getAirbnbs()).extracting(AirbnbReadModel::getId).containsExactly(11L, 12L, 13L);
+        assertThat(page.getNextCursor()).isEqualTo("13");
+        verify(airbnbRepository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any());
+    }
+
+    @Test
+    void getAirbnbs_everyDocumentCached_shouldNotTouchTheDb() {
+        when(redisReadRepository.getAirbnbIdsAfter(0L, 3)).thenReturn(Optional.of(List.of(1L, 2L)));
+        Map<Long, AirbnbReadModel> cached = new LinkedHashMap<>();
+        cached.put(1L, AirbnbReadModel.builder().id(1L).build());
+        cached.put(2L, AirbnbReadModel.builder().id(2L).build());
+        when(redisReadRepository.getAirbnbsByIds(List.of(1L, 2L))).thenReturn(cached);
+
+        AirbnbPageDTO page = airbnbService.getAirbnbs(null, 3);
+
+        assertThat(page.getAirbnbs()).hasSize(2);
+        assertThat(page.getNextCursor()).isNull(); // short page: the last one
+        verifyNoInteractions(airbnbRepository);
+    }
+
+    @Test
+    void getAirbnbs_indexNotBuilt_shouldPageFromTheDb() {
+        when(redisReadRepository.getAirbnbIdsAfter(0L, 2)).thenReturn(Optional.empty());
+        when(airbnbRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).thenReturn(List.of(airbnb(1L), airbnb(2L)));
+
+        AirbnbPageDTO page = airbnbService.getAirbnbs("", 2);
+
+        assertThat(page.getAirbnbs()).extracting(AirbnbReadModel::getId).containsExactly(1L, 2L);
+        assertThat(page.getNextCursor()).isEqualTo("2");
+        verify(redisReadRepository, never()).getAirbnbsByIds(anyList());
+    }
+
+    @Test
+    void getAirbnbs_limitAboveTheMaximum_shouldBeCapped() {
+        ReflectionTestUtils.setField(airbnbService, "maxPageSize", 5);
+        when(redisReadRepository.getAirbnbIdsAfter(0L, 5)).thenReturn(Optional.of(List.of()));
+        when(redisReadRepository.getAirbnbsByIds(List.of())).thenReturn(new LinkedHashMap<>());
+
+        AirbnbPageDTO page = airbnbService.getAirbnbs(null, 10_000);
+
+        assertThat(page.getAirbnbs()).isEmpty();
+        verify(redisReadRepository).getAirbnbIdsAfter(0L, 5);
+    }
+
+    @Test
+    void getAirbnbs_malformedCursor_shouldThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> airbnbService.getAirbnbs("abc", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Malformed cursor");
+        verifyNoInteractions(redisReadRepository, airbnbRepository);
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.AirbnbDemo.services;
+
+import com.example.AirbnbDemo.dtos.AvailabilityRangeDTO;
+import com.example.AirbnbDemo.dtos.DateRangeDTO;
+import com.example.AirbnbDemo.dtos.ProvisionAvailabilityDTO;
+import com.example.AirbnbDemo.dtos.ProvisionResultDTO;
+import com.example.AirbnbDemo.models.readModels.AvailabilityReadModel;
+import com.example.AirbnbDemo.repository.reads.RedisReadRepository;
+import com.example.AirbnbDemo.repository.reads.RedisWriteRepository;
+import com.example.AirbnbDemo.repository.writes.AirbnbRepository;
+import com.example.AirbnbDemo.repository.writes.AvailabilityBatchRepository;
+import com.example.AirbnbDemo.repository.writes.AvailabilityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityServiceTest {
+
+    @Mock
+    private AvailabilityRepository availabilityRepository;
+
+    @Mock
+    private AirbnbRepository airbnbRepository;
+
+    @Mock
+    private RedisReadRepository redisReadRepository;
+
+    @Mock
+    private RedisWriteRepository redisWriteRepository;
+
+    @Mock
+    private AvailabilityBatchRepository availabilityBatchRepository;
+
+    @InjectMocks
+    private AvailabilityService availabilityService;
+
+    private final LocalDate from = LocalDate.of(2026, 3, 12);
+    private final LocalDate to = LocalDate.of(2026, 3, 15);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(availabilityService, "maxProvisionNights", 1100);
+        ReflectionTestUtils.setField(availabilityService, "maxRangeNights", 1100);
+    }
+
+    // ─── Bulk provisioning ───────────────────────────────────────
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void provisionAvailability_shouldInsertOnlyMissingNightsOnceAcrossOverlappingRanges() {
+        when(airbnbRepository.existsById(1L)).thenReturn(true);
+        when(availabilityRepository.findDates(1L, from, LocalDate.of(2026, 3, 16)))
+                .thenReturn(List.of(LocalDate.of(2026, 3, 13)));
+        when(availabilityBatchRepository.insertOpenNights(eq(1L), anyList())).thenReturn(4);
+
+        ProvisionResultDTO result = availabilityService.provisionAvailability(ProvisionAvailabilityDTO.builder()
+                .airbnbId(1L)
+                .ranges(List.of(new DateRangeDTO(from, to), new DateRangeDTO(LocalDate.of(2026, 3, 14), LocalDate.of(2026, 3, 16))))
+                .build());
+
+        assertThat(result.getRequested()).isEqualTo(5);
+        assertThat(result.getCreated()).isEqualTo(4);
+        assertThat(result.getSkipped()).isEqualTo(1);
+        verify(availabilityBatchRepository).insertOpenNights(1L, List.of(from, LocalDate.of(2026, 3, 14),
+                LocalDate.of(2026, 3, 15), LocalDate.of(2026, 3, 16)));
+        ArgumentCaptor<Map<Long, List<AvailabilityReadModel>>> written = ArgumentCaptor.forClass(Map.class);
+        verify(redisWriteRepository).backfillCalendarNights(written.capture());
+        assertThat(written.getValue().get(1L)).hasSize(4).allMatch(AvailabilityReadModel::getIsAvailable);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void provisionAvailability_nightsCreatedConcurrently_shouldStillOnlyAddWhatTheCalendarLacks() {
+        when(airbnbRepository.existsById(1L)).thenReturn(true);
+        when(availabilityRepository.findDates(1L, from, to)).thenReturn(List.of());
+        // Two of the four were inserted by another writer between the SELECT and the INSERT
+        when(availabilityBatchRepository.insertOpenNights(eq(1L), anyList())).thenReturn(2);
+
+        ProvisionResultDTO result = availabilityService.provisionAvailability(ProvisionAvailabilityDTO.builder()
+                .airbnbId(1L)
+                .ranges(List.of(new DateRangeDTO(from, to)))
+                .build());
+
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getSkipped()).isEqualTo(2);
+        // The calendar script leaves nights it already has alone, so all four can be sent
+        ArgumentCaptor<Map<Long, List<AvailabilityReadModel>>> written = ArgumentCaptor.forClass(Map.class);
+        verify(redisWriteRepository).backfillCalendarNights(written.capture());
+        assertThat(written.getValue().get(1L)).hasSize(4);
+        verify(redisWriteRepository, never()).writeAvailabilityModels(anyList());
+    }
+
+    @Test
+    void provisionAvailability_tooManyNights_shouldBeRejectedBeforeAnyQuery() {
+        when(airbnbRepository.existsById(1L)).thenReturn(true);
+
+        assertThatThrownBy(() -> availabilityService.provisionAvailability(ProvisionAvailabilityDTO.builder()
+                .airbnbId(1L)
+                .ranges(List.of(new DateRangeDTO(from, from.plusYears(5))))
+                .build()))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(availabilityRepository, availabilityBatchRepository, redisWriteRepository);
+    }
+
+    @Test
+    void provisionAvailability_hugeRange_shouldBeRejectedWithoutExpandingIt() {
+        when(airbnbRepository.existsById(1L)).thenReturn(true);
+        // Expanding this range night by night would allocate millions of dates
+        DateRangeDTO decades = new DateRangeDTO(LocalDate.of(2000, 1, 1), LocalDate.of(9999, 12, 31));
+
+        assertThatThrownBy(() -> availabilityService.provisionAvailability(ProvisionAvailabilityDTO.builder()
+                .airbnbId(1L)
+                .ranges(List.of(decades))
+                .build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("At most 1100 nights");
+        verifyNoInteractions(availabilityRepository, availabilityBatchRepository, redisWriteRepository);
+    }
+
+    // ─── Range check ─────────────────────────────────────────────
+
+    @Test
+    void checkRange_calendarHit_shouldNotTouchTheDatabase() {
+        when(redisReadRepository.getBlockedNights(1L, from, to)).thenReturn(Optional.of(List.of(LocalDate.of(2026, 3, 13))));
+
+        AvailabilityRangeDTO range = availabilityService.checkRange(1L, from, to);
+
+        assertThat(range.isAvailable()).isFalse();
+        assertThat(range.getBlockedNights()).containsExactly(LocalDate.of(2026, 3, 13));
+        verifyNoInteractions(availabilityRepository);
+    }
+
+    @Test
+    void checkRange_calendarMiss_shouldBlockEveryNightThatIsNotFreeInTheDatabase() {
+        when(redisReadRepository.getBlockedNights(1L, from, to)).thenReturn(Optional.empty());
+        when(availabilityRepository.findFreeDates(1L, from, to))
+                .thenReturn(List.of(LocalDate.of(2026, 3, 12), LocalDate.of(2026, 3, 14)));
+
+        AvailabilityRangeDTO range = availabilityService.checkRange(1L, from, to);
+
+        assertThat(range.isAvailable()).isFalse();
+        assertThat(range.getBlockedNights()).containsExactly(LocalDate.of(2026, 3, 13), LocalDate.of(2026, 3, 15));
+    }
+
+    @Test
+    void checkRange_endBeforeStart_shouldBeRejected() {
+        assertThatThrownBy(() -> availabilityService.checkRange(1L, to, from))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(redisReadRepository, never()).getBlockedNights(anyLong(), any(), any());
+    }
+
+    @Test
+    void checkRange_longerThanTheMaximum_shouldBeRejectedBeforeAnyLookup() {
+        ReflectionTestUtils.setField(availabilityService, "maxRangeNights", 3);
+
+        assertThatThrownBy(() -> availabilityService.checkRange(1L, from, from.plusDays(3)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("at most 3 nights");
+        verify(redisReadRepository, never()).getBlockedNights(anyLong(), any(), any());
+        verifyNoInteractions(availabilityRepository);
+    }
+
+    @Test
+    void checkRange_exactlyTheMaximum_shouldBeAnswered() {
+        ReflectionTestUtils.setField(availabilityService, "maxRangeNights", 3);
+        when(redisReadRepository.getBlockedNights(1L, from, from.plusDays(2))).thenReturn(Optional.of(List.of()));
+
+        assertThat(availabilityService.checkRange(1L, from, from.plusDays(2)).isAvailable()).isTrue();
+    }
+}
@@ -1,20 +1,26 @@
 package com.example.AirbnbDemo.services;
 
+import com.example.AirbnbDemo.dtos.BookingPageDTO;
 import com.example.AirbnbDemo.dtos.CreateBookingDTO;
+import com.example.AirbnbDemo.dtos.UpdateBookingRequest;
 import com.example.AirbnbDemo.exceptions.ResourceNotFoundException;
 import com.example.AirbnbDemo.models.*;
+import com.example.AirbnbDemo.models.readModels.BookingReadModel;
 import com.example.AirbnbDemo.repository.reads.RedisReadRepository;
 import com.example.AirbnbDemo.repository.writes.AirbnbRepository;
 import com.example.AirbnbDemo.repository.writes.BookingRepository;
 import com.example.AirbnbDemo.repository.writes.UserRepository;
+import com.example.AirbnbDemo.saga.BookingSagaPayload;
 import com.example.AirbnbDemo.saga.SagaEventPublisher;
 import com.example.AirbnbDemo.services.concurrency.ConcurrencyControlStrategy;
+import com.example.AirbnbDemo.services.handlers.BookingConfirmFastPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
 import java.util.*;
@@ -52,6 +58,9 @@ class BookingServiceTest {
     @Mock
     private SagaEventPublisher sagaEventPublisher;
 
+    @Mock
+    private BookingConfirmFastPath bookingConfirmFastPath;
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -195,4 +204,100 @@ class BookingServiceTest {
         assertThat(failureCount.get()).isEqualTo(threadCount - 1);
         verify(bookingRepository, times(1)).save(any(Booking.class));
     }
+
+    // ─────────────────────────────────────────────────────────────
+    // updateBooking — confirm fast path
+    // ─────────────────────────────────────────────────────────────
+
+    private UpdateBookingRequest stubPendingBookingForConfirm() {
+        UpdateBookingRequest request = UpdateBookingRequest.builder()
+                .id(7L)
+                .idempotencyKey("key-7")
+                .bookingStatus(BookingStatus.CONFIRMED)
+                .build();
+        BookingReadModel readModel = BookingReadModel.builder()
+                .id(7L)
+                .airbnbId(1L)
+                .userId(1L)
+                .bookingStatus(BookingStatus.PENDING.name())
+                .idempotencyKey("key-7")
+                .checkInDate(LocalDate.now().plusDays(1))
+                .checkOutDate(LocalDate.now().plusDays(4))
+                .build();
+        when(concurrencyControlStrategy.lockAndUpdateBooking(7L)).thenReturn("lock-7");
+        when(idempotencyService.findBookingByIdempotencyKey("key-7")).thenReturn(Optional.of(readModel));
+        ReflectionTestUtils.setField(bookingService, "confirmFastPath", true);
+        return request;
+    }
+
+    @Test
+    void updateBooking_fastPathSucceeds_shouldNotStartTheSaga() {
+        UpdateBookingRequest request = stubPendingBookingForConfirm();
+
+        assertThat(bookingService.updateBooking(request)).isEqualTo("Booking confirmed");
+
+        verify(bookingConfirmFastPath).confirm(any(BookingSagaPayload.class));
+        verifyNoInteractions(sagaEventPublisher);
+        verify(concurrencyControlStrategy).releaseUpdateBookingLock(7L, "lock-7");
+    }
+
+    @Test
+    void updateBooking_fastPathFails_shouldFallBackToTheSaga() {
+        UpdateBookingRequest request = stubPendingBookingForConfirm();
+        doThrow(new IllegalStateException("Airbnb is not available for the given dates"))
+                .when(bookingConfirmFastPath).confirm(any(BookingSagaPayload.class));
+
+        assertThat(bookingService.updateBooking(request)).isEqualTo("Booking is in progress...");
+
+        verify(sagaEventPublisher).publishEvent(eq("BOOKING_CONFIRM_REQUESTED"), eq("CONFIRM_BOOKING"), any(BookingSagaPayload.class));
+    }
+
+    // ─────────────────────────────────────────────────────────────
+    // getBookings — keyset pages
+    // ─────────────────────────────────────────────────────────────
+
+    private Booking booking(long id) {
+        Booking booking = Booking.builder()
+                .user(mockUser)
+                .airbnb(mockAirbnb)
+                .status(BookingStatus.CONFIRMED)
+                .checkInDate(LocalDate.now().plusDays(1))
+                .checkOutDate(LocalDate.now().plusDays(2))
+                .build();
+        booking.setId(id);
+        return booking;
+    }
+
+    @Test
+    void getBookings_shouldReadThePageFromTheIndexAndFillMissesFromTheDb() {
+        ReflectionTestUtils.setField(bookingService, "maxPageSize", 500);
+        when(redisReadRepository.getBookingIdsAfter(10L, 3)).thenReturn(Optional.of(List.of(11L, 12L, 13L)));
+        Map<Long, BookingReadModel> cached = new LinkedHashMap<>();
+        cached.put(11L, BookingReadModel.builder().id(11L).build());
+        cached.put(13L, BookingReadModel.builder().id(13L).build());
+        when(redisReadRepository.getBookingsByIds(List.of(11L, 12L, 13L))).thenReturn(cached);
+        when(bookingRepository.findAllById(List.of(12L))).thenReturn(List.of(booking(12L)));
+
+        BookingPageDTO page = bookingService.getBookings("10", 3);
+
+        assertThat(page.getBookings()).extracting(BookingReadModel::getId).containsExactly(11L, 12L, 13L);
+        assertThat(page.getNextCursor()).isEqualTo("13");
+    }
+
+    @Test
+    void getBookings_indexNotBuilt_shouldPageFromTheDb() {
+        ReflectionTestUtils.setField(bookingService, "maxPageSize", 500);
+        when(redisReadRepository.getBookingIdsAfter(0L, 2)).thenReturn(Optional.empty());
+        when(bookingRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenReturn(List.of(booking(1L)));
+
+        BookingPageDTO page = bookingService.getBookings(null, 2);
+
+        assertThat(page.getBookings()).extracting(BookingReadModel::getId).containsExactly(1L);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getBookings_malformedCursor_shouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> bookingService.getBookings("abc", 10));
+    }
 }
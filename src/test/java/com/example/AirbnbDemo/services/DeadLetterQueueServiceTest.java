@@ -0,0 +1,153 @@
+package com.example.AirbnbDemo.services;
+
+import com.example.AirbnbDemo.dlq.DeadLetterEvent;
+import com.example.AirbnbDemo.dlq.DeadLetterEventPublisher;
+import com.example.AirbnbDemo.saga.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadLetterQueueServiceTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ListOperations<String, String> listOperations;
+
+    @Mock
+    private SagaEventProcessor sagaEventProcessor;
+
+    @Mock
+    private DeadLetterEventPublisher deadLetterEventPublisher;
+
+    @Mock
+    private SagaRetryScheduler sagaRetryScheduler;
+
+    @Mock
+    private SagaParkedKeys sagaParkedKeys;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    private DeadLetterQueueService deadLetterQueueService;
+
+    @BeforeEach
+    void setUp() {
+        // The real retry processor, so a replay goes through the same back-off as a first delivery
+        RetryableSagaProcessor retryableSagaProcessor =
+                new RetryableSagaProcessor(sagaEventProcessor, deadLetterEventPublisher, sagaRetryScheduler, sagaParkedKeys);
+        lenient().when(sagaParkedKeys.admit(any())).thenReturn(SagaParkedKeys.Admission.FREE);
+        ReflectionTestUtils.setField(retryableSagaProcessor, "maxAttempts", 3);
+        ReflectionTestUtils.setField(retryableSagaProcessor, "retryDelayMs", 1000L);
+        deadLetterQueueService = new DeadLetterQueueService(
+                redisTemplate, objectMapper, retryableSagaProcessor, new SagaEventCodec(objectMapper));
+        lenient().when(redisTemplate.opsForList()).thenReturn(listOperations);
+    }
+
+    private String dlqEntry(long bookingId) {
+        SagaEvent event = SagaEvent.builder()
+                .sagaId("saga-" + bookingId)
+                .eventType("BOOKING_CONFIRMED")
+                .status(SagaStatus.PENDING)
+                .attempt(3)
+                .payload(BookingSagaPayload.of(bookingId, 7L, 3L, LocalDate.of(2026, 5, 1), LocalDate.of(2026, 5, 4)))
+                .build();
+        return objectMapper.writeValueAsString(DeadLetterEvent.builder()
+                .originalEvent(event)
+                .errorMessage("db down")
+                .attemptCount(3)
+                .failedAt(LocalDateTime.of(2026, 5, 1, 10, 0))
+                .build());
+    }
+
+    // ─── Replay ──────────────────────────────────────────────────
+
+    @Test
+    void replayOne_success_shouldNotScheduleAnything() {
+        when(listOperations.rightPop(DeadLetterEventPublisher.DLQ_QUEUE)).thenReturn(dlqEntry(42L));
+
+        assertThat(deadLetterQueueService.replayOne()).startsWith("Replayed successfully");
+
+        verify(sagaEventProcessor).processEvent(argThat(event -> event.getPayload().bookingId() == 42L));
+        verifyNoInteractions(sagaRetryScheduler, deadLetterEventPublisher);
+    }
+
+    @Test
+    void replayOne_attemptFails_shouldRetryWithBackOffFromAFreshBudget() {
+        when(listOperations.rightPop(DeadLetterEventPublisher.DLQ_QUEUE)).thenReturn(dlqEntry(42L));
+        doThrow(new RuntimeException("still down")).when(sagaEventProcessor).processEvent(any());
+
+        assertThat(deadLetterQueueService.replayOne()).contains("retrying with back-off");
+
+        // attempt 1 of 3 again, parked for the first back-off step rather than sent back to the DLQ
+        verify(sagaRetryScheduler).schedule(argThat(event -> event.getAttempt() == 1), eq(1000L));
+        verifyNoInteractions(deadLetterEventPublisher);
+    }
+
+    @Test
+    void replayAll_shouldCountRetryingSeparatelyFromUnreadableEntries() {
+        when(listOperations.size(DeadLetterEventPublisher.DLQ_QUEUE)).thenReturn(3L);
+        when(listOperations.rightPop(DeadLetterEventPublisher.DLQ_QUEUE))
+                .thenReturn(dlqEntry(1L), dlqEntry(2L), "not json");
+        // lenient: booking 1 calls the same method with an argument this stub does not match
+        lenient().doThrow(new RuntimeException("still down")).when(sagaEventProcessor)
+                .processEvent(argThat(event -> event.getPayload().bookingId() == 2L));
+
+        assertThat(deadLetterQueueService.replayAll())
+                .isEqualTo("Replay complete — success: 1, retrying: 1, failed: 1");
+        verify(sagaRetryScheduler).schedule(any(), eq(1000L));
+    }
+
+    // ─── Entries written before typed payloads ───────────────────
+
+    private static final String LEGACY_ENTRY = """
+            {"originalEvent":{"sagaId":"saga-9","eventType":"BOOKING_CONFIRMED","step":"CONFIRM_BOOKING",
+                              "payload":{"bookingId":"42","airbnbId":"7","userId":3,
+                                         "checkInDate":"2025-01-01","checkOutDate":"2025-01-05"},
+                              "timestamp":"2025-01-01T10:15:30","status":"PENDING"},
+             "errorMessage":"db down","attemptCount":3,"failedAt":"2025-01-01T10:15:45"}
+            """;
+
+    @Test
+    void listEvents_legacyEntry_shouldMapTheOldMapPayload() {
+        when(listOperations.size(DeadLetterEventPublisher.DLQ_QUEUE)).thenReturn(2L);
+        when(listOperations.range(DeadLetterEventPublisher.DLQ_QUEUE, 0, 1)).thenReturn(List.of(LEGACY_ENTRY, dlqEntry(5L)));
+
+        List<DeadLetterEvent> events = deadLetterQueueService.listEvents();
+
+        assertThat(events).hasSize(2);
+        DeadLetterEvent legacy = events.getFirst();
+        assertThat(legacy.getOriginalEvent().getSagaId()).isEqualTo("saga-9");
+        assertThat(legacy.getOriginalEvent().getPayload())
+                .isEqualTo(BookingSagaPayload.of(42L, 7L, 3L, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 5)));
+        assertThat(legacy.getAttemptCount()).isEqualTo(3);
+        assertThat(legacy.getFailedAt()).isEqualTo(LocalDateTime.of(2025, 1, 1, 10, 15, 45));
+        assertThat(events.get(1).getOriginalEvent().getPayload().bookingId()).isEqualTo(5L);
+    }
+
+    @Test
+    void replayOne_legacyEntry_shouldReplayTheTypedEvent() {
+        when(listOperations.rightPop(DeadLetterEventPublisher.DLQ_QUEUE)).thenReturn(LEGACY_ENTRY);
+
+        assertThat(deadLetterQueueService.replayOne()).startsWith("Replayed successfully");
+
+        verify(sagaEventProcessor).processEvent(argThat(event ->
+                event.getPayload().bookingId() == 42L && event.getPayload().lastNight().equals(LocalDate.of(2025, 1, 4))));
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.AirbnbDemo.services;
+
+import com.example.AirbnbDemo.dtos.AirbnbPageDTO;
+import com.example.AirbnbDemo.dtos.BookingPageDTO;
+import com.example.AirbnbDemo.models.User;
+import com.example.AirbnbDemo.models.readModels.AirbnbReadModel;
+import com.example.AirbnbDemo.models.readModels.BookingReadModel;
+import com.example.AirbnbDemo.repository.writes.UserRepository;
+import com.example.AirbnbDemo.services.export.ExportFormat;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+    @Mock
+    private IAirbnbService airbnbService;
+
+    @Mock
+    private IBookingService bookingService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ExportService exportService;
+
+    // Counts the flushes that reach the client
+    private static class ClientStream extends ByteArrayOutputStream {
+        int flushes;
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+
+        String body() {
+            return toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ExportService(airbnbService, bookingService, userRepository, entityManager,
+                transactionTemplate, JsonMapper.builder().build());
+        ReflectionTestUtils.setField(exportService, "pageSize", 2);
+        ReflectionTestUtils.setField(exportService, "flushEvery", 2);
+    }
+
+    private static AirbnbPageDTO airbnbPage(String nextCursor, long... ids) {
+        return AirbnbPageDTO.builder()
+                .airbnbs(IntStream.range(0, ids.length).mapToObj(i -> AirbnbReadModel.builder().id(ids[i]).name("a" + ids[i]).build()).toList())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private static User user(long id) {
+        User user = User.builder().name("u" + id).email("u" + id + "@example.com").build();
+        user.setId(id);
+        return user;
+    }
+
+    // ─── Paged exports ───────────────────────────────────────────
+
+    @Test
+    void exportAirbnbs_shouldFollowTheCursorAndStopAtTheLastPage() throws Exception {
+        when(airbnbService.getAirbnbs(null, 2)).thenReturn(airbnbPage("2", 1, 2));
+        when(airbnbService.getAirbnbs("2", 2)).thenReturn(airbnbPage(null, 3));
+        ClientStream out = new ClientStream();
+
+        exportService.exportAirbnbs(ExportFormat.NDJSON).writeTo(out);
+
+        assertThat(out.body().lines().toList()).hasSize(3);
+        assertThat(out.flushes).isEqualTo(2);
+        verify(airbnbService, times(2)).getAirbnbs(any(), anyInt());
+    }
+
+    @Test
+    void exportAirbnbs_emptyCollection_shouldWriteOnlyTheCsvHeader() throws Exception {
+        when(airbnbService.getAirbnbs(null, 2)).thenReturn(airbnbPage(null));
+        ClientStream out = new ClientStream();
+
+        exportService.exportAirbnbs(ExportFormat.CSV).writeTo(out);
+
+        assertThat(out.body().lines().toList()).containsExactly("id,name,description,location,pricePerNight,latitude,longitude");
+        verify(airbnbService, times(1)).getAirbnbs(any(), anyInt());
+    }
+
+    @Test
+    void exportBookings_shouldFollowTheCursorAndStopAtTheLastPage() throws Exception {
+        when(bookingService.getBookings(null, 2)).thenReturn(BookingPageDTO.builder()
+                .bookings(List.of(BookingReadModel.builder().id(1L).build(), BookingReadModel.builder().id(2L).build()))
+                .nextCursor("2").build());
+        when(bookingService.getBookings("2", 2)).thenReturn(BookingPageDTO.builder()
+                .bookings(List.of()).nextCursor(null).build());
+        ClientStream out = new ClientStream();
+
+        exportService.exportBookings(ExportFormat.NDJSON).writeTo(out);
+
+        assertThat(out.body().lines().toList()).hasSize(2);
+        verify(bookingService, times(2)).getBookings(any(), anyInt());
+    }
+
+    // ─── User stream ─────────────────────────────────────────────
+
+    @Test
+    void exportUsers_shouldWriteDetachAndFlushEveryNRowsInsideOneTransaction() throws Exception {
+        List<User> users = List.of(user(1), user(2), user(3), user(4), user(5));
+        AtomicBoolean closed = new AtomicBoolean();
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(userRepository.streamAll()).thenReturn(users.stream().onClose(() -> closed.set(true)));
+        ClientStream out = new ClientStream();
+
+        exportService.exportUsers(ExportFormat.CSV).writeTo(out);
+
+        assertThat(out.body().lines().toList())
+                .hasSize(6)
+                .startsWith("id,name,email", "1,u1,u1@example.com");
+        // after rows 2 and 4, then the tail
+        assertThat(out.flushes).isEqualTo(3);
+        users.forEach(user -> verify(entityManager).detach(user));
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void exportUsers_noUsers_shouldStillFlushTheHeader() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(userRepository.streamAll()).thenReturn(Stream.empty());
+        ClientStream out = new ClientStream();
+
+        exportService.exportUsers(ExportFormat.CSV).writeTo(out);
+
+        assertThat(out.body()).isEqualTo("id,name,email\r\n");
+        assertThat(out.flushes).isEqualTo(1);
+        verifyNoInteractions(entityManager);
+    }
+
+    // ─── Settings ────────────────────────────────────────────────
+
+    @Test
+    void checkSettings_zeroFlushEvery_shouldFailAtStartup() {
+        ReflectionTestUtils.setField(exportService, "flushEvery", 0);
+
+        assertThatThrownBy(() -> exportService.checkSettings())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("export.flush-every");
+    }
+
+    @Test
+    void checkSettings_zeroPageSize_shouldFailAtStartup() {
+        ReflectionTestUtils.setField(exportService, "pageSize", 0);
+
+        assertThatThrownBy(() -> exportService.checkSettings())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("export.page-size");
+    }
+
+    @Test
+    void checkSettings_positiveValues_shouldPass() {
+        assertThatCode(() -> exportService.checkSettings()).doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.AirbnbDemo.services;
+
+import com.example.AirbnbDemo.exceptions.SearchIndexUnavailableException;
+import com.example.AirbnbDemo.search.ListingSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchServiceTest {
+
+    @Mock
+    private ListingSearchIndex listingSearchIndex;
+
+    @InjectMocks
+    private SearchService searchService;
+
+    private final LocalDate from = LocalDate.of(2026, 5, 1);
+    private final LocalDate to = LocalDate.of(2026, 5, 3);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(searchService, "maxResults", 500);
+        ReflectionTestUtils.setField(searchService, "maxRadiusKm", 500.0);
+        ReflectionTestUtils.setField(searchService, "retryAfterMs", 5000L);
+    }
+
+    @Test
+    void searchListings_indexStillBuilding_shouldBeUnavailableWithARetryHint() {
+        when(listingSearchIndex.isReady()).thenReturn(false);
+
+        assertThatThrownBy(() -> searchService.searchListings("goa", from, to, null, 10))
+                .isInstanceOfSatisfying(SearchIndexUnavailableException.class,
+                        e -> assertThat(e.getRetryAfterMs()).isEqualTo(5000L));
+        verify(listingSearchIndex, never()).search(any(), any(), any(), any());
+    }
+
+    @Test
+    void searchNearby_indexStillBuilding_shouldBeUnavailable() {
+        when(listingSearchIndex.isReady()).thenReturn(false);
+
+        assertThatThrownBy(() -> searchService.searchNearby(15.5, 73.8, 10, null, null, null, 10, null))
+                .isInstanceOf(SearchIndexUnavailableException.class);
+    }
+
+    @Test
+    void searchListings_rangeEndBeforeStart_shouldBeRejectedBeforeTheReadinessCheck() {
+        assertThatThrownBy(() -> searchService.searchListings("goa", to, from, null, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(listingSearchIndex);
+    }
+}
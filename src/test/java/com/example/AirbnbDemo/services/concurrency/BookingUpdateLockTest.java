@@ -0,0 +1,67 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingUpdateLockTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private BookingUpdateLock updateLock;
+
+    @BeforeEach
+    void setUp() {
+        updateLock = new BookingUpdateLock(redisTemplate);
+        ReflectionTestUtils.setField(updateLock, "ttlSeconds", 10L);
+    }
+
+    @Test
+    void tryLock_free_shouldReturnTheValueItSet() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq("lock:booking:update:9"), anyString(), eq(Duration.ofSeconds(10)))).thenReturn(true);
+
+        String value = updateLock.tryLock(9L);
+
+        verify(valueOperations).setIfAbsent("lock:booking:update:9", value, Duration.ofSeconds(10));
+    }
+
+    @Test
+    void tryLock_held_shouldReturnNull() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq("lock:booking:update:9"), anyString(), any(Duration.class))).thenReturn(false);
+
+        assertThat(updateLock.tryLock(9L)).isNull();
+    }
+
+    @Test
+    void tryLock_noBookingId_shouldNotTouchRedis() {
+        assertThat(updateLock.tryLock(null)).isNull();
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void release_shouldDeleteOnlyThroughTheOwnerCheck() {
+        updateLock.release(9L, "v");
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("lock:booking:update:9")), eq("v"));
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import com.example.AirbnbDemo.exceptions.DatesUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InstrumentedConcurrencyControlStrategyTest {
+
+    @Mock
+    private ConcurrencyControlStrategy delegate;
+
+    @Mock
+    private LockMetrics lockMetrics;
+
+    private InstrumentedConcurrencyControlStrategy strategy;
+
+    private final LocalDate checkIn = LocalDate.of(2025, 1, 1);
+    private final LocalDate lastNight = LocalDate.of(2025, 1, 3);
+
+    @BeforeEach
+    void setUp() {
+        strategy = new InstrumentedConcurrencyControlStrategy(delegate, lockMetrics);
+    }
+
+    // ─── Outcomes ────────────────────────────────────────────────
+
+    @Test
+    void lockAndCheckAvailability_acquired_shouldStartTheHoldClock() {
+        when(delegate.lockAndCheckAvailability(7L, checkIn, lastNight, 1L)).thenReturn(List.of());
+
+        strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L);
+
+        verify(lockMetrics).record(eq("lockAndCheckAvailability"), eq("acquired"), anyLong());
+        verify(lockMetrics).recordAttempt(7L, false);
+        verify(lockMetrics).lockAcquired("7:2025-01-01:2025-01-03:1");
+    }
+
+    @Test
+    void lockAndCheckAvailability_lockTaken_shouldBeAConflict() {
+        IllegalStateException taken = new IllegalStateException("Failed to acquire booking");
+        when(delegate.lockAndCheckAvailability(7L, checkIn, lastNight, 1L)).thenThrow(taken);
+
+        assertThatThrownBy(() -> strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L)).isSameAs(taken);
+        verify(lockMetrics).record(eq("lockAndCheckAvailability"), eq("conflict"), anyLong());
+        verify(lockMetrics).recordAttempt(7L, true);
+        verify(lockMetrics, never()).lockAcquired(any());
+    }
+
+    @Test
+    void lockAndCheckAvailability_datesAlreadyBooked_shouldBeAConflictNotAnError() {
+        when(delegate.lockAndCheckAvailability(7L, checkIn, lastNight, 1L))
+                .thenThrow(new DatesUnavailableException("Airbnb is not available for the given dates"));
+
+        assertThatThrownBy(() -> strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L))
+                .isInstanceOf(DatesUnavailableException.class);
+        verify(lockMetrics).record(eq("lockAndCheckAvailability"), eq("conflict"), anyLong());
+        verify(lockMetrics).recordAttempt(7L, true);
+    }
+
+    @Test
+    void lockAndCheckAvailability_backendFailed_shouldBeAnError() {
+        when(delegate.lockAndCheckAvailability(7L, checkIn, lastNight, 1L)).thenThrow(new QueryTimeoutException("redis down"));
+
+        assertThatThrownBy(() -> strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L))
+                .isInstanceOf(QueryTimeoutException.class);
+        verify(lockMetrics).record(eq("lockAndCheckAvailability"), eq("error"), anyLong());
+        verify(lockMetrics).recordAttempt(7L, false);
+    }
+
+    @Test
+    void lockAndUpdateBooking_shouldTagByWhetherALockValueCameBack() {
+        when(delegate.lockAndUpdateBooking(1L)).thenReturn("v");
+        when(delegate.lockAndUpdateBooking(2L)).thenReturn(null);
+
+        assertThat(strategy.lockAndUpdateBooking(1L)).isEqualTo("v");
+        assertThat(strategy.lockAndUpdateBooking(2L)).isNull();
+
+        verify(lockMetrics).record(eq("lockAndUpdateBooking"), eq("acquired"), anyLong());
+        verify(lockMetrics).record(eq("lockAndUpdateBooking"), eq("conflict"), anyLong());
+    }
+
+    // ─── Release ─────────────────────────────────────────────────
+
+    @Test
+    void releaseBookingLock_shouldStopTheHoldClockOfTheSameLock() {
+        strategy.releaseBookingLock(7L, checkIn, lastNight, 1L);
+
+        verify(delegate).releaseBookingLock(7L, checkIn, lastNight, 1L);
+        verify(lockMetrics).record(eq("releaseBookingLock"), eq("released"), anyLong());
+        verify(lockMetrics).lockReleased("7:2025-01-01:2025-01-03:1");
+    }
+
+    @Test
+    void fencingToken_shouldPassThroughUntimed() {
+        when(delegate.fencingToken(7L, checkIn, lastNight, 1L)).thenReturn(42L);
+
+        assertThat(strategy.fencingToken(7L, checkIn, lastNight, 1L)).isEqualTo(42L);
+        verifyNoInteractions(lockMetrics);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaseWatchdogTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    private LeaseWatchdog watchdog;
+
+    @BeforeEach
+    void setUp() {
+        watchdog = new LeaseWatchdog(redisTemplate);
+        ReflectionTestUtils.setField(watchdog, "leaseTtlSeconds", 15L);
+        ReflectionTestUtils.setField(watchdog, "maxLeaseMinutes", 5L);
+    }
+
+    // ─── Fencing tokens ──────────────────────────────────────────
+
+    @Test
+    void fencingToken_shouldOnlyBeGivenToTheOwner() {
+        watchdog.watch("lock:a", "1", 42L);
+
+        assertThat(watchdog.fencingToken("lock:a", "1")).isEqualTo(42L);
+        assertThat(watchdog.fencingToken("lock:a", "2")).isNull();
+        assertThat(watchdog.fencingToken("lock:b", "1")).isNull();
+    }
+
+    // ─── Renewal ─────────────────────────────────────────────────
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void renewLeases_shouldRenewAllInOneCallAndDropReleasedOnes() {
+        watchdog.watch("lock:a", "1", 1L);
+        watchdog.watch("lock:b", "2", 2L);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenAnswer(inv -> {
+                    List<String> keys = inv.getArgument(1);
+                    return keys.stream().map(key -> key.equals("lock:a") ? 1L : 0L).toList();
+                });
+
+        watchdog.renewLeases();
+
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+        assertThat(watchdog.fencingToken("lock:a", "1")).isEqualTo(1L);
+        assertThat(watchdog.fencingToken("lock:b", "2")).isNull();
+    }
+
+    @Test
+    void renewLeases_pastMaximumLifetime_shouldStopRenewing() {
+        ReflectionTestUtils.setField(watchdog, "maxLeaseMinutes", 0L);
+        watchdog.watch("lock:a", "1", 1L);
+
+        watchdog.renewLeases();
+
+        verifyNoInteractions(redisTemplate);
+        assertThat(watchdog.fencingToken("lock:a", "1")).isNull();
+    }
+
+    @Test
+    void leaseValue_shouldCarryTheTokenAfterTheOwner() {
+        assertThat(LeaseWatchdog.leaseValue("7", 12L)).isEqualTo("7:12");
+    }
+}
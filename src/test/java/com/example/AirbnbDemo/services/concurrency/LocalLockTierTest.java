@@ -0,0 +1,100 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LocalLockTierTest {
+
+    private LocalLockTier tier;
+    private final AtomicInteger redisCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        tier = new LocalLockTier();
+        ReflectionTestUtils.setField(tier, "enabled", true);
+        ReflectionTestUtils.setField(tier, "stripeCount", 4);
+        ReflectionTestUtils.setField(tier, "waitMs", 0L);
+        ReflectionTestUtils.setField(tier, "rememberMs", 60_000L);
+        tier.init();
+    }
+
+    private boolean redis(boolean result) {
+        redisCalls.incrementAndGet();
+        return result;
+    }
+
+    // ─── Local memory ────────────────────────────────────────────
+
+    @Test
+    void tryAcquire_keyTakenOnThisNode_shouldRejectWithoutRedis() {
+        assertThat(tier.tryAcquire(7L, "lock:a", () -> redis(true))).isTrue();
+
+        assertThat(tier.tryAcquire(7L, "lock:a", () -> redis(true))).isFalse();
+        assertThat(redisCalls).hasValue(1);
+    }
+
+    @Test
+    void tryAcquire_redisRefused_shouldRememberTheKeyToo() {
+        assertThat(tier.tryAcquire(7L, "lock:a", () -> redis(false))).isFalse();
+
+        assertThat(tier.tryAcquire(7L, "lock:a", () -> redis(true))).isFalse();
+        assertThat(redisCalls).hasValue(1);
+    }
+
+    @Test
+    void forget_shouldSendTheNextContenderToRedis() {
+        tier.tryAcquire(7L, "lock:a", () -> redis(true));
+        tier.forget("lock:a");
+
+        assertThat(tier.tryAcquire(7L, "lock:a", () -> redis(true))).isTrue();
+        assertThat(redisCalls).hasValue(2);
+    }
+
+    @Test
+    void tryAcquire_otherRangeOfSameListing_shouldStillGoToRedis() {
+        tier.tryAcquire(7L, "lock:a", () -> redis(true));
+
+        assertThat(tier.tryAcquire(7L, "lock:b", () -> redis(true))).isTrue();
+    }
+
+    // ─── Stripes ─────────────────────────────────────────────────
+
+    @Test
+    void tryAcquire_stripeBusy_shouldRejectWithoutRedis() throws Exception {
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch leave = new CountDownLatch(1);
+        Thread holder = new Thread(() -> tier.tryAcquire(7L, "lock:a", () -> {
+            inside.countDown();
+            try {
+                leave.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        }));
+        holder.start();
+        inside.await();
+
+        assertThat(tier.tryAcquire(7L, "lock:b", () -> redis(true))).isFalse();
+        assertThat(tier.tryAcquire(8L, "lock:c", () -> redis(true))).isTrue();
+
+        leave.countDown();
+        holder.join();
+        assertThat(redisCalls).hasValue(1);
+    }
+
+    @Test
+    void tryAcquire_disabled_shouldAlwaysAskRedis() {
+        ReflectionTestUtils.setField(tier, "enabled", false);
+        tier.tryAcquire(7L, "lock:a", () -> redis(true));
+
+        assertThat(tier.tryAcquire(7L, "lock:a", () -> redis(false))).isFalse();
+        assertThat(redisCalls).hasValue(2);
+    }
+}
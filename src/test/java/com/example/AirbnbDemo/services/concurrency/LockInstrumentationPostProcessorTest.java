@@ -0,0 +1,53 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LockInstrumentationPostProcessorTest {
+
+    @Mock
+    private ObjectProvider<LockMetrics> lockMetricsProvider;
+
+    @Mock
+    private ConcurrencyControlStrategy strategy;
+
+    private LockInstrumentationPostProcessor postProcessor;
+
+    @BeforeEach
+    void setUp() {
+        postProcessor = new LockInstrumentationPostProcessor(lockMetricsProvider);
+    }
+
+    @Test
+    void postProcessAfterInitialization_strategy_shouldBeWrappedOnce() {
+        when(lockMetricsProvider.getObject()).thenReturn(new LockMetrics());
+
+        Object wrapped = postProcessor.postProcessAfterInitialization(strategy, "redisLockStrategy");
+
+        assertThat(wrapped).isInstanceOf(InstrumentedConcurrencyControlStrategy.class);
+        assertThat(postProcessor.postProcessAfterInitialization(wrapped, "redisLockStrategy")).isSameAs(wrapped);
+        verify(lockMetricsProvider, times(1)).getObject();
+    }
+
+    @Test
+    void postProcessAfterInitialization_otherBean_shouldBeLeftAlone() {
+        Object bean = new Object();
+
+        assertThat(postProcessor.postProcessAfterInitialization(bean, "other")).isSameAs(bean);
+        verifyNoInteractions(lockMetricsProvider);
+    }
+
+    @Test
+    void getOrder_shouldRunAfterTheTransactionProxy() {
+        assertThat(postProcessor.getOrder()).isEqualTo(Ordered.LOWEST_PRECEDENCE);
+    }
+}
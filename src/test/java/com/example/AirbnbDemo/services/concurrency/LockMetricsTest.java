@@ -0,0 +1,88 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import com.example.AirbnbDemo.dtos.HotListingDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LockMetricsTest {
+
+    private LockMetrics metrics;
+    private final long now = 1_000_000_000L;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new LockMetrics();
+        ReflectionTestUtils.setField(metrics, "windowSeconds", 60L);
+        ReflectionTestUtils.setField(metrics, "bucketSeconds", 10L);
+        ReflectionTestUtils.setField(metrics, "lockTtlMinutes", 5L);
+        metrics.init();
+    }
+
+    // ─── Hot listings ────────────────────────────────────────────
+
+    @Test
+    void hottest_shouldRankByConflictsThenAttempts() {
+        metrics.recordAttempt(1L, false, now);
+        metrics.recordAttempt(1L, false, now);
+        metrics.recordAttempt(1L, false, now);
+        metrics.recordAttempt(2L, true, now);
+        metrics.recordAttempt(2L, true, now);
+        metrics.recordAttempt(3L, true, now);
+        metrics.recordAttempt(3L, false, now - 20_000);
+
+        List<HotListingDTO> hot = metrics.hottest(2, now);
+
+        assertThat(hot).extracting(HotListingDTO::getAirbnbId).containsExactly(2L, 3L);
+        assertThat(hot.get(1).getAttempts()).isEqualTo(2);
+        assertThat(hot.get(1).getConflicts()).isEqualTo(1);
+    }
+
+    @Test
+    void hottest_shouldForgetAttemptsOlderThanTheWindow() {
+        metrics.recordAttempt(1L, true, now - 120_000);
+        metrics.recordAttempt(2L, true, now);
+
+        assertThat(metrics.hottest(10, now)).extracting(HotListingDTO::getAirbnbId).containsExactly(2L);
+    }
+
+    @Test
+    void recordAttempt_reusedBucketSlot_shouldStartFromZero() {
+        metrics.recordAttempt(1L, true, now);
+        // Same ring slot, one full window later
+        metrics.recordAttempt(1L, false, now + 60_000);
+
+        List<HotListingDTO> hot = metrics.hottest(10, now + 60_000);
+        assertThat(hot).hasSize(1);
+        assertThat(hot.get(0).getConflicts()).isZero();
+    }
+
+    // ─── Timers and hold time ────────────────────────────────────
+
+    @Test
+    void record_shouldKeepOneTimerPerOperationAndOutcome() {
+        metrics.record("lockAndCheckAvailability", "acquired", 2_000_000);
+        metrics.record("lockAndCheckAvailability", "acquired", 4_000_000);
+        metrics.record("lockAndCheckAvailability", "conflict", 1_000_000);
+
+        assertThat(metrics.timers()).containsOnlyKeys("lockAndCheckAvailability.acquired", "lockAndCheckAvailability.conflict");
+        assertThat(metrics.timers().get("lockAndCheckAvailability.acquired").getMeanMs()).isEqualTo(3.0);
+        assertThat(metrics.timers().get("lockAndCheckAvailability.acquired").getMaxMs()).isEqualTo(4.0);
+    }
+
+    @Test
+    void lockReleased_shouldOnlyCountLocksAcquiredHere() {
+        metrics.lockAcquired("7:2025-01-01:2025-01-03:1");
+        assertThat(metrics.heldNow()).isEqualTo(1);
+
+        metrics.lockReleased("7:2025-01-01:2025-01-03:1");
+        metrics.lockReleased("8:2025-01-01:2025-01-03:1");
+
+        assertThat(metrics.heldNow()).isZero();
+        assertThat(metrics.holdTime().getCount()).isEqualTo(1);
+    }
+}
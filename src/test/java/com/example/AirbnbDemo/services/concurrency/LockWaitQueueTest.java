@@ -0,0 +1,149 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import com.example.AirbnbDemo.exceptions.LockBusyException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LockWaitQueueTest {
+
+    // The listing's queue as Redis would hold it: ticket ids, head first
+    private final LinkedList<String> tickets = new LinkedList<>();
+
+    private RedisTemplate<String, String> redisTemplate;
+    private LockWaitQueue queue;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // Plays the three scripts against the list above; leaving the head wakes the next waiter like the subscription
+        redisTemplate = mock(RedisTemplate.class, invocation -> {
+            if (!invocation.getMethod().getName().equals("execute")) return null;
+            RedisScript<?> script = invocation.getArgument(0);
+            String ticket = invocation.getArgument(2);
+            synchronized (tickets) {
+                if (script == LockWaitQueue.ENQUEUE_REDIS_SCRIPT) {
+                    tickets.add(ticket);
+                    return 1L;
+                }
+                if (script == LockWaitQueue.TURN_REDIS_SCRIPT) {
+                    return ticket.equals(tickets.peekFirst()) ? 1L : 0L;
+                }
+                boolean head = ticket.equals(tickets.peekFirst());
+                tickets.remove(ticket);
+                if (head && !tickets.isEmpty()) queue.wake(7L);
+                return 1L;
+            }
+        });
+        queue = new LockWaitQueue(redisTemplate, null);
+        ReflectionTestUtils.setField(queue, "enabled", true);
+        ReflectionTestUtils.setField(queue, "maxWaitMs", 10_000L);
+        ReflectionTestUtils.setField(queue, "pollMs", 10_000L);
+        ReflectionTestUtils.setField(queue, "turnMs", 1_000L);
+    }
+
+    private int queued() {
+        synchronized (tickets) {
+            return tickets.size();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("condition not reached");
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ─── Order ───────────────────────────────────────────────────
+
+    @Test
+    void inTurn_contenders_shouldRunTheirStepsInArrivalOrderWokenByTheHandover() throws Exception {
+        List<Integer> served = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch allQueued = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        long started = System.currentTimeMillis();
+        try {
+            List<Future<Object>> contenders = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                int contender = i;
+                contenders.add(pool.submit(() -> queue.inTurn(7L, () -> {
+                    if (contender == 0) await(allQueued);
+                    served.add(contender);
+                    return null;
+                })));
+                // The next contender arrives only once this one holds its place
+                waitUntil(() -> queued() == contender + 1);
+            }
+            allQueued.countDown();
+            for (Future<Object> contender : contenders) contender.get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(served).containsExactly(0, 1, 2);
+        assertThat(tickets).isEmpty();
+        // Polling is 10 s: only the wake-up on leaving the head can have moved the waiters this fast
+        assertThat(System.currentTimeMillis() - started).isLessThan(5_000);
+    }
+
+    // ─── Bound ───────────────────────────────────────────────────
+
+    @Test
+    void inTurn_maxWaitPassed_shouldGiveUpWithoutRunningTheStepAndLeaveTheQueue() {
+        ReflectionTestUtils.setField(queue, "maxWaitMs", 200L);
+        ReflectionTestUtils.setField(queue, "pollMs", 50L);
+        tickets.add("stuck-head");
+        List<String> ran = new ArrayList<>();
+
+        long started = System.currentTimeMillis();
+        assertThatThrownBy(() -> queue.inTurn(7L, () -> ran.add("step")))
+                .isInstanceOfSatisfying(LockBusyException.class, e -> assertThat(e.getRetryAfterMs()).isEqualTo(200L));
+
+        assertThat(System.currentTimeMillis() - started).isGreaterThanOrEqualTo(200);
+        assertThat(ran).isEmpty();
+        assertThat(tickets).containsExactly("stuck-head");
+    }
+
+    @Test
+    void inTurn_stepFails_shouldStillHandTheTurnOver() {
+        assertThatThrownBy(() -> queue.inTurn(7L, () -> {
+            throw new IllegalStateException("boom");
+        })).hasMessage("boom");
+
+        assertThat(tickets).isEmpty();
+    }
+
+    @Test
+    void inTurn_disabled_shouldRunTheStepWithoutRedis() {
+        ReflectionTestUtils.setField(queue, "enabled", false);
+
+        assertThat(queue.inTurn(7L, () -> "done")).isEqualTo("done");
+        verifyNoInteractions(redisTemplate);
+    }
+}
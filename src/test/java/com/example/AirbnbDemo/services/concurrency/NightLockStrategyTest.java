@@ -0,0 +1,98 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import com.example.AirbnbDemo.repository.writes.AvailabilityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NightLockStrategyTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private AvailabilityRepository availabilityRepository;
+
+    private NightLockStrategy strategy;
+
+    private final LocalDate checkIn = LocalDate.of(2025, 1, 1);
+    private final LocalDate lastNight = LocalDate.of(2025, 1, 3);
+
+    @BeforeEach
+    void setUp() {
+        strategy = new NightLockStrategy(redisTemplate, availabilityRepository, new LocalLockTier(), new LeaseWatchdog(redisTemplate), new LockWaitQueue(redisTemplate, null),
+                new BookingUpdateLock(redisTemplate));
+        ReflectionTestUtils.setField(strategy, "lockTtlMinutes", 5L);
+    }
+
+    // ─── Keys ────────────────────────────────────────────────────
+
+    @Test
+    void nightKeys_shouldHaveOneHashTaggedKeyPerNight() {
+        assertThat(NightLockStrategy.nightKeys(7L, checkIn, lastNight)).containsExactly(
+                "lock:night:{7}:" + checkIn.toEpochDay(),
+                "lock:night:{7}:" + (checkIn.toEpochDay() + 1),
+                "lock:night:{7}:" + lastNight.toEpochDay());
+    }
+
+    @Test
+    void nightKeys_overlappingStays_shouldShareOnlyTheCommonNights() {
+        List<String> first = NightLockStrategy.nightKeys(7L, checkIn, lastNight);
+        List<String> overlapping = NightLockStrategy.nightKeys(7L, lastNight, lastNight.plusDays(2));
+        List<String> disjoint = NightLockStrategy.nightKeys(7L, lastNight.plusDays(1), lastNight.plusDays(3));
+
+        assertThat(first).containsAnyElementsOf(overlapping);
+        assertThat(Collections.disjoint(first, disjoint)).isTrue();
+    }
+
+    // ─── Acquire ─────────────────────────────────────────────────
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void lockAndCheckAvailability_allNightsFree_shouldLockInOneScriptCall() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(0L);
+        when(availabilityRepository.countByAirbnbIdAndDateBetweenAndBookingIsNotNull(7L, checkIn, lastNight)).thenReturn(0L);
+        when(availabilityRepository.findByAirbnbIdAndDateBetween(7L, checkIn, lastNight)).thenReturn(List.of());
+
+        strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L);
+
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class),
+                eq(NightLockStrategy.nightKeys(7L, checkIn, lastNight)), eq("1"), eq("300000"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void lockAndCheckAvailability_nightTaken_shouldThrowNamingTheNight() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(2L);
+
+        assertThatThrownBy(() -> strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("2025-01-02");
+        verifyNoInteractions(availabilityRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void lockAndCheckAvailability_alreadyBookedInDb_shouldGiveTheNightsBack() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(0L);
+        when(availabilityRepository.countByAirbnbIdAndDateBetweenAndBookingIsNotNull(7L, checkIn, lastNight)).thenReturn(1L);
+
+        assertThatThrownBy(() -> strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L))
+                .isInstanceOf(RuntimeException.class);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(NightLockStrategy.nightKeys(7L, checkIn, lastNight)), eq("1"));
+    }
+}
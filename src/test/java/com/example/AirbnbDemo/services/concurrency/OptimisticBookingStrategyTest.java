@@ -0,0 +1,111 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import com.example.AirbnbDemo.repository.writes.AvailabilityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OptimisticBookingStrategyTest {
+
+    @Mock
+    private BookingUpdateLock bookingUpdateLock;
+
+    @Mock
+    private AvailabilityRepository availabilityRepository;
+
+    private OptimisticBookingStrategy strategy;
+
+    private final LocalDate checkIn = LocalDate.of(2025, 1, 1);
+    private final LocalDate lastNight = LocalDate.of(2025, 1, 3);
+
+    @BeforeEach
+    void setUp() {
+        strategy = new OptimisticBookingStrategy(availabilityRepository, bookingUpdateLock);
+        ReflectionTestUtils.setField(strategy, "lockTtlMinutes", 5L);
+    }
+
+    // ─── Conditional claim ───────────────────────────────────────
+
+    @Test
+    void lockAndCheckAvailability_everyNightClaimed_shouldHoldThemWithoutRedis() {
+        when(availabilityRepository.holdFreeNights(eq(7L), eq(checkIn), eq(lastNight), eq(1L), any(), any())).thenReturn(3);
+
+        assertThat(strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L)).isEmpty();
+
+        ArgumentCaptor<LocalDateTime> heldUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(availabilityRepository).holdFreeNights(eq(7L), eq(checkIn), eq(lastNight), eq(1L), heldUntil.capture(), now.capture());
+        assertThat(heldUntil.getValue()).isEqualTo(now.getValue().plusMinutes(5));
+        verifyNoInteractions(bookingUpdateLock);
+        verifyNoMoreInteractions(availabilityRepository);
+    }
+
+    @Test
+    void lockAndCheckAvailability_shortCount_shouldFailSoTheTransactionRollsThePartialClaimBack() {
+        when(availabilityRepository.holdFreeNights(eq(7L), eq(checkIn), eq(lastNight), eq(1L), any(), any())).thenReturn(2);
+
+        assertThatThrownBy(() -> strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Please try again");
+        // Nothing to give back by hand: the exception rolls the two claimed rows back
+        verify(availabilityRepository, never()).releaseHeldNights(any(), any(), any(), any());
+        verifyNoInteractions(bookingUpdateLock);
+    }
+
+    @Test
+    void lockAndCheckAvailability_retryAfterAConflict_shouldClaimOnceTheNightsAreFreeAndGiveUpWhileTheyAreNot() {
+        // taken, still taken, then the competing hold is gone
+        when(availabilityRepository.holdFreeNights(eq(7L), eq(checkIn), eq(lastNight), eq(1L), any(), any()))
+                .thenReturn(1, 1, 3);
+
+        assertThatThrownBy(() -> strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatCode(() -> strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L)).doesNotThrowAnyException();
+
+        verify(availabilityRepository, times(3)).holdFreeNights(eq(7L), eq(checkIn), eq(lastNight), eq(1L), any(), any());
+    }
+
+    @Test
+    void lockAndCheckAvailability_singleNight_shouldExpectOneRow() {
+        when(availabilityRepository.holdFreeNights(eq(7L), eq(checkIn), eq(checkIn), eq(1L), any(), any())).thenReturn(1);
+
+        assertThatCode(() -> strategy.lockAndCheckAvailability(7L, checkIn, checkIn, 1L)).doesNotThrowAnyException();
+    }
+
+    // ─── Release ─────────────────────────────────────────────────
+
+    @Test
+    void releaseBookingLock_shouldClearOnlyThisUsersHolds() {
+        strategy.releaseBookingLock(7L, checkIn, lastNight, 1L);
+
+        verify(availabilityRepository).releaseHeldNights(7L, checkIn, lastNight, 1L);
+        verifyNoInteractions(bookingUpdateLock);
+    }
+
+    // ─── Update lock ─────────────────────────────────────────────
+
+    @Test
+    void lockAndUpdateBooking_shouldUseTheSharedUpdateLock() {
+        when(bookingUpdateLock.tryLock(9L)).thenReturn("v");
+
+        assertThat(strategy.lockAndUpdateBooking(9L)).isEqualTo("v");
+        strategy.releaseUpdateBookingLock(9L, "v");
+
+        verify(bookingUpdateLock).release(9L, "v");
+        verifyNoInteractions(availabilityRepository);
+    }
+}
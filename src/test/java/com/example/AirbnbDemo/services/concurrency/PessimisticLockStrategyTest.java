@@ -0,0 +1,84 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import com.example.AirbnbDemo.models.Availability;
+import com.example.AirbnbDemo.repository.writes.AvailabilityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PessimisticLockStrategyTest {
+
+    @Mock
+    private BookingUpdateLock bookingUpdateLock;
+
+    @Mock
+    private AvailabilityRepository availabilityRepository;
+
+    private PessimisticLockStrategy strategy;
+
+    private final LocalDate checkIn = LocalDate.of(2025, 1, 1);
+    private final LocalDate lastNight = LocalDate.of(2025, 1, 3);
+
+    @BeforeEach
+    void setUp() {
+        strategy = new PessimisticLockStrategy(availabilityRepository, bookingUpdateLock);
+        ReflectionTestUtils.setField(strategy, "lockTtlMinutes", 5L);
+    }
+
+    private List<Availability> nights(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> Availability.builder().date(checkIn.plusDays(i)).build())
+                .toList();
+    }
+
+    // ─── SKIP LOCKED ─────────────────────────────────────────────
+
+    @Test
+    void lockAndCheckAvailability_allNightsLocked_shouldHoldThemForTheUser() {
+        List<Availability> locked = nights(3);
+        when(availabilityRepository.lockFreeNightsSkipLocked(eq(7L), eq(checkIn), eq(lastNight), any())).thenReturn(locked);
+
+        List<Availability> result = strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L);
+
+        assertThat(result).isSameAs(locked);
+        assertThat(result).allSatisfy(night -> {
+            assertThat(night.getHeldBy()).isEqualTo(1L);
+            assertThat(night.getHeldUntil()).isNotNull();
+        });
+        verifyNoInteractions(bookingUpdateLock);
+    }
+
+    @Test
+    void lockAndCheckAvailability_nightSkipped_shouldFailFast() {
+        when(availabilityRepository.lockFreeNightsSkipLocked(eq(7L), eq(checkIn), eq(lastNight), any())).thenReturn(nights(2));
+
+        assertThatThrownBy(() -> strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    // ─── NOWAIT ──────────────────────────────────────────────────
+
+    @Test
+    void lockAndCheckAvailability_nowaitLockError_shouldFailFast() {
+        ReflectionTestUtils.setField(strategy, "nowait", true);
+        when(availabilityRepository.lockFreeNightsNoWait(eq(7L), eq(checkIn), eq(lastNight), any()))
+                .thenThrow(new CannotAcquireLockException("NOWAIT is set"));
+
+        assertThatThrownBy(() -> strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L))
+                .isInstanceOf(IllegalStateException.class);
+        verify(availabilityRepository, never()).lockFreeNightsSkipLocked(any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.AirbnbDemo.services.concurrency;
+
+import com.example.AirbnbDemo.exceptions.LockBusyException;
+import com.example.AirbnbDemo.repository.writes.AvailabilityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisLockStrategyTest {
+
+    private static final String LOCK_KEY = "lock:availability:7:2025-01-01:2025-01-03";
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private AvailabilityRepository availabilityRepository;
+
+    private LeaseWatchdog leaseWatchdog;
+    private RedisLockStrategy strategy;
+
+    private final LocalDate checkIn = LocalDate.of(2025, 1, 1);
+    private final LocalDate lastNight = LocalDate.of(2025, 1, 3);
+
+    @BeforeEach
+    void setUp() {
+        leaseWatchdog = new LeaseWatchdog(redisTemplate);
+        ReflectionTestUtils.setField(leaseWatchdog, "leaseTtlSeconds", 15L);
+        ReflectionTestUtils.setField(leaseWatchdog, "maxLeaseMinutes", 5L);
+        strategy = new RedisLockStrategy(redisTemplate, availabilityRepository, new LocalLockTier(), leaseWatchdog, new LockWaitQueue(redisTemplate, null),
+                new BookingUpdateLock(redisTemplate));
+        ReflectionTestUtils.setField(strategy, "lockTtlMinutes", 5L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void acquireReturns(Long token) {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(LOCK_KEY, "lock:fence:7")), eq("1"), eq("15000")))
+                .thenReturn(token);
+    }
+
+    // ─── Acquire and stamp ───────────────────────────────────────
+
+    @Test
+    void lockAndCheckAvailability_granted_shouldWatchTheLeaseAndStampItsTokenOnTheLockKey() {
+        acquireReturns(42L);
+        when(availabilityRepository.countByAirbnbIdAndDateBetweenAndBookingIsNotNull(7L, checkIn, lastNight)).thenReturn(0L);
+
+        strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L);
+
+        verify(availabilityRepository).stampLockFence(7L, checkIn, lastNight, 42L);
+        verify(availabilityRepository).findByAirbnbIdAndDateBetween(7L, checkIn, lastNight);
+        assertThat(strategy.fencingToken(7L, checkIn, lastNight, 1L)).isEqualTo(42L);
+        // Another user, or another range of the same listing, has no token from this lock
+        assertThat(strategy.fencingToken(7L, checkIn, lastNight, 2L)).isNull();
+        assertThat(strategy.fencingToken(7L, checkIn, lastNight.plusDays(1), 1L)).isNull();
+    }
+
+    @Test
+    void lockAndCheckAvailability_heldByAnother_shouldFailAtOnceWithTheHoldersRemainingLease() {
+        acquireReturns(-4_200L);
+
+        assertThatThrownBy(() -> strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L))
+                .isInstanceOfSatisfying(LockBusyException.class, e -> assertThat(e.getRetryAfterMs()).isEqualTo(4_200L))
+                .hasMessageContaining("Failed to acquire booking");
+        verifyNoInteractions(availabilityRepository);
+        assertThat(strategy.fencingToken(7L, checkIn, lastNight, 1L)).isNull();
+    }
+
+    @Test
+    void lockAndCheckAvailability_turnedAwayLocally_shouldHintAFullLease() {
+        LocalLockTier localLockTier = new LocalLockTier();
+        ReflectionTestUtils.setField(localLockTier, "enabled", true);
+        ReflectionTestUtils.setField(localLockTier, "stripeCount", 4);
+        ReflectionTestUtils.setField(localLockTier, "waitMs", 50L);
+        ReflectionTestUtils.setField(localLockTier, "rememberMs", 60_000L);
+        localLockTier.init();
+        strategy = new RedisLockStrategy(redisTemplate, availabilityRepository, localLockTier, leaseWatchdog, new LockWaitQueue(redisTemplate, null),
+                new BookingUpdateLock(redisTemplate));
+        acquireReturns(-4_200L);
+        assertThatThrownBy(() -> strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L)).isInstanceOf(LockBusyException.class);
+
+        // Remembered as taken: the second contender never reaches Redis
+        assertThatThrownBy(() -> strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L))
+                .isInstanceOfSatisfying(LockBusyException.class, e -> assertThat(e.getRetryAfterMs()).isEqualTo(15_000L));
+    }
+
+    @Test
+    void lockAndCheckAvailability_waitMode_shouldAcquireAndCheckInsideTheListingsTurn() {
+        LockWaitQueue lockWaitQueue = mock(LockWaitQueue.class);
+        when(lockWaitQueue.inTurn(eq(7L), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        strategy = new RedisLockStrategy(redisTemplate, availabilityRepository, new LocalLockTier(), leaseWatchdog, lockWaitQueue,
+                new BookingUpdateLock(redisTemplate));
+        acquireReturns(42L);
+        when(availabilityRepository.countByAirbnbIdAndDateBetweenAndBookingIsNotNull(7L, checkIn, lastNight)).thenReturn(0L);
+
+        strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L);
+
+        verify(lockWaitQueue).inTurn(eq(7L), any());
+        verify(availabilityRepository).stampLockFence(7L, checkIn, lastNight, 42L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void lockAndCheckAvailability_datesBooked_shouldGiveTheLeaseBackWithoutStamping() {
+        acquireReturns(42L);
+        when(availabilityRepository.countByAirbnbIdAndDateBetweenAndBookingIsNotNull(7L, checkIn, lastNight)).thenReturn(1L);
+
+        assertThatThrownBy(() -> strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L))
+                .hasMessageContaining("not available");
+        verify(availabilityRepository, never()).stampLockFence(any(), any(), any(), anyLong());
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(LOCK_KEY)), eq("1"));
+        assertThat(strategy.fencingToken(7L, checkIn, lastNight, 1L)).isNull();
+    }
+
+    // ─── Release ─────────────────────────────────────────────────
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void releaseBookingLock_shouldReleaseByOwnerAndStopRenewing() {
+        acquireReturns(42L);
+        when(availabilityRepository.countByAirbnbIdAndDateBetweenAndBookingIsNotNull(7L, checkIn, lastNight)).thenReturn(0L);
+        strategy.lockAndCheckAvailability(7L, checkIn, lastNight, 1L);
+
+        strategy.releaseBookingLock(7L, checkIn, lastNight, 1L);
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(LOCK_KEY)), eq("1"));
+        assertThat(strategy.fencingToken(7L, checkIn, lastNight, 1L)).isNull();
+    }
+
+    // ─── Fenced confirm ──────────────────────────────────────────
+
+    private static String query(String method) {
+        return Arrays.stream(AvailabilityRepository.class.getMethods())
+                .filter(m -> m.getName().equals(method))
+                .findFirst().orElseThrow()
+                .getAnnotation(Query.class).value();
+    }
+
+    @Test
+    void stampLockFence_shouldOnlyRaiseTheRowOfItsOwnLockKey() {
+        String stamp = query("stampLockFence");
+
+        assertThat(stamp).contains("INSERT INTO lock_fences (airbnb_id, check_in, last_night, fence")
+                .contains("fence = GREATEST(fence, VALUES(fence))")
+                .doesNotContain("UPDATE availabilities");
+    }
+
+    @Test
+    void fencedConfirm_shouldCompareOnlyWithTokensOfTheSameLockKey() {
+        String confirm = query("updateBookingIdByAirbnbIdAndDateBetween");
+
+        // Same listing, check-in and last night as the confirmed range — an overlapping lock never matches
+        assertThat(confirm).contains("NOT EXISTS (SELECT 1 FROM lock_fences f WHERE f.airbnb_id = :airbnbId " +
+                "AND f.check_in = :startDate AND f.last_night = :endDate AND f.fence > b.lock_fence)")
+                .doesNotContain("a.lock_fence");
+    }
+}
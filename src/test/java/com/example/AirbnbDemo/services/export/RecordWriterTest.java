@@ -0,0 +1,60 @@
+package com.example.AirbnbDemo.services.export;
+
+import com.example.AirbnbDemo.dtos.UserDTO;
+import com.example.AirbnbDemo.services.export.RecordWriter.Column;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RecordWriterTest {
+
+    private static final List<Column<UserDTO>> COLUMNS = List.of(
+            new Column<>("id", UserDTO::getId),
+            new Column<>("name", UserDTO::getName));
+
+    private String write(ExportFormat format, UserDTO... users) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RecordWriter<UserDTO> writer = new RecordWriter<>(out, format, JsonMapper.builder().build(), COLUMNS);
+        for (UserDTO user : users) writer.write(user);
+        writer.flush();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    // ─── Formats ─────────────────────────────────────────────────
+
+    @Test
+    void ndjson_shouldWriteOneDocumentPerLine() throws Exception {
+        String body = write(ExportFormat.NDJSON,
+                UserDTO.builder().id(1L).name("Ann").build(),
+                UserDTO.builder().id(2L).name("Bo").build());
+
+        assertThat(body.lines().toList()).hasSize(2);
+        assertThat(body.lines().findFirst().orElseThrow()).contains("\"id\":1").contains("\"name\":\"Ann\"");
+    }
+
+    @Test
+    void csv_shouldWriteTheHeaderThenOneRowPerRecord() throws Exception {
+        String body = write(ExportFormat.CSV,
+                UserDTO.builder().id(1L).name("Doe, \"Jo\"").build(),
+                UserDTO.builder().id(2L).build());
+
+        assertThat(body).isEqualTo("id,name\r\n1,\"Doe, \"\"Jo\"\"\"\r\n2,\r\n");
+    }
+
+    @Test
+    void csvField_formulaLikeText_shouldBePrefixedButNumbersNot() {
+        assertThat(RecordWriter.csvField("=SUM(A1)")).isEqualTo("'=SUM(A1)");
+        assertThat(RecordWriter.csvField(-5L)).isEqualTo("-5");
+    }
+
+    @Test
+    void parse_unknownFormat_shouldThrowIllegalArgumentException() {
+        assertThat(ExportFormat.parse(" CSV ")).isEqualTo(ExportFormat.CSV);
+        assertThatThrownBy(() -> ExportFormat.parse("xml")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
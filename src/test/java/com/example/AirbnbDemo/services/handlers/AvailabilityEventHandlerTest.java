@@ -0,0 +1,145 @@
+package com.example.AirbnbDemo.services.handlers;
+
+import com.example.AirbnbDemo.exceptions.SagaAlreadyCompensatedException;
+import com.example.AirbnbDemo.models.BookingStatus;
+import com.example.AirbnbDemo.repository.writes.AvailabilityRepository;
+import com.example.AirbnbDemo.repository.writes.BookingRepository;
+import com.example.AirbnbDemo.saga.BookingSagaPayload;
+import com.example.AirbnbDemo.saga.SagaEvent;
+import com.example.AirbnbDemo.saga.SagaEventPublisher;
+import com.example.AirbnbDemo.services.concurrency.ConcurrencyControlStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityEventHandlerTest {
+
+    @Mock
+    private AvailabilityRepository availabilityRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private SagaEventPublisher sagaEventPublisher;
+
+    @Mock
+    private ConcurrencyControlStrategy concurrencyControlStrategy;
+
+    private AvailabilityEventHandler handler;
+
+    private final LocalDate checkIn = LocalDate.of(2026, 5, 1);
+    private final LocalDate lastNight = LocalDate.of(2026, 5, 3);
+    private final BookingSagaPayload payload = BookingSagaPayload.of(42L, 7L, 3L, checkIn, LocalDate.of(2026, 5, 4));
+    private final SagaEvent event = SagaEvent.builder()
+            .sagaId("saga-1")
+            .eventType("BOOKING_CONFIRMED")
+            .payload(payload)
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        handler = new AvailabilityEventHandler(availabilityRepository, bookingRepository, sagaEventPublisher, concurrencyControlStrategy);
+        lenient().when(bookingRepository.findStatusById(42L)).thenReturn(Optional.of(BookingStatus.CONFIRMED));
+        lenient().when(availabilityRepository.countByAirbnbIdAndDateBetweenAndBookingIsNotNull(7L, checkIn, lastNight)).thenReturn(0L);
+    }
+
+    // ─── Confirm ─────────────────────────────────────────────────
+
+    @Test
+    void handleBookingConfirmed_everyNightConfirmed_shouldReleaseTheLock() {
+        when(availabilityRepository.updateBookingIdByAirbnbIdAndDateBetween(42L, 7L, checkIn, lastNight)).thenReturn(3);
+
+        handler.handleBookingConfirmed(event);
+
+        verify(concurrencyControlStrategy).releaseBookingLock(7L, checkIn, lastNight, 3L);
+        verifyNoInteractions(sagaEventPublisher);
+    }
+
+    @Test
+    void handleBookingConfirmed_nightsNotProvisioned_shouldStillConfirmTheOnesThatExist() {
+        when(availabilityRepository.updateBookingIdByAirbnbIdAndDateBetween(42L, 7L, checkIn, lastNight)).thenReturn(2);
+        when(availabilityRepository.countByAirbnbIdAndDateBetween(7L, checkIn, lastNight)).thenReturn(2L);
+
+        handler.handleBookingConfirmed(event);
+
+        verify(concurrencyControlStrategy).releaseBookingLock(7L, checkIn, lastNight, 3L);
+        verifyNoInteractions(sagaEventPublisher);
+    }
+
+    // ─── Stale lock ──────────────────────────────────────────────
+
+    @Test
+    void handleBookingConfirmed_staleLock_shouldCompensateAndKeepTheNewHoldersLock() {
+        // The same range lock was taken over with a newer token: the fenced UPDATE writes nothing
+        when(availabilityRepository.updateBookingIdByAirbnbIdAndDateBetween(42L, 7L, checkIn, lastNight)).thenReturn(0);
+        when(availabilityRepository.countByAirbnbIdAndDateBetween(7L, checkIn, lastNight)).thenReturn(3L);
+
+        assertThatThrownBy(() -> handler.handleBookingConfirmed(event))
+                .isInstanceOf(RuntimeException.class)
+                .hasRootCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("Booking 42 was confirmed under a stale lock");
+        verify(sagaEventPublisher).publishEventIndependently("BOOKING_COMPENSATED", "COMPENSATE_BOOKING", payload);
+        verify(concurrencyControlStrategy, never()).releaseBookingLock(any(), any(), any(), any());
+    }
+
+    // ─── Conflict ────────────────────────────────────────────────
+
+    @Test
+    void handleBookingConfirmed_datesTaken_shouldRequestCancelInsteadOfCompensating() {
+        when(availabilityRepository.countByAirbnbIdAndDateBetweenAndBookingIsNotNull(7L, checkIn, lastNight)).thenReturn(1L);
+
+        assertThatThrownBy(() -> handler.handleBookingConfirmed(event)).isInstanceOf(SagaAlreadyCompensatedException.class);
+        verify(sagaEventPublisher).publishEventIndependently("BOOKING_CANCEL_REQUESTED", "CANCEL_BOOKING", payload);
+        verify(sagaEventPublisher, never()).publishEventIndependently(eq("BOOKING_COMPENSATED"), any(), any());
+        verify(availabilityRepository, never()).updateBookingIdByAirbnbIdAndDateBetween(any(), any(), any(), any());
+    }
+
+    // ─── Out of lane order ───────────────────────────────────────
+
+    @Test
+    void handleBookingConfirmed_overtakenByItsCancel_shouldWriteNothing() {
+        when(bookingRepository.findStatusById(42L)).thenReturn(Optional.of(BookingStatus.CANCELLED));
+
+        handler.handleBookingConfirmed(event);
+
+        verify(availabilityRepository, never()).updateBookingIdByAirbnbIdAndDateBetween(any(), any(), any(), any());
+        verifyNoInteractions(sagaEventPublisher, concurrencyControlStrategy);
+    }
+
+    @Test
+    void handleBookingCancelled_shouldFreeOnlyThisBookingsNightsAndRelease() {
+        handler.handleBookingCancelled(event);
+
+        verify(availabilityRepository).clearBookingByIdAndDateBetween(42L, 7L, checkIn, lastNight);
+        verify(concurrencyControlStrategy).releaseBookingLock(7L, checkIn, lastNight, 3L);
+    }
+
+    @Test
+    void handleBookingCompensated_beforeTheConfirm_shouldReleaseTheLock() {
+        when(availabilityRepository.countByBookingId(42L)).thenReturn(0L);
+
+        handler.handleBookingCompensated(event);
+
+        verify(concurrencyControlStrategy).releaseBookingLock(7L, checkIn, lastNight, 3L);
+    }
+
+    @Test
+    void handleBookingCompensated_afterTheConfirm_shouldLeaveTheLockAlone() {
+        when(availabilityRepository.countByBookingId(42L)).thenReturn(3L);
+
+        handler.handleBookingCompensated(event);
+
+        verifyNoInteractions(concurrencyControlStrategy);
+    }
+}
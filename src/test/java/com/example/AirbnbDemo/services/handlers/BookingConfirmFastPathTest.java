@@ -0,0 +1,99 @@
+package com.example.AirbnbDemo.services.handlers;
+
+import com.example.AirbnbDemo.models.Booking;
+import com.example.AirbnbDemo.models.BookingStatus;
+import com.example.AirbnbDemo.repository.writes.AvailabilityRepository;
+import com.example.AirbnbDemo.repository.writes.BookingRepository;
+import com.example.AirbnbDemo.saga.BookingSagaPayload;
+import com.example.AirbnbDemo.saga.SagaEventPublisher;
+import com.example.AirbnbDemo.services.concurrency.ConcurrencyControlStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingConfirmFastPathTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private AvailabilityRepository availabilityRepository;
+
+    @Mock
+    private SagaEventPublisher sagaEventPublisher;
+
+    @Mock
+    private ConcurrencyControlStrategy concurrencyControlStrategy;
+
+    private BookingConfirmFastPath fastPath;
+    private Booking booking;
+
+    private final LocalDate checkIn = LocalDate.of(2026, 5, 1);
+    private final LocalDate lastNight = LocalDate.of(2026, 5, 3);
+    private final BookingSagaPayload payload = BookingSagaPayload.of(42L, 7L, 3L, checkIn, LocalDate.of(2026, 5, 4));
+
+    @BeforeEach
+    void setUp() {
+        fastPath = new BookingConfirmFastPath(bookingRepository, availabilityRepository, sagaEventPublisher, concurrencyControlStrategy);
+        booking = Booking.builder().status(BookingStatus.PENDING).lockFence(5L).build();
+        when(bookingRepository.findById(42L)).thenReturn(Optional.of(booking));
+        lenient().when(availabilityRepository.countByAirbnbIdAndDateBetweenAndBookingIsNotNull(7L, checkIn, lastNight)).thenReturn(0L);
+    }
+
+    // ─── Confirm ─────────────────────────────────────────────────
+
+    @Test
+    void confirm_everyNightConfirmed_shouldPublishCompletionAndReleaseTheLock() {
+        when(availabilityRepository.updateBookingIdByAirbnbIdAndDateBetween(42L, 7L, checkIn, lastNight)).thenReturn(3);
+
+        fastPath.confirm(payload);
+
+        assertThat(booking.getStatus()).isEqualTo(BookingStatus.CONFIRMED);
+        verify(sagaEventPublisher).publishEvent("BOOKING_CONFIRM_COMPLETED", "CONFIRM_BOOKING", payload);
+        verify(concurrencyControlStrategy).releaseBookingLock(7L, checkIn, lastNight, 3L);
+    }
+
+    // ─── Stale lock ──────────────────────────────────────────────
+
+    @Test
+    void confirm_staleLock_shouldFailSoTheTransactionRollsBackAndTheSagaPathTakesOver() {
+        when(availabilityRepository.updateBookingIdByAirbnbIdAndDateBetween(42L, 7L, checkIn, lastNight)).thenReturn(0);
+        when(availabilityRepository.countByAirbnbIdAndDateBetween(7L, checkIn, lastNight)).thenReturn(3L);
+
+        assertThatThrownBy(() -> fastPath.confirm(payload))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Booking 42 holds a stale lock");
+        verifyNoInteractions(sagaEventPublisher);
+        verify(concurrencyControlStrategy, never()).releaseBookingLock(any(), any(), any(), any());
+    }
+
+    // ─── Conflict ────────────────────────────────────────────────
+
+    @Test
+    void confirm_datesTaken_shouldFailBeforeWriting() {
+        when(availabilityRepository.countByAirbnbIdAndDateBetweenAndBookingIsNotNull(7L, checkIn, lastNight)).thenReturn(1L);
+
+        assertThatThrownBy(() -> fastPath.confirm(payload)).isInstanceOf(IllegalStateException.class);
+        assertThat(booking.getStatus()).isEqualTo(BookingStatus.PENDING);
+        verify(availabilityRepository, never()).updateBookingIdByAirbnbIdAndDateBetween(any(), any(), any(), any());
+        verifyNoInteractions(sagaEventPublisher);
+    }
+
+    @Test
+    void confirm_alreadyProcessed_shouldRefuse() {
+        booking.setStatus(BookingStatus.CONFIRMED);
+
+        assertThatThrownBy(() -> fastPath.confirm(payload)).hasMessageContaining("already processed");
+        verifyNoInteractions(availabilityRepository, sagaEventPublisher, concurrencyControlStrategy);
+    }
+}